@@ -0,0 +1,92 @@
+package org.traccar;
+
+import com.google.inject.Injector;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.broadcast.BroadcastService;
+import org.traccar.broadcast.PartitionManager;
+import org.traccar.config.Config;
+import org.traccar.database.NotificationManager;
+import org.traccar.handler.BasePositionHandler;
+import org.traccar.handler.DatabaseHandler;
+import org.traccar.handler.PostProcessHandler;
+import org.traccar.helper.PositionLogger;
+import org.traccar.model.Position;
+import org.traccar.session.cache.CacheManager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Sequences positions from several threads through the per-device queues of the processing handler. Handlers are
+ * pass-through stubs, so the result reflects queueing overhead and contention between devices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ProcessingHandlerBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int devices;
+
+    private ProcessingHandler processingHandler;
+
+    private static <T extends BasePositionHandler> T passThrough(Class<T> clazz) {
+        return mock(clazz, withSettings().stubOnly().defaultAnswer(invocation -> {
+            if (invocation.getMethod().getName().equals("handlePosition")) {
+                invocation.<BasePositionHandler.Callback>getArgument(1).processed(false);
+            }
+            return null;
+        }));
+    }
+
+    @Setup
+    public void setup() {
+        DatabaseHandler databaseHandler = passThrough(DatabaseHandler.class);
+        PostProcessHandler postProcessHandler = passThrough(PostProcessHandler.class);
+        Answer<Object> instances = invocation -> {
+            Object type = invocation.getArgument(0);
+            if (type == DatabaseHandler.class) {
+                return databaseHandler;
+            } else if (type == PostProcessHandler.class) {
+                return postProcessHandler;
+            }
+            return null;
+        };
+        Injector injector = mock(Injector.class, withSettings().stubOnly().defaultAnswer(instances));
+        processingHandler = new ProcessingHandler(
+                injector, new Config(), mock(CacheManager.class, withSettings().stubOnly()),
+                mock(NotificationManager.class, withSettings().stubOnly()),
+                mock(PositionLogger.class, withSettings().stubOnly()),
+                mock(BroadcastService.class, withSettings().stubOnly()),
+                mock(PartitionManager.class, withSettings().stubOnly()),
+                mock(ExecutorService.class, withSettings().stubOnly()));
+    }
+
+    @Benchmark
+    public void process() {
+        Position position = new Position();
+        position.setDeviceId(1 + ThreadLocalRandom.current().nextInt(devices));
+        processingHandler.onReleased(null, position);
+    }
+
+}
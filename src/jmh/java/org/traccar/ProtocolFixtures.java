@@ -0,0 +1,124 @@
+package org.traccar;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.Channel;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockSettings;
+import org.traccar.config.Config;
+import org.traccar.database.CommandsManager;
+import org.traccar.database.MediaManager;
+import org.traccar.database.StatisticsManager;
+import org.traccar.model.Device;
+import org.traccar.session.ConnectionManager;
+import org.traccar.session.DeviceSession;
+import org.traccar.session.cache.CacheManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Collects decoder samples from the protocol tests. Test methods run against a mock of the test class, so every
+ * {@code verify*} call records its decoder and message instead of asserting the result, and decoders are injected
+ * with stubs that always resolve the device. Stubs do not record invocations, so they can be called indefinitely.
+ */
+public final class ProtocolFixtures {
+
+    private ProtocolFixtures() {
+    }
+
+    public record Sample(BaseProtocolDecoder decoder, Object message) {
+
+        public Object decode() throws Exception {
+            Object copy;
+            if (message instanceof ByteBuf buf) {
+                copy = buf.duplicate();
+            } else if (message instanceof ByteBufHolder holder) {
+                copy = holder.duplicate();
+            } else {
+                copy = message;
+            }
+            return decoder.decode(null, null, copy);
+        }
+
+    }
+
+    private static MockSettings stub() {
+        return withSettings().stubOnly();
+    }
+
+    public static <T extends BaseProtocolDecoder> T inject(T decoder) throws Exception {
+        var config = new Config();
+        decoder.setConfig(config);
+        var device = new Device();
+        device.setId(1L);
+        var cacheManager = mock(CacheManager.class, stub());
+        when(cacheManager.getConfig()).thenReturn(config);
+        when(cacheManager.getObject(eq(Device.class), anyLong())).thenReturn(device);
+        decoder.setCacheManager(cacheManager);
+        var deviceSession = new DeviceSession(
+                1L, "", null, mock(Protocol.class, stub()), mock(Channel.class, stub()),
+                mock(SocketAddress.class, stub()));
+        var connectionManager = mock(ConnectionManager.class, stub());
+        when(connectionManager.getDeviceSession(any(), any(), any(), any(String[].class))).thenReturn(deviceSession);
+        decoder.setConnectionManager(connectionManager);
+        decoder.setStatisticsManager(mock(StatisticsManager.class, stub()));
+        decoder.setMediaManager(mock(MediaManager.class, stub()));
+        decoder.setCommandsManager(mock(CommandsManager.class, stub()));
+        return decoder;
+    }
+
+    /**
+     * Returns samples that decode without errors, in the order they appear in the test class.
+     */
+    public static List<Sample> capture(Class<? extends ProtocolTest> testClass) throws Exception {
+        List<Sample> samples = new ArrayList<>();
+        ProtocolTest test = mock(testClass, stub().defaultAnswer(invocation -> {
+            String name = invocation.getMethod().getName();
+            Object[] arguments = invocation.getArguments();
+            if (name.equals("inject") && arguments[0] instanceof BaseProtocolDecoder decoder) {
+                return inject(decoder);
+            } else if (name.startsWith("verify") && arguments.length > 1
+                    && arguments[0] instanceof BaseProtocolDecoder decoder) {
+                samples.add(new Sample(decoder, arguments[arguments[1] instanceof Boolean ? 2 : 1]));
+                return null;
+            }
+            return invocation.callRealMethod();
+        }));
+
+        for (Method method : testClass.getMethods()) {
+            if (method.isAnnotationPresent(Test.class)) {
+                try {
+                    method.invoke(test);
+                } catch (InvocationTargetException e) {
+                    // keep samples recorded before the failure
+                }
+            }
+        }
+
+        List<Sample> result = new ArrayList<>();
+        for (Sample sample : samples) {
+            try {
+                sample.decode();
+                result.add(sample);
+            } catch (Exception | AssertionError e) {
+                // sample depends on decoder state or assertions that are skipped here
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalStateException("No samples in " + testClass.getSimpleName());
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,149 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.util.HashedWheelTimer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.model.Server;
+import org.traccar.session.cache.CacheManager;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Forwards positions to a local HTTP server and waits for all of them to complete, so the score is the number of
+ * positions forwarded per second, including formatting, the HTTP client and its concurrency limit. The jmh task
+ * reports the result against the target of 50k positions per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionForwarderThroughputBenchmark {
+
+    private static final int POSITIONS = 5000;
+
+    @Param({"url", "json", "jsonBatch"})
+    public String forwarder;
+
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private HashedWheelTimer timer;
+    private PositionForwarder positionForwarder;
+    private PositionData[] positions;
+
+    @Setup
+    public void setup() throws IOException {
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        Config config = new Config();
+        config.setString(Keys.FORWARD_URL, url + "?id={uniqueId}&timestamp={fixTime}"
+                + "&lat={latitude}&lon={longitude}&speed={speed}&attributes={attributes}");
+        config.setString(Keys.FORWARD_JSON_BATCH_SIZE, forwarder.equals("jsonBatch") ? "100" : "1");
+
+        Device device = new Device();
+        device.setId(1);
+        device.setName("Truck 12");
+        device.setUniqueId("123456789012345");
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpForwardClient client = new HttpForwardClient(
+                null, config.getInteger(Keys.FORWARD_CONCURRENCY), config.getInteger(Keys.FORWARD_QUEUE_SIZE));
+        if (forwarder.equals("url")) {
+            positionForwarder = new PositionForwarderUrl(config, client, objectMapper);
+        } else {
+            Config jsonConfig = new Config();
+            jsonConfig.setString(Keys.FORWARD_URL, url);
+            CacheManager cacheManager = mock(CacheManager.class, withSettings().stubOnly());
+            when(cacheManager.getConfig()).thenReturn(jsonConfig);
+            when(cacheManager.getServer()).thenReturn(new Server());
+            when(cacheManager.getObject(Device.class, 1)).thenReturn(device);
+            timer = new HashedWheelTimer();
+            positionForwarder = new PositionForwarderJson(config, client, objectMapper, cacheManager, timer);
+        }
+
+        positions = new PositionData[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            Position position = new Position("teltonika");
+            position.setDeviceId(1);
+            position.setTime(new Date(1700000000000L + i * 1000L));
+            position.setValid(true);
+            position.setLatitude(55.751244 + i * 0.00001);
+            position.setLongitude(37.618423 + i * 0.00001);
+            position.setSpeed(i % 80);
+            position.set(Position.KEY_IGNITION, true);
+            position.set(Position.KEY_ODOMETER, 123456789 + i * 10);
+            PositionData positionData = new PositionData();
+            positionData.setDevice(device);
+            positionData.setPosition(position);
+            positions[i] = positionData;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdown();
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void forward() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(POSITIONS);
+        AtomicInteger failed = new AtomicInteger();
+        for (PositionData positionData : positions) {
+            positionForwarder.forward(positionData, (success, throwable) -> {
+                if (!success) {
+                    failed.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        if (failed.get() > 0) {
+            throw new IllegalStateException(failed.get() + " positions failed to forward");
+        }
+    }
+
+}
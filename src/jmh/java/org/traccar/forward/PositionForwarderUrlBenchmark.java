@@ -0,0 +1,121 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats a forwarding URL with the precompiled template, compared with the replacement chain it superseded, which
+ * is kept here as the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionForwarderUrlBenchmark {
+
+    private static final String URL = "http://localhost:8080/?id={uniqueId}&name={name}&timestamp={fixTime}"
+            + "&lat={latitude}&lon={longitude}&speed={speed}&bearing={course}&altitude={altitude}"
+            + "&accuracy={accuracy}&valid={valid}&address={address}&attributes={attributes}";
+
+    private ObjectMapper objectMapper;
+    private PositionForwarderUrl forwarder;
+    private PositionData positionData;
+
+    @Setup
+    public void setup() {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_URL, URL);
+        objectMapper = new ObjectMapper();
+        forwarder = new PositionForwarderUrl(config, null, objectMapper);
+
+        Device device = new Device();
+        device.setId(1);
+        device.setName("Truck 12");
+        device.setUniqueId("123456789012345");
+        device.setStatus(Device.STATUS_ONLINE);
+
+        Position position = new Position("teltonika");
+        position.setDeviceId(1);
+        position.setTime(new Date());
+        position.setValid(true);
+        position.setLatitude(55.751244);
+        position.setLongitude(37.618423);
+        position.setAltitude(156);
+        position.setSpeed(23.5);
+        position.setCourse(270);
+        position.setAccuracy(4.2);
+        position.setAddress("Red Square 1, Moscow");
+        position.set(Position.KEY_IGNITION, true);
+        position.set(Position.KEY_ODOMETER, 123456789);
+        position.set(Position.KEY_POWER, 12.8);
+        position.set(Position.KEY_SATELLITES, 11);
+
+        positionData = new PositionData();
+        positionData.setDevice(device);
+        positionData.setPosition(position);
+    }
+
+    @Benchmark
+    public String template() throws IOException {
+        return forwarder.formatRequest(positionData);
+    }
+
+    @Benchmark
+    public String replace() throws IOException {
+
+        Position position = positionData.getPosition();
+        Device device = positionData.getDevice();
+
+        String request = URL
+                .replace("{name}", URLEncoder.encode(device.getName(), StandardCharsets.UTF_8))
+                .replace("{uniqueId}", device.getUniqueId())
+                .replace("{status}", device.getStatus())
+                .replace("{deviceId}", String.valueOf(position.getDeviceId()))
+                .replace("{protocol}", String.valueOf(position.getProtocol()))
+                .replace("{deviceTime}", String.valueOf(position.getDeviceTime().getTime()))
+                .replace("{fixTime}", String.valueOf(position.getFixTime().getTime()))
+                .replace("{valid}", String.valueOf(position.getValid()))
+                .replace("{latitude}", String.valueOf(position.getLatitude()))
+                .replace("{longitude}", String.valueOf(position.getLongitude()))
+                .replace("{altitude}", String.valueOf(position.getAltitude()))
+                .replace("{speed}", String.valueOf(position.getSpeed()))
+                .replace("{course}", String.valueOf(position.getCourse()))
+                .replace("{accuracy}", String.valueOf(position.getAccuracy()))
+                .replace("{statusCode}", position.getSpeed() < 1.0 ? "0xF020" : "0xF11C");
+
+        if (position.getAddress() != null) {
+            request = request.replace(
+                    "{address}", URLEncoder.encode(position.getAddress(), StandardCharsets.UTF_8));
+        }
+
+        if (request.contains("{attributes}")) {
+            String attributes = objectMapper.writeValueAsString(position.getAttributes());
+            request = request.replace(
+                    "{attributes}", URLEncoder.encode(attributes, StandardCharsets.UTF_8));
+        }
+
+        return request;
+    }
+
+}
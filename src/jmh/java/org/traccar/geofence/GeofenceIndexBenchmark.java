@@ -0,0 +1,102 @@
+package org.traccar.geofence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.model.Geofence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up geofences containing a position among polygons spread over a city sized area, comparing the grid index
+ * with testing every geofence linked to the device.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeofenceIndexBenchmark {
+
+    private static final double LATITUDE = 55.5;
+    private static final double LONGITUDE = 37.3;
+    private static final double AREA_SIZE = 1;
+    private static final double POLYGON_SIZE = 0.005;
+    private static final int POINTS = 1024;
+
+    @Param({"1000", "10000"})
+    public int count;
+
+    private List<Geofence> geofences;
+    private GeofenceIndex index;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int point;
+
+    private static String polygon(double latitude, double longitude, Random random) {
+        StringBuilder wkt = new StringBuilder("POLYGON ((");
+        int vertices = 5 + random.nextInt(8);
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double radius = POLYGON_SIZE * (0.5 + random.nextDouble() / 2);
+            if (i > 0) {
+                wkt.append(", ");
+            }
+            wkt.append(String.format(Locale.US, "%.6f %.6f",
+                    latitude + radius * Math.sin(angle), longitude + radius * Math.cos(angle)));
+        }
+        return wkt.append("))").toString();
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        geofences = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Geofence geofence = new Geofence();
+            geofence.setId(i);
+            geofence.setArea(polygon(
+                    LATITUDE + random.nextDouble() * AREA_SIZE, LONGITUDE + random.nextDouble() * AREA_SIZE, random));
+            geofences.add(geofence);
+        }
+        index = new GeofenceIndex(null, geofences);
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = LATITUDE + random.nextDouble() * AREA_SIZE;
+            longitudes[i] = LONGITUDE + random.nextDouble() * AREA_SIZE;
+        }
+    }
+
+    @Benchmark
+    public List<Long> index() {
+        point = (point + 1) % POINTS;
+        return index.getGeofences(latitudes[point], longitudes[point]);
+    }
+
+    @Benchmark
+    public List<Long> scan() {
+        point = (point + 1) % POINTS;
+        List<Long> result = new ArrayList<>();
+        for (Geofence geofence : geofences) {
+            if (geofence.getGeometry().containsPoint(null, geofence, latitudes[point], longitudes[point])) {
+                result.add(geofence.getId());
+            }
+        }
+        return result;
+    }
+
+}
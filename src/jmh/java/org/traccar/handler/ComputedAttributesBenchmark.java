@@ -0,0 +1,76 @@
+package org.traccar.handler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.config.Config;
+import org.traccar.model.Attribute;
+import org.traccar.model.ObjectOperation;
+import org.traccar.model.Position;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates a computed attribute against a position, either with the cached script or compiling the expression
+ * for every position as the handler did before scripts were cached.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class ComputedAttributesBenchmark {
+
+    @Param({
+            "adc1",
+            "speed > 5 && valid ? adc1 * 0.1 : null",
+            "(bitFlag & 4) != 0 ? \"alarm\" : math:pow(adc1, 2) + fuel"})
+    public String expression;
+
+    private ComputedAttributesHandler handler;
+    private Position position;
+    private Attribute attribute;
+    private long attributeId;
+
+    @Setup
+    public void setup() {
+        handler = new ComputedAttributesHandler(new Config(), null, false);
+        position = new Position();
+        position.setTime(new Date());
+        position.setSpeed(42);
+        position.setValid(true);
+        position.set("adc1", 128);
+        position.set("bitFlag", 7);
+        position.set("fuel", 35.5);
+        attribute = new Attribute();
+        attribute.setId(1);
+        attribute.setExpression(expression);
+    }
+
+    @Benchmark
+    public Object cached() {
+        return handler.computeAttribute(attribute, position);
+    }
+
+    @Benchmark
+    public Object compiled() {
+        Attribute uncached = new Attribute();
+        uncached.setId(++attributeId + 1);
+        uncached.setExpression(expression);
+        Object result = handler.computeAttribute(uncached, position);
+        handler.invalidateObject(true, Attribute.class, uncached.getId(), ObjectOperation.DELETE);
+        return result;
+    }
+
+}
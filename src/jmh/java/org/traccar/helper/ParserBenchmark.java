@@ -0,0 +1,99 @@
+package org.traccar.helper;
+
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.ProtocolFixtures;
+import org.traccar.ProtocolTest;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Matches text frames of decoders that parse the buffer view directly, comparing it with the previous path that
+ * decoded every frame into a string first. Both variants walk all groups without extracting values. Each parameter
+ * names a decoder and one of its patterns; only test frames matching that pattern are used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({
+            "Gps103:PATTERN", "Tk103:PATTERN", "H02:PATTERN", "Meitrack:PATTERN", "Totem:PATTERN4",
+            "Xexun:PATTERN_BASIC", "Gl200Text:PATTERN_FRI"})
+    public String protocol;
+
+    private Pattern pattern;
+    private int groups;
+    private ByteBuf[] frames;
+    private int index;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        String[] values = protocol.split(":");
+        Field field = Class.forName("org.traccar.protocol." + values[0] + "ProtocolDecoder")
+                .getDeclaredField(values[1]);
+        field.setAccessible(true);
+        pattern = (Pattern) field.get(null);
+        groups = pattern.matcher("").groupCount();
+        var testClass = (Class<? extends ProtocolTest>) Class.forName(
+                "org.traccar.protocol." + values[0] + "ProtocolDecoderTest");
+        frames = ProtocolFixtures.capture(testClass).stream()
+                .map(ProtocolFixtures.Sample::message)
+                .filter(ByteBuf.class::isInstance)
+                .map(ByteBuf.class::cast)
+                .filter(frame -> new Parser(pattern, new ByteBufCharSequence(frame)).matches())
+                .toArray(ByteBuf[]::new);
+        if (frames.length == 0) {
+            throw new IllegalStateException("No frames match " + protocol);
+        }
+    }
+
+    private ByteBuf nextFrame() {
+        ByteBuf frame = frames[index];
+        index = index + 1 < frames.length ? index + 1 : 0;
+        return frame;
+    }
+
+    private int walk(Parser parser) {
+        int count = 0;
+        if (parser.matches()) {
+            for (int i = 0; i < groups; i++) {
+                if (parser.hasNext()) {
+                    parser.skip(1);
+                    count += 1;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int string() {
+        ByteBuf frame = nextFrame();
+        return walk(new Parser(pattern, frame.toString(frame.readerIndex(), frame.readableBytes(),
+                StandardCharsets.ISO_8859_1)));
+    }
+
+    @Benchmark
+    public int buffer() {
+        return walk(new Parser(pattern, new ByteBufCharSequence(nextFrame())));
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.traccar.protocol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.ProtocolFixtures;
+import org.traccar.ProtocolTest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes the samples of a protocol test one message per operation, cycling through all of them. With the gc
+ * profiler {@code gc.alloc.rate.norm} is the average number of bytes allocated per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtocolDecoderBenchmark {
+
+    @Param({
+            "Teltonika", "Gt06", "H02", "Gl200Text", "Meitrack", "OsmAnd",
+            "Watch", "Tk103", "Huabao", "Suntech", "Gps103", "Ruptela"})
+    public String protocol;
+
+    private ProtocolFixtures.Sample[] samples;
+    private int index;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        var testClass = (Class<? extends ProtocolTest>) Class.forName(
+                "org.traccar.protocol." + protocol + "ProtocolDecoderTest");
+        samples = ProtocolFixtures.capture(testClass).toArray(new ProtocolFixtures.Sample[0]);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        ProtocolFixtures.Sample sample = samples[index];
+        index = index + 1 < samples.length ? index + 1 : 0;
+        return sample.decode();
+    }
+
+}
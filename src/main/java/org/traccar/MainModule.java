@@ -1,5 +1,5 @@
 /*
- * Copyright 2018 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2018 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@ import org.traccar.broadcast.MulticastBroadcastService;
 import org.traccar.broadcast.RedisBroadcastService;
 import org.traccar.broadcast.NullBroadcastService;
 import org.traccar.config.Config;
+import org.traccar.config.ConfigKey;
 import org.traccar.config.Keys;
 import org.traccar.database.LdapProvider;
 import org.traccar.database.OpenIdProvider;
@@ -40,6 +41,7 @@ import org.traccar.forward.EventForwarderJson;
 import org.traccar.forward.EventForwarderAmqp;
 import org.traccar.forward.EventForwarderKafka;
 import org.traccar.forward.EventForwarderMqtt;
+import org.traccar.forward.HttpForwardClient;
 import org.traccar.forward.PositionForwarder;
 import org.traccar.forward.PositionForwarderJson;
 import org.traccar.forward.PositionForwarderAmqp;
@@ -51,6 +53,7 @@ import org.traccar.forward.PositionForwarderWialon;
 import org.traccar.geocoder.AddressFormat;
 import org.traccar.geocoder.BanGeocoder;
 import org.traccar.geocoder.BingMapsGeocoder;
+import org.traccar.geocoder.CachingGeocoder;
 import org.traccar.geocoder.FactualGeocoder;
 import org.traccar.geocoder.GeoapifyGeocoder;
 import org.traccar.geocoder.GeocodeFarmGeocoder;
@@ -218,29 +221,36 @@ public class MainModule extends AbstractModule {
             String formatString = config.getString(Keys.GEOCODER_FORMAT);
             AddressFormat addressFormat = formatString != null ? new AddressFormat(formatString) : new AddressFormat();
 
-            int cacheSize = config.getInteger(Keys.GEOCODER_CACHE_SIZE);
             Geocoder geocoder = switch (type) {
                 case "pluscodes" -> new PlusCodesGeocoder();
-                case "nominatim" -> new NominatimGeocoder(client, url, key, language, cacheSize, addressFormat);
-                case "locationiq" -> new LocationIqGeocoder(client, url, key, language, cacheSize, addressFormat);
-                case "gisgraphy" -> new GisgraphyGeocoder(client, url, cacheSize, addressFormat);
-                case "mapquest" -> new MapQuestGeocoder(client, url, key, cacheSize, addressFormat);
-                case "opencage" -> new OpenCageGeocoder(client, url, key, language, cacheSize, addressFormat);
-                case "bingmaps" -> new BingMapsGeocoder(client, url, key, cacheSize, addressFormat);
-                case "factual" -> new FactualGeocoder(client, url, key, cacheSize, addressFormat);
-                case "geocodefarm" -> new GeocodeFarmGeocoder(client, key, language, cacheSize, addressFormat);
-                case "geocodexyz" -> new GeocodeXyzGeocoder(client, key, cacheSize, addressFormat);
-                case "ban" -> new BanGeocoder(client, cacheSize, addressFormat);
-                case "here" -> new HereGeocoder(client, url, key, language, cacheSize, addressFormat);
-                case "mapmyindia" -> new MapmyIndiaGeocoder(client, url, key, cacheSize, addressFormat);
-                case "tomtom" -> new TomTomGeocoder(client, url, key, cacheSize, addressFormat);
-                case "positionstack" -> new PositionStackGeocoder(client, key, cacheSize, addressFormat);
-                case "mapbox" -> new MapboxGeocoder(client, key, cacheSize, addressFormat);
-                case "maptiler" -> new MapTilerGeocoder(client, key, cacheSize, addressFormat);
-                case "geoapify" -> new GeoapifyGeocoder(client, key, language, cacheSize, addressFormat);
-                case "geocodejson" -> new GeocodeJsonGeocoder(client, url, key, language, cacheSize, addressFormat);
-                default -> new GoogleGeocoder(client, url, key, language, cacheSize, addressFormat);
+                case "nominatim" -> new NominatimGeocoder(client, url, key, language, addressFormat);
+                case "locationiq" -> new LocationIqGeocoder(client, url, key, language, addressFormat);
+                case "gisgraphy" -> new GisgraphyGeocoder(client, url, addressFormat);
+                case "mapquest" -> new MapQuestGeocoder(client, url, key, addressFormat);
+                case "opencage" -> new OpenCageGeocoder(client, url, key, language, addressFormat);
+                case "bingmaps" -> new BingMapsGeocoder(client, url, key, addressFormat);
+                case "factual" -> new FactualGeocoder(client, url, key, addressFormat);
+                case "geocodefarm" -> new GeocodeFarmGeocoder(client, key, language, addressFormat);
+                case "geocodexyz" -> new GeocodeXyzGeocoder(client, key, addressFormat);
+                case "ban" -> new BanGeocoder(client, addressFormat);
+                case "here" -> new HereGeocoder(client, url, key, language, addressFormat);
+                case "mapmyindia" -> new MapmyIndiaGeocoder(client, url, key, addressFormat);
+                case "tomtom" -> new TomTomGeocoder(client, url, key, addressFormat);
+                case "positionstack" -> new PositionStackGeocoder(client, key, addressFormat);
+                case "mapbox" -> new MapboxGeocoder(client, key, addressFormat);
+                case "maptiler" -> new MapTilerGeocoder(client, key, addressFormat);
+                case "geoapify" -> new GeoapifyGeocoder(client, key, language, addressFormat);
+                case "geocodejson" -> new GeocodeJsonGeocoder(client, url, key, language, addressFormat);
+                default -> new GoogleGeocoder(client, url, key, language, addressFormat);
             };
+            int cacheSize = config.getInteger(Keys.GEOCODER_CACHE_SIZE);
+            if (cacheSize > 0) {
+                geocoder = new CachingGeocoder(
+                        geocoder, cacheSize,
+                        config.hasKey(Keys.GEOCODER_CACHE_PRECISION)
+                                ? config.getInteger(Keys.GEOCODER_CACHE_PRECISION) : null,
+                        config.getString(Keys.GEOCODER_CACHE_FILE));
+            }
             geocoder.setStatisticsManager(statisticsManager);
             return geocoder;
         }
@@ -338,27 +348,36 @@ public class MainModule extends AbstractModule {
     @Singleton
     @Provides
     public static BroadcastService provideBroadcastService(
-            Config config, ExecutorService executorService, ObjectMapper objectMapper) throws IOException {
+            Config config, ExecutorService executorService, ObjectMapper objectMapper,
+            StatisticsManager statisticsManager) throws IOException {
         if (config.hasKey(Keys.BROADCAST_TYPE)) {
             return switch (config.getString(Keys.BROADCAST_TYPE)) {
                 case "multicast" -> new MulticastBroadcastService(config, executorService, objectMapper);
-                case "redis" -> new RedisBroadcastService(config, executorService, objectMapper);
+                case "redis" -> new RedisBroadcastService(
+                        config, executorService, objectMapper, statisticsManager);
                 default -> new NullBroadcastService();
             };
         }
         return new NullBroadcastService();
     }
 
+    private static HttpForwardClient createForwardClient(Config config, ConfigKey<String> headerKey) {
+        return new HttpForwardClient(
+                config.getString(headerKey), config.getInteger(Keys.FORWARD_CONCURRENCY),
+                config.getInteger(Keys.FORWARD_QUEUE_SIZE));
+    }
+
     @Singleton
     @Provides
-    public static EventForwarder provideEventForwarder(Config config, Client client, ObjectMapper objectMapper) {
+    public static EventForwarder provideEventForwarder(Config config, ObjectMapper objectMapper) {
         if (config.hasKey(Keys.EVENT_FORWARD_URL)) {
             String forwardType = config.getString(Keys.EVENT_FORWARD_TYPE);
             return switch (forwardType) {
                 case "amqp" -> new EventForwarderAmqp(config, objectMapper);
                 case "kafka" -> new EventForwarderKafka(config, objectMapper);
                 case "mqtt" -> new EventForwarderMqtt(config, objectMapper);
-                default -> new EventForwarderJson(config, client);
+                default -> new EventForwarderJson(
+                        config, createForwardClient(config, Keys.EVENT_FORWARD_HEADERS), objectMapper);
             };
         }
         return null;
@@ -367,17 +386,19 @@ public class MainModule extends AbstractModule {
     @Singleton
     @Provides
     public static PositionForwarder providePositionForwarder(
-            Config config, Client client, ExecutorService executorService,
-            ObjectMapper objectMapper, CacheManager cacheManager) {
+            Config config, ExecutorService executorService, ObjectMapper objectMapper, CacheManager cacheManager,
+            Timer timer) {
         if (config.hasKey(Keys.FORWARD_URL)) {
             return switch (config.getString(Keys.FORWARD_TYPE)) {
-                case "json" -> new PositionForwarderJson(config, client, objectMapper, cacheManager);
+                case "json" -> new PositionForwarderJson(
+                        config, createForwardClient(config, Keys.FORWARD_HEADER), objectMapper, cacheManager, timer);
                 case "amqp" -> new PositionForwarderAmqp(config, objectMapper);
                 case "kafka" -> new PositionForwarderKafka(config, objectMapper);
                 case "mqtt" -> new PositionForwarderMqtt(config, objectMapper);
                 case "redis" -> new PositionForwarderRedis(config, objectMapper);
                 case "wialon" -> new PositionForwarderWialon(config, executorService, "1.0", false);
-                default -> new PositionForwarderUrl(config, client, objectMapper);
+                default -> new PositionForwarderUrl(
+                        config, createForwardClient(config, Keys.FORWARD_HEADER), objectMapper);
             };
         }
         return null;
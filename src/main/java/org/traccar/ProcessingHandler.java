@@ -1,5 +1,5 @@
 /*
- * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2024 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,11 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.broadcast.BroadcastInterface;
+import org.traccar.broadcast.BroadcastService;
+import org.traccar.broadcast.PartitionManager;
 import org.traccar.config.Config;
 import org.traccar.database.BufferingManager;
 import org.traccar.database.NotificationManager;
@@ -59,17 +64,22 @@ import org.traccar.helper.PositionLogger;
 import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 @Singleton
 @ChannelHandler.Sharable
-public class ProcessingHandler extends ChannelInboundHandlerAdapter implements BufferingManager.Callback {
+public class ProcessingHandler extends ChannelInboundHandlerAdapter
+        implements BufferingManager.Callback, BroadcastInterface {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessingHandler.class);
 
     private final CacheManager cacheManager;
     private final NotificationManager notificationManager;
@@ -78,20 +88,45 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
     private final List<BasePositionHandler> positionHandlers;
     private final List<BaseEventHandler> eventHandlers;
     private final PostProcessHandler postProcessHandler;
+    private final BroadcastService broadcastService;
+    private final PartitionManager partitionManager;
+    private final ExecutorService executorService;
+
+    /**
+     * Context is {@code null} for positions routed from another cluster node, which are confirmed to the sending node
+     * instead of being acknowledged to the device.
+     */
+    private record QueuedPosition(ChannelHandlerContext context, Position position, Runnable confirmation) {
+    }
+
+    private static final class DeviceQueue {
 
-    private final Map<Long, Queue<Position>> queues = new HashMap<>();
+        /**
+         * Number of positions owned by the queue, including the one being processed. Value of -1 means that the
+         * queue is empty and has been evicted, so producers have to retry with a fresh one.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        /**
+         * Positions waiting for the current one to finish processing.
+         */
+        private final Queue<QueuedPosition> waiting = new ConcurrentLinkedQueue<>();
 
-    private synchronized Queue<Position> getQueue(long deviceId) {
-        return queues.computeIfAbsent(deviceId, k -> new LinkedList<>());
     }
 
+    private final Map<Long, DeviceQueue> queues = new ConcurrentHashMap<>();
+
     @Inject
     public ProcessingHandler(
             Injector injector, Config config,
-            CacheManager cacheManager, NotificationManager notificationManager, PositionLogger positionLogger) {
+            CacheManager cacheManager, NotificationManager notificationManager, PositionLogger positionLogger,
+            BroadcastService broadcastService, PartitionManager partitionManager, ExecutorService executorService) {
         this.cacheManager = cacheManager;
         this.notificationManager = notificationManager;
         this.positionLogger = positionLogger;
+        this.broadcastService = broadcastService;
+        this.partitionManager = partitionManager;
+        this.executorService = executorService;
         bufferingManager = new BufferingManager(config, this);
 
         positionHandlers = Stream.of(
@@ -133,6 +168,10 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
                 .toList();
 
         postProcessHandler = injector.getInstance(PostProcessHandler.class);
+
+        if (partitionManager.isEnabled()) {
+            broadcastService.registerListener(this);
+        }
     }
 
     @Override
@@ -144,25 +183,71 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
         }
     }
 
+    @Override
+    public void routePosition(boolean local, String node, String origin, long id, Position position) {
+        if (!local) {
+            enqueue(new QueuedPosition(
+                    null, position, () -> broadcastService.confirmPosition(true, origin, id)), true);
+        }
+    }
+
+    /**
+     * Context is {@code null} for positions that don't need to be acknowledged.
+     */
     @Override
     public void onReleased(ChannelHandlerContext context, Position position) {
-        Queue<Position> queue = getQueue(position.getDeviceId());
-        boolean queued;
-        synchronized (queue) {
-            queued = !queue.isEmpty();
-            queue.offer(position);
+        if (context != null && !partitionManager.isLocal(position.getDeviceId())) {
+            partitionManager.routePosition(position, () -> {
+                positionLogger.log(context, position);
+                context.writeAndFlush(new AcknowledgementHandler.EventHandled(position));
+            }, () -> enqueue(new QueuedPosition(context, position, null), true));
+            return;
         }
-        if (!queued) {
-            try {
-                cacheManager.addDevice(position.getDeviceId(), position.getDeviceId());
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+        enqueue(new QueuedPosition(context, position, null), false);
+    }
+
+    /**
+     * Queue slot is always taken on the calling thread to keep the order of positions. With {@code dispatch}, the
+     * processing itself runs on the executor, so it doesn't block broadcast or timer threads.
+     */
+    private void enqueue(QueuedPosition item, boolean dispatch) {
+        long deviceId = item.position().getDeviceId();
+        while (true) {
+            DeviceQueue queue = queues.computeIfAbsent(deviceId, k -> new DeviceQueue());
+            int pending = queue.pending.get();
+            if (pending < 0) {
+                Thread.onSpinWait(); // evicted queue is about to be removed
+            } else if (queue.pending.compareAndSet(pending, pending + 1)) {
+                if (pending > 0) {
+                    queue.waiting.offer(item);
+                } else if (dispatch) {
+                    executorService.execute(() -> {
+                        try {
+                            startProcessing(item);
+                        } catch (RuntimeException e) {
+                            LOGGER.warn("Position processing error", e);
+                        }
+                    });
+                } else {
+                    startProcessing(item);
+                }
+                return;
             }
-            processPositionHandlers(context, position);
         }
     }
 
-    private void processPositionHandlers(ChannelHandlerContext ctx, Position position) {
+    private void startProcessing(QueuedPosition item) {
+        long deviceId = item.position().getDeviceId();
+        try {
+            cacheManager.addDevice(deviceId, deviceId);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        processPositionHandlers(item);
+    }
+
+    private void processPositionHandlers(QueuedPosition item) {
+        Position position = item.position();
         var iterator = positionHandlers.iterator();
         iterator.next().handlePosition(position, new BasePositionHandler.Callback() {
             @Override
@@ -171,45 +256,60 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
                     if (iterator.hasNext()) {
                         iterator.next().handlePosition(position, this);
                     } else {
-                        processEventHandlers(ctx, position);
+                        processEventHandlers(item);
                     }
                 } else {
-                    finishedProcessing(ctx, position, true);
+                    finishedProcessing(item, true);
                 }
             }
         });
     }
 
-    private void processEventHandlers(ChannelHandlerContext ctx, Position position) {
+    private void processEventHandlers(QueuedPosition item) {
+        Position position = item.position();
         eventHandlers.forEach(handler -> handler.analyzePosition(
                 position, (event) -> notificationManager.updateEvents(Map.of(event, position))));
-        finishedProcessing(ctx, position, false);
+        finishedProcessing(item, false);
+    }
+
+    private void acknowledge(QueuedPosition item, boolean log) {
+        ChannelHandlerContext ctx = item.context();
+        if (ctx != null) {
+            if (log) {
+                positionLogger.log(ctx, item.position());
+            }
+            ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(item.position()));
+        }
+        if (item.confirmation() != null) {
+            item.confirmation().run();
+        }
     }
 
-    private void finishedProcessing(ChannelHandlerContext ctx, Position position, boolean filtered) {
+    private void finishedProcessing(QueuedPosition item, boolean filtered) {
+        long deviceId = item.position().getDeviceId();
         if (!filtered) {
-            postProcessHandler.handlePosition(position, ignore -> {
-                positionLogger.log(ctx, position);
-                ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(position));
-                processNextPosition(ctx, position.getDeviceId());
+            postProcessHandler.handlePosition(item.position(), ignore -> {
+                acknowledge(item, true);
+                processNextPosition(deviceId);
             });
         } else {
-            ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(position));
-            processNextPosition(ctx, position.getDeviceId());
+            acknowledge(item, false);
+            processNextPosition(deviceId);
         }
     }
 
-    private void processNextPosition(ChannelHandlerContext ctx, long deviceId) {
-        Queue<Position> queue = getQueue(deviceId);
-        Position nextPosition;
-        synchronized (queue) {
-            queue.poll(); // remove current position
-            nextPosition = queue.peek();
-        }
-        if (nextPosition != null) {
-            processPositionHandlers(ctx, nextPosition);
-        } else {
+    private void processNextPosition(long deviceId) {
+        DeviceQueue queue = queues.get(deviceId);
+        if (queue.pending.compareAndSet(1, -1)) {
+            queues.remove(deviceId, queue);
             cacheManager.removeDevice(deviceId, deviceId);
+        } else {
+            queue.pending.decrementAndGet();
+            QueuedPosition nextPosition;
+            while ((nextPosition = queue.waiting.poll()) == null) {
+                Thread.onSpinWait(); // producer has reserved a slot but not published the position yet
+            }
+            processPositionHandlers(nextPosition);
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,43 +19,48 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.traccar.helper.model.PositionUtil;
-import org.traccar.model.Device;
-import org.traccar.model.Event;
-import org.traccar.model.LogRecord;
-import org.traccar.model.Position;
 import org.traccar.session.ConnectionManager;
+import org.traccar.session.LiveUpdate;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 public class AsyncSocket extends WebSocketAdapter implements ConnectionManager.UpdateListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AsyncSocket.class);
 
-    private static final String KEY_DEVICES = "devices";
-    private static final String KEY_POSITIONS = "positions";
-    private static final String KEY_EVENTS = "events";
-    private static final String KEY_LOGS = "logs";
+    private static final String KEEPALIVE = "{}";
 
     private final ObjectMapper objectMapper;
     private final ConnectionManager connectionManager;
     private final Storage storage;
+    private final ExecutorService executorService;
     private final long userId;
+    private final int queueSize;
 
-    private boolean includeLogs;
+    private volatile boolean includeLogs;
 
-    public AsyncSocket(ObjectMapper objectMapper, ConnectionManager connectionManager, Storage storage, long userId) {
+    private final Map<Object, Object> pending = new LinkedHashMap<>();
+    private boolean sending;
+    private long dropped;
+
+    public AsyncSocket(
+            ObjectMapper objectMapper, ConnectionManager connectionManager, Storage storage,
+            ExecutorService executorService, long userId, int queueSize) {
         this.objectMapper = objectMapper;
         this.connectionManager = connectionManager;
         this.storage = storage;
+        this.executorService = executorService;
         this.userId = userId;
+        this.queueSize = queueSize;
     }
 
     @Override
@@ -63,9 +68,7 @@ public class AsyncSocket extends WebSocketAdapter implements ConnectionManager.U
         super.onWebSocketConnect(session);
 
         try {
-            Map<String, Collection<?>> data = new HashMap<>();
-            data.put(KEY_POSITIONS, PositionUtil.getLatestPositions(storage, userId));
-            sendData(data);
+            enqueue(LiveUpdate.positions(PositionUtil.getLatestPositions(storage, userId)));
             connectionManager.addListener(userId, this);
         } catch (StorageException e) {
             throw new RuntimeException(e);
@@ -77,6 +80,9 @@ public class AsyncSocket extends WebSocketAdapter implements ConnectionManager.U
         super.onWebSocketClose(statusCode, reason);
 
         connectionManager.removeListener(userId, this);
+        synchronized (pending) {
+            pending.clear();
+        }
     }
 
     @Override
@@ -92,38 +98,75 @@ public class AsyncSocket extends WebSocketAdapter implements ConnectionManager.U
 
     @Override
     public void onKeepalive() {
-        sendData(new HashMap<>());
+        synchronized (pending) {
+            if (!pending.isEmpty() || sending) {
+                return;
+            }
+        }
+        enqueue(KEEPALIVE);
     }
 
     @Override
-    public void onUpdateDevice(Device device) {
-        sendData(Map.of(KEY_DEVICES, List.of(device)));
+    public void onUpdate(LiveUpdate update) {
+        if (update.getType() != LiveUpdate.Type.LOGS || includeLogs) {
+            enqueue(update);
+        }
     }
 
-    @Override
-    public void onUpdatePosition(Position position) {
-        sendData(Map.of(KEY_POSITIONS, List.of(position)));
+    private void enqueue(Object message) {
+        synchronized (pending) {
+            Object key = message instanceof LiveUpdate update ? update.getCoalesceKey() : null;
+            if (key != null && pending.containsKey(key)) {
+                pending.put(key, message);
+            } else if (pending.size() < queueSize) {
+                pending.put(key != null ? key : new Object(), message);
+            } else {
+                dropped += 1;
+                if (dropped == 1 || dropped % queueSize == 0) {
+                    LOGGER.warn("Socket update dropped for user {}, total dropped {}", userId, dropped);
+                }
+                return;
+            }
+            if (!sending) {
+                sending = true;
+                executorService.execute(this::sendNext);
+            }
+        }
     }
 
-    @Override
-    public void onUpdateEvent(Event event) {
-        sendData(Map.of(KEY_EVENTS, List.of(event)));
-    }
+    private void sendNext() {
+        Object message;
+        synchronized (pending) {
+            Iterator<Object> iterator = pending.values().iterator();
+            if (!isConnected() || !iterator.hasNext()) {
+                sending = false;
+                return;
+            }
+            message = iterator.next();
+            iterator.remove();
+        }
 
-    @Override
-    public void onUpdateLog(LogRecord record) {
-        if (includeLogs) {
-            sendData(Map.of(KEY_LOGS, List.of(record)));
+        String text;
+        try {
+            text = message instanceof LiveUpdate update ? update.toJson(objectMapper) : (String) message;
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Socket JSON formatting error", e);
+            executorService.execute(this::sendNext);
+            return;
         }
-    }
 
-    private void sendData(Map<String, Collection<?>> data) {
-        if (isConnected()) {
-            try {
-                getRemote().sendString(objectMapper.writeValueAsString(data), null);
-            } catch (JsonProcessingException e) {
-                LOGGER.warn("Socket JSON formatting error", e);
+        // next message is only sent after the previous one is written, so slow clients accumulate in the queue
+        getRemote().sendString(text, new WriteCallback() {
+            @Override
+            public void writeFailed(Throwable x) {
+                executorService.execute(AsyncSocket.this::sendNext);
             }
-        }
+
+            @Override
+            public void writeSuccess() {
+                executorService.execute(AsyncSocket.this::sendNext);
+            }
+        });
     }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 - 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -19,7 +19,6 @@ package org.traccar.api.resource;
 import org.traccar.api.SimpleObjectResource;
 import org.traccar.helper.LogAction;
 import org.traccar.model.Event;
-import org.traccar.model.Position;
 import org.traccar.model.Report;
 import org.traccar.model.UserRestrictions;
 import org.traccar.reports.CombinedReportProvider;
@@ -31,6 +30,7 @@ import org.traccar.reports.SummaryReportProvider;
 import org.traccar.reports.TripsReportProvider;
 import org.traccar.reports.common.ReportExecutor;
 import org.traccar.reports.common.ReportMailer;
+import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.CombinedReportItem;
 import org.traccar.reports.model.StopReportItem;
 import org.traccar.reports.model.SummaryReportItem;
@@ -84,6 +84,9 @@ public class ReportResource extends SimpleObjectResource<Report> {
     @Inject
     private ReportMailer reportMailer;
 
+    @Inject
+    private ReportUtils reportUtils;
+
     public ReportResource() {
         super(Report.class, "description");
     }
@@ -119,14 +122,24 @@ public class ReportResource extends SimpleObjectResource<Report> {
 
     @Path("route")
     @GET
-    public Collection<Position> getRoute(
+    public Response getRoute(
             @QueryParam("deviceId") List<Long> deviceIds,
             @QueryParam("groupId") List<Long> groupIds,
             @QueryParam("from") Date from,
             @QueryParam("to") Date to) throws StorageException {
         permissionsService.checkRestriction(getUserId(), UserRestrictions::getDisableReports); // &line[Permission_Check]
         LogAction.report(getUserId(), false, "route", from, to, deviceIds, groupIds);
-        return routeReportProvider.getObjects(getUserId(), deviceIds, groupIds, from, to);
+        // once streaming starts the response is committed, so the period has to be rejected before it
+        reportUtils.checkPeriodLimit(from, to);
+        long userId = getUserId();
+        StreamingOutput stream = output -> {
+            try {
+                routeReportProvider.getObjects(output, userId, deviceIds, groupIds, from, to);
+            } catch (StorageException e) {
+                throw new WebApplicationException(e);
+            }
+        };
+        return Response.ok(stream).build();
     }
 
     @Path("route")
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.traccar.broadcast;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
@@ -29,11 +30,18 @@ public abstract class BaseBroadcastService implements BroadcastService {
 
     private final Set<BroadcastInterface> listeners = new HashSet<>();
 
+    private final String nodeId = UUID.randomUUID().toString();
+
     @Override
     public boolean singleInstance() {
         return true;
     }
 
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
     @Override
     public void registerListener(BroadcastInterface listener) {
         listeners.add(listener);
@@ -68,6 +76,35 @@ public abstract class BaseBroadcastService implements BroadcastService {
         sendMessage(message);
     }
 
+    @Override
+    public void updateNode(boolean local, String node) {
+        BroadcastMessage message = new BroadcastMessage();
+        message.setNode(node);
+        sendMessage(message);
+    }
+
+    @Override
+    public void routePosition(boolean local, String node, String origin, long id, Position position) {
+        BroadcastMessage message = new BroadcastMessage();
+        var routePosition = new BroadcastMessage.RoutePosition();
+        routePosition.setNode(node);
+        routePosition.setOrigin(origin);
+        routePosition.setId(id);
+        routePosition.setPosition(position);
+        message.setRoutePosition(routePosition);
+        sendMessage(message);
+    }
+
+    @Override
+    public void confirmPosition(boolean local, String node, long id) {
+        BroadcastMessage message = new BroadcastMessage();
+        var confirmPosition = new BroadcastMessage.ConfirmPosition();
+        confirmPosition.setNode(node);
+        confirmPosition.setId(id);
+        message.setConfirmPosition(confirmPosition);
+        sendMessage(message);
+    }
+
     // &begin[Invalidate_Object]
     @Override
     public <T extends BaseModel> void invalidateObject(
@@ -107,6 +144,21 @@ public abstract class BaseBroadcastService implements BroadcastService {
             listeners.forEach(listener -> listener.updateEvent(false, message.getUserId(), message.getEvent()));
         } else if (message.getCommandDeviceId() != null) {
             listeners.forEach(listener -> listener.updateCommand(false, message.getCommandDeviceId()));
+        } else if (message.getNode() != null) {
+            listeners.forEach(listener -> listener.updateNode(false, message.getNode()));
+        } else if (message.getRoutePosition() != null) {
+            var routePosition = message.getRoutePosition();
+            if (nodeId.equals(routePosition.getNode())) {
+                listeners.forEach(listener -> listener.routePosition(
+                        false, routePosition.getNode(), routePosition.getOrigin(), routePosition.getId(),
+                        routePosition.getPosition()));
+            }
+        } else if (message.getConfirmPosition() != null) {
+            var confirmPosition = message.getConfirmPosition();
+            if (nodeId.equals(confirmPosition.getNode())) {
+                listeners.forEach(listener -> listener.confirmPosition(
+                        false, confirmPosition.getNode(), confirmPosition.getId()));
+            }
             // &begin[Invalidate_Object]
         } else if (message.getInvalidateObject() != null) {
             var invalidateObject = message.getInvalidateObject();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,6 +35,15 @@ public interface BroadcastInterface {
     default void updateCommand(boolean local, long deviceId) {
     }
 
+    default void updateNode(boolean local, String node) {
+    }
+
+    default void routePosition(boolean local, String node, String origin, long id, Position position) {
+    }
+
+    default void confirmPosition(boolean local, String node, long id) {
+    }
+
     // &begin[Invalidate_Object]
     default <T extends BaseModel> void invalidateObject(
             boolean local, Class<T> clazz, long id, ObjectOperation operation) throws Exception {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -72,6 +72,104 @@ public class BroadcastMessage {
         this.commandDeviceId = commandDeviceId;
     }
 
+    private String node;
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public static class RoutePosition {
+
+        private String node;
+
+        public String getNode() {
+            return node;
+        }
+
+        public void setNode(String node) {
+            this.node = node;
+        }
+
+        private String origin;
+
+        public String getOrigin() {
+            return origin;
+        }
+
+        public void setOrigin(String origin) {
+            this.origin = origin;
+        }
+
+        private long id;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        private Position position;
+
+        public Position getPosition() {
+            return position;
+        }
+
+        public void setPosition(Position position) {
+            this.position = position;
+        }
+
+    }
+
+    private RoutePosition routePosition;
+
+    public RoutePosition getRoutePosition() {
+        return routePosition;
+    }
+
+    public void setRoutePosition(RoutePosition routePosition) {
+        this.routePosition = routePosition;
+    }
+
+    public static class ConfirmPosition {
+
+        private String node;
+
+        public String getNode() {
+            return node;
+        }
+
+        public void setNode(String node) {
+            this.node = node;
+        }
+
+        private long id;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+    }
+
+    private ConfirmPosition confirmPosition;
+
+    public ConfirmPosition getConfirmPosition() {
+        return confirmPosition;
+    }
+
+    public void setConfirmPosition(ConfirmPosition confirmPosition) {
+        this.confirmPosition = confirmPosition;
+    }
+
     // &begin[Invalidate_Object]
     public static class InvalidateObject {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,5 +19,13 @@ import org.traccar.LifecycleObject;
 
 public interface BroadcastService extends LifecycleObject, BroadcastInterface {
     boolean singleInstance();
+    String getNodeId();
     void registerListener(BroadcastInterface listener);
+
+    /**
+     * Tells the transport whether this node has live consumers for the device. Transports that support it deliver
+     * position and event updates only to the nodes with consumers.
+     */
+    default void subscribeDevice(long deviceId, boolean subscribe) {
+    }
 }
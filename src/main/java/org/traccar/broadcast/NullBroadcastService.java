@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,11 @@ public class NullBroadcastService implements BroadcastService {
         return true;
     }
 
+    @Override
+    public String getNodeId() {
+        return "local";
+    }
+
     @Override
     public void registerListener(BroadcastInterface listener) {
     }
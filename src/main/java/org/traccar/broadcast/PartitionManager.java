@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.broadcast;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Position;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assigns device ownership to cluster nodes using a consistent hash ring. Nodes discover each other through
+ * heartbeats sent over the broadcast service, so adding or removing a node only moves the devices of its ring
+ * segments. Routed positions stay pending until the owner confirms them. If the owner doesn't confirm in time or
+ * leaves the cluster, the fallback is used instead, so positions are not lost. All pending positions of the device fall
+ * back together in their original order, and the device is then processed locally for a while, so later positions
+ * can't overtake the ones that fell back.
+ */
+@Singleton
+public class PartitionManager implements LifecycleObject, BroadcastInterface {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionManager.class);
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final int HEARTBEAT_MISSES = 3;
+
+    private final BroadcastService broadcastService;
+    private final boolean enabled;
+    private final long heartbeatInterval;
+    private final String nodeId;
+
+    private record PendingRoute(long deviceId, String node, long time, Runnable confirmed, Runnable fallback) {
+    }
+
+    private final Map<String, Long> nodes = new ConcurrentHashMap<>();
+    private volatile NavigableMap<Long, String> ring;
+
+    private final AtomicLong routeId = new AtomicLong();
+    private final Map<Long, PendingRoute> pendingRoutes = new ConcurrentHashMap<>();
+    private final Map<Long, Long> fallbackDevices = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @Inject
+    public PartitionManager(Config config, BroadcastService broadcastService) {
+        this.broadcastService = broadcastService;
+        enabled = config.getBoolean(Keys.BROADCAST_PARTITION) && !broadcastService.singleInstance();
+        heartbeatInterval = config.getLong(Keys.BROADCAST_HEARTBEAT_INTERVAL);
+        nodeId = broadcastService.getNodeId();
+        nodes.put(nodeId, Long.MAX_VALUE);
+        ring = buildRing();
+        if (enabled) {
+            broadcastService.registerListener(this);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getOwner(long deviceId) {
+        NavigableMap<Long, String> current = ring;
+        Map.Entry<Long, String> entry = current.ceilingEntry(mix(deviceId));
+        return entry != null ? entry.getValue() : current.firstEntry().getValue();
+    }
+
+    public boolean isLocal(long deviceId) {
+        return !enabled || nodeId.equals(getOwner(deviceId)) || isFallback(deviceId);
+    }
+
+    private boolean isFallback(long deviceId) {
+        Long until = fallbackDevices.get(deviceId);
+        if (until == null) {
+            return false;
+        } else if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        fallbackDevices.remove(deviceId, until);
+        return false;
+    }
+
+    /**
+     * Sends position to the owner node. Exactly one of the callbacks is called, {@code confirmed} when the owner
+     * has processed the position, or {@code fallback} when it failed to confirm it. Fallback can be called right away,
+     * if the device is processed locally in the meantime.
+     */
+    public void routePosition(Position position, Runnable confirmed, Runnable fallback) {
+        long deviceId = position.getDeviceId();
+        long id;
+        String owner;
+        synchronized (this) {
+            owner = getOwner(deviceId);
+            if (nodeId.equals(owner) || isFallback(deviceId)) {
+                fallback.run();
+                return;
+            }
+            id = routeId.incrementAndGet();
+            pendingRoutes.put(id, new PendingRoute(deviceId, owner, System.currentTimeMillis(), confirmed, fallback));
+        }
+        broadcastService.routePosition(true, owner, nodeId, id, position);
+    }
+
+    @Override
+    public void confirmPosition(boolean local, String node, long id) {
+        PendingRoute route = pendingRoutes.remove(id);
+        if (route != null) {
+            route.confirmed().run();
+        }
+    }
+
+    private synchronized void checkPendingRoutes() {
+        long now = System.currentTimeMillis();
+        long expiration = now - heartbeatInterval * HEARTBEAT_MISSES;
+        Set<Long> expired = new HashSet<>();
+        for (PendingRoute route : pendingRoutes.values()) {
+            if (route.time() < expiration || !nodes.containsKey(route.node())) {
+                expired.add(route.deviceId());
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        var fallbacks = pendingRoutes.entrySet().stream()
+                .filter(entry -> expired.contains(entry.getValue().deviceId()))
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        for (var entry : fallbacks) {
+            PendingRoute route = entry.getValue();
+            if (pendingRoutes.remove(entry.getKey(), route)) {
+                LOGGER.warn("Routed position not confirmed by node {}, processing locally", route.node());
+                route.fallback().run();
+            }
+        }
+        // marked after the fallbacks, so positions that see the mark can't be processed ahead of them
+        for (long deviceId : expired) {
+            fallbackDevices.put(deviceId, now + heartbeatInterval * HEARTBEAT_MISSES);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (enabled) {
+            executor = Executors.newSingleThreadScheduledExecutor();
+            executor.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    public void heartbeat() {
+        broadcastService.updateNode(true, nodeId);
+        long expiration = System.currentTimeMillis() - heartbeatInterval * HEARTBEAT_MISSES;
+        if (nodes.values().removeIf(lastSeen -> lastSeen < expiration)) {
+            ring = buildRing();
+            LOGGER.info("Cluster node expired, {} nodes active", nodes.size());
+        }
+        long now = System.currentTimeMillis();
+        fallbackDevices.values().removeIf(until -> until <= now);
+        checkPendingRoutes();
+    }
+
+    @Override
+    public void updateNode(boolean local, String node) {
+        if (!local && nodes.put(node, System.currentTimeMillis()) == null) {
+            ring = buildRing();
+            LOGGER.info("Cluster node joined, {} nodes active", nodes.size());
+        }
+    }
+
+    private synchronized NavigableMap<Long, String> buildRing() {
+        NavigableMap<Long, String> result = new TreeMap<>();
+        for (String node : nodes.keySet()) {
+            long seed = mix(node.hashCode());
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                result.put(mix(seed + i), node);
+            }
+        }
+        return result;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+}
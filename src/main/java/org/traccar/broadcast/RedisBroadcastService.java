@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,40 +20,107 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.database.StatisticsManager;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import redis.clients.jedis.BinaryJedisPubSub;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisException;
 
+/**
+ * Redis transport that publishes from a background queue. Messages waiting in the queue are combined into binary
+ * envelopes, with repeated position and device updates for the same device reduced to the latest one. Positions
+ * routed to a specific node, and their confirmations, are published on the channel of that node only. Position and
+ * event updates are published on the channel of their device, which nodes only subscribe to while they have users
+ * listening to the device.
+ * <p>
+ * If Redis is not available, messages are kept and published again with an increasing delay. Messages still queued
+ * when the service stops are published before the connections are closed.
+ * <p>
+ * Plain JSON messages from nodes running older versions are still accepted, but those nodes cannot read envelopes, so
+ * a cluster only receives updates in both directions once all nodes are upgraded.
+ */
 public class RedisBroadcastService extends BaseBroadcastService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisBroadcastService.class);
 
-    private final ObjectMapper objectMapper;
+    private static final byte ENVELOPE_VERSION = 1;
+
+    private static final long RETRY_DELAY_MIN = 100;
+    private static final long RETRY_DELAY_MAX = 5000;
+    private static final long STOP_TIMEOUT = 10000;
 
+    private record CoalesceKey(boolean device, long id) {
+    }
+
+    /**
+     * Message with the time it was queued, so that the lag reported by receivers includes the time spent in the queue.
+     */
+    record QueuedMessage(BroadcastMessage message, long time) {
+    }
+
+    private final ObjectMapper objectMapper;
     private final ExecutorService executorService;
+    private final StatisticsManager statisticsManager;
+
+    private static final String CHANNEL = "traccar";
 
-    private final String channel = "traccar";
+    private final int batchSize;
+    private final int queueSize;
+    private final BlockingQueue<QueuedMessage> queue;
 
     private Jedis subscriber;
-    private Jedis publisher;
+    private volatile BinaryJedisPubSub subscription;
+    private JedisPool publisherPool;
+    private Future<?> publisherTask;
+
+    private final UUID id = UUID.fromString(getNodeId());
+
+    private final Set<Long> devices = ConcurrentHashMap.newKeySet();
 
-    private final String id = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private volatile boolean subscribed;
+    private long dropped;
 
     public RedisBroadcastService(
-            Config config, ExecutorService executorService, ObjectMapper objectMapper) throws IOException {
+            Config config, ExecutorService executorService, ObjectMapper objectMapper,
+            StatisticsManager statisticsManager) throws IOException {
         this.executorService = executorService;
         this.objectMapper = objectMapper;
+        this.statisticsManager = statisticsManager;
+        batchSize = config.getInteger(Keys.BROADCAST_BATCH_SIZE);
+        queueSize = config.getInteger(Keys.BROADCAST_QUEUE_SIZE);
+        queue = new LinkedBlockingQueue<>(queueSize);
         String url = config.getString(Keys.BROADCAST_ADDRESS);
 
         try {
             subscriber = new Jedis(url);
-            publisher = new Jedis(url);
+            publisherPool = new JedisPool(url);
             subscriber.connect();
         } catch (JedisConnectionException e) {
             throw new IOException(e);
@@ -67,22 +134,48 @@ public class RedisBroadcastService extends BaseBroadcastService {
 
     @Override
     protected void sendMessage(BroadcastMessage message) {
-        try {
-            String payload = id  + ":" + objectMapper.writeValueAsString(message);
-            publisher.publish(channel, payload);
-        } catch (IOException | JedisConnectionException e) {
-            LOGGER.warn("Broadcast failed", e);
+        QueuedMessage queued = new QueuedMessage(message, System.currentTimeMillis());
+        if (message.getPosition() != null) {
+            if (!queue.offer(queued)) {
+                synchronized (this) {
+                    dropped += 1;
+                    if (dropped == 1 || dropped % batchSize == 0) {
+                        LOGGER.warn("Broadcast queue full, dropped {} position updates", dropped);
+                    }
+                }
+            }
+        } else {
+            try {
+                queue.put(queued);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
     @Override
     public void start() throws IOException {
+        running = true;
         executorService.submit(receiver);
+        publisherTask = executorService.submit(publisher);
     }
 
     @Override
     public void stop() {
+        running = false;
+        if (publisherTask != null) {
+            try {
+                publisherTask.get(STOP_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                LOGGER.warn("Publisher stop failed", e);
+            }
+        }
         try {
+            if (subscription != null) {
+                subscription.unsubscribe();
+            }
             if (subscriber != null) {
                 subscriber.close();
                 subscriber = null;
@@ -91,34 +184,282 @@ public class RedisBroadcastService extends BaseBroadcastService {
             LOGGER.warn("Subscriber close failed", e);
         }
         try {
-            if (publisher != null) {
-                publisher.close();
-                publisher = null;
+            if (publisherPool != null) {
+                publisherPool.close();
+                publisherPool = null;
             }
         } catch (JedisException e) {
             LOGGER.warn("Publisher close failed", e);
         }
     }
 
-    private final Runnable receiver = new Runnable() {
+    /**
+     * Keeps the latest update for each device at the position of that update, so it is not delivered ahead of messages
+     * queued between the first and the last update.
+     */
+    static List<QueuedMessage> coalesce(List<QueuedMessage> messages) {
+        Map<Object, QueuedMessage> result = new LinkedHashMap<>();
+        for (QueuedMessage queued : messages) {
+            BroadcastMessage message = queued.message();
+            Object key;
+            if (message.getPosition() != null) {
+                key = new CoalesceKey(false, message.getPosition().getDeviceId());
+            } else if (message.getDevice() != null) {
+                key = new CoalesceKey(true, message.getDevice().getId());
+            } else {
+                key = new Object();
+            }
+            result.remove(key);
+            result.put(key, queued);
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Limits messages kept for retrying to the given size. Oldest position updates are dropped first, because newer
+     * ones replace them anyway, and only then the oldest of other messages.
+     */
+    static int trim(List<QueuedMessage> messages, int limit) {
+        int excess = messages.size() - limit;
+        if (excess <= 0) {
+            return 0;
+        }
+        int removed = 0;
+        Iterator<QueuedMessage> iterator = messages.iterator();
+        while (removed < excess && iterator.hasNext()) {
+            if (iterator.next().message().getPosition() != null) {
+                iterator.remove();
+                removed += 1;
+            }
+        }
+        messages.subList(0, excess - removed).clear();
+        return excess;
+    }
+
+    static byte[] encode(ObjectMapper objectMapper, UUID source, List<QueuedMessage> messages) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeByte(ENVELOPE_VERSION);
+        output.writeLong(source.getMostSignificantBits());
+        output.writeLong(source.getLeastSignificantBits());
+        output.writeInt(messages.size());
+        for (QueuedMessage message : messages) {
+            byte[] data = objectMapper.writeValueAsBytes(message.message());
+            output.writeLong(message.time());
+            output.writeInt(data.length);
+            output.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Returns messages published by other nodes. Plain JSON messages of older versions have no queue time, so it is
+     * zero for them.
+     */
+    static List<QueuedMessage> decode(ObjectMapper objectMapper, UUID local, byte[] envelope) throws IOException {
+        List<QueuedMessage> result = new ArrayList<>();
+        if (envelope.length > 0 && envelope[0] != ENVELOPE_VERSION) {
+            String[] parts = new String(envelope, StandardCharsets.UTF_8).split(":", 2);
+            if (parts.length == 2 && !parts[0].equals(local.toString())) {
+                result.add(new QueuedMessage(objectMapper.readValue(parts[1], BroadcastMessage.class), 0));
+            }
+            return result;
+        }
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(envelope));
+        input.readByte();
+        UUID source = new UUID(input.readLong(), input.readLong());
+        if (local.equals(source)) {
+            return result;
+        }
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            long time = input.readLong();
+            byte[] data = new byte[input.readInt()];
+            input.readFully(data);
+            try {
+                result.add(new QueuedMessage(objectMapper.readValue(data, BroadcastMessage.class), time));
+            } catch (IOException e) {
+                LOGGER.warn("Broadcast message decode failed", e);
+            }
+        }
+        return result;
+    }
+
+    private void receive(byte[] envelope) throws IOException {
+        long now = System.currentTimeMillis();
+        for (QueuedMessage message : decode(objectMapper, id, envelope)) {
+            statisticsManager.registerBroadcastReceived(1, message.time() > 0 ? now - message.time() : 0);
+            try {
+                handleMessage(message.message());
+            } catch (Exception e) {
+                LOGGER.warn("Broadcast handleMessage failed", e);
+            }
+        }
+    }
+
+    private static byte[] channel(String node) {
+        return (node != null ? CHANNEL + "." + node : CHANNEL).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] deviceChannel(long deviceId) {
+        return (CHANNEL + ".device." + deviceId).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static byte[] targetChannel(BroadcastMessage message) {
+        if (message.getRoutePosition() != null) {
+            return channel(message.getRoutePosition().getNode());
+        } else if (message.getConfirmPosition() != null) {
+            return channel(message.getConfirmPosition().getNode());
+        } else if (message.getPosition() != null) {
+            return deviceChannel(message.getPosition().getDeviceId());
+        } else if (message.getEvent() != null && message.getEvent().getDeviceId() != 0) {
+            return deviceChannel(message.getEvent().getDeviceId());
+        }
+        return channel(null);
+    }
+
+    @Override
+    public void subscribeDevice(long deviceId, boolean subscribe) {
+        boolean changed = subscribe ? devices.add(deviceId) : devices.remove(deviceId);
+        BinaryJedisPubSub current = subscription;
+        if (changed && subscribed && current != null) {
+            try {
+                synchronized (current) {
+                    if (subscribe) {
+                        current.subscribe(deviceChannel(deviceId));
+                    } else {
+                        current.unsubscribe(deviceChannel(deviceId));
+                    }
+                }
+            } catch (JedisException e) {
+                LOGGER.warn("Device subscription failed", e);
+            }
+        }
+    }
+
+    /**
+     * Publishes consecutive messages for the same channel together, so messages keep their order on every channel.
+     */
+    private void publish(Pipeline pipeline, List<QueuedMessage> messages) throws IOException {
+        int start = 0;
+        while (start < messages.size()) {
+            byte[] channel = targetChannel(messages.get(start).message());
+            int end = start + 1;
+            while (end < messages.size() && end - start < batchSize
+                    && Arrays.equals(channel, targetChannel(messages.get(end).message()))) {
+                end += 1;
+            }
+            pipeline.publish(channel, encode(objectMapper, id, messages.subList(start, end)));
+            start = end;
+        }
+    }
+
+    /**
+     * Returns {@code false} if Redis is not available, so the same messages can be published again later.
+     */
+    private boolean send(List<QueuedMessage> messages) {
+        try (Jedis jedis = publisherPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            publish(pipeline, messages);
+            pipeline.sync();
+            statisticsManager.registerBroadcastSent(messages.size());
+        } catch (IOException e) {
+            LOGGER.warn("Broadcast encoding failed", e);
+        } catch (JedisException e) {
+            LOGGER.warn("Broadcast failed, {} messages kept for retry", messages.size(), e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Keeps collecting queued messages while waiting, so senders are not blocked by a full queue during an outage.
+     */
+    private void waitRetry(List<QueuedMessage> messages, long delay) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + delay;
+        long remaining = delay;
+        while (running && remaining > 0) {
+            Thread.sleep(Math.min(remaining, RETRY_DELAY_MIN));
+            queue.drainTo(messages);
+            int count = trim(messages, queueSize);
+            if (count > 0) {
+                LOGGER.warn("Broadcast retry buffer full, dropped {} messages", count);
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+
+    private final Runnable publisher = new Runnable() {
         @Override
         public void run() {
+            List<QueuedMessage> messages = new ArrayList<>();
+            long retryDelay = 0;
             try {
-                subscriber.subscribe(new JedisPubSub() {
-                    @Override
-                    public void onMessage(String messageChannel, String message) {
-                        try {
-                            String[] parts = message.split(":", 2);
-                            if (messageChannel.equals(channel) && parts.length == 2 && !id.equals(parts[0])) {
-                                handleMessage(objectMapper.readValue(parts[1], BroadcastMessage.class));
+                while (running) {
+                    if (messages.isEmpty()) {
+                        QueuedMessage first = queue.poll(1, TimeUnit.SECONDS);
+                        if (first == null) {
+                            continue;
+                        }
+                        messages.add(first);
+                    } else {
+                        waitRetry(messages, retryDelay);
+                    }
+                    queue.drainTo(messages);
+                    messages = coalesce(messages);
+                    if (send(messages)) {
+                        messages.clear();
+                        retryDelay = 0;
+                    } else {
+                        retryDelay = Math.min(Math.max(retryDelay * 2, RETRY_DELAY_MIN), RETRY_DELAY_MAX);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // last attempt for messages queued before stop
+            queue.drainTo(messages);
+            if (!messages.isEmpty()) {
+                send(coalesce(messages));
+            }
+        }
+    };
+
+    private final Runnable receiver = new Runnable() {
+        @Override
+        public void run() {
+            subscription = new BinaryJedisPubSub() {
+                @Override
+                public void onSubscribe(byte[] channel, int subscribedChannels) {
+                    if (!subscribed && Arrays.equals(channel, channel(null))) {
+                        // devices added before this point are subscribed here, later ones by subscribeDevice
+                        subscribed = true;
+                        byte[][] channels = devices.stream()
+                                .map(RedisBroadcastService::deviceChannel).toArray(byte[][]::new);
+                        if (channels.length > 0) {
+                            synchronized (this) {
+                                subscribe(channels);
                             }
-                        } catch (Exception e) {
-                            LOGGER.warn("Broadcast handleMessage failed", e);
                         }
                     }
-                }, channel);
+                }
+
+                @Override
+                public void onMessage(byte[] messageChannel, byte[] message) {
+                    try {
+                        receive(message);
+                    } catch (Exception e) {
+                        LOGGER.warn("Broadcast decode failed", e);
+                    }
+                }
+            };
+            try {
+                subscriber.subscribe(subscription, channel(null), channel(getNodeId()));
             } catch (JedisException e) {
-                throw new RuntimeException(e);
+                if (running) {
+                    throw new RuntimeException(e);
+                }
             }
         }
     };
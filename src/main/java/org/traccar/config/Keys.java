@@ -496,6 +496,15 @@ public final class Keys {
             "database.maxPoolSize",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Number of rows fetched from the database at a time when large results, like report positions, are streamed.
+     * MySQL driver always streams row by row.
+     */
+    public static final ConfigKey<Integer> DATABASE_FETCH_SIZE = new IntegerConfigKey(
+            "database.fetchSize",
+            List.of(KeyType.CONFIG),
+            1000);
+
     /**
      * SQL query to check connection status. Default value is 'SELECT 1'. For Oracle database you can use
      * 'SELECT 1 FROM DUAL'.
@@ -556,6 +565,66 @@ public final class Keys {
             "database.saveEmpty",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Maximum number of positions written to the database in a single batch insert. By default batching is disabled
+     * and every position is stored individually before processing continues.
+     */
+    public static final ConfigKey<Integer> DATABASE_BATCH_SIZE = new IntegerConfigKey(
+            "database.batch.size",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum time in milliseconds a position waits for the batch to fill up before it is written anyway.
+     */
+    public static final ConfigKey<Long> DATABASE_BATCH_LINGER = new LongConfigKey(
+            "database.batch.linger",
+            List.of(KeyType.CONFIG),
+            100L);
+
+    /**
+     * Maximum number of positions waiting to be written. When the queue is full, processing threads write positions
+     * themselves, which slows them down to the rate the database can sustain.
+     */
+    public static final ConfigKey<Integer> DATABASE_BATCH_CAPACITY = new IntegerConfigKey(
+            "database.batch.capacity",
+            List.of(KeyType.CONFIG),
+            10000);
+
+    /**
+     * Directory for the position journal. When configured, positions that fail to be stored are appended to the
+     * journal and written to the database later, once it is available again. Until the journal is replayed, new
+     * positions are appended to it directly without trying the database.
+     */
+    public static final ConfigKey<String> DATABASE_JOURNAL_PATH = new StringConfigKey(
+            "database.journal.path",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Size of a single position journal segment file in bytes. Default size is 64 MB.
+     */
+    public static final ConfigKey<Long> DATABASE_JOURNAL_SEGMENT_SIZE = new LongConfigKey(
+            "database.journal.segmentSize",
+            List.of(KeyType.CONFIG),
+            64L * 1024 * 1024);
+
+    /**
+     * Interval in milliseconds for replaying journaled positions into the database.
+     */
+    public static final ConfigKey<Long> DATABASE_JOURNAL_REPLAY_INTERVAL = new LongConfigKey(
+            "database.journal.replayInterval",
+            List.of(KeyType.CONFIG),
+            10000L);
+
+    /**
+     * Interval for writing device state changes, such as status, latest position, motion and overspeed state, in
+     * milliseconds. Changes of the same device within the interval are merged into a single update. Zero writes every
+     * change immediately.
+     */
+    public static final ConfigKey<Long> DATABASE_DEVICE_UPDATE_INTERVAL = new LongConfigKey(
+            "database.deviceUpdateInterval",
+            List.of(KeyType.CONFIG),
+            1000L);
+
     /**
      * Device limit for self registered users. Default value is -1, which indicates no limit.
      */
@@ -760,6 +829,15 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             600L);
 
+    /**
+     * Minimum interval in seconds between device updates sent to clients and other cluster nodes while the device
+     * status stays the same. Status changes are always sent immediately. Default is one minute.
+     */
+    public static final ConfigKey<Long> STATUS_UPDATE_INTERVAL = new LongConfigKey(
+            "status.updateInterval",
+            List.of(KeyType.CONFIG),
+            60L);
+
     /**
      * List of protocol names to ignore offline status. Can be useful to not trigger status change when devices are
      * configured to disconnect after reporting a batch of data.
@@ -835,6 +913,15 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             300000L);
 
+    /**
+     * Maximum number of pending WebSocket updates per connection. Positions and devices are coalesced to the latest
+     * update per device, other updates are dropped when a slow client reaches the limit.
+     */
+    public static final ConfigKey<Integer> WEB_SOCKET_QUEUE_SIZE = new IntegerConfigKey(
+            "web.socketQueueSize",
+            List.of(KeyType.CONFIG),
+            1000);
+
 // &begin[Session_Timeout]
     /**
      * Authentication sessions timeout in seconds. By default no timeout.
@@ -944,6 +1031,63 @@ public final class Keys {
             "forward.header",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Omit null and empty fields from forwarded JSON to reduce message size.
+     */
+    public static final ConfigKey<Boolean> FORWARD_COMPACT = new BooleanConfigKey(
+            "forward.compact",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Time in milliseconds to wait for more positions before sending a batch. Used by Kafka and batched JSON
+     * forwarding.
+     */
+    public static final ConfigKey<Long> FORWARD_LINGER = new LongConfigKey(
+            "forward.linger",
+            List.of(KeyType.CONFIG),
+            5L);
+
+    /**
+     * Maximum Kafka producer batch size in bytes.
+     */
+    public static final ConfigKey<Integer> FORWARD_BATCH_SIZE = new IntegerConfigKey(
+            "forward.batchSize",
+            List.of(KeyType.CONFIG),
+            65536);
+
+    /**
+     * Maximum number of positions sent in one JSON forwarding request. When greater than one, positions are posted
+     * as a JSON array instead of a single object.
+     */
+    public static final ConfigKey<Integer> FORWARD_JSON_BATCH_SIZE = new IntegerConfigKey(
+            "forward.json.batchSize",
+            List.of(KeyType.CONFIG),
+            1);
+
+    /**
+     * Maximum number of concurrent HTTP forwarding requests. Additional requests wait until one completes.
+     */
+    public static final ConfigKey<Integer> FORWARD_CONCURRENCY = new IntegerConfigKey(
+            "forward.concurrency",
+            List.of(KeyType.CONFIG),
+            32);
+
+    /**
+     * Maximum number of HTTP forwarding requests waiting for a free slot. Requests above the limit fail immediately.
+     */
+    public static final ConfigKey<Integer> FORWARD_QUEUE_SIZE = new IntegerConfigKey(
+            "forward.queueSize",
+            List.of(KeyType.CONFIG),
+            10000);
+
+    /**
+     * Kafka producer compression type. Available options are "none", "gzip", "snappy", "lz4" and "zstd".
+     */
+    public static final ConfigKey<String> FORWARD_COMPRESSION = new StringConfigKey(
+            "forward.compression",
+            List.of(KeyType.CONFIG),
+            "none");
+
     /**
      * Position forwarding retrying enable. When enabled, additional attempts are made to deliver positions. If initial
      * delivery fails, because of an unreachable server or an HTTP response different from '2xx', the software waits
@@ -982,6 +1126,40 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             100);
 
+    /**
+     * Directory for the position forwarding outbox. When configured, positions that can't be retried in memory are
+     * stored on disk instead of being dropped, and delivered in order once the destination is available again.
+     */
+    public static final ConfigKey<String> FORWARD_OUTBOX_PATH = new StringConfigKey(
+            "forward.outbox.path",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Interval in milliseconds for draining the position forwarding outbox.
+     */
+    public static final ConfigKey<Long> FORWARD_OUTBOX_INTERVAL = new LongConfigKey(
+            "forward.outbox.interval",
+            List.of(KeyType.CONFIG),
+            10000L);
+
+    /**
+     * Number of devices delivered from the outbox in parallel. Positions of a single device are always delivered
+     * sequentially.
+     */
+    public static final ConfigKey<Integer> FORWARD_OUTBOX_CONCURRENCY = new IntegerConfigKey(
+            "forward.outbox.concurrency",
+            List.of(KeyType.CONFIG),
+            4);
+
+    /**
+     * Maximum age in milliseconds of positions in the forwarding outbox. Older positions are dropped instead of being
+     * delivered. Default value is 7 days.
+     */
+    public static final ConfigKey<Long> FORWARD_OUTBOX_MAX_AGE = new LongConfigKey(
+            "forward.outbox.maxAge",
+            List.of(KeyType.CONFIG),
+            604800000L);
+
     /**
      * Events forwarding format. Available options are "json" and "kafka". Default is "json".
      */
@@ -1230,6 +1408,48 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             15 * 60 * 1000L);
 
+    /**
+     * Number of threads delivering notifications for each notificator type.
+     */
+    public static final ConfigKey<Integer> NOTIFICATOR_THREADS = new IntegerConfigKey(
+            "notificator.threads",
+            List.of(KeyType.CONFIG),
+            2);
+
+    /**
+     * Maximum number of notifications waiting for delivery for each notificator type. When the queue is full, new
+     * notifications are dropped.
+     */
+    public static final ConfigKey<Integer> NOTIFICATOR_QUEUE_SIZE = new IntegerConfigKey(
+            "notificator.queueSize",
+            List.of(KeyType.CONFIG),
+            10000);
+
+    /**
+     * Maximum number of events written to the database in a single batch insert. By default batching is disabled
+     * and events are stored by the thread that generated them.
+     */
+    public static final ConfigKey<Integer> EVENT_BATCH_SIZE = new IntegerConfigKey(
+            "event.batch.size",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum time in milliseconds an event waits for the batch to fill up before it is written anyway.
+     */
+    public static final ConfigKey<Long> EVENT_BATCH_LINGER = new LongConfigKey(
+            "event.batch.linger",
+            List.of(KeyType.CONFIG),
+            100L);
+
+    /**
+     * Maximum number of events waiting to be written. When the queue is full, processing threads block until the
+     * database catches up.
+     */
+    public static final ConfigKey<Integer> EVENT_BATCH_CAPACITY = new IntegerConfigKey(
+            "event.batch.capacity",
+            List.of(KeyType.CONFIG),
+            10000);
+
     /**
      * Traccar notification API key.
      */
@@ -1333,6 +1553,23 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             86400L);
 
+    /**
+     * Record trip and stop segments while processing live positions. Trips, stops and summary reports use recorded
+     * segments instead of scanning all positions when the requested period is covered by them.
+     */
+    public static final ConfigKey<Boolean> REPORT_SEGMENTS = new BooleanConfigKey(
+            "report.segments",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Period of history to build segments for on startup when segments are enabled. The value is in seconds. 30 days
+     * by default. Zero disables the backfill.
+     */
+    public static final ConfigKey<Long> REPORT_SEGMENTS_BACKFILL = new LongConfigKey(
+            "report.segmentsBackfill",
+            List.of(KeyType.CONFIG),
+            2592000L);
+
     /**
      * Trips less than minimal duration and minimal distance are ignored. 300 seconds and 500 meters are default.
      */
@@ -1703,6 +1940,22 @@ public final class Keys {
             "geocoder.cacheSize",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Number of decimal places of coordinates used as geocoder cache key. Positions that round to the same value share
+     * the cached address. For example, 4 decimal places is roughly 10 meters. If not set, only exact coordinates match.
+     */
+    public static final ConfigKey<Integer> GEOCODER_CACHE_PRECISION = new IntegerConfigKey(
+            "geocoder.cachePrecision",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Optional file for persisting geocoder cache between restarts. The file is compacted when it grows to twice the
+     * cache size.
+     */
+    public static final ConfigKey<String> GEOCODER_CACHE_FILE = new StringConfigKey(
+            "geocoder.cacheFile",
+            List.of(KeyType.CONFIG));
+
     /**
      * Disable automatic reverse geocoding requests for all positions.
      */
@@ -2048,4 +2301,38 @@ public final class Keys {
             "broadcast.secondary",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Partition device processing between cluster nodes. Each device is owned by a single node, selected by consistent
+     * hashing, and positions received by other nodes are routed to the owner for processing.
+     */
+    public static final ConfigKey<Boolean> BROADCAST_PARTITION = new BooleanConfigKey(
+            "broadcast.partition",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Cluster node heartbeat interval in milliseconds. A node is removed from the partition ring after missing three
+     * heartbeats.
+     */
+    public static final ConfigKey<Long> BROADCAST_HEARTBEAT_INTERVAL = new LongConfigKey(
+            "broadcast.heartbeatInterval",
+            List.of(KeyType.CONFIG),
+            5000L);
+
+    /**
+     * Maximum number of broadcast messages waiting to be published to Redis. Position updates are dropped when the
+     * queue is full, other messages wait for space.
+     */
+    public static final ConfigKey<Integer> BROADCAST_QUEUE_SIZE = new IntegerConfigKey(
+            "broadcast.queueSize",
+            List.of(KeyType.CONFIG),
+            10000);
+
+    /**
+     * Maximum number of broadcast messages combined into a single Redis publish.
+     */
+    public static final ConfigKey<Integer> BROADCAST_BATCH_SIZE = new IntegerConfigKey(
+            "broadcast.batchSize",
+            List.of(KeyType.CONFIG),
+            100);
+
 }
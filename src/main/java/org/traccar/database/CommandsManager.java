@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2017 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2017 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -40,7 +40,10 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -53,20 +56,32 @@ public class CommandsManager implements BroadcastInterface {
     private final BroadcastService broadcastService;
     private final NotificationManager notificationManager;
 
+    private final Set<Long> pendingDevices = ConcurrentHashMap.newKeySet();
+
     @Inject
     public CommandsManager(
             Storage storage, ServerManager serverManager, @Nullable SmsManager smsManager,
             ConnectionManager connectionManager, BroadcastService broadcastService,
-            NotificationManager notificationManager) {
+            NotificationManager notificationManager) throws StorageException {
         this.storage = storage;
         this.serverManager = serverManager;
         this.smsManager = smsManager;
         this.connectionManager = connectionManager;
         this.broadcastService = broadcastService;
         this.notificationManager = notificationManager;
+        resyncPendingDevices();
         broadcastService.registerListener(this);
     }
 
+    /**
+     * Flags all devices that have queued commands in the database. This picks up commands inserted by other means or
+     * announced through a lost broadcast. Flags are only added, because a stale flag costs a single query.
+     */
+    public void resyncPendingDevices() throws StorageException {
+        storage.getObjects(QueuedCommand.class, new Request(new Columns.Include("deviceId")))
+                .forEach(command -> pendingDevices.add(command.getDeviceId()));
+    }
+
     public QueuedCommand sendCommand(Command command) throws Exception {
         long deviceId = command.getDeviceId();
         if (command.getTextChannel()) {
@@ -92,6 +107,7 @@ public class CommandsManager implements BroadcastInterface {
             } else {
                 QueuedCommand queuedCommand = QueuedCommand.fromCommand(command);
                 queuedCommand.setId(storage.addObject(queuedCommand, new Request(new Columns.Exclude("id"))));
+                pendingDevices.add(deviceId);
                 broadcastService.updateCommand(true, deviceId);
                 return queuedCommand;
             }
@@ -104,11 +120,18 @@ public class CommandsManager implements BroadcastInterface {
     }
 
     public Collection<Command> readQueuedCommands(long deviceId, int count) {
+        // flag is cleared before the query, so a command queued concurrently is either read now or flagged again
+        if (!pendingDevices.remove(deviceId)) {
+            return List.of();
+        }
         try {
             var commands = storage.getObjects(QueuedCommand.class, new Request(
                     new Columns.All(),
                     new Condition.Equals("deviceId", deviceId),
                     new Order("id", false, count)));
+            if (commands.size() >= count) {
+                pendingDevices.add(deviceId);
+            }
             Map<Event, Position> events = new HashMap<>();
             for (var command : commands) {
                 storage.removeObject(QueuedCommand.class, new Request(
@@ -121,6 +144,7 @@ public class CommandsManager implements BroadcastInterface {
             notificationManager.updateEvents(events);
             return commands.stream().map(QueuedCommand::toCommand).collect(Collectors.toList());
         } catch (StorageException e) {
+            pendingDevices.add(deviceId);
             throw new RuntimeException(e);
         }
     }
@@ -128,6 +152,7 @@ public class CommandsManager implements BroadcastInterface {
     @Override
     public void updateCommand(boolean local, long deviceId) {
         if (!local) {
+            pendingDevices.add(deviceId);
             DeviceSession deviceSession = connectionManager.getDeviceSession(deviceId);
             if (deviceSession != null && deviceSession.supportsLiveCommands()) {
                 for (Command command : readQueuedCommands(deviceId)) {
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Request;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Singleton
+public class DeviceStateWriter implements LifecycleObject {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceStateWriter.class);
+
+    private final Storage storage;
+    private final long interval;
+
+    private final Map<Long, Map<String, Device>> pending = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService executor;
+
+    @Inject
+    public DeviceStateWriter(Config config, Storage storage) {
+        this.storage = storage;
+        interval = config.getLong(Keys.DATABASE_DEVICE_UPDATE_INTERVAL);
+    }
+
+    @Override
+    public void start() {
+        if (interval > 0) {
+            executor = Executors.newSingleThreadScheduledExecutor();
+            executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        flush();
+    }
+
+    /**
+     * Columns are read from the device object when the update is flushed, so the latest value of each column is
+     * written once, no matter how many times it changed in between.
+     */
+    public void updateDevice(Device device, String... columns) {
+        if (executor == null) {
+            write(device, List.of(columns));
+            return;
+        }
+        pending.compute(device.getId(), (id, deviceColumns) -> {
+            Map<String, Device> result = deviceColumns != null ? deviceColumns : new HashMap<>();
+            for (String column : columns) {
+                result.put(column, device);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Copies column values that are not written yet to a device freshly loaded from the storage, so that a reload does
+     * not bring back the state from before the pending update. The pending update is then read from the new object.
+     */
+    public void restoreDevice(Device device) {
+        pending.computeIfPresent(device.getId(), (id, deviceColumns) -> {
+            for (var entry : deviceColumns.entrySet()) {
+                if (entry.getValue() != device) {
+                    copyColumn(entry.getValue(), device, entry.getKey());
+                    entry.setValue(device);
+                }
+            }
+            return deviceColumns;
+        });
+    }
+
+    private static void copyColumn(Device source, Device target, String column) {
+        String name = Character.toUpperCase(column.charAt(0)) + column.substring(1);
+        try {
+            Method getter = Device.class.getMethod("get" + name);
+            Device.class.getMethod("set" + name, getter.getReturnType()).invoke(target, getter.invoke(source));
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Restore device state error", e);
+        }
+    }
+
+    /**
+     * Writes columns immediately, bypassing the update interval.
+     */
+    public void writeDevice(Device device, String... columns) {
+        write(device, List.of(columns));
+    }
+
+    public void flush() {
+        for (long deviceId : pending.keySet()) {
+            Map<String, Device> deviceColumns = pending.remove(deviceId);
+            if (deviceColumns != null) {
+                Map<Device, List<String>> sources = new IdentityHashMap<>();
+                deviceColumns.forEach(
+                        (column, device) -> sources.computeIfAbsent(device, key -> new ArrayList<>()).add(column));
+                sources.forEach(this::write);
+            }
+        }
+    }
+
+    private void write(Device device, List<String> columns) {
+        try {
+            storage.updateObject(device, new Request(
+                    new Columns.Include(columns.toArray(new String[0])),
+                    new Condition.Equals("id", device.getId())));
+        } catch (StorageException e) {
+            LOGGER.warn("Update device state error", e);
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 - 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -24,14 +24,16 @@ import org.traccar.forward.EventData;
 import org.traccar.forward.EventForwarder;
 import org.traccar.geocoder.Geocoder;
 import org.traccar.helper.DateUtil;
+import org.traccar.helper.model.PositionUtil;
 import org.traccar.model.Calendar;
 import org.traccar.model.Device;
 import org.traccar.model.Event;
 import org.traccar.model.Geofence;
 import org.traccar.model.Maintenance;
+import org.traccar.model.Notification;
 import org.traccar.model.Position;
-import org.traccar.notification.MessageException;
-import org.traccar.notification.NotificatorManager;
+import org.traccar.notification.NotificationDispatcher;
+import org.traccar.notification.NotificationIndex;
 import org.traccar.session.cache.CacheManager;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
@@ -41,36 +43,70 @@ import org.traccar.storage.query.Request;
 import jakarta.annotation.Nullable;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Singleton
 public class NotificationManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NotificationManager.class);
 
+    private final class Entry {
+
+        private final Event event;
+        private final Position position;
+        private final Object key = new Object();
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        private Entry(Event event, Position position) {
+            this.event = event;
+            this.position = position;
+        }
+
+        private void release() {
+            if (pending.decrementAndGet() == 0) {
+                cacheManager.removeDevice(event.getDeviceId(), key);
+            }
+        }
+
+    }
+
     private final Storage storage;
     private final CacheManager cacheManager;
     private final EventForwarder eventForwarder;
-    private final NotificatorManager notificatorManager;
+    private final NotificationDispatcher notificationDispatcher;
     private final Geocoder geocoder;
+    private final ExecutorService executorService;
 
     private final boolean geocodeOnRequest;
     private final long timeThreshold;
     private final Set<Long> blockedUsers = new HashSet<>();
 
+    private final int batchSize;
+    private final long batchLinger;
+    private final BlockingQueue<Entry> queue;
+    private final AtomicBoolean writing = new AtomicBoolean();
+
     @Inject
     public NotificationManager(
             Config config, Storage storage, CacheManager cacheManager, @Nullable EventForwarder eventForwarder,
-            NotificatorManager notificatorManager, @Nullable Geocoder geocoder) {
+            NotificationDispatcher notificationDispatcher, @Nullable Geocoder geocoder,
+            ExecutorService executorService) {
         this.storage = storage;
         this.cacheManager = cacheManager;
         this.eventForwarder = eventForwarder;
-        this.notificatorManager = notificatorManager;
+        this.notificationDispatcher = notificationDispatcher;
         this.geocoder = geocoder;
+        this.executorService = executorService;
         geocodeOnRequest = config.getBoolean(Keys.GEOCODER_ON_REQUEST);
         timeThreshold = config.getLong(Keys.NOTIFICATOR_TIME_THRESHOLD);
         String blockedUsersString = config.getString(Keys.NOTIFICATION_BLOCK_USERS);
@@ -79,14 +115,82 @@ public class NotificationManager {
                 blockedUsers.add(Long.parseLong(userIdString));
             }
         }
+        batchSize = config.getInteger(Keys.EVENT_BATCH_SIZE);
+        batchLinger = config.getLong(Keys.EVENT_BATCH_LINGER);
+        if (batchSize > 1) {
+            queue = new ArrayBlockingQueue<>(config.getInteger(Keys.EVENT_BATCH_CAPACITY));
+        } else {
+            queue = null;
+        }
     }
 
-    private void updateEvent(Event event, Position position) {
+    private void storeEvents(List<Entry> entries) {
+        List<Event> events = entries.stream().map(entry -> entry.event).toList();
         try {
-            event.setId(storage.addObject(event, new Request(new Columns.Exclude("id"))));
+            long[] ids = storage.addObjects(events, new Request(new Columns.Exclude("id")));
+            for (int i = 0; i < ids.length; i++) {
+                events.get(i).setId(ids[i]);
+            }
         } catch (StorageException error) {
             LOGGER.warn("Event save error", error);
         }
+    }
+
+    /**
+     * Writer only occupies an executor thread while there are queued events. Whoever finds the queue non-empty after
+     * the writer has finished starts a new one, so events are never left behind.
+     */
+    private void scheduleWrite() {
+        if (writing.compareAndSet(false, true)) {
+            executorService.execute(this::writeBatches);
+        }
+    }
+
+    private void writeBatches() {
+        try {
+            Entry first;
+            while ((first = queue.poll()) != null) {
+                List<Entry> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchLinger);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                storeEvents(batch);
+                executorService.execute(() -> batch.forEach(this::processEvent));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writing.set(false);
+            if (!queue.isEmpty()) {
+                scheduleWrite();
+            }
+        }
+    }
+
+    private void processEvent(Entry entry) {
+        try {
+            updateEvent(entry);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Event processing failed", e);
+        } finally {
+            entry.release();
+        }
+    }
+
+    private void updateEvent(Entry entry) {
+        Event event = entry.event;
+        Position position = entry.position;
 
         forwardEvent(event, position);
 
@@ -95,21 +199,9 @@ public class NotificationManager {
             return;
         }
 
-        var notifications = cacheManager.getDeviceNotifications(event.getDeviceId()).stream()
-                .filter(notification -> notification.getType().equals(event.getType()))
-                .filter(notification -> {
-                    if (event.getType().equals(Event.TYPE_ALARM)) {
-                        String alarmsAttribute = notification.getString("alarms");
-                        if (alarmsAttribute != null) {
-                            return Arrays.asList(alarmsAttribute.split(","))
-                                    .contains(event.getString(Position.KEY_ALARM));
-                        }
-                        return false;
-                    }
-                    return true;
-                })
-                .filter(notification -> {
-                    long calendarId = notification.getCalendarId();
+        var notifications = cacheManager.getDeviceNotificationIndex(event.getDeviceId()).find(event).stream()
+                .filter(match -> {
+                    long calendarId = match.notification().getCalendarId();
                     Calendar calendar = calendarId != 0 ? cacheManager.getObject(Calendar.class, calendarId) : null;
                     return calendar == null || calendar.checkMoment(event.getEventTime());
                 })
@@ -124,25 +216,43 @@ public class NotificationManager {
                 notifications.size());
 
         if (!notifications.isEmpty()) {
+            entry.pending.incrementAndGet();
             if (position != null && position.getAddress() == null && geocodeOnRequest && geocoder != null) {
-                position.setAddress(geocoder.getAddress(position.getLatitude(), position.getLongitude(), null));
+                // position is shared with the processing pipeline, so the address only goes into a copy
+                Position geocoded = PositionUtil.copy(position);
+                executorService.execute(() -> {
+                    try {
+                        geocoded.setAddress(
+                                geocoder.getAddress(geocoded.getLatitude(), geocoded.getLongitude(), null));
+                    } finally {
+                        dispatchNotifications(entry, geocoded, notifications);
+                    }
+                });
+            } else {
+                dispatchNotifications(entry, position, notifications);
             }
+        }
+    }
 
-            notifications.forEach(notification -> {
-                cacheManager.getNotificationUsers(notification.getId(), event.getDeviceId()).forEach(user -> {
+    private void dispatchNotifications(
+            Entry entry, Position position, List<NotificationIndex.Entry> notifications) {
+        try {
+            notifications.forEach(match -> {
+                Notification notification = match.notification();
+                match.users().forEach(user -> {
                     if (blockedUsers.contains(user.getId())) {
                         LOGGER.info("User {} notification blocked", user.getId());
                         return;
                     }
                     for (String notificator : notification.getNotificatorsTypes()) {
-                        try {
-                            notificatorManager.getNotificator(notificator).send(notification, user, event, position);
-                        } catch (MessageException exception) {
-                            LOGGER.warn("Notification failed", exception);
-                        }
+                        entry.pending.incrementAndGet();
+                        notificationDispatcher.dispatch(
+                                notificator, notification, user, entry.event, position, entry::release);
                     }
                 });
             });
+        } finally {
+            entry.release();
         }
     }
 
@@ -167,18 +277,31 @@ public class NotificationManager {
     }
 
     public void updateEvents(Map<Event, Position> events) {
-        for (Entry<Event, Position> entry : events.entrySet()) {
-            Event event = entry.getKey();
-            Position position = entry.getValue();
-            var key = new Object();
+        List<Entry> entries = new ArrayList<>(events.size());
+        for (var event : events.entrySet()) {
+            Entry entry = new Entry(event.getKey(), event.getValue());
             try {
-                cacheManager.addDevice(event.getDeviceId(), key);
-                updateEvent(event, position);
+                cacheManager.addDevice(entry.event.getDeviceId(), entry.key);
             } catch (Exception e) {
+                entries.forEach(Entry::release);
                 throw new RuntimeException(e);
-            } finally {
-                cacheManager.removeDevice(event.getDeviceId(), key);
             }
+            entries.add(entry);
+        }
+
+        if (queue != null) {
+            for (Entry entry : entries) {
+                try {
+                    queue.put(entry);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    entry.release();
+                }
+                scheduleWrite();
+            }
+        } else if (!entries.isEmpty()) {
+            storeEvents(entries);
+            entries.forEach(this::processEvent);
         }
     }
 }
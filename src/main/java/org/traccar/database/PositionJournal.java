@@ -0,0 +1,284 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.helper.SegmentedLog;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.model.Server;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Request;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal for positions that could not be stored. Positions are written to a segmented log as JSON and the replay
+ * cursor is persisted after every stored batch, so positions are replayed at least once, even if the server restarts
+ * while the database is unavailable.
+ * <p>
+ * A failed write opens the circuit. While it is open, positions go straight to the journal instead of waiting for
+ * database timeouts. It closes as soon as a replay stores positions again.
+ * <p>
+ * Records that can't be decoded, or that the database keeps rejecting while it is otherwise available, are moved to
+ * a rejected file in the journal directory, so a single bad record can't block the replay.
+ */
+@Singleton
+public class PositionJournal implements LifecycleObject {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PositionJournal.class);
+
+    private static final String CURSOR = "database";
+    private static final int REPLAY_BATCH_SIZE = 500;
+    private static final String REJECTED = "rejected.json";
+
+    private final Storage storage;
+    private final CacheManager cacheManager;
+    private final DeviceStateWriter deviceStateWriter;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long segmentSize;
+    private final long replayInterval;
+
+    private volatile SegmentedLog log;
+    private volatile boolean open;
+
+    private ScheduledExecutorService executor;
+
+    @Inject
+    public PositionJournal(
+            Config config, Storage storage, CacheManager cacheManager, DeviceStateWriter deviceStateWriter,
+            ObjectMapper objectMapper) {
+        this.storage = storage;
+        this.cacheManager = cacheManager;
+        this.deviceStateWriter = deviceStateWriter;
+        this.objectMapper = objectMapper;
+        String path = config.getString(Keys.DATABASE_JOURNAL_PATH);
+        directory = path != null ? Path.of(path) : null;
+        segmentSize = config.getLong(Keys.DATABASE_JOURNAL_SEGMENT_SIZE);
+        replayInterval = config.getLong(Keys.DATABASE_JOURNAL_REPLAY_INTERVAL);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (isEnabled()) {
+            log = new SegmentedLog(directory, segmentSize);
+            executor = Executors.newSingleThreadScheduledExecutor();
+            executor.scheduleWithFixedDelay(this::replay, replayInterval, replayInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Durably records positions. Returns {@code false} if the journal is disabled or the write failed.
+     */
+    public boolean append(Collection<Position> positions) {
+        if (log == null) {
+            return false;
+        }
+        try {
+            List<byte[]> records = new ArrayList<>(positions.size());
+            for (Position position : positions) {
+                records.add(objectMapper.writeValueAsBytes(position));
+            }
+            log.append(records);
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Position journal write error", e);
+            return false;
+        }
+    }
+
+    /**
+     * Records positions that failed to be stored and opens the circuit. Returns {@code false} if the journal is
+     * disabled or the write failed.
+     */
+    public boolean appendFailed(Collection<Position> positions) {
+        if (append(positions)) {
+            open = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether positions should be appended to the journal without trying the storage first.
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Journaled positions have no id when they are processed, so devices end up pointing to a missing position.
+     * Latest replayed position of each device is linked, unless a newer one has been stored in the meantime.
+     */
+    private void updateLatest(List<Position> positions) throws StorageException {
+        Map<Long, Position> latest = new LinkedHashMap<>();
+        for (Position position : positions) {
+            latest.merge(position.getDeviceId(), position,
+                    (current, next) -> next.getFixTime().before(current.getFixTime()) ? current : next);
+        }
+        for (Position position : latest.values()) {
+            Position cached = cacheManager.getPosition(position.getDeviceId());
+            Device device = cacheManager.getObject(Device.class, position.getDeviceId());
+            if (cached != null && device != null) {
+                if (cached.getId() == 0 && cached.getFixTime().equals(position.getFixTime())) {
+                    cached.setId(position.getId());
+                    device.setPositionId(position.getId());
+                    deviceStateWriter.updateDevice(device, "positionId");
+                }
+                continue;
+            }
+            device = storage.getObject(Device.class, new Request(
+                    new Columns.Include("id", "positionId"), new Condition.Equals("id", position.getDeviceId())));
+            if (device == null) {
+                continue;
+            }
+            if (device.getPositionId() != 0) {
+                Position current = storage.getObject(Position.class, new Request(
+                        new Columns.Include("fixTime"), new Condition.Equals("id", device.getPositionId())));
+                if (current != null && !current.getFixTime().before(position.getFixTime())) {
+                    continue;
+                }
+            }
+            device.setPositionId(position.getId());
+            storage.updateObject(device, new Request(
+                    new Columns.Include("positionId"), new Condition.Equals("id", device.getId())));
+        }
+    }
+
+    private void reject(byte[] record) throws IOException {
+        byte[] line = new byte[record.length + 1];
+        System.arraycopy(record, 0, line, 0, record.length);
+        line[record.length] = '\n';
+        Files.write(directory.resolve(REJECTED), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Distinguishes a database outage from positions the database refuses to store.
+     */
+    private void checkStorage() throws StorageException {
+        storage.getObject(Server.class, new Request(new Columns.Include("id")));
+    }
+
+    /**
+     * Stores positions in one batch. If the batch fails while the storage is available, positions are stored one by
+     * one and the ones that still fail are rejected. Returns the number of stored positions.
+     */
+    private int store(List<Position> positions) throws StorageException, IOException {
+        Request request = new Request(new Columns.Exclude("id"));
+        try {
+            long[] ids = storage.addObjects(positions, request);
+            for (int i = 0; i < ids.length; i++) {
+                positions.get(i).setId(ids[i]);
+            }
+            if (ids.length == positions.size()) {
+                updateLatest(positions);
+            }
+            return positions.size();
+        } catch (StorageException e) {
+            checkStorage();
+            LOGGER.warn("Position journal batch failed, storing positions one by one", e);
+        }
+        List<Position> stored = new ArrayList<>(positions.size());
+        for (Position position : positions) {
+            try {
+                position.setId(storage.addObject(position, request));
+                stored.add(position);
+            } catch (StorageException e) {
+                checkStorage();
+                LOGGER.warn("Position journal rejected position", e);
+                reject(objectMapper.writeValueAsBytes(position));
+            }
+        }
+        updateLatest(stored);
+        return stored.size();
+    }
+
+    /**
+     * Writes journaled positions into the storage until the journal is empty or the storage fails.
+     */
+    public void replay() {
+        int count = 0;
+        try {
+            SegmentedLog.Batch batch;
+            while (!(batch = log.read(log.getCursor(CURSOR), REPLAY_BATCH_SIZE)).records().isEmpty()) {
+                List<Position> positions = new ArrayList<>(batch.records().size());
+                for (byte[] record : batch.records()) {
+                    try {
+                        positions.add(objectMapper.readValue(record, Position.class));
+                    } catch (IOException e) {
+                        LOGGER.warn("Position journal rejected invalid record", e);
+                        reject(record);
+                    }
+                }
+                if (!positions.isEmpty()) {
+                    int stored = store(positions);
+                    if (stored > 0) {
+                        open = false;
+                    }
+                    count += stored;
+                }
+                log.commit(CURSOR, batch.next());
+            }
+            open = false;
+        } catch (StorageException e) {
+            LOGGER.warn("Position journal replay postponed", e);
+        } catch (IOException e) {
+            LOGGER.warn("Position journal read error", e);
+        }
+        if (count > 0) {
+            LOGGER.info("Replayed {} journaled positions", count);
+        }
+    }
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.database;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.helper.model.PositionUtil;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.model.Segment;
+import org.traccar.reports.common.TripsConfig;
+import org.traccar.session.state.SegmentProcessor;
+import org.traccar.session.state.SegmentState;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Records motion segments. Updates are queued per device and applied in order on the shared executor, so loading the
+ * state and writing segments never block position processing. Queued updates are not persisted; after a restart the
+ * state is rebuilt from the open segment and the stored positions.
+ */
+@Singleton
+public class SegmentManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentManager.class);
+
+    private static final Duration EXPIRATION = Duration.ofDays(1);
+    private static final int BACKFILL_ATTEMPTS = 3;
+
+    private record Update(Position position, TripsConfig tripsConfig) {
+    }
+
+    /**
+     * Device monitor guards the state, the queue monitor guards the queue and the scheduled flag.
+     */
+    private static final class DeviceSegments {
+        private final Queue<Update> updates = new ArrayDeque<>();
+        private boolean scheduled;
+        private SegmentState state = new SegmentState();
+    }
+
+    private final Storage storage;
+    private final ExecutorService executorService;
+    private final boolean enabled;
+
+    // state is rebuilt from stored segments and positions, so idle devices can be dropped
+    private final Cache<Long, DeviceSegments> deviceStates = Caffeine.newBuilder()
+            .expireAfterAccess(EXPIRATION)
+            .build();
+
+    @Inject
+    public SegmentManager(Config config, Storage storage, ExecutorService executorService) {
+        this.storage = storage;
+        this.executorService = executorService;
+        enabled = config.getBoolean(Keys.REPORT_SEGMENTS);
+    }
+
+    public void updateSegment(Position position, TripsConfig tripsConfig) {
+        if (!enabled) {
+            return;
+        }
+
+        DeviceSegments segments = deviceStates.get(position.getDeviceId(), key -> new DeviceSegments());
+        synchronized (segments.updates) {
+            segments.updates.add(new Update(position, tripsConfig));
+            if (segments.scheduled) {
+                return;
+            }
+            segments.scheduled = true;
+        }
+        executorService.execute(() -> processUpdates(segments));
+    }
+
+    private void processUpdates(DeviceSegments segments) {
+        while (true) {
+            Update update;
+            synchronized (segments.updates) {
+                update = segments.updates.poll();
+                if (update == null) {
+                    segments.scheduled = false;
+                    return;
+                }
+            }
+            synchronized (segments) {
+                SegmentState state = segments.state;
+                try {
+                    if (!state.isLoaded()) {
+                        loadState(state, update.position(), update.tripsConfig());
+                    }
+                    SegmentProcessor.updateState(state, update.position(), update.tripsConfig());
+                    storeSegments(state);
+                } catch (StorageException | RuntimeException e) {
+                    LOGGER.warn("Update device segment error", e);
+                    segments.state = new SegmentState();
+                }
+            }
+        }
+    }
+
+    private Position getPosition(long positionId) throws StorageException {
+        return storage.getObject(Position.class, new Request(
+                new Columns.All(), new Condition.Equals("id", positionId)));
+    }
+
+    /**
+     * Positions that were journaled while the database was failing are processed without an id, so segments can
+     * reference position id 0. Such positions are found by their time instead.
+     */
+    private Position getStartPosition(Segment segment) throws StorageException {
+        if (segment.getStartPositionId() != 0) {
+            return getPosition(segment.getStartPositionId());
+        }
+        return storage.getObject(Position.class, new Request(
+                new Columns.All(),
+                new Condition.And(
+                        new Condition.Equals("deviceId", segment.getDeviceId()),
+                        new Condition.Between(
+                                "fixTime", "from", segment.getStartTime(), "to", segment.getStartTime())),
+                new Order("id", false, 1)));
+    }
+
+    private Segment getFirstSegment(long deviceId) throws StorageException {
+        return storage.getObject(Segment.class, new Request(
+                new Columns.All(),
+                new Condition.Equals("deviceId", deviceId),
+                new Order("startTime", false, 1)));
+    }
+
+    /**
+     * Restores the state from the open segment by replaying positions stored before the current one. Covers both
+     * restarts, where the last position was never processed, and devices dropped from memory.
+     */
+    private void loadState(SegmentState state, Position position, TripsConfig tripsConfig) throws StorageException {
+        long deviceId = position.getDeviceId();
+        Segment segment = storage.getObject(Segment.class, new Request(
+                new Columns.All(),
+                new Condition.And(
+                        new Condition.Equals("deviceId", deviceId),
+                        new Condition.Equals("endPositionId", 0L)),
+                new Order("startTime", true, 1)));
+        // a segment completed with a journaled end position still has no end position id
+        if (segment != null && segment.getEndTime() != null) {
+            segment = null;
+        }
+        Position start = segment != null ? getStartPosition(segment) : null;
+        if (start != null) {
+            state.setSegment(segment);
+            state.getMotionState().setMotionStreak(segment.getMotion());
+            state.getMotionState().setMotionState(segment.getMotion());
+            state.setPrevious(storage.getObject(Position.class, new Request(
+                    new Columns.All(),
+                    new Condition.And(
+                            new Condition.Equals("deviceId", deviceId),
+                            new Condition.Compare("fixTime", "<", "time", start.getFixTime())),
+                    new Order("fixTime", true, 1))));
+            state.setPending(start);
+            try (var positions = PositionUtil.getPositionsStream(
+                    storage, deviceId, start.getFixTime(), position.getFixTime())) {
+                var iterator = positions.iterator();
+                while (iterator.hasNext()) {
+                    Position replayed = iterator.next();
+                    // compared by time, because journaled positions have no id
+                    if (replayed.getId() != start.getId() && replayed.getFixTime().before(position.getFixTime())) {
+                        SegmentProcessor.updateState(state, replayed, tripsConfig);
+                        storeSegments(state);
+                    }
+                }
+            }
+        }
+        state.setLoaded(true);
+    }
+
+    private void storeSegments(SegmentState state) throws StorageException {
+        Segment completed = state.getCompletedSegment();
+        if (completed != null) {
+            storage.updateObject(completed, new Request(
+                    new Columns.Include("endPositionId", "endTime", "maxSpeed"),
+                    new Condition.Equals("id", completed.getId())));
+        }
+        Segment segment = state.getSegment();
+        if (segment != null && segment.getId() == 0) {
+            segment.setId(storage.addObject(segment, new Request(new Columns.Exclude("id"))));
+        }
+    }
+
+    /**
+     * Builds segments for the history before the first recorded segment. Positions are scanned without holding the
+     * device state, then the result is joined with live segments while live updates for the device wait.
+     */
+    public void backfill(Device device, Date from, TripsConfig tripsConfig) throws StorageException {
+        if (!enabled) {
+            return;
+        }
+
+        for (int attempt = 0; attempt < BACKFILL_ATTEMPTS; attempt++) {
+            Segment first = getFirstSegment(device.getId());
+            if (first != null && !first.getStartTime().after(from)) {
+                return;
+            }
+            Date to = first != null ? new Date(first.getStartTime().getTime() - 1) : new Date();
+
+            SegmentState backfillState = new SegmentState();
+            List<Segment> segments = new ArrayList<>();
+            try (var positions = PositionUtil.getPositionsStream(storage, device.getId(), from, to)) {
+                var iterator = positions.iterator();
+                while (iterator.hasNext()) {
+                    SegmentProcessor.updateState(backfillState, iterator.next(), tripsConfig);
+                    if (backfillState.getCompletedSegment() != null) {
+                        segments.add(backfillState.getCompletedSegment());
+                    }
+                }
+            }
+
+            DeviceSegments deviceSegments = deviceStates.get(device.getId(), key -> new DeviceSegments());
+            synchronized (deviceSegments) {
+                Segment current = getFirstSegment(device.getId());
+                if (current != null && (first == null || current.getId() != first.getId())) {
+                    continue; // live recording started during the scan
+                }
+                if (first != null) {
+                    Position start = getStartPosition(first);
+                    if (start != null) {
+                        SegmentProcessor.updateState(backfillState, start, tripsConfig);
+                        if (backfillState.getCompletedSegment() != null) {
+                            segments.add(backfillState.getCompletedSegment());
+                        }
+                    }
+                    Segment last = backfillState.getSegment();
+                    if (last != null && last.getMotion() != first.getMotion()) {
+                        last.setEndPositionId(first.getStartPositionId());
+                        last.setEndTime(first.getStartTime());
+                        segments.add(last);
+                    } else if (last != null) {
+                        first.setStartPositionId(last.getStartPositionId());
+                        first.setStartTime(last.getStartTime());
+                        first.setMaxSpeed(Math.max(first.getMaxSpeed(), last.getMaxSpeed()));
+                        storage.updateObject(first, new Request(
+                                new Columns.Include("startPositionId", "startTime", "maxSpeed"),
+                                new Condition.Equals("id", first.getId())));
+                    }
+                } else if (backfillState.getSegment() != null) {
+                    segments.add(backfillState.getSegment());
+                }
+                if (!segments.isEmpty()) {
+                    storage.addObjects(segments, new Request(new Columns.Exclude("id")));
+                }
+                // live state is restored from the stored segments on the next position
+                deviceSegments.state = new SegmentState();
+                return;
+            }
+        }
+        LOGGER.warn("Segment backfill skipped for device {}", device.getId());
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -66,7 +66,20 @@ public class StatisticsManager {
     private int mailSent;
     private int smsSent;
     private int geocoderRequests;
+    private int geocoderCacheHits;
+    private int geocoderCacheMisses;
     private int geolocationRequests;
+    private int broadcastSent;
+    private int broadcastReceived;
+    private long broadcastLagTotal;
+    private long broadcastLagMax;
+    private long forwardBacklogMax;
+    private long forwardBacklogAgeMax;
+    private int notificationQueueMax;
+    private int notificationsDelivered;
+    private int notificationsDropped;
+    private long notificationLatencyTotal;
+    private long notificationLatencyMax;
 
     @Inject
     public StatisticsManager(Config config, Storage storage, Client client, ObjectMapper objectMapper) {
@@ -92,6 +105,31 @@ public class StatisticsManager {
                 statistics.setSmsSent(smsSent);
                 statistics.setGeocoderRequests(geocoderRequests);
                 statistics.setGeolocationRequests(geolocationRequests);
+                if (geocoderCacheHits > 0 || geocoderCacheMisses > 0) {
+                    statistics.set("geocoderCacheHits", geocoderCacheHits);
+                    statistics.set("geocoderCacheMisses", geocoderCacheMisses);
+                }
+                if (broadcastSent > 0 || broadcastReceived > 0) {
+                    statistics.set("broadcastSent", broadcastSent);
+                    statistics.set("broadcastReceived", broadcastReceived);
+                    if (broadcastReceived > 0) {
+                        statistics.set("broadcastLagAverage", broadcastLagTotal / broadcastReceived);
+                        statistics.set("broadcastLagMax", broadcastLagMax);
+                    }
+                }
+                if (forwardBacklogMax > 0) {
+                    statistics.set("forwardBacklogMax", forwardBacklogMax);
+                    statistics.set("forwardBacklogAgeMax", forwardBacklogAgeMax);
+                }
+                if (notificationsDelivered > 0 || notificationsDropped > 0) {
+                    statistics.set("notificationQueueMax", notificationQueueMax);
+                    statistics.set("notificationsDelivered", notificationsDelivered);
+                    statistics.set("notificationsDropped", notificationsDropped);
+                    if (notificationsDelivered > 0) {
+                        statistics.set("notificationLatencyAverage", notificationLatencyTotal / notificationsDelivered);
+                        statistics.set("notificationLatencyMax", notificationLatencyMax);
+                    }
+                }
                 if (!deviceProtocols.isEmpty()) {
                     Map<String, Integer> protocols = new HashMap<>();
                     for (String protocol : deviceProtocols.values()) {
@@ -109,7 +147,20 @@ public class StatisticsManager {
                 mailSent = 0;
                 smsSent = 0;
                 geocoderRequests = 0;
+                geocoderCacheHits = 0;
+                geocoderCacheMisses = 0;
                 geolocationRequests = 0;
+                broadcastSent = 0;
+                broadcastReceived = 0;
+                broadcastLagTotal = 0;
+                broadcastLagMax = 0;
+                forwardBacklogMax = 0;
+                forwardBacklogAgeMax = 0;
+                notificationQueueMax = 0;
+                notificationsDelivered = 0;
+                notificationsDropped = 0;
+                notificationLatencyTotal = 0;
+                notificationLatencyMax = 0;
             }
 
             try {
@@ -199,6 +250,53 @@ public class StatisticsManager {
         geocoderRequests += 1;
     }
 
+    public synchronized void registerGeocoderCache(boolean hit) {
+        checkSplit();
+        if (hit) {
+            geocoderCacheHits += 1;
+        } else {
+            geocoderCacheMisses += 1;
+        }
+    }
+
+    public synchronized void registerBroadcastSent(int count) {
+        checkSplit();
+        broadcastSent += count;
+    }
+
+    /**
+     * Lag is the difference between the sender and local clocks, so it also includes any clock skew between nodes.
+     */
+    public synchronized void registerBroadcastReceived(int count, long lag) {
+        checkSplit();
+        broadcastReceived += count;
+        broadcastLagTotal += lag * count;
+        broadcastLagMax = Math.max(broadcastLagMax, lag);
+    }
+
+    public synchronized void registerForwardBacklog(long size, long age) {
+        checkSplit();
+        forwardBacklogMax = Math.max(forwardBacklogMax, size);
+        forwardBacklogAgeMax = Math.max(forwardBacklogAgeMax, age);
+    }
+
+    public synchronized void registerNotificationQueued(int depth) {
+        checkSplit();
+        notificationQueueMax = Math.max(notificationQueueMax, depth);
+    }
+
+    public synchronized void registerNotificationDelivered(long latency) {
+        checkSplit();
+        notificationsDelivered += 1;
+        notificationLatencyTotal += latency;
+        notificationLatencyMax = Math.max(notificationLatencyMax, latency);
+    }
+
+    public synchronized void registerNotificationDropped() {
+        checkSplit();
+        notificationsDropped += 1;
+    }
+
     public synchronized void registerGeolocationRequest() {
         checkSplit();
         geolocationRequests += 1;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,22 +20,64 @@ import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
 import com.rabbitmq.client.MessageProperties;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
+import com.rabbitmq.client.ShutdownSignalException;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeoutException;
 
+/**
+ * Publishes messages with publisher confirms enabled. Result handlers are completed only when the broker confirms or
+ * rejects the message. Messages still waiting for a confirmation fail when the channel shuts down or recovers, because
+ * delivery tags of the old channel are never confirmed.
+ */
 public class AmqpClient {
     private final Channel channel;
     private final String exchange;
     private final String topic;
 
+    private final ConcurrentNavigableMap<Long, ResultHandler> pending = new ConcurrentSkipListMap<>();
+
     AmqpClient(String connectionUrl, String exchange, String topic) {
+        this(createChannel(connectionUrl), exchange, topic);
+    }
+
+    AmqpClient(Channel channel, String exchange, String topic) {
+        this.channel = channel;
         this.exchange = exchange;
         this.topic = topic;
 
+        try {
+            channel.exchangeDeclare(exchange, BuiltinExchangeType.TOPIC, true);
+            channel.confirmSelect();
+            channel.addConfirmListener(
+                    (deliveryTag, multiple) -> complete(deliveryTag, multiple, true),
+                    (deliveryTag, multiple) -> complete(deliveryTag, multiple, false));
+            channel.addShutdownListener(this::failPending);
+            if (channel.getConnection() instanceof Recoverable recoverable) {
+                recoverable.addRecoveryListener(new RecoveryListener() {
+                    @Override
+                    public void handleRecovery(Recoverable recoverable) {
+                        failPending(new IOException("Channel recovered"));
+                    }
+
+                    @Override
+                    public void handleRecoveryStarted(Recoverable recoverable) {
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error while creating and configuring RabbitMQ channel", e);
+        }
+    }
+
+    private static Channel createChannel(String connectionUrl) {
         ConnectionFactory factory = new ConnectionFactory();
         try {
             factory.setUri(connectionUrl);
@@ -45,14 +87,42 @@ public class AmqpClient {
 
         try {
             Connection connection = factory.newConnection();
-            channel = connection.createChannel();
-            channel.exchangeDeclare(exchange, BuiltinExchangeType.TOPIC, true);
+            return connection.createChannel();
         } catch (IOException | TimeoutException e) {
             throw new RuntimeException("Error while creating and configuring RabbitMQ channel", e);
         }
     }
 
-    public void publishMessage(String message) throws IOException {
-        channel.basicPublish(exchange, topic, MessageProperties.PERSISTENT_TEXT_PLAIN, message.getBytes());
+    private void complete(long deliveryTag, boolean multiple, boolean success) {
+        var confirmed = multiple
+                ? pending.headMap(deliveryTag, true)
+                : pending.subMap(deliveryTag, true, deliveryTag, true);
+        Throwable error = success ? null : new IOException("Message rejected by broker");
+        confirmed.values().forEach(handler -> handler.onResult(success, error));
+        confirmed.clear();
+    }
+
+    private void failPending(Throwable error) {
+        while (true) {
+            var entry = pending.pollFirstEntry();
+            if (entry == null) {
+                break;
+            }
+            entry.getValue().onResult(false, error);
+        }
+    }
+
+    public synchronized void publishMessage(byte[] message, ResultHandler resultHandler) throws IOException {
+        long deliveryTag = channel.getNextPublishSeqNo();
+        pending.put(deliveryTag, resultHandler);
+        try {
+            channel.basicPublish(exchange, topic, MessageProperties.PERSISTENT_TEXT_PLAIN, message);
+        } catch (IOException e) {
+            pending.remove(deliveryTag);
+            throw e;
+        } catch (ShutdownSignalException e) {
+            pending.remove(deliveryTag);
+            throw new IOException(e);
+        }
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,9 +38,7 @@ public class EventForwarderAmqp implements EventForwarder {
     @Override
     public void forward(EventData eventData, ResultHandler resultHandler) {
         try {
-            String value = objectMapper.writeValueAsString(eventData);
-            amqpClient.publishMessage(value);
-            resultHandler.onResult(true, null);
+            amqpClient.publishMessage(objectMapper.writeValueAsBytes(eventData), resultHandler);
         } catch (IOException e) {
             resultHandler.onResult(false, e);
         }
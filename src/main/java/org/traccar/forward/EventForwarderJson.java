@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,54 +15,31 @@
  */
 package org.traccar.forward;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.Entity;
-import jakarta.ws.rs.client.InvocationCallback;
-import jakarta.ws.rs.core.Response;
-
 public class EventForwarderJson implements EventForwarder {
 
     private final String url;
-    private final String header;
 
-    private final Client client;
+    private final HttpForwardClient client;
+    private final ObjectMapper objectMapper;
 
-    public EventForwarderJson(Config config, Client client) {
+    public EventForwarderJson(Config config, HttpForwardClient client, ObjectMapper objectMapper) {
         this.client = client;
+        this.objectMapper = objectMapper;
         url = config.getString(Keys.EVENT_FORWARD_URL);
-        header = config.getString(Keys.EVENT_FORWARD_HEADERS);
     }
 
     @Override
     public void forward(EventData eventData, ResultHandler resultHandler) {
-        var requestBuilder = client.target(url).request();
-
-        if (header != null && !header.isEmpty()) {
-            for (String line: header.split("\\r?\\n")) {
-                String[] values = line.split(":", 2);
-                requestBuilder.header(values[0].trim(), values[1].trim());
-            }
+        try {
+            client.post(url, objectMapper.writeValueAsBytes(eventData), resultHandler);
+        } catch (JsonProcessingException e) {
+            resultHandler.onResult(false, e);
         }
-
-        requestBuilder.async().post(Entity.json(eventData), new InvocationCallback<Response>() {
-            @Override
-            public void completed(Response response) {
-                if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
-                    resultHandler.onResult(true, null);
-                } else {
-                    int code = response.getStatusInfo().getStatusCode();
-                    resultHandler.onResult(false, new RuntimeException("HTTP code " + code));
-                }
-            }
-
-            @Override
-            public void failed(Throwable throwable) {
-                resultHandler.onResult(false, throwable);
-            }
-        });
     }
 
 }
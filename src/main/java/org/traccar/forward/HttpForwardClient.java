@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.forward;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP client shared by forwarders. Connections are reused, HTTP/2 is used when the server supports it, and the
+ * number of requests in flight is limited. Requests above the limit wait in a bounded queue instead of opening new
+ * connections.
+ */
+public class HttpForwardClient {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    private final HttpClient client;
+    private final Map<String, String> headers;
+    private final boolean contentType;
+    private final Semaphore permits;
+    private final int queueSize;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    public HttpForwardClient(String header, int concurrency, int queueSize) {
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        headers = parseHeaders(header);
+        contentType = headers.keySet().stream().anyMatch(CONTENT_TYPE::equalsIgnoreCase);
+        permits = new Semaphore(concurrency);
+        this.queueSize = queueSize;
+    }
+
+    public static Map<String, String> parseHeaders(String header) {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (header != null && !header.isEmpty()) {
+            for (String line : header.split("\\r?\\n")) {
+                String[] values = line.split(":", 2);
+                result.put(values[0].trim(), values[1].trim());
+            }
+        }
+        return result;
+    }
+
+    public void get(String url, ResultHandler resultHandler) {
+        send(url, null, resultHandler);
+    }
+
+    public void post(String url, byte[] body, ResultHandler resultHandler) {
+        send(url, body, resultHandler);
+    }
+
+    private HttpRequest createRequest(String url, byte[] body) {
+        URI uri = URI.create(url);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT);
+        if ("http".equalsIgnoreCase(uri.getScheme())) {
+            // avoid h2c upgrade attempts, many plain HTTP servers and proxies reject them
+            builder.version(HttpClient.Version.HTTP_1_1);
+        }
+        headers.forEach(builder::header);
+        if (body != null) {
+            builder.POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (!contentType) {
+                builder.header(CONTENT_TYPE, "application/json");
+            }
+        }
+        return builder.build();
+    }
+
+    private void send(String url, byte[] body, ResultHandler resultHandler) {
+        HttpRequest request;
+        try {
+            request = createRequest(url, body);
+        } catch (IllegalArgumentException e) {
+            resultHandler.onResult(false, e);
+            return;
+        }
+        if (waitingCount.incrementAndGet() > queueSize) {
+            waitingCount.decrementAndGet();
+            resultHandler.onResult(false, new RejectedExecutionException("Forwarding queue is full"));
+            return;
+        }
+        waiting.add(() -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, throwable) -> {
+                    permits.release();
+                    sendWaiting();
+                    if (throwable != null) {
+                        resultHandler.onResult(false, throwable);
+                    } else if (response.statusCode() / 100 == 2) {
+                        resultHandler.onResult(true, null);
+                    } else {
+                        resultHandler.onResult(false, new RuntimeException("HTTP code " + response.statusCode()));
+                    }
+                }));
+        sendWaiting();
+    }
+
+    private void sendWaiting() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable task = waiting.poll();
+            if (task != null) {
+                waitingCount.decrementAndGet();
+                task.run();
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+}
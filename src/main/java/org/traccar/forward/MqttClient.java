@@ -1,5 +1,5 @@
 /*
- * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2024 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -71,7 +71,12 @@ public class MqttClient {
 
     public void publish(
             String pubTopic, String payload, BiConsumer<? super Mqtt5PublishResult, ? super Throwable> whenComplete) {
-        client.publishWith().topic(pubTopic).qos(MqttQos.AT_LEAST_ONCE).payload(payload.getBytes()).send()
+        publish(pubTopic, payload.getBytes(), whenComplete);
+    }
+
+    public void publish(
+            String pubTopic, byte[] payload, BiConsumer<? super Mqtt5PublishResult, ? super Throwable> whenComplete) {
+        client.publishWith().topic(pubTopic).qos(MqttQos.AT_LEAST_ONCE).payload(payload).send()
                 .whenComplete(whenComplete);
     }
 
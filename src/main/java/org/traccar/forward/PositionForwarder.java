@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,21 @@
  */
 package org.traccar.forward;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
 public interface PositionForwarder {
+
     void forward(PositionData positionData, ResultHandler resultHandler);
+
+    static ObjectWriter createWriter(Config config, ObjectMapper objectMapper) {
+        if (config.getBoolean(Keys.FORWARD_COMPACT)) {
+            return objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_EMPTY).writer();
+        }
+        return objectMapper.writer();
+    }
+
 }
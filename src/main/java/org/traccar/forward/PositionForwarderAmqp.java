@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package org.traccar.forward;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
@@ -25,22 +26,20 @@ import java.io.IOException;
 public class PositionForwarderAmqp implements PositionForwarder {
 
     private final AmqpClient amqpClient;
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
 
     public PositionForwarderAmqp(Config config, ObjectMapper objectMapper) {
         String connectionUrl = config.getString(Keys.FORWARD_URL);
         String exchange = config.getString(Keys.FORWARD_EXCHANGE);
         String topic = config.getString(Keys.FORWARD_TOPIC);
         amqpClient = new AmqpClient(connectionUrl, exchange, topic);
-        this.objectMapper = objectMapper;
+        objectWriter = PositionForwarder.createWriter(config, objectMapper);
     }
 
     @Override
     public void forward(PositionData positionData, ResultHandler resultHandler) {
         try {
-            String value = objectMapper.writeValueAsString(positionData);
-            amqpClient.publishMessage(value);
-            resultHandler.onResult(true, null);
+            amqpClient.publishMessage(objectWriter.writeValueAsBytes(positionData), resultHandler);
         } catch (IOException e) {
             resultHandler.onResult(false, e);
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,70 +17,94 @@ package org.traccar.forward;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.util.Timer;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
-
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.Entity;
-import jakarta.ws.rs.client.InvocationCallback;
-import jakarta.ws.rs.core.HttpHeaders;
-import jakarta.ws.rs.core.MediaType;
-import jakarta.ws.rs.core.Response;
 import org.traccar.helper.model.AttributeUtil;
 import org.traccar.session.cache.CacheManager;
 
-public class PositionForwarderJson implements PositionForwarder {
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-    private final String header;
+public class PositionForwarderJson implements PositionForwarder {
 
-    private final Client client;
+    private final HttpForwardClient client;
     private final ObjectMapper objectMapper;
     private final CacheManager cacheManager;
+    private final Timer timer;
+
+    private final int batchSize;
+    private final long linger;
+
+    private final Map<String, Batch> batches = new HashMap<>();
 
-    public PositionForwarderJson(Config config, Client client, ObjectMapper objectMapper, CacheManager cacheManager) {
+    private static final class Batch {
+        private final List<PositionData> positions = new ArrayList<>();
+        private final List<ResultHandler> handlers = new ArrayList<>();
+    }
+
+    public PositionForwarderJson(
+            Config config, HttpForwardClient client, ObjectMapper objectMapper, CacheManager cacheManager,
+            Timer timer) {
         this.client = client;
         this.objectMapper = objectMapper;
         this.cacheManager = cacheManager;
-        this.header = config.getString(Keys.FORWARD_HEADER);
+        this.timer = timer;
+        batchSize = config.getInteger(Keys.FORWARD_JSON_BATCH_SIZE);
+        linger = config.getLong(Keys.FORWARD_LINGER);
     }
 
     @Override
     public void forward(PositionData positionData, ResultHandler resultHandler) {
         String url = AttributeUtil.lookup(cacheManager, Keys.FORWARD_URL, positionData.getDevice().getId());
-        var requestBuilder = client.target(url).request();
 
-        MediaType mediaType = MediaType.APPLICATION_JSON_TYPE;
-        if (header != null && !header.isEmpty()) {
-            for (String line: header.split("\\r?\\n")) {
-                String[] values = line.split(":", 2);
-                String headerName = values[0].trim();
-                String headerValue = values[1].trim();
-                if (headerName.equals(HttpHeaders.CONTENT_TYPE)) {
-                    mediaType = MediaType.valueOf(headerValue);
-                } else {
-                    requestBuilder.header(headerName, headerValue);
-                }
+        if (batchSize <= 1) {
+            try {
+                client.post(url, objectMapper.writeValueAsBytes(positionData), resultHandler);
+            } catch (JsonProcessingException e) {
+                resultHandler.onResult(false, e);
             }
+            return;
         }
 
-        try {
-            var entity = Entity.entity(objectMapper.writeValueAsString(positionData), mediaType);
-            requestBuilder.async().post(entity, new InvocationCallback<Response>() {
-                @Override
-                public void completed(Response response) {
-                    if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
-                        resultHandler.onResult(true, null);
-                    } else {
-                        int code = response.getStatusInfo().getStatusCode();
-                        resultHandler.onResult(false, new RuntimeException("HTTP code " + code));
-                    }
-                }
+        Batch full = null;
+        synchronized (batches) {
+            Batch batch = batches.get(url);
+            if (batch == null) {
+                Batch created = new Batch();
+                batches.put(url, created);
+                timer.newTimeout(timeout -> flush(url, created), linger, TimeUnit.MILLISECONDS);
+                batch = created;
+            }
+            batch.positions.add(positionData);
+            batch.handlers.add(resultHandler);
+            if (batch.positions.size() >= batchSize) {
+                batches.remove(url);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            send(url, full);
+        }
+    }
 
-                @Override
-                public void failed(Throwable throwable) {
-                    resultHandler.onResult(false, throwable);
-                }
-            });
+    private void flush(String url, Batch batch) {
+        synchronized (batches) {
+            if (!batches.remove(url, batch)) {
+                return;
+            }
+        }
+        send(url, batch);
+    }
+
+    private void send(String url, Batch batch) {
+        ResultHandler resultHandler = (success, throwable) -> batch.handlers.forEach(
+                handler -> handler.onResult(success, throwable));
+        try {
+            client.post(url, objectMapper.writeValueAsBytes(batch.positions), resultHandler);
         } catch (JsonProcessingException e) {
             resultHandler.onResult(false, e);
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,11 @@ package org.traccar.forward;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
@@ -28,29 +30,41 @@ import java.util.Properties;
 
 public class PositionForwarderKafka implements PositionForwarder {
 
-    private final Producer<String, String> producer;
-    private final ObjectMapper objectMapper;
+    private final Producer<String, byte[]> producer;
+    private final ObjectWriter objectWriter;
 
     private final String topic;
 
     public PositionForwarderKafka(Config config, ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this(config, objectMapper, createProducer(config));
+    }
+
+    PositionForwarderKafka(Config config, ObjectMapper objectMapper, Producer<String, byte[]> producer) {
+        this.producer = producer;
+        objectWriter = PositionForwarder.createWriter(config, objectMapper);
+        topic = config.getString(Keys.FORWARD_TOPIC);
+    }
+
+    private static Producer<String, byte[]> createProducer(Config config) {
         Properties properties = new Properties();
         properties.put("bootstrap.servers", config.getString(Keys.FORWARD_URL));
         properties.put("acks", "all");
+        properties.put("linger.ms", config.getLong(Keys.FORWARD_LINGER));
+        properties.put("batch.size", config.getInteger(Keys.FORWARD_BATCH_SIZE));
+        properties.put("compression.type", config.getString(Keys.FORWARD_COMPRESSION));
         properties.put("key.serializer", StringSerializer.class.getName());
-        properties.put("value.serializer", StringSerializer.class.getName());
-        producer = new KafkaProducer<>(properties);
-        topic = config.getString(Keys.FORWARD_TOPIC);
+        properties.put("value.serializer", ByteArraySerializer.class.getName());
+        return new KafkaProducer<>(properties);
     }
 
     @Override
     public void forward(PositionData positionData, ResultHandler resultHandler) {
         try {
             String key = Long.toString(positionData.getDevice().getId());
-            String value = objectMapper.writeValueAsString(positionData);
-            producer.send(new ProducerRecord<>(topic, key, value));
-            resultHandler.onResult(true, null);
+            byte[] value = objectWriter.writeValueAsBytes(positionData);
+            producer.send(
+                    new ProducerRecord<>(topic, key, value),
+                    (metadata, exception) -> resultHandler.onResult(exception == null, exception));
         } catch (JsonProcessingException e) {
             resultHandler.onResult(false, e);
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2024 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,24 +20,29 @@ import org.traccar.config.Keys;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 public class PositionForwarderMqtt implements PositionForwarder {
 
     private final MqttClient mqttClient;
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
 
     private final String topic;
 
     public PositionForwarderMqtt(final Config config, final ObjectMapper objectMapper) {
+        this(config, objectMapper, new MqttClient(config.getString(Keys.FORWARD_URL)));
+    }
+
+    PositionForwarderMqtt(Config config, ObjectMapper objectMapper, MqttClient mqttClient) {
         this.topic = config.getString(Keys.FORWARD_TOPIC);
-        mqttClient = new MqttClient(config.getString(Keys.FORWARD_URL));
-        this.objectMapper = objectMapper;
+        this.mqttClient = mqttClient;
+        objectWriter = PositionForwarder.createWriter(config, objectMapper);
     }
 
     @Override
     public void forward(PositionData positionData, ResultHandler resultHandler) {
         try {
-            String payload = objectMapper.writeValueAsString(positionData);
+            byte[] payload = objectWriter.writeValueAsBytes(positionData);
             mqttClient.publish(topic, payload, (message, e) -> resultHandler.onResult(e == null, e));
         } catch (JsonProcessingException e) {
             resultHandler.onResult(false, e);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,120 +15,216 @@
  */
 package org.traccar.forward;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.helper.Checksum;
-import org.traccar.model.Device;
 import org.traccar.model.Position;
 
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.InvocationCallback;
-import jakarta.ws.rs.core.Response;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Formatter;
+import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
 
 public class PositionForwarderUrl implements PositionForwarder {
 
-    private final String url;
-    private final String header;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(StringBuilder::new);
 
-    private final Client client;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private interface Segment {
+        void append(StringBuilder builder, PositionData positionData) throws IOException;
+    }
+
+    private final Segment[] segments;
+
+    private final HttpForwardClient client;
     private final ObjectMapper objectMapper;
 
-    public PositionForwarderUrl(Config config, Client client, ObjectMapper objectMapper) {
+    public PositionForwarderUrl(Config config, HttpForwardClient client, ObjectMapper objectMapper) {
         this.client = client;
         this.objectMapper = objectMapper;
-        this.url = config.getString(Keys.FORWARD_URL);
-        this.header = config.getString(Keys.FORWARD_HEADER);
+        this.segments = parseTemplate(config.getString(Keys.FORWARD_URL));
     }
 
     @Override
     public void forward(PositionData positionData, ResultHandler resultHandler) {
         try {
-            String url = formatRequest(positionData);
-            var requestBuilder = client.target(url).request();
-
-            if (header != null && !header.isEmpty()) {
-                for (String line: header.split("\\r?\\n")) {
-                    String[] values = line.split(":", 2);
-                    String headerName = values[0].trim();
-                    String headerValue = values[1].trim();
-                    requestBuilder.header(headerName, headerValue);
-                }
+            client.get(formatRequest(positionData), resultHandler);
+        } catch (IOException e) {
+            resultHandler.onResult(false, e);
+        }
+    }
+
+    public String formatRequest(PositionData positionData) throws IOException {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        for (Segment segment : segments) {
+            segment.append(builder, positionData);
+        }
+        return builder.toString();
+    }
+
+    private Segment[] parseTemplate(String template) {
+        List<Segment> result = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int index = 0;
+        while (index < template.length()) {
+            int start = template.indexOf('{', index);
+            int end = start >= 0 ? template.indexOf('}', start) : -1;
+            if (end < 0) {
+                literal.append(template, index, template.length());
+                break;
+            }
+            Segment field = createField(template.substring(start + 1, end));
+            if (field == null) {
+                literal.append(template, index, start + 1);
+                index = start + 1;
+                continue;
             }
+            literal.append(template, index, start);
+            if (!literal.isEmpty()) {
+                String text = literal.toString();
+                result.add((builder, positionData) -> builder.append(text));
+                literal.setLength(0);
+            }
+            result.add(field);
+            index = end + 1;
+        }
+        if (!literal.isEmpty()) {
+            String text = literal.toString();
+            result.add((builder, positionData) -> builder.append(text));
+        }
+        return result.toArray(new Segment[0]);
+    }
 
-            requestBuilder.async().get(new InvocationCallback<Response>() {
-                @Override
-                public void completed(Response response) {
-                    if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
-                        resultHandler.onResult(true, null);
-                    } else {
-                        int code = response.getStatusInfo().getStatusCode();
-                        resultHandler.onResult(false, new RuntimeException("HTTP code " + code));
-                    }
+    private Segment createField(String name) {
+        return switch (name) {
+            case "name" -> (builder, data) -> encode(builder, data.getDevice().getName());
+            case "uniqueId" -> (builder, data) -> builder.append(data.getDevice().getUniqueId());
+            case "status" -> (builder, data) -> builder.append(data.getDevice().getStatus());
+            case "deviceId" -> (builder, data) -> builder.append(data.getPosition().getDeviceId());
+            case "protocol" -> (builder, data) -> builder.append(data.getPosition().getProtocol());
+            case "deviceTime" -> (builder, data) -> builder.append(data.getPosition().getDeviceTime().getTime());
+            case "fixTime" -> (builder, data) -> builder.append(data.getPosition().getFixTime().getTime());
+            case "valid" -> (builder, data) -> builder.append(data.getPosition().getValid());
+            case "latitude" -> (builder, data) -> builder.append(data.getPosition().getLatitude());
+            case "longitude" -> (builder, data) -> builder.append(data.getPosition().getLongitude());
+            case "altitude" -> (builder, data) -> builder.append(data.getPosition().getAltitude());
+            case "speed" -> (builder, data) -> builder.append(data.getPosition().getSpeed());
+            case "course" -> (builder, data) -> builder.append(data.getPosition().getCourse());
+            case "accuracy" -> (builder, data) -> builder.append(data.getPosition().getAccuracy());
+            case "statusCode" -> (builder, data) -> builder.append(calculateStatus(data.getPosition()));
+            case "address" -> (builder, data) -> {
+                String address = data.getPosition().getAddress();
+                if (address != null) {
+                    encode(builder, address);
+                } else {
+                    builder.append("{address}");
                 }
+            };
+            case "attributes" -> (builder, data) -> objectMapper.writeValue(
+                    new EncodingWriter(builder), data.getPosition().getAttributes());
+            case "gprmc" -> (builder, data) -> formatSentence(builder, data.getPosition());
+            default -> null;
+        };
+    }
 
-                @Override
-                public void failed(Throwable throwable) {
-                    resultHandler.onResult(false, throwable);
-                }
-            });
-        } catch (UnsupportedEncodingException | JsonProcessingException e) {
-            resultHandler.onResult(false, e);
+    private static boolean isUnreserved(int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                || c == '.' || c == '-' || c == '*' || c == '_';
+    }
+
+    private static void appendByte(StringBuilder builder, int b) {
+        builder.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+
+    /**
+     * Appends form encoded code point, matching {@link java.net.URLEncoder} with UTF-8.
+     */
+    private static void encode(StringBuilder builder, int codePoint) {
+        if (isUnreserved(codePoint)) {
+            builder.append((char) codePoint);
+        } else if (codePoint == ' ') {
+            builder.append('+');
+        } else if (codePoint < 0x80) {
+            appendByte(builder, codePoint);
+        } else if (codePoint < 0x800) {
+            appendByte(builder, 0xC0 | codePoint >> 6);
+            appendByte(builder, 0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000 && Character.isSurrogate((char) codePoint)) {
+            appendByte(builder, '?');
+        } else if (codePoint < 0x10000) {
+            appendByte(builder, 0xE0 | codePoint >> 12);
+            appendByte(builder, 0x80 | codePoint >> 6 & 0x3F);
+            appendByte(builder, 0x80 | codePoint & 0x3F);
+        } else {
+            appendByte(builder, 0xF0 | codePoint >> 18);
+            appendByte(builder, 0x80 | codePoint >> 12 & 0x3F);
+            appendByte(builder, 0x80 | codePoint >> 6 & 0x3F);
+            appendByte(builder, 0x80 | codePoint & 0x3F);
         }
     }
 
-    public String formatRequest(
-            PositionData positionData) throws UnsupportedEncodingException, JsonProcessingException {
-
-        Position position = positionData.getPosition();
-        Device device = positionData.getDevice();
-
-        String request = url
-                .replace("{name}", URLEncoder.encode(device.getName(), StandardCharsets.UTF_8))
-                .replace("{uniqueId}", device.getUniqueId())
-                .replace("{status}", device.getStatus())
-                .replace("{deviceId}", String.valueOf(position.getDeviceId()))
-                .replace("{protocol}", String.valueOf(position.getProtocol()))
-                .replace("{deviceTime}", String.valueOf(position.getDeviceTime().getTime()))
-                .replace("{fixTime}", String.valueOf(position.getFixTime().getTime()))
-                .replace("{valid}", String.valueOf(position.getValid()))
-                .replace("{latitude}", String.valueOf(position.getLatitude()))
-                .replace("{longitude}", String.valueOf(position.getLongitude()))
-                .replace("{altitude}", String.valueOf(position.getAltitude()))
-                .replace("{speed}", String.valueOf(position.getSpeed()))
-                .replace("{course}", String.valueOf(position.getCourse()))
-                .replace("{accuracy}", String.valueOf(position.getAccuracy()))
-                .replace("{statusCode}", calculateStatus(position));
-
-        if (position.getAddress() != null) {
-            request = request.replace(
-                    "{address}", URLEncoder.encode(position.getAddress(), StandardCharsets.UTF_8));
+    private static void encode(StringBuilder builder, String value) {
+        value.codePoints().forEach(codePoint -> encode(builder, codePoint));
+    }
+
+    /**
+     * Writer that form encodes characters directly into the target builder.
+     */
+    private static final class EncodingWriter extends Writer {
+
+        private final StringBuilder builder;
+        private char highSurrogate;
+
+        private EncodingWriter(StringBuilder builder) {
+            this.builder = builder;
         }
 
-        if (request.contains("{attributes}")) {
-            String attributes = objectMapper.writeValueAsString(position.getAttributes());
-            request = request.replace(
-                    "{attributes}", URLEncoder.encode(attributes, StandardCharsets.UTF_8));
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                char c = buffer[i];
+                if (highSurrogate != 0) {
+                    char high = highSurrogate;
+                    highSurrogate = 0;
+                    if (Character.isLowSurrogate(c)) {
+                        encode(builder, Character.toCodePoint(high, c));
+                        continue;
+                    }
+                    encode(builder, high);
+                }
+                if (Character.isHighSurrogate(c)) {
+                    highSurrogate = c;
+                } else {
+                    encode(builder, c);
+                }
+            }
         }
 
-        if (request.contains("{gprmc}")) {
-            request = request.replace("{gprmc}", formatSentence(position));
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            if (highSurrogate != 0) {
+                encode(builder, highSurrogate);
+                highSurrogate = 0;
+            }
         }
 
-        return request;
     }
 
-    private static String formatSentence(Position position) {
+    private static void formatSentence(StringBuilder s, Position position) {
 
-        StringBuilder s = new StringBuilder("$GPRMC,");
+        int start = s.length();
+        s.append("$GPRMC,");
 
         try (Formatter f = new Formatter(s, Locale.ENGLISH)) {
 
@@ -147,13 +243,11 @@ public class PositionForwarderUrl implements PositionForwarder {
             f.format("%1$td%1$tm%1$ty,,", calendar);
         }
 
-        s.append(Checksum.nmea(s.substring(1))); // &line[Checksum]  
-
-        return s.toString();
+        s.append(Checksum.nmea(s.substring(start + 1)));
     }
 
     // OpenGTS status code
-    private String calculateStatus(Position position) {
+    private static String calculateStatus(Position position) {
         if (position.hasAttribute(Position.KEY_ALARM)) {
             return "0xF841"; // STATUS_PANIC_ON
         } else if (position.getSpeed() < 1.0) {
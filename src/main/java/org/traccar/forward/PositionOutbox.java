@@ -0,0 +1,279 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Nullable;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.StatisticsManager;
+import org.traccar.helper.SegmentedLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk-backed outbox for positions that could not be forwarded. Positions are delivered in batches, sequentially for
+ * each device, and the destination cursor only moves forward after the whole batch is delivered. Records that can't
+ * be decoded or are older than the configured maximum age are dropped, so they can't block the outbox.
+ */
+@Singleton
+public class PositionOutbox implements LifecycleObject {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PositionOutbox.class);
+
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final int BATCH_SIZE = 1000;
+    private static final long BATCH_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+    private record Entry(long time, PositionData positionData) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final PositionForwarder positionForwarder;
+    private final StatisticsManager statisticsManager;
+    private final Path directory;
+    private final String destination;
+    private final long interval;
+    private final int concurrency;
+    private final long maxAge;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    private volatile SegmentedLog log;
+    private volatile boolean scanning;
+    private CountDownLatch inFlight;
+    private ScheduledExecutorService executor;
+
+    @Inject
+    public PositionOutbox(
+            Config config, ObjectMapper objectMapper, @Nullable PositionForwarder positionForwarder,
+            StatisticsManager statisticsManager) {
+        this.objectMapper = objectMapper;
+        this.positionForwarder = positionForwarder;
+        this.statisticsManager = statisticsManager;
+        String path = config.getString(Keys.FORWARD_OUTBOX_PATH);
+        directory = path != null && positionForwarder != null ? Path.of(path) : null;
+        destination = config.getString(Keys.FORWARD_TYPE);
+        interval = config.getLong(Keys.FORWARD_OUTBOX_INTERVAL);
+        concurrency = config.getInteger(Keys.FORWARD_OUTBOX_CONCURRENCY);
+        maxAge = config.getLong(Keys.FORWARD_OUTBOX_MAX_AGE);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    public boolean hasBacklog() {
+        return scanning || backlog.get() > 0;
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (isEnabled()) {
+            long startTime = System.currentTimeMillis();
+            log = new SegmentedLog(directory, SEGMENT_SIZE);
+            executor = Executors.newSingleThreadScheduledExecutor();
+            if (!log.read(log.getCursor(destination), 1).records().isEmpty()) {
+                scanning = true;
+                executor.execute(() -> scan(startTime));
+            }
+            executor.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Counts records left from the previous run. Records appended after the start are already counted by {@link #add}.
+     */
+    private void scan(long startTime) {
+        try {
+            SegmentedLog.Cursor cursor = log.getCursor(destination);
+            SegmentedLog.Batch batch;
+            while (!(batch = log.read(cursor, BATCH_SIZE)).records().isEmpty()) {
+                for (byte[] record : batch.records()) {
+                    if (ByteBuffer.wrap(record).getLong() < startTime) {
+                        backlog.incrementAndGet();
+                    }
+                }
+                cursor = batch.next();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Forwarding outbox scan error", e);
+        } finally {
+            scanning = false;
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Stores position for later delivery. Returns {@code false} if the outbox is disabled or the write failed.
+     */
+    public boolean add(PositionData positionData) {
+        if (log == null) {
+            return false;
+        }
+        try {
+            byte[] data = objectMapper.writeValueAsBytes(positionData);
+            ByteBuffer record = ByteBuffer.allocate(Long.BYTES + data.length);
+            record.putLong(System.currentTimeMillis()).put(data);
+            log.append(List.of(record.array()));
+            backlog.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Forwarding outbox write error", e);
+            return false;
+        }
+    }
+
+    private Entry decode(byte[] record, long minTime) {
+        long time = ByteBuffer.wrap(record).getLong();
+        if (time < minTime) {
+            LOGGER.warn("Forwarding outbox dropped expired position");
+            return null;
+        }
+        try {
+            return new Entry(time, objectMapper.readValue(
+                    record, Long.BYTES, record.length - Long.BYTES, PositionData.class));
+        } catch (IOException e) {
+            LOGGER.warn("Forwarding outbox dropped invalid position", e);
+            return null;
+        }
+    }
+
+    /**
+     * Delivers stored positions until the outbox is empty or delivery fails.
+     */
+    public void drain() {
+        if (scanning) {
+            return;
+        }
+        if (inFlight != null && inFlight.getCount() > 0) {
+            LOGGER.warn("Forwarding outbox drain skipped, previous deliveries still in progress");
+            return;
+        }
+        boolean reported = false;
+        try {
+            SegmentedLog.Batch batch;
+            while (!(batch = log.read(log.getCursor(destination), BATCH_SIZE)).records().isEmpty()) {
+                long minTime = System.currentTimeMillis() - maxAge;
+                List<Entry> entries = new ArrayList<>(batch.records().size());
+                for (byte[] record : batch.records()) {
+                    Entry entry = decode(record, minTime);
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                }
+
+                if (!reported && !entries.isEmpty()) {
+                    long age = System.currentTimeMillis() - entries.get(0).time();
+                    statisticsManager.registerForwardBacklog(backlog.get(), age);
+                    LOGGER.info("Forwarding outbox backlog {} positions, oldest {} s", backlog.get(), age / 1000);
+                    reported = true;
+                }
+
+                if (!deliver(entries)) {
+                    break;
+                }
+                log.commit(destination, batch.next());
+                backlog.addAndGet(-batch.records().size());
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Forwarding outbox read error", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean deliver(List<Entry> entries) throws InterruptedException {
+        Map<Long, List<PositionData>> devices = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            devices.computeIfAbsent(
+                    entry.positionData().getDevice().getId(), key -> new ArrayList<>()).add(entry.positionData());
+        }
+        List<List<PositionData>> queues = new ArrayList<>(devices.values());
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        CountDownLatch latch = new CountDownLatch(queues.size());
+        inFlight = latch;
+        for (int i = 0; i < Math.min(concurrency, queues.size()); i++) {
+            deliverNextDevice(queues, next, failed, latch);
+        }
+        if (!latch.await(BATCH_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            // stop remaining deliveries; the batch is resent only after the pending ones complete
+            failed.set(true);
+            LOGGER.warn("Forwarding outbox delivery timeout");
+            return false;
+        }
+        return !failed.get();
+    }
+
+    private void deliverNextDevice(
+            List<List<PositionData>> queues, AtomicInteger next, AtomicBoolean failed, CountDownLatch latch) {
+        int index = next.getAndIncrement();
+        if (index < queues.size()) {
+            deliverDevice(queues.get(index), 0, () -> deliverNextDevice(queues, next, failed, latch), failed, latch);
+        }
+    }
+
+    private void deliverDevice(
+            List<PositionData> queue, int index, Runnable done, AtomicBoolean failed, CountDownLatch latch) {
+        if (index >= queue.size() || failed.get()) {
+            latch.countDown();
+            done.run();
+            return;
+        }
+        positionForwarder.forward(queue.get(index), (success, throwable) -> {
+            if (success) {
+                deliverDevice(queue, index + 1, done, failed, latch);
+            } else {
+                if (failed.compareAndSet(false, true)) {
+                    LOGGER.warn("Forwarding outbox delivery failed", throwable);
+                }
+                latch.countDown();
+                done.run();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geocoder;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.database.StatisticsManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+public class CachingGeocoder implements Geocoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingGeocoder.class);
+
+    private record Key(double latitude, double longitude) {
+    }
+
+    private final Geocoder geocoder;
+    private final double scale;
+    private final int cacheSize;
+    private final AsyncCache<Key, String> cache;
+    private StatisticsManager statisticsManager;
+
+    private final Executor executor;
+    private final Path file;
+    private Writer writer;
+    private int fileEntries;
+
+    /**
+     * @param precision number of decimal places used for the cache key, or {@code null} to match exact coordinates
+     */
+    public CachingGeocoder(Geocoder geocoder, int cacheSize, Integer precision, String file) {
+        this(geocoder, cacheSize, precision, file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor runs file writes, which must not happen inside the cache mapping function
+     */
+    CachingGeocoder(Geocoder geocoder, int cacheSize, Integer precision, String file, Executor executor) {
+        this.geocoder = geocoder;
+        this.executor = executor;
+        this.scale = precision != null ? Math.pow(10, precision) : 0;
+        this.cacheSize = cacheSize;
+        this.cache = Caffeine.newBuilder().maximumSize(cacheSize).buildAsync();
+        this.file = file != null ? Paths.get(file) : null;
+        if (this.file != null) {
+            try {
+                load();
+            } catch (IOException e) {
+                LOGGER.warn("Geocoder cache load error", e);
+            }
+        }
+    }
+
+    @Override
+    public void setStatisticsManager(StatisticsManager statisticsManager) {
+        this.statisticsManager = statisticsManager;
+        geocoder.setStatisticsManager(statisticsManager);
+    }
+
+    /**
+     * Coordinates are rounded to the configured number of decimal places, so nearby points share the same key.
+     */
+    private Key getKey(double latitude, double longitude) {
+        if (scale > 0) {
+            return new Key(Math.round(latitude * scale) / scale, Math.round(longitude * scale) / scale);
+        }
+        return new Key(latitude, longitude);
+    }
+
+    private void load() throws IOException {
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] values = line.split("\t", 3);
+                    if (values.length == 3) {
+                        try {
+                            Key key = getKey(Double.parseDouble(values[0]), Double.parseDouble(values[1]));
+                            cache.synchronous().put(key, values[2]);
+                        } catch (NumberFormatException e) {
+                            LOGGER.warn("Geocoder cache entry error", e);
+                        }
+                    }
+                }
+            }
+        }
+        compact();
+    }
+
+    /**
+     * Rewrites the file with current cache entries only. Called on startup and whenever the file has grown to twice
+     * the cache size, so it stays bounded while the server is running.
+     */
+    private void compact() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        cache.synchronous().cleanUp();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        int count = 0;
+        try (Writer compacted = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (Map.Entry<Key, String> entry : cache.synchronous().asMap().entrySet()) {
+                writeEntry(compacted, entry.getKey(), entry.getValue());
+                count += 1;
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileEntries = count;
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private static void writeEntry(Writer writer, Key key, String address) throws IOException {
+        writer.write(String.valueOf(key.latitude()));
+        writer.write('\t');
+        writer.write(String.valueOf(key.longitude()));
+        writer.write('\t');
+        writer.write(address.replace('\n', ' ').replace('\r', ' '));
+        writer.write('\n');
+    }
+
+    private synchronized void persist(Key key, String address) {
+        if (writer != null) {
+            try {
+                writeEntry(writer, key, address);
+                writer.flush();
+                fileEntries += 1;
+                if (fileEntries > 2L * cacheSize) {
+                    compact();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Geocoder cache write error", e);
+            }
+        }
+    }
+
+    private CompletableFuture<String> request(Key key, double latitude, double longitude) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        geocoder.getAddress(latitude, longitude, new ReverseGeocoderCallback() {
+            @Override
+            public void onSuccess(String address) {
+                future.complete(address);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        if (file != null) {
+            // geocoder can complete synchronously, while the cache is still computing the entry
+            future.thenAcceptAsync(address -> {
+                if (address != null) {
+                    persist(key, address);
+                }
+            }, executor);
+        }
+        return future;
+    }
+
+    @Override
+    public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+
+        Key key = getKey(latitude, longitude);
+        CompletableFuture<String> future = cache.getIfPresent(key);
+        if (statisticsManager != null) {
+            statisticsManager.registerGeocoderCache(future != null);
+        }
+        if (future == null) {
+            // concurrent requests for the same key share a single pending lookup
+            future = cache.get(key, (ignored, executor) -> request(key, latitude, longitude));
+        }
+
+        if (callback != null) {
+            future.whenComplete((address, error) -> {
+                if (error != null) {
+                    callback.onFailure(error);
+                } else if (address != null) {
+                    callback.onSuccess(address);
+                } else {
+                    callback.onFailure(new GeocoderException("Empty address"));
+                }
+            });
+            return null;
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.warn("Geocoder request error", e.getCause());
+        }
+        return null;
+    }
+
+}
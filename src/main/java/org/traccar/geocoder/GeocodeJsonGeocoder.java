@@ -37,8 +37,8 @@ public class GeocodeJsonGeocoder extends JsonGeocoder {
     }
 
     public GeocodeJsonGeocoder(
-            Client client, String url, String key, String language, int cacheSize, AddressFormat addressFormat) {
-        super(client, formatUrl(url, key, language), cacheSize, addressFormat);
+            Client client, String url, String key, String language, AddressFormat addressFormat) {
+        super(client, formatUrl(url, key, language), addressFormat);
     }
 
     @Override
@@ -22,8 +22,8 @@ public class LocationIqGeocoder extends NominatimGeocoder {
     private static final String DEFAULT_URL = "https://us1.locationiq.com/v1/reverse.php";
 
     public LocationIqGeocoder(
-            Client client, String url, String key, String language, int cacheSize, AddressFormat addressFormat) {
-        super(client, url != null ? url : DEFAULT_URL, key, language, cacheSize, addressFormat);
+            Client client, String url, String key, String language, AddressFormat addressFormat) {
+        super(client, url != null ? url : DEFAULT_URL, key, language, addressFormat);
     }
 
 }
@@ -25,8 +25,8 @@ public class PositionStackGeocoder extends JsonGeocoder {
         return "http://api.positionstack.com/v1/reverse?access_key=" + key + "&query=%f,%f";
     }
 
-    public PositionStackGeocoder(Client client, String key, int cacheSize, AddressFormat addressFormat) {
-        super(client, formatUrl(key), cacheSize, addressFormat);
+    public PositionStackGeocoder(Client client, String key, AddressFormat addressFormat) {
+        super(client, formatUrl(key), addressFormat);
     }
 
     @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2020 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,12 +24,59 @@ public abstract class GeofenceGeometry {
 
     public abstract boolean containsPoint(Config config, Geofence geofence, double latitude, double longitude);
 
+    public abstract BoundingBox getBoundingBox(Config config, Geofence geofence);
+
     public abstract double calculateArea();
 
     public abstract String toWkt();
 
     public abstract void fromWkt(String wkt) throws ParseException;
 
+    private static final double EARTH_RADIUS = 6378137.0;
+
+    /**
+     * Box that contains all points within given distance in meters from the provided box.
+     */
+    protected static BoundingBox expand(double minLat, double minLon, double maxLat, double maxLon, double distance) {
+        double angle = distance / EARTH_RADIUS;
+        double deltaLat = Math.toDegrees(angle);
+        double maxAbsLat = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        double cos = Math.cos(Math.toRadians(maxAbsLat));
+        double sin = Math.sin(angle);
+        if (maxAbsLat + deltaLat >= 90 || sin >= cos) {
+            return new BoundingBox(minLat - deltaLat, -180, maxLat + deltaLat, 180);
+        }
+        double deltaLon = Math.toDegrees(Math.asin(sin / cos));
+        return new BoundingBox(minLat - deltaLat, minLon - deltaLon, maxLat + deltaLat, maxLon + deltaLon);
+    }
+
+    /**
+     * Brings longitude slightly outside of the -180..180 range back into it.
+     */
+    public static double wrapLongitude(double longitude) {
+        if (longitude < -180) {
+            return longitude + 360;
+        } else if (longitude > 180) {
+            return longitude - 360;
+        }
+        return longitude;
+    }
+
+    public record BoundingBox(double minLat, double minLon, double maxLat, double maxLon) {
+
+        public BoundingBox {
+            if (minLon < -180 || maxLon > 180) {
+                minLon = -180;
+                maxLon = 180;
+            }
+        }
+
+        public boolean contains(double latitude, double longitude) {
+            return latitude >= minLat && latitude <= maxLat && longitude >= minLon && longitude <= maxLon;
+        }
+
+    }
+
     public static class Coordinate {
 
         private double lat;
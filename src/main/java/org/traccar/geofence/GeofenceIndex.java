@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geofence;
+
+import org.traccar.config.Config;
+import org.traccar.model.Geofence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class GeofenceIndex {
+
+    private static final double CELL_SIZE = 0.1;
+    private static final int LONGITUDE_CELLS = (int) Math.ceil(360 / CELL_SIZE) + 1;
+    private static final int MAX_CELLS = 256;
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    private record Entry(Geofence geofence, GeofenceGeometry.BoundingBox boundingBox) {
+    }
+
+    private final Config config;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Entry[]> cells = new ConcurrentHashMap<>();
+    private volatile Entry[] large = EMPTY;
+
+    public GeofenceIndex(Config config, Collection<Geofence> geofences) {
+        this.config = config;
+        for (Geofence geofence : geofences) {
+            add(geofence);
+        }
+    }
+
+    private static int latitudeCell(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_SIZE);
+    }
+
+    private static int longitudeCell(double longitude) {
+        return (int) Math.floor((longitude + 180) / CELL_SIZE);
+    }
+
+    private static long cellKey(int latitudeCell, int longitudeCell) {
+        return (long) latitudeCell * LONGITUDE_CELLS + longitudeCell;
+    }
+
+    private static boolean isLarge(GeofenceGeometry.BoundingBox boundingBox) {
+        long latitudeCells = latitudeCell(boundingBox.maxLat()) - latitudeCell(boundingBox.minLat()) + 1;
+        long longitudeCells = longitudeCell(boundingBox.maxLon()) - longitudeCell(boundingBox.minLon()) + 1;
+        return latitudeCells * longitudeCells > MAX_CELLS;
+    }
+
+    private static Entry[] append(Entry[] array, Entry entry) {
+        Entry[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = entry;
+        return result;
+    }
+
+    private static Entry[] remove(Entry[] array, Entry entry) {
+        return Arrays.stream(array).filter(item -> item != entry).toArray(Entry[]::new);
+    }
+
+    public boolean contains(long geofenceId) {
+        return entries.containsKey(geofenceId);
+    }
+
+    public synchronized void add(Geofence geofence) {
+        remove(geofence.getId());
+        if (geofence.getGeometry() == null) {
+            return;
+        }
+        Entry entry = new Entry(geofence, geofence.getGeometry().getBoundingBox(config, geofence));
+        entries.put(geofence.getId(), entry);
+        var boundingBox = entry.boundingBox();
+        if (isLarge(boundingBox)) {
+            large = append(large, entry);
+        } else {
+            for (int i = latitudeCell(boundingBox.minLat()); i <= latitudeCell(boundingBox.maxLat()); i++) {
+                for (int j = longitudeCell(boundingBox.minLon()); j <= longitudeCell(boundingBox.maxLon()); j++) {
+                    cells.merge(cellKey(i, j), new Entry[] {entry}, (array, value) -> append(array, entry));
+                }
+            }
+        }
+    }
+
+    public synchronized void remove(long geofenceId) {
+        Entry entry = entries.remove(geofenceId);
+        if (entry == null) {
+            return;
+        }
+        var boundingBox = entry.boundingBox();
+        if (isLarge(boundingBox)) {
+            large = remove(large, entry);
+        } else {
+            for (int i = latitudeCell(boundingBox.minLat()); i <= latitudeCell(boundingBox.maxLat()); i++) {
+                for (int j = longitudeCell(boundingBox.minLon()); j <= longitudeCell(boundingBox.maxLon()); j++) {
+                    cells.computeIfPresent(cellKey(i, j), (key, array) -> {
+                        Entry[] result = remove(array, entry);
+                        return result.length > 0 ? result : null;
+                    });
+                }
+            }
+        }
+    }
+
+    public List<Long> getGeofences(double latitude, double longitude) {
+        double longitudeWrapped = GeofenceGeometry.wrapLongitude(longitude);
+        List<Long> result = new ArrayList<>();
+        Entry[] candidates = cells.getOrDefault(
+                cellKey(latitudeCell(latitude), longitudeCell(longitudeWrapped)), EMPTY);
+        check(candidates, latitude, longitudeWrapped, result);
+        check(large, latitude, longitudeWrapped, result);
+        return result;
+    }
+
+    private void check(Entry[] candidates, double latitude, double longitude, List<Long> result) {
+        for (Entry entry : candidates) {
+            Geofence geofence = entry.geofence();
+            if (entry.boundingBox().contains(latitude, longitude)
+                    && geofence.getGeometry().containsPoint(config, geofence, latitude, longitude)) {
+                result.add(geofence.getId());
+            }
+        }
+    }
+
+}
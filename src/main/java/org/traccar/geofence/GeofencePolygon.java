@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2020 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import org.traccar.model.Geofence;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.locationtech.spatial4j.distance.DistanceUtils.DEG_TO_KM;
 
@@ -37,9 +38,15 @@ public class GeofencePolygon extends GeofenceGeometry {
     }
 
     private ArrayList<Coordinate> coordinates;
+    private final List<GeofencePolygon> holes = new ArrayList<>();
 
+    private double[] latitudes;
+    private double[] longitudes;
     private double[] constant;
     private double[] multiple;
+    private double minLon;
+    private double maxLon;
+    private BoundingBox boundingBox;
 
     private boolean needNormalize = false;
 
@@ -52,45 +59,54 @@ public class GeofencePolygon extends GeofenceGeometry {
         int i;
         int j = polyCorners - 1;
 
-        if (constant != null) {
-            constant = null;
+        needNormalize = false;
+        for (i = 0; i < polyCorners; j = i++) {
+            if (Math.abs(coordinates.get(i).getLon() - coordinates.get(j).getLon()) > 180) {
+                needNormalize = true;
+                break;
+            }
+        }
+        j = polyCorners - 1;
+
+        latitudes = new double[polyCorners];
+        longitudes = new double[polyCorners];
+        double minLat = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE;
+        minLon = Double.MAX_VALUE;
+        maxLon = -Double.MAX_VALUE;
+        for (i = 0; i < polyCorners; i++) {
+            latitudes[i] = coordinates.get(i).getLat();
+            longitudes[i] = normalizeLon(coordinates.get(i).getLon());
+            minLat = Math.min(minLat, latitudes[i]);
+            minLon = Math.min(minLon, longitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            maxLon = Math.max(maxLon, longitudes[i]);
         }
-        if (multiple != null) {
-            multiple = null;
+        if (needNormalize) {
+            // polygon crosses the antimeridian, so the box has to cover all longitudes
+            boundingBox = new BoundingBox(minLat, -180, maxLat, 180);
+        } else {
+            boundingBox = new BoundingBox(minLat, minLon, maxLat, maxLon);
         }
 
         constant = new double[polyCorners];
         multiple = new double[polyCorners];
 
-        boolean hasNegative = false;
-        boolean hasPositive = false;
-        for (i = 0; i < polyCorners; i++) {
-            if (coordinates.get(i).getLon() > 90) {
-                hasPositive = true;
-            } else if (coordinates.get(i).getLon() < -90) {
-                hasNegative = true;
-            }
-        }
-        needNormalize = hasPositive && hasNegative;
-
         for (i = 0; i < polyCorners; j = i++) {
-            if (normalizeLon(coordinates.get(j).getLon()) == normalizeLon(coordinates.get(i).getLon())) {
-                constant[i] = coordinates.get(i).getLat();
+            if (longitudes[j] == longitudes[i]) {
+                constant[i] = latitudes[i];
                 multiple[i] = 0;
             } else {
-                constant[i] = coordinates.get(i).getLat()
-                        - (normalizeLon(coordinates.get(i).getLon()) * coordinates.get(j).getLat())
-                        / (normalizeLon(coordinates.get(j).getLon()) - normalizeLon(coordinates.get(i).getLon()))
-                        + (normalizeLon(coordinates.get(i).getLon()) * coordinates.get(i).getLat())
-                        / (normalizeLon(coordinates.get(j).getLon()) - normalizeLon(coordinates.get(i).getLon()));
-                multiple[i] = (coordinates.get(j).getLat() - coordinates.get(i).getLat())
-                        / (normalizeLon(coordinates.get(j).getLon()) - normalizeLon(coordinates.get(i).getLon()));
+                constant[i] = latitudes[i]
+                        - (longitudes[i] * latitudes[j]) / (longitudes[j] - longitudes[i])
+                        + (longitudes[i] * latitudes[i]) / (longitudes[j] - longitudes[i]);
+                multiple[i] = (latitudes[j] - latitudes[i]) / (longitudes[j] - longitudes[i]);
             }
         }
     }
 
     private double normalizeLon(double lon) {
-        if (needNormalize && lon < -90) {
+        if (needNormalize && lon < 0) {
             return lon + 360;
         }
         return lon;
@@ -99,23 +115,38 @@ public class GeofencePolygon extends GeofenceGeometry {
     @Override
     public boolean containsPoint(Config config, Geofence geofence, double latitude, double longitude) {
 
-        int polyCorners = coordinates.size();
+        double longitudeNorm = normalizeLon(wrapLongitude(longitude));
+        if (latitude < boundingBox.minLat() || latitude > boundingBox.maxLat()
+                || longitudeNorm < minLon || longitudeNorm > maxLon) {
+            return false;
+        }
+
+        int polyCorners = longitudes.length;
         int i;
         int j = polyCorners - 1;
-        double longitudeNorm = normalizeLon(longitude);
         boolean oddNodes = false;
 
         for (i = 0; i < polyCorners; j = i++) {
-            if (normalizeLon(coordinates.get(i).getLon()) < longitudeNorm
-                    && normalizeLon(coordinates.get(j).getLon()) >= longitudeNorm
-                    || normalizeLon(coordinates.get(j).getLon()) < longitudeNorm
-                    && normalizeLon(coordinates.get(i).getLon()) >= longitudeNorm) {
+            if (longitudes[i] < longitudeNorm && longitudes[j] >= longitudeNorm
+                    || longitudes[j] < longitudeNorm && longitudes[i] >= longitudeNorm) {
                 oddNodes ^= longitudeNorm * multiple[i] + constant[i] < latitude;
             }
         }
+        if (oddNodes) {
+            for (GeofencePolygon hole : holes) {
+                if (hole.containsPoint(config, geofence, latitude, longitude)) {
+                    return false;
+                }
+            }
+        }
         return oddNodes;
     }
 
+    @Override
+    public BoundingBox getBoundingBox(Config config, Geofence geofence) {
+        return boundingBox;
+    }
+
     @Override
     public double calculateArea() {
         JtsShapeFactory jtsShapeFactory = new JtsSpatialContextFactory().newSpatialContext().getShapeFactory();
@@ -123,34 +154,40 @@ public class GeofencePolygon extends GeofenceGeometry {
         for (Coordinate coordinate : coordinates) {
             polygonBuilder.pointXY(coordinate.getLon(), coordinate.getLat());
         }
-        return polygonBuilder.build().getArea(SpatialContext.GEO) * DEG_TO_KM * DEG_TO_KM;
+        double area = polygonBuilder.build().getArea(SpatialContext.GEO) * DEG_TO_KM * DEG_TO_KM;
+        for (GeofencePolygon hole : holes) {
+            area -= hole.calculateArea();
+        }
+        return area;
     }
 
-    @Override
-    public String toWkt() {
-        StringBuilder buf = new StringBuilder();
-        buf.append("POLYGON ((");
-        for (Coordinate coordinate : coordinates) {
-            buf.append(coordinate.getLat());
+    private void appendRing(StringBuilder buf) {
+        buf.append("(");
+        for (int i = 0; i < coordinates.size(); i++) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(coordinates.get(i).getLat());
             buf.append(" ");
-            buf.append(coordinate.getLon());
-            buf.append(", ");
+            buf.append(coordinates.get(i).getLon());
         }
-        return buf.substring(0, buf.length() - 2) + "))";
+        buf.append(")");
     }
 
     @Override
-    public void fromWkt(String wkt) throws ParseException {
-        if (coordinates == null) {
-            coordinates = new ArrayList<>();
-        } else {
-            coordinates.clear();
+    public String toWkt() {
+        StringBuilder buf = new StringBuilder();
+        buf.append("POLYGON (");
+        appendRing(buf);
+        for (GeofencePolygon hole : holes) {
+            buf.append(", ");
+            hole.appendRing(buf);
         }
+        buf.append(")");
+        return buf.toString();
+    }
 
-        if (!wkt.startsWith("POLYGON")) {
-            throw new ParseException("Mismatch geometry type", 0);
-        }
-        String content = wkt.substring(wkt.indexOf("((") + 2, wkt.indexOf("))"));
+    private static ArrayList<Coordinate> parseRing(String content) throws ParseException {
         if (content.isEmpty()) {
             throw new ParseException("No content", 0);
         }
@@ -159,6 +196,7 @@ public class GeofencePolygon extends GeofenceGeometry {
             throw new ParseException("Not valid content", 0);
         }
 
+        ArrayList<Coordinate> ring = new ArrayList<>();
         for (String commaToken : commaTokens) {
             String[] tokens = commaToken.trim().split("\\s");
             if (tokens.length != 2) {
@@ -175,7 +213,31 @@ public class GeofencePolygon extends GeofenceGeometry {
             } catch (NumberFormatException e) {
                 throw new ParseException(tokens[1] + " is not a double", 0);
             }
-            coordinates.add(coordinate);
+            ring.add(coordinate);
+        }
+        return ring;
+    }
+
+    @Override
+    public void fromWkt(String wkt) throws ParseException {
+        if (!wkt.startsWith("POLYGON")) {
+            throw new ParseException("Mismatch geometry type", 0);
+        }
+        int start = wkt.indexOf("((");
+        int end = wkt.lastIndexOf("))");
+        if (start < 0 || end < start) {
+            throw new ParseException("No content", 0);
+        }
+
+        // first ring is the outer boundary, any following rings are holes
+        String[] rings = wkt.substring(start + 2, end).split("\\)\\s*,\\s*\\(");
+        coordinates = parseRing(rings[0].trim());
+        holes.clear();
+        for (int i = 1; i < rings.length; i++) {
+            GeofencePolygon hole = new GeofencePolygon();
+            hole.coordinates = parseRing(rings[i].trim());
+            hole.preCalculate();
+            holes.add(hole);
         }
 
         preCalculate();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2017 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2017 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -17,38 +17,76 @@
 package org.traccar.handler;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.JexlEngine;
 import org.apache.commons.jexl3.JexlException;
 import org.apache.commons.jexl3.JexlFeatures;
-import org.apache.commons.jexl3.MapContext;
+import org.apache.commons.jexl3.JexlScript;
 import org.apache.commons.jexl3.introspection.JexlSandbox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.traccar.broadcast.BroadcastInterface;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.model.Attribute;
+import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
+import org.traccar.model.ObjectOperation;
 import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.Date;
 
-public class ComputedAttributesHandler extends BasePositionHandler {
+public class ComputedAttributesHandler extends BasePositionHandler implements BroadcastInterface {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ComputedAttributesHandler.class);
 
+    private static final Object MISSING = new Object();
+
+    private static final Map<String, MethodHandle> ACCESSORS = new HashMap<>();
+    private static final List<MethodHandle> MAP_ACCESSORS = new ArrayList<>();
+
+    static {
+        MethodType type = MethodType.methodType(Object.class, Position.class);
+        for (Method method : Position.class.getMethods()) {
+            if (method.getName().startsWith("get") && method.getParameterCount() == 0
+                    && !method.getDeclaringClass().equals(Object.class)
+                    && !Modifier.isStatic(method.getModifiers())) {
+                try {
+                    MethodHandle handle = MethodHandles.publicLookup().unreflect(method).asType(type);
+                    if (method.getReturnType().equals(Map.class)) {
+                        MAP_ACCESSORS.add(handle);
+                    } else {
+                        String name = method.getName();
+                        ACCESSORS.put(Character.toLowerCase(name.charAt(3)) + name.substring(4), handle);
+                    }
+                } catch (IllegalAccessException error) {
+                    LOGGER.warn("Attribute reflection error", error);
+                }
+            }
+        }
+    }
+
+    private record CachedScript(String expression, JexlScript script) {
+    }
+
+    private final Map<Long, CachedScript> scripts = new ConcurrentHashMap<>();
+
     private final CacheManager cacheManager;
     private boolean early;
 
@@ -59,6 +97,7 @@ public class ComputedAttributesHandler extends BasePositionHandler {
     private final boolean includeDeviceAttributes;
     private final boolean includeLastAttributes;
 
+    @Singleton
     public static class Early extends ComputedAttributesHandler {
         @Inject
         public Early(Config config, CacheManager cacheManager) {
@@ -66,6 +105,7 @@ public class ComputedAttributesHandler extends BasePositionHandler {
         }
     }
 
+    @Singleton
     public static class Late extends ComputedAttributesHandler {
         @Inject
         public Late(Config config, CacheManager cacheManager) {
@@ -96,54 +136,103 @@ public class ComputedAttributesHandler extends BasePositionHandler {
                 .create();
         includeDeviceAttributes = config.getBoolean(Keys.PROCESSING_COMPUTED_ATTRIBUTES_DEVICE_ATTRIBUTES);
         includeLastAttributes = config.getBoolean(Keys.PROCESSING_COMPUTED_ATTRIBUTES_LAST_ATTRIBUTES);
+        if (cacheManager != null) {
+            cacheManager.registerListener(this);
+        }
+    }
+
+    @Override
+    public <T extends BaseModel> void invalidateObject(
+            boolean local, Class<T> clazz, long id, ObjectOperation operation) {
+        if (clazz.equals(Attribute.class)) {
+            scripts.remove(id);
+        }
     }
 
-    private MapContext prepareContext(Position position) {
-        MapContext result = new MapContext();
-        if (includeDeviceAttributes) {
-            Device device = cacheManager.getObject(Device.class, position.getDeviceId());
-            if (device != null) {
-                for (String key : device.getAttributes().keySet()) {
-                    result.set(key, device.getAttributes().get(key));
+    private static Object resolve(Position position, String name) {
+        try {
+            MethodHandle accessor = ACCESSORS.get(name);
+            if (accessor != null) {
+                return accessor.invokeExact(position);
+            }
+            for (MethodHandle mapAccessor : MAP_ACCESSORS) {
+                Map<?, ?> map = (Map<?, ?>) (Object) mapAccessor.invokeExact(position);
+                if (map != null && map.containsKey(name)) {
+                    return map.get(name);
                 }
             }
+        } catch (Throwable error) {
+            LOGGER.warn("Attribute reflection error", error);
         }
-        Position last = null;
-        if (includeLastAttributes) {
-            last = cacheManager.getPosition(position.getDeviceId());
+        return MISSING;
+    }
+
+    private final class PositionContext implements JexlContext {
+
+        private final Position position;
+        private final Map<String, Object> variables = new HashMap<>();
+
+        private boolean lastResolved;
+        private Position last;
+
+        private PositionContext(Position position) {
+            this.position = position;
         }
-        Set<Method> methods = new HashSet<>(Arrays.asList(position.getClass().getMethods()));
-        Arrays.asList(Object.class.getMethods()).forEach(methods::remove);
-        for (Method method : methods) {
-            if (method.getName().startsWith("get") && method.getParameterTypes().length == 0) {
-                String name = Character.toLowerCase(method.getName().charAt(3)) + method.getName().substring(4);
 
-                try {
-                    if (!method.getReturnType().equals(Map.class)) {
-                        result.set(name, method.invoke(position));
-                        if (last != null) {
-                            result.set(prefixAttribute("last", name), method.invoke(last));
-                        }
-                    } else {
-                        for (Map.Entry<?, ?> entry : ((Map<?, ?>) method.invoke(position)).entrySet()) {
-                            result.set((String) entry.getKey(), entry.getValue());
-                        }
-                        if (last != null) {
-                            for (Map.Entry<?, ?> entry : ((Map<?, ?>) method.invoke(last)).entrySet()) {
-                                result.set(prefixAttribute("last", (String) entry.getKey()), entry.getValue());
-                            }
-                        }
-                    }
-                } catch (IllegalAccessException | InvocationTargetException error) {
-                    LOGGER.warn("Attribute reflection error", error);
+        private Position getLast() {
+            if (!lastResolved) {
+                lastResolved = true;
+                if (includeLastAttributes) {
+                    last = cacheManager.getPosition(position.getDeviceId());
                 }
             }
+            return last;
         }
-        return result;
+
+        private Object lookup(String name) {
+            if (variables.containsKey(name)) {
+                return variables.get(name);
+            }
+            Object result = resolve(position, name);
+            if (result == MISSING && includeLastAttributes && name.length() > 4 && name.startsWith("last")
+                    && Character.isUpperCase(name.charAt(4)) && getLast() != null) {
+                result = resolve(last, Character.toLowerCase(name.charAt(4)) + name.substring(5));
+            }
+            if (result == MISSING && includeDeviceAttributes) {
+                Device device = cacheManager.getObject(Device.class, position.getDeviceId());
+                if (device != null && device.getAttributes().containsKey(name)) {
+                    result = device.getAttributes().get(name);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Object get(String name) {
+            Object result = lookup(name);
+            return result != MISSING ? result : null;
+        }
+
+        @Override
+        public void set(String name, Object value) {
+            variables.put(name, value);
+        }
+
+        @Override
+        public boolean has(String name) {
+            return lookup(name) != MISSING;
+        }
+
     }
 
-    private String prefixAttribute(String prefix, String key) {
-        return prefix + Character.toUpperCase(key.charAt(0)) + key.substring(1);
+    JexlScript getScript(Attribute attribute) {
+        String expression = attribute.getExpression();
+        CachedScript cached = scripts.get(attribute.getId());
+        if (cached == null || !cached.expression().equals(expression)) {
+            cached = new CachedScript(expression, engine.createScript(features, engine.createInfo(), expression));
+            scripts.put(attribute.getId(), cached);
+        }
+        return cached.script();
     }
 
     /**
@@ -151,9 +240,7 @@ public class ComputedAttributesHandler extends BasePositionHandler {
      */
     @Deprecated
     public Object computeAttribute(Attribute attribute, Position position) throws JexlException {
-        return engine
-                .createScript(features, engine.createInfo(), attribute.getExpression())
-                .execute(prepareContext(position));
+        return getScript(attribute).execute(new PositionContext(position));
     }
 
     @Override
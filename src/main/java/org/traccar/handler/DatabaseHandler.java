@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,38 +16,196 @@
 package org.traccar.handler;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.PositionJournal;
 import org.traccar.database.StatisticsManager;
 import org.traccar.model.Position;
 import org.traccar.storage.Storage;
 import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Request;
 
-public class DatabaseHandler extends BasePositionHandler {
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores positions. With batching enabled, positions are queued and written in batches by a dedicated writer thread,
+ * which is flushed when the handler stops. If the queue is full or the writer is not running, the processing thread
+ * writes the position itself, so a slow database slows down processing instead of growing the queue.
+ */
+@Singleton
+public class DatabaseHandler extends BasePositionHandler implements LifecycleObject {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseHandler.class);
 
+    private static final long POLL_TIMEOUT = 100;
+
+    private record Entry(Position position, Callback callback) {
+    }
+
     private final Storage storage;
     private final StatisticsManager statisticsManager;
+    private final ExecutorService executorService;
+    private final PositionJournal positionJournal;
+
+    private final int batchSize;
+    private final long batchLinger;
+    private final BlockingQueue<Entry> queue;
+
+    private Thread writer;
+    private volatile boolean running;
 
     @Inject
-    public DatabaseHandler(Storage storage, StatisticsManager statisticsManager) {
+    public DatabaseHandler(
+            Config config, Storage storage, StatisticsManager statisticsManager, ExecutorService executorService,
+            PositionJournal positionJournal) {
         this.storage = storage;
         this.statisticsManager = statisticsManager;
+        this.executorService = executorService;
+        this.positionJournal = positionJournal;
+        batchSize = config.getInteger(Keys.DATABASE_BATCH_SIZE);
+        batchLinger = config.getLong(Keys.DATABASE_BATCH_LINGER);
+        if (batchSize > 1) {
+            queue = new ArrayBlockingQueue<>(config.getInteger(Keys.DATABASE_BATCH_CAPACITY));
+        } else {
+            queue = null;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (queue != null) {
+            running = true;
+            writer = new Thread(this::writeBatches, "database-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        if (writer != null) {
+            running = false;
+            writer.join();
+            writer = null;
+            List<Entry> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            if (!remaining.isEmpty()) {
+                writeBatch(remaining);
+            }
+        }
     }
 
     @Override
     public void onPosition(Position position, Callback callback) {
+        if (running) {
+            Entry entry = new Entry(position, callback);
+            // entries queued after the writer has been stopped are taken back, unless the final flush got them
+            if (queue.offer(entry) && (running || !queue.remove(entry))) {
+                return;
+            }
+        }
+        writePosition(position, callback);
+    }
+
+    private void writePosition(Position position, Callback callback) {
+        if (positionJournal.isOpen() && positionJournal.append(List.of(position))) {
+            callback.processed(false);
+            return;
+        }
 
         try {
             position.setId(storage.addObject(position, new Request(new Columns.Exclude("id"))));
             statisticsManager.registerMessageStored(position.getDeviceId(), position.getProtocol());
         } catch (Exception error) {
-            LOGGER.warn("Failed to store position", error);
+            if (positionJournal.appendFailed(List.of(position))) {
+                LOGGER.warn("Failed to store position, added to journal", error);
+            } else {
+                LOGGER.warn("Failed to store position", error);
+            }
         }
 
         callback.processed(false);
     }
 
+    private void writeBatches() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchLinger);
+                while (batch.size() < batchSize && running) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    // wait in short steps so that stop does not have to wait for the whole linger time
+                    Entry next = queue.poll(
+                            Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_TIMEOUT)), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                        queue.drainTo(batch, batchSize - batch.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOGGER.warn("Database writer interrupted", e);
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        List<Position> positions = batch.stream().map(Entry::position).toList();
+        if (positionJournal.isOpen() && positionJournal.append(positions)) {
+            completeBatch(batch);
+            return;
+        }
+        try {
+            long[] ids = storage.addObjects(positions, new Request(new Columns.Exclude("id")));
+            for (int i = 0; i < ids.length; i++) {
+                Position position = positions.get(i);
+                position.setId(ids[i]);
+                statisticsManager.registerMessageStored(position.getDeviceId(), position.getProtocol());
+            }
+        } catch (Exception error) {
+            if (positionJournal.appendFailed(positions)) {
+                LOGGER.warn("Failed to store positions, added to journal", error);
+            } else {
+                LOGGER.warn("Failed to store positions", error);
+            }
+        }
+
+        completeBatch(batch);
+    }
+
+    private void completeBatch(List<Entry> batch) {
+        // continue processing on another thread so that the writer never blocks on its own queue
+        executorService.execute(() -> {
+            for (Entry entry : batch) {
+                try {
+                    entry.callback().processed(false);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Position processing failed", e);
+                }
+            }
+        });
+    }
+
 }
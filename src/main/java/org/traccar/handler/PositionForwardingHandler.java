@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.forward.PositionData;
 import org.traccar.forward.PositionForwarder;
+import org.traccar.forward.PositionOutbox;
 import org.traccar.forward.ResultHandler;
 import org.traccar.model.Device;
 import org.traccar.model.Position;
@@ -42,6 +43,7 @@ public class PositionForwardingHandler extends BasePositionHandler {
     private final Timer timer;
 
     private final PositionForwarder positionForwarder;
+    private final PositionOutbox positionOutbox;
 
     private final boolean retryEnabled;
     private final int retryDelay;
@@ -52,11 +54,13 @@ public class PositionForwardingHandler extends BasePositionHandler {
 
     @Inject
     public PositionForwardingHandler(
-            Config config, CacheManager cacheManager, Timer timer, @Nullable PositionForwarder positionForwarder) {
+            Config config, CacheManager cacheManager, Timer timer, @Nullable PositionForwarder positionForwarder,
+            PositionOutbox positionOutbox) {
 
         this.cacheManager = cacheManager;
         this.timer = timer;
         this.positionForwarder = positionForwarder;
+        this.positionOutbox = positionOutbox;
 
         this.retryEnabled = config.getBoolean(Keys.FORWARD_RETRY_ENABLE);
         this.retryDelay = config.getInteger(Keys.FORWARD_RETRY_DELAY);
@@ -90,7 +94,11 @@ public class PositionForwardingHandler extends BasePositionHandler {
                 }
             } finally {
                 int pending = scheduled ? deliveryPending.get() : deliveryPending.decrementAndGet();
-                LOGGER.warn("Position forwarding failed: " + pending + " pending", throwable);
+                if (!scheduled && positionOutbox.add(positionData)) {
+                    LOGGER.warn("Position forwarding failed, added to outbox", throwable);
+                } else {
+                    LOGGER.warn("Position forwarding failed: " + pending + " pending", throwable);
+                }
             }
         }
 
@@ -129,6 +137,11 @@ public class PositionForwardingHandler extends BasePositionHandler {
             PositionData positionData = new PositionData();
             positionData.setPosition(position);
             positionData.setDevice(cacheManager.getObject(Device.class, position.getDeviceId()));
+            if (positionOutbox.hasBacklog() && positionOutbox.add(positionData)) {
+                // keep order behind positions that are already waiting in the outbox
+                callback.processed(false);
+                return;
+            }
             new AsyncRequestAndCallback(positionData).send();
         }
         callback.processed(false);
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only ISO-8859-1 character view over buffer readable bytes, so text frames can be matched without decoding
+ * them into a string first. The view is only valid while the buffer is not released or modified.
+ */
+public final class ByteBufCharSequence implements CharSequence {
+
+    private final ByteBuf buf;
+    private final int offset;
+    private final int length;
+
+    public ByteBufCharSequence(ByteBuf buf) {
+        this(buf, buf.readerIndex(), buf.readableBytes());
+    }
+
+    public ByteBufCharSequence(ByteBuf buf, int offset, int length) {
+        this.buf = buf;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (char) (buf.getByte(offset + index) & 0xFF);
+    }
+
+    public int indexOf(char c, int fromIndex) {
+        int start = Math.max(fromIndex, 0);
+        if (start >= length) {
+            return -1;
+        }
+        int index = buf.indexOf(offset + start, offset + length, (byte) c);
+        return index >= 0 ? index - offset : -1;
+    }
+
+    public int indexOf(String value) {
+        if (value.isEmpty()) {
+            return 0;
+        }
+        for (int index = indexOf(value.charAt(0), 0); index >= 0; index = indexOf(value.charAt(0), index + 1)) {
+            if (regionMatches(index, value)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(String value) {
+        return indexOf(value) >= 0;
+    }
+
+    public boolean startsWith(String prefix) {
+        return regionMatches(0, prefix);
+    }
+
+    public boolean startsWith(String prefix, int offset) {
+        return offset >= 0 && regionMatches(offset, prefix);
+    }
+
+    public boolean endsWith(String suffix) {
+        return regionMatches(length - suffix.length(), suffix);
+    }
+
+    private boolean regionMatches(int start, String value) {
+        if (start < 0 || start + value.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link String#trim()}, without copying the content.
+     */
+    public ByteBufCharSequence trim() {
+        int start = 0;
+        int end = length;
+        while (start < end && charAt(start) <= ' ') {
+            start += 1;
+        }
+        while (end > start && charAt(end - 1) <= ' ') {
+            end -= 1;
+        }
+        return start == 0 && end == length ? this : new ByteBufCharSequence(buf, offset + start, end - start);
+    }
+
+    /**
+     * Same as {@code toString().split(separator, -1)} for a single character separator, copying each value directly
+     * from the buffer.
+     */
+    public String[] split(char separator) {
+        int count = 1;
+        for (int index = indexOf(separator, 0); index >= 0; index = indexOf(separator, index + 1)) {
+            count += 1;
+        }
+        String[] values = new String[count];
+        int start = 0;
+        for (int i = 0; i < count - 1; i++) {
+            int end = indexOf(separator, start);
+            values[i] = buf.toString(offset + start, end - start, StandardCharsets.ISO_8859_1);
+            start = end + 1;
+        }
+        values[count - 1] = buf.toString(offset + start, length - start, StandardCharsets.ISO_8859_1);
+        return values;
+    }
+
+    @Override
+    public ByteBufCharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new ByteBufCharSequence(buf, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return buf.toString(offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2017 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,10 +22,18 @@ import java.util.regex.Pattern;
 
 public class Parser {
 
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private static final int MAX_EXACT_DIGITS = 15;
+
     private int position;
+    private final CharSequence input;
     private final Matcher matcher;
 
-    public Parser(Pattern pattern, String input) {
+    public Parser(Pattern pattern, CharSequence input) {
+        this.input = input;
         matcher = pattern.matcher(input);
     }
 
@@ -43,14 +51,18 @@ public class Parser {
         position += number;
     }
 
+    private boolean isEmpty(int group) {
+        int start = matcher.start(group);
+        return start < 0 || start == matcher.end(group);
+    }
+
     public boolean hasNext() {
         return hasNext(1);
     }
 
     public boolean hasNext(int number) {
         for (int i = position; i < position + number; i++) {
-            String value = matcher.group(i);
-            if (value == null || value.isEmpty()) {
+            if (isEmpty(i)) {
                 position += number;
                 return false;
             }
@@ -60,8 +72,7 @@ public class Parser {
 
     public boolean hasNextAny(int number) {
         for (int i = position; i < position + number; i++) {
-            String value = matcher.group(i);
-            if (value != null && !value.isEmpty()) {
+            if (!isEmpty(i)) {
                 return true;
             }
         }
@@ -73,9 +84,81 @@ public class Parser {
         return matcher.group(position++);
     }
 
+    /**
+     * Parses next group in place without creating a substring.
+     */
+    private int parseInt(int radix) {
+        int group = position++;
+        return Integer.parseInt(input, matcher.start(group), matcher.end(group), radix);
+    }
+
+    private long parseLong(int radix) {
+        int group = position++;
+        return Long.parseLong(input, matcher.start(group), matcher.end(group), radix);
+    }
+
+    private double parseDouble() {
+        int group = position++;
+        return parseDouble(input, matcher.start(group), matcher.end(group));
+    }
+
+    /**
+     * Parses plain decimal numbers directly from the input. Values with up to 15 significant digits are exactly
+     * representable, so dividing by an exact power of ten gives the same result as {@link Double#parseDouble}. Other
+     * formats fall back to it.
+     */
+    static double parseDouble(CharSequence input, int start, int end) {
+        int index = start;
+        boolean negative = false;
+        if (index < end && (input.charAt(index) == '-' || input.charAt(index) == '+')) {
+            negative = input.charAt(index) == '-';
+            index += 1;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; index < end; index++) {
+            char c = input.charAt(index);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits += 1;
+                if (scale >= 0) {
+                    scale += 1;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                digits = MAX_EXACT_DIGITS + 1;
+                break;
+            }
+        }
+        if (digits == 0 || digits > MAX_EXACT_DIGITS || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(input.subSequence(start, end).toString());
+        }
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses two consecutive groups as integer and fractional parts of a decimal number.
+     */
+    private double parseDecimal() {
+        int integerGroup = position++;
+        int fractionGroup = position++;
+        int integerStart = matcher.start(integerGroup);
+        int integerEnd = matcher.end(integerGroup);
+        int fractionStart = matcher.start(fractionGroup);
+        int fractionEnd = matcher.end(fractionGroup);
+        if (integerStart >= 0 && fractionStart >= 0
+                && integerEnd == fractionStart - 1 && input.charAt(integerEnd) == '.') {
+            return parseDouble(input, integerStart, fractionEnd);
+        }
+        return Double.parseDouble(matcher.group(integerGroup) + '.' + matcher.group(fractionGroup));
+    }
+
     public Integer nextInt() {
         if (hasNext()) {
-            return Integer.parseInt(next());
+            return parseInt(10);
         } else {
             return null;
         }
@@ -83,7 +166,7 @@ public class Parser {
 
     public int nextInt(int defaultValue) {
         if (hasNext()) {
-            return Integer.parseInt(next());
+            return parseInt(10);
         } else {
             return defaultValue;
         }
@@ -91,7 +174,7 @@ public class Parser {
 
     public Integer nextHexInt() {
         if (hasNext()) {
-            return Integer.parseInt(next(), 16);
+            return parseInt(16);
         } else {
             return null;
         }
@@ -99,7 +182,7 @@ public class Parser {
 
     public int nextHexInt(int defaultValue) {
         if (hasNext()) {
-            return Integer.parseInt(next(), 16);
+            return parseInt(16);
         } else {
             return defaultValue;
         }
@@ -107,7 +190,7 @@ public class Parser {
 
     public Integer nextBinInt() {
         if (hasNext()) {
-            return Integer.parseInt(next(), 2);
+            return parseInt(2);
         } else {
             return null;
         }
@@ -115,7 +198,7 @@ public class Parser {
 
     public int nextBinInt(int defaultValue) {
         if (hasNext()) {
-            return Integer.parseInt(next(), 2);
+            return parseInt(2);
         } else {
             return defaultValue;
         }
@@ -123,7 +206,7 @@ public class Parser {
 
     public Long nextLong() {
         if (hasNext()) {
-            return Long.parseLong(next());
+            return parseLong(10);
         } else {
             return null;
         }
@@ -131,7 +214,7 @@ public class Parser {
 
     public Long nextHexLong() {
         if (hasNext()) {
-            return Long.parseLong(next(), 16);
+            return parseLong(16);
         } else {
             return null;
         }
@@ -143,7 +226,7 @@ public class Parser {
 
     public long nextLong(int radix, long defaultValue) {
         if (hasNext()) {
-            return Long.parseLong(next(), radix);
+            return parseLong(radix);
         } else {
             return defaultValue;
         }
@@ -151,7 +234,7 @@ public class Parser {
 
     public Double nextDouble() {
         if (hasNext()) {
-            return Double.parseDouble(next());
+            return parseDouble();
         } else {
             return null;
         }
@@ -159,7 +242,7 @@ public class Parser {
 
     public double nextDouble(double defaultValue) {
         if (hasNext()) {
-            return Double.parseDouble(next());
+            return parseDouble();
         } else {
             return defaultValue;
         }
@@ -184,10 +267,10 @@ public class Parser {
 
         switch (format) {
             case DEG_DEG:
-                coordinate = Double.parseDouble(next() + '.' + next());
+                coordinate = parseDecimal();
                 break;
             case DEG_DEG_HEM:
-                coordinate = Double.parseDouble(next() + '.' + next());
+                coordinate = parseDecimal();
                 hemisphere = next();
                 break;
             case DEG_HEM:
@@ -196,11 +279,11 @@ public class Parser {
                 break;
             case DEG_MIN_MIN:
                 coordinate = nextInt(0);
-                coordinate += Double.parseDouble(next() + '.' + next()) / 60;
+                coordinate += parseDecimal() / 60;
                 break;
             case DEG_MIN_MIN_HEM:
                 coordinate = nextInt(0);
-                coordinate += Double.parseDouble(next() + '.' + next()) / 60;
+                coordinate += parseDecimal() / 60;
                 hemisphere = next();
                 break;
             case HEM_DEG:
@@ -223,7 +306,7 @@ public class Parser {
             case HEM_DEG_MIN_MIN:
                 hemisphere = next();
                 coordinate = nextInt(0);
-                coordinate += Double.parseDouble(next() + '.' + next()) / 60;
+                coordinate += parseDecimal() / 60;
                 break;
             case DEG_MIN_HEM:
             default:
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of binary records stored in memory-mapped segment files. Each record is prefixed with its length.
+ * Readers track progress with named cursors that are persisted next to the segments, and a segment is deleted once
+ * all cursors have moved past it.
+ */
+public class SegmentedLog implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String CURSOR_SUFFIX = ".cursor";
+
+    public record Cursor(long segment, int offset) {
+    }
+
+    public record Batch(List<byte[]> records, Cursor next) {
+    }
+
+    private final Path directory;
+    private final long segmentSize;
+
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    private MappedByteBuffer writeBuffer;
+    private long writeSegment;
+    private long firstSegment;
+
+    public SegmentedLog(Path directory, long segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        List<Long> segments = listSegments();
+        firstSegment = segments.isEmpty() ? 0 : segments.get(0);
+        writeSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        writeBuffer = map(writeSegment, segmentSize);
+        while (writeBuffer.remaining() >= Integer.BYTES) {
+            int length = writeBuffer.getInt(writeBuffer.position());
+            if (length <= 0 || length > writeBuffer.remaining() - Integer.BYTES) {
+                break;
+            }
+            writeBuffer.position(writeBuffer.position() + Integer.BYTES + length);
+        }
+    }
+
+    /**
+     * Appends records and flushes them to disk before returning.
+     */
+    public synchronized void append(Collection<byte[]> records) throws IOException {
+        for (byte[] record : records) {
+            if (writeBuffer.remaining() < 2 * Integer.BYTES + record.length) {
+                writeBuffer.force();
+                writeSegment += 1;
+                writeBuffer = map(writeSegment, Math.max(segmentSize, 2L * Integer.BYTES + record.length));
+            }
+            int offset = writeBuffer.position();
+            writeBuffer.put(offset + Integer.BYTES, record);
+            writeBuffer.putInt(offset, record.length);
+            writeBuffer.position(offset + Integer.BYTES + record.length);
+        }
+        writeBuffer.force();
+    }
+
+    private synchronized Cursor getEnd() {
+        return new Cursor(writeSegment, writeBuffer.position());
+    }
+
+    public Cursor getCursor(String name) throws IOException {
+        Cursor cursor = cursors.get(name);
+        if (cursor == null) {
+            Path path = directory.resolve(name + CURSOR_SUFFIX);
+            if (Files.exists(path)) {
+                String[] values = Files.readString(path).trim().split(" ");
+                cursor = new Cursor(Long.parseLong(values[0]), Integer.parseInt(values[1]));
+            } else {
+                cursor = new Cursor(firstSegment, 0);
+            }
+            cursors.put(name, cursor);
+        }
+        return cursor;
+    }
+
+    /**
+     * Reads up to {@code limit} records starting at the cursor. The returned cursor points after the last record.
+     */
+    public Batch read(Cursor cursor, int limit) throws IOException {
+        Cursor end = getEnd();
+
+        List<byte[]> records = new ArrayList<>();
+        long segment = cursor.segment();
+        int offset = cursor.offset();
+        MappedByteBuffer buffer = null;
+        while (records.size() < limit) {
+            if (segment == end.segment() && offset >= end.offset()) {
+                break;
+            }
+            if (buffer == null) {
+                buffer = mapReadOnly(segment);
+            }
+            int length = buffer != null && offset + Integer.BYTES <= buffer.capacity() ? buffer.getInt(offset) : 0;
+            if (length <= 0) {
+                if (segment >= end.segment()) {
+                    break;
+                }
+                segment += 1;
+                offset = 0;
+                buffer = null;
+                continue;
+            }
+            byte[] data = new byte[length];
+            buffer.get(offset + Integer.BYTES, data);
+            records.add(data);
+            offset += Integer.BYTES + length;
+        }
+
+        return new Batch(records, new Cursor(segment, offset));
+    }
+
+    /**
+     * Persists cursor position and deletes segments that are no longer needed by any cursor.
+     */
+    public synchronized void commit(String name, Cursor cursor) throws IOException {
+        Path path = directory.resolve(name + CURSOR_SUFFIX);
+        Path temporary = directory.resolve(name + CURSOR_SUFFIX + ".tmp");
+        Files.writeString(temporary, cursor.segment() + " " + cursor.offset(), StandardCharsets.US_ASCII);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        cursors.put(name, cursor);
+
+        long minimum = cursors.values().stream().mapToLong(Cursor::segment).min().orElse(firstSegment);
+        for (; firstSegment < Math.min(minimum, writeSegment); firstSegment++) {
+            Files.deleteIfExists(segmentPath(firstSegment));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        writeBuffer.force();
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private MappedByteBuffer map(long segment, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+                segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        }
+    }
+
+    private MappedByteBuffer mapReadOnly(long segment) throws IOException {
+        Path path = segmentPath(segment);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,12 +27,23 @@ import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Order;
 import org.traccar.storage.query.Request;
 
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class PositionUtil {
 
+    private static final int PAGE_SIZE = 1000;
+
     private PositionUtil() {
     }
 
@@ -41,6 +52,32 @@ public final class PositionUtil {
         return lastPosition == null || position.getFixTime().compareTo(lastPosition.getFixTime()) >= 0;
     }
 
+    /**
+     * Copies position fields, with separate attributes and geofences, so the copy can be changed while the original
+     * is still used by other threads.
+     */
+    public static Position copy(Position position) {
+        Position result = new Position(position.getProtocol());
+        result.setId(position.getId());
+        result.setDeviceId(position.getDeviceId());
+        result.setServerTime(position.getServerTime());
+        result.setDeviceTime(position.getDeviceTime());
+        result.setFixTime(position.getFixTime());
+        result.setOutdated(position.getOutdated());
+        result.setValid(position.getValid());
+        result.setLatitude(position.getLatitude());
+        result.setLongitude(position.getLongitude());
+        result.setAltitude(position.getAltitude());
+        result.setSpeed(position.getSpeed());
+        result.setCourse(position.getCourse());
+        result.setAddress(position.getAddress());
+        result.setAccuracy(position.getAccuracy());
+        result.setNetwork(position.getNetwork());
+        result.setGeofenceIds(position.getGeofenceIds());
+        result.setAttributes(new LinkedHashMap<>(position.getAttributes()));
+        return result;
+    }
+
     public static double calculateDistance(Position first, Position last, boolean useOdometer) {
         double distance;
         double firstOdometer = first.getDouble(Position.KEY_ODOMETER);
@@ -64,6 +101,102 @@ public final class PositionUtil {
                 new Order("fixTime")));
     }
 
+    /**
+     * Returns positions ordered by fix time. They are read in pages, and the database connection is released after
+     * each page, so a slow consumer, like a report download, does not hold the connection while it writes.
+     */
+    public static Stream<Position> getPositionsStream(
+            Storage storage, long deviceId, Date from, Date to) throws StorageException {
+        return getPositionsStream(storage, deviceId, from, to, PAGE_SIZE);
+    }
+
+    static Stream<Position> getPositionsStream(
+            Storage storage, long deviceId, Date from, Date to, int pageSize) throws StorageException {
+        PageIterator iterator = new PageIterator(storage, deviceId, from, to, pageSize);
+        iterator.fetch();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Pages continue from the fix time of the last position. Positions sharing that time can be split between pages,
+     * so they are dropped from the page and read again with the next one.
+     */
+    private static final class PageIterator implements Iterator<Position> {
+
+        private final Storage storage;
+        private final long deviceId;
+        private final Date to;
+        private final int pageSize;
+        private final Deque<Position> buffer = new ArrayDeque<>();
+
+        private Date cursor;
+        private boolean inclusive = true;
+        private boolean finished;
+
+        private PageIterator(Storage storage, long deviceId, Date from, Date to, int pageSize) {
+            this.storage = storage;
+            this.deviceId = deviceId;
+            this.to = to;
+            this.pageSize = pageSize;
+            this.cursor = from;
+        }
+
+        private List<Position> query(Condition timeCondition, int limit) throws StorageException {
+            try (var positions = storage.getObjectsStream(Position.class, new Request(
+                    new Columns.All(),
+                    new Condition.And(new Condition.Equals("deviceId", deviceId), timeCondition),
+                    new Order("fixTime", false, limit)))) {
+                return positions.toList();
+            }
+        }
+
+        private void fetch() throws StorageException {
+            while (buffer.isEmpty() && !finished) {
+                List<Position> page = query(new Condition.And(
+                        new Condition.Compare("fixTime", inclusive ? ">=" : ">", "from", cursor),
+                        new Condition.Compare("fixTime", "<=", "to", to)), pageSize);
+                if (page.size() < pageSize) {
+                    buffer.addAll(page);
+                    finished = true;
+                    return;
+                }
+                Date last = page.get(page.size() - 1).getFixTime();
+                if (page.get(0).getFixTime().getTime() == last.getTime()) {
+                    buffer.addAll(query(new Condition.Equals("fixTime", last), 0));
+                    inclusive = false;
+                } else {
+                    page.stream()
+                            .filter(position -> position.getFixTime().getTime() < last.getTime())
+                            .forEach(buffer::add);
+                    inclusive = true;
+                }
+                cursor = last;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (buffer.isEmpty()) {
+                try {
+                    fetch();
+                } catch (StorageException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        public Position next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return buffer.removeFirst();
+        }
+
+    }
+
     public static List<Position> getLatestPositions(Storage storage, long userId) throws StorageException {
         var devices = storage.getObjects(Device.class, new Request(
                 new Columns.Include("id"),
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2017 - 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -16,6 +16,9 @@
  */
 package org.traccar.mail;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import org.traccar.config.Config;
 import org.traccar.config.ConfigKey;
 import org.traccar.config.Keys;
@@ -34,19 +37,95 @@ import jakarta.mail.internet.MimeBodyPart;
 import jakarta.mail.internet.MimeMessage;
 import jakarta.mail.internet.MimeMultipart;
 import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.List;
 import java.util.Properties;
 
 public final class SmtpMailManager implements MailManager {
 
     private static final String CONTENT_TYPE = "text/html; charset=utf-8";
 
+    private static final int MAX_CONFIGURATIONS = 100;
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * Session and pool of idle transports for one SMTP configuration. Each message borrows its own transport, so
+     * messages for the same server are sent in parallel.
+     */
+    private static final class Connection {
+
+        private final Session session;
+        private final int maxIdle;
+        private final Deque<Transport> idle = new ArrayDeque<>();
+        private boolean closed;
+
+        private Connection(Session session, int maxIdle) {
+            this.session = session;
+            this.maxIdle = maxIdle;
+        }
+
+        private Transport acquire() throws MessagingException {
+            synchronized (this) {
+                Transport transport = idle.pollFirst();
+                if (transport != null) {
+                    return transport;
+                }
+            }
+            return session.getTransport();
+        }
+
+        private void release(Transport transport) {
+            synchronized (this) {
+                if (!closed && idle.size() < maxIdle) {
+                    idle.addFirst(transport);
+                    return;
+                }
+            }
+            closeTransport(transport);
+        }
+
+        private void close() {
+            List<Transport> transports;
+            synchronized (this) {
+                closed = true;
+                transports = new ArrayList<>(idle);
+                idle.clear();
+            }
+            transports.forEach(SmtpMailManager::closeTransport);
+        }
+
+    }
+
     private final Config config;
     private final StatisticsManager statisticsManager;
+    private final int maxIdle;
+
+    private final Cache<Properties, Connection> connections = Caffeine.newBuilder()
+            .maximumSize(MAX_CONFIGURATIONS)
+            .expireAfterAccess(IDLE_TIMEOUT)
+            .scheduler(Scheduler.systemScheduler())
+            .<Properties, Connection>removalListener((properties, connection, cause) -> {
+                if (connection != null) {
+                    connection.close();
+                }
+            })
+            .build();
 
     public SmtpMailManager(Config config, StatisticsManager statisticsManager) {
         this.config = config;
         this.statisticsManager = statisticsManager;
+        maxIdle = config.getInteger(Keys.NOTIFICATOR_THREADS);
+    }
+
+    private static void closeTransport(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException ignored) {
+        }
     }
 
     private static void copyBooleanProperty(
@@ -114,9 +193,10 @@ public final class SmtpMailManager implements MailManager {
             throw new MessagingException("No SMTP configuration found");
         }
 
-        Session session = Session.getInstance(properties);
+        Connection connection = connections.get(
+                properties, key -> new Connection(Session.getInstance(key), maxIdle));
 
-        MimeMessage message = new MimeMessage(session);
+        MimeMessage message = new MimeMessage(connection.session);
 
         String from = properties.getProperty(Keys.MAIL_SMTP_FROM.getKey());
         if (from != null) {
@@ -149,14 +229,21 @@ public final class SmtpMailManager implements MailManager {
             message.setContent(body, CONTENT_TYPE);
         }
 
-        try (Transport transport = session.getTransport()) {
-            statisticsManager.registerMail();
-            transport.connect(
-                    properties.getProperty(Keys.MAIL_SMTP_HOST.getKey()),
-                    properties.getProperty(Keys.MAIL_SMTP_USERNAME.getKey()),
-                    properties.getProperty(Keys.MAIL_SMTP_PASSWORD.getKey()));
+        statisticsManager.registerMail();
+        Transport transport = connection.acquire();
+        try {
+            if (!transport.isConnected()) {
+                transport.connect(
+                        properties.getProperty(Keys.MAIL_SMTP_HOST.getKey()),
+                        properties.getProperty(Keys.MAIL_SMTP_USERNAME.getKey()),
+                        properties.getProperty(Keys.MAIL_SMTP_PASSWORD.getKey()));
+            }
             transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException | RuntimeException e) {
+            closeTransport(transport);
+            throw e;
         }
+        connection.release(transport);
     }
 
 }
@@ -154,4 +154,20 @@ public class ExtendedModel extends BaseModel {
         }
     }
 
+    public Integer removeInteger(String key) {
+        Object value = attributes.remove(key);
+        if (value instanceof Number numberValue) {
+            return numberValue.intValue();
+        }
+        return value != null ? Integer.parseInt(value.toString()) : null;
+    }
+
+    public Long removeLong(String key) {
+        Object value = attributes.remove(key);
+        if (value instanceof Number numberValue) {
+            return numberValue.longValue();
+        }
+        return value != null ? Long.parseLong(value.toString()) : null;
+    }
+
 }
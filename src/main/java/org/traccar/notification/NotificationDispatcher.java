@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.notification;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.StatisticsManager;
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.notificators.Notificator;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers notifications on a bounded executor per notificator type, so that slow or unavailable transports do not
+ * block event processing or other notificators.
+ */
+@Singleton
+public class NotificationDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long KEEP_ALIVE = 60;
+
+    private final NotificatorManager notificatorManager;
+    private final StatisticsManager statisticsManager;
+
+    private final int threads;
+    private final int queueSize;
+
+    private final Map<String, ThreadPoolExecutor> executors = new ConcurrentHashMap<>();
+
+    @Inject
+    public NotificationDispatcher(
+            Config config, NotificatorManager notificatorManager, StatisticsManager statisticsManager) {
+        this.notificatorManager = notificatorManager;
+        this.statisticsManager = statisticsManager;
+        threads = config.getInteger(Keys.NOTIFICATOR_THREADS);
+        queueSize = config.getInteger(Keys.NOTIFICATOR_QUEUE_SIZE);
+    }
+
+    private ThreadPoolExecutor createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, KEEP_ALIVE, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Queues notification for delivery. The {@code done} callback is always invoked once, after the delivery attempt
+     * completes or the notification is dropped.
+     */
+    public void dispatch(
+            String type, Notification notification, User user, Event event, Position position, Runnable done) {
+        Notificator notificator;
+        try {
+            notificator = notificatorManager.getNotificator(type);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Notification failed", e);
+            done.run();
+            return;
+        }
+
+        ThreadPoolExecutor executor = executors.computeIfAbsent(type, key -> createExecutor());
+        long queued = System.currentTimeMillis();
+        try {
+            executor.execute(() -> {
+                try {
+                    notificator.send(notification, user, event, position);
+                    statisticsManager.registerNotificationDelivered(System.currentTimeMillis() - queued);
+                } catch (MessageException | RuntimeException e) {
+                    LOGGER.warn("Notification failed", e);
+                } finally {
+                    done.run();
+                }
+            });
+            statisticsManager.registerNotificationQueued(executor.getQueue().size());
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Notification queue for {} is full, dropping notification", type);
+            statisticsManager.registerNotificationDropped();
+            done.run();
+        }
+    }
+
+}
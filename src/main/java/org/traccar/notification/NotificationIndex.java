@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.notification;
+
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Notifications of a single device resolved by event type, and by alarm for alarm events, together with the users
+ * who receive them.
+ */
+public class NotificationIndex {
+
+    public record Entry(Notification notification, Set<User> users) {
+    }
+
+    private final Map<String, List<Entry>> types = new HashMap<>();
+    private final Map<String, List<Entry>> alarms = new HashMap<>();
+    private final Set<Long> notificationIds = new HashSet<>();
+    private final Set<Long> userIds = new HashSet<>();
+
+    public NotificationIndex(Collection<Notification> notifications, Function<Notification, Set<User>> usersLookup) {
+        for (Notification notification : notifications) {
+            Entry entry = new Entry(notification, usersLookup.apply(notification));
+            notificationIds.add(notification.getId());
+            entry.users().forEach(user -> userIds.add(user.getId()));
+            if (notification.getType().equals(Event.TYPE_ALARM)) {
+                String alarmsAttribute = notification.getString("alarms");
+                if (alarmsAttribute != null) {
+                    for (String alarm : new HashSet<>(Arrays.asList(alarmsAttribute.split(",")))) {
+                        alarms.computeIfAbsent(alarm, key -> new ArrayList<>()).add(entry);
+                    }
+                }
+            } else {
+                types.computeIfAbsent(notification.getType(), key -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    public boolean containsNotification(long notificationId) {
+        return notificationIds.contains(notificationId);
+    }
+
+    public boolean containsUser(long userId) {
+        return userIds.contains(userId);
+    }
+
+    /**
+     * Returns notifications matching the event type and alarm. Calendars are not checked.
+     */
+    public List<Entry> find(Event event) {
+        List<Entry> result;
+        if (event.getType().equals(Event.TYPE_ALARM)) {
+            String alarm = event.getString(Position.KEY_ALARM);
+            result = alarm != null ? alarms.get(alarm) : null;
+        } else {
+            result = types.get(event.getType());
+        }
+        return result != null ? result : List.of();
+    }
+
+}
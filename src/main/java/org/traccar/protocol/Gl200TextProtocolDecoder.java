@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.traccar.NetworkMessage;
 import org.traccar.Protocol;
 import org.traccar.config.Keys;
 import org.traccar.helper.BitUtil;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.DataConverter;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
@@ -840,7 +841,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text("$").optional()
             .compile();
 
-    private Object decodeFri(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Object decodeFri(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
         Parser parser = new Parser(PATTERN_FRI, sentence);
         if (!parser.matches()) {
             return null;
@@ -1509,7 +1510,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text("$").optional()
             .compile();
 
-    private Object decodeOther(Channel channel, SocketAddress remoteAddress, String sentence, String type) {
+    private Object decodeOther(Channel channel, SocketAddress remoteAddress, CharSequence sentence, String type) {
         Parser parser = new Parser(PATTERN, sentence);
         Position position = initPosition(parser, channel, remoteAddress);
         if (position == null) {
@@ -1581,7 +1582,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text("$").optional()
             .compile();
 
-    private Object decodeBasic(Channel channel, SocketAddress remoteAddress, String sentence, String type) {
+    private Object decodeBasic(Channel channel, SocketAddress remoteAddress, CharSequence sentence, String type) {
         Parser parser = new Parser(PATTERN_BASIC, sentence);
         Position position = initPosition(parser, channel, remoteAddress);
         if (position == null) {
@@ -1633,43 +1634,50 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
+    private static String[] split(CharSequence sentence) {
+        return sentence.toString().split(",");
+    }
+
     @Override
     protected Object decode(
             Channel channel, SocketAddress remoteAddress, Object msg) throws Exception {
 
-        String sentence = ((ByteBuf) msg).toString(StandardCharsets.US_ASCII).replaceAll("\\$$", "");
+        ByteBuf buf = (ByteBuf) msg;
+        int length = buf.readableBytes();
+        if (length > 0 && buf.getByte(buf.writerIndex() - 1) == '$') {
+            length -= 1;
+        }
+        ByteBufCharSequence sentence = new ByteBufCharSequence(buf, buf.readerIndex(), length);
 
         int typeIndex = sentence.indexOf(":GT");
         if (typeIndex < 0) {
             return null;
         }
 
-        String[] values = sentence.split(",");
-
         Object result;
-        String type = sentence.substring(typeIndex + 3, typeIndex + 6);
+        String type = sentence.subSequence(typeIndex + 3, typeIndex + 6).toString();
         if (sentence.startsWith("+ACK")) {
-            result = decodeAck(channel, remoteAddress, values);
+            result = decodeAck(channel, remoteAddress, split(sentence));
         } else {
             result = switch (type) {
-                case "INF" -> decodeInf(channel, remoteAddress, values);
-                case "OBD" -> decodeObd(channel, remoteAddress, sentence);
-                case "CAN" -> decodeCan(channel, remoteAddress, values);
+                case "INF" -> decodeInf(channel, remoteAddress, split(sentence));
+                case "OBD" -> decodeObd(channel, remoteAddress, sentence.toString());
+                case "CAN" -> decodeCan(channel, remoteAddress, split(sentence));
                 case "CTN", "FRI", "GEO", "RTL", "DOG", "STR" -> decodeFri(channel, remoteAddress, sentence);
-                case "ERI" -> decodeEri(channel, remoteAddress, values);
-                case "IGN", "IGF", "VGN", "VGF" -> decodeIgn(channel, remoteAddress, values, type);
-                case "LSW", "TSW" -> decodeLsw(channel, remoteAddress, sentence);
-                case "IDA" -> decodeIda(channel, remoteAddress, sentence);
-                case "WIF" -> decodeWif(channel, remoteAddress, sentence);
-                case "GSM" -> decodeGsm(channel, remoteAddress, sentence);
-                case "VER" -> decodeVer(channel, remoteAddress, sentence);
-                case "PNA", "PFA" -> decodePna(channel, remoteAddress, sentence);
-                case "DAR" -> decodeDar(channel, remoteAddress, sentence);
-                case "DTT" -> decodeDtt(channel, remoteAddress, sentence);
-                case "BAA" -> decodeBaa(channel, remoteAddress, sentence);
-                case "BID" -> decodeBid(channel, remoteAddress, sentence);
-                case "LSA" -> decodeLsa(channel, remoteAddress, sentence);
-                case "LBS" -> decodeLbs(channel, remoteAddress, values);
+                case "ERI" -> decodeEri(channel, remoteAddress, split(sentence));
+                case "IGN", "IGF", "VGN", "VGF" -> decodeIgn(channel, remoteAddress, split(sentence), type);
+                case "LSW", "TSW" -> decodeLsw(channel, remoteAddress, sentence.toString());
+                case "IDA" -> decodeIda(channel, remoteAddress, sentence.toString());
+                case "WIF" -> decodeWif(channel, remoteAddress, sentence.toString());
+                case "GSM" -> decodeGsm(channel, remoteAddress, sentence.toString());
+                case "VER" -> decodeVer(channel, remoteAddress, sentence.toString());
+                case "PNA", "PFA" -> decodePna(channel, remoteAddress, sentence.toString());
+                case "DAR" -> decodeDar(channel, remoteAddress, sentence.toString());
+                case "DTT" -> decodeDtt(channel, remoteAddress, sentence.toString());
+                case "BAA" -> decodeBaa(channel, remoteAddress, sentence.toString());
+                case "BID" -> decodeBid(channel, remoteAddress, sentence.toString());
+                case "LSA" -> decodeLsa(channel, remoteAddress, sentence.toString());
+                case "LBS" -> decodeLbs(channel, remoteAddress, split(sentence));
                 default -> decodeOther(channel, remoteAddress, sentence, type);
             };
 
@@ -1689,6 +1697,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         }
 
         if (channel != null && getConfig().getBoolean(Keys.PROTOCOL_ACK.withPrefix(getProtocolName()))) {
+            String[] values = split(sentence);
             channel.writeAndFlush(new NetworkMessage("+SACK:" + values[values.length - 1] + "$", remoteAddress));
         }
 
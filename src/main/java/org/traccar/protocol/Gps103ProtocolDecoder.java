@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2021 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import org.traccar.BaseProtocolDecoder;
 import org.traccar.session.DeviceSession;
 import org.traccar.NetworkMessage;
 import org.traccar.Protocol;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.DataConverter;
 import org.traccar.helper.DateBuilder;
 import org.traccar.helper.Parser;
@@ -158,7 +159,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
         };
     }
 
-    private Position decodeRegular(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decodeRegular(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
         Parser parser = new Parser(PATTERN, sentence);
         if (!parser.matches()) {
@@ -258,7 +259,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private Position decodeObd(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decodeObd(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
         Parser parser = new Parser(PATTERN_OBD, sentence);
         if (!parser.matches()) {
@@ -293,7 +294,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
     }
 
 
-    private Position decodeAlternative(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decodeAlternative(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
         Parser parser = new Parser(PATTERN_ALT, sentence);
         if (!parser.matches()) {
@@ -332,16 +333,17 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private Position decodePhoto(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decodePhoto(Channel channel, SocketAddress remoteAddress, ByteBufCharSequence sentence) {
 
-        String imei = sentence.substring(5, 5 + 15);
+        String imei = sentence.subSequence(5, 5 + 15).toString();
         DeviceSession deviceSession = getDeviceSession(channel, remoteAddress, imei);
         if (deviceSession == null) {
             return null;
         }
 
         ByteBuf buf = Unpooled.wrappedBuffer(DataConverter.parseHex(
-                sentence.substring(24, sentence.endsWith(";") ? sentence.length() - 1 : sentence.length())));
+                sentence.subSequence(24, sentence.endsWith(";") ? sentence.length() - 1 : sentence.length())
+                        .toString()));
         int index = buf.readUnsignedShortLE();
         photo.writeBytes(buf, buf.readerIndex() + 2, buf.readableBytes() - 4);
 
@@ -369,7 +371,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
     protected Object decode(
             Channel channel, SocketAddress remoteAddress, Object msg) throws Exception {
 
-        String sentence = (String) msg;
+        ByteBufCharSequence sentence = new ByteBufCharSequence((ByteBuf) msg);
 
         if (sentence.contains("imei:") && sentence.length() <= 30) {
             if (channel != null) {
@@ -388,7 +390,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
             }
             int start = sentence.indexOf("imei:");
             if (start >= 0) {
-                sentence = sentence.substring(start);
+                sentence = sentence.subSequence(start, sentence.length());
             } else {
                 return null;
             }
@@ -396,7 +398,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
 
         if (sentence.startsWith("vr", 21)) {
             return decodePhoto(channel, remoteAddress, sentence);
-        } else if (sentence.substring(21, 21 + 3).contains("OBD")) {
+        } else if (sentence.subSequence(21, 21 + 3).contains("OBD")) {
             return decodeObd(channel, remoteAddress, sentence);
         } else if (sentence.endsWith("*")) {
             return decodeAlternative(channel, remoteAddress, sentence);
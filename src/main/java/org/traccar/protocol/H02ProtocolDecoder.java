@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import org.traccar.Protocol;
 import org.traccar.config.Keys;
 import org.traccar.helper.BcdUtil;
 import org.traccar.helper.BitUtil;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.DateBuilder;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
@@ -311,7 +312,7 @@ public class H02ProtocolDecoder extends BaseProtocolDecoder {
         }
     }
 
-    private Position decodeText(String sentence, Channel channel, SocketAddress remoteAddress) {
+    private Position decodeText(CharSequence sentence, Channel channel, SocketAddress remoteAddress) {
 
         Parser parser = new Parser(PATTERN, sentence);
         if (!parser.matches()) {
@@ -599,26 +600,26 @@ public class H02ProtocolDecoder extends BaseProtocolDecoder {
 
         switch (marker) {
             case "*" -> {
-                String sentence = buf.toString(StandardCharsets.US_ASCII).trim();
-                int typeStart = sentence.indexOf(',', sentence.indexOf(',') + 1) + 1;
+                ByteBufCharSequence sentence = new ByteBufCharSequence(buf).trim();
+                int typeStart = sentence.indexOf(',', sentence.indexOf(',', 0) + 1) + 1;
                 int typeEnd = sentence.indexOf(',', typeStart);
                 if (typeEnd < 0) {
                     typeEnd = sentence.indexOf('#', typeStart);
                 }
                 if (typeEnd > 0) {
-                    String type = sentence.substring(typeStart, typeEnd);
+                    String type = sentence.subSequence(typeStart, typeEnd).toString();
                     return switch (type) {
                         case "V0", "HTBT" -> {
                             if (channel != null) {
-                                String response = sentence.substring(0, typeEnd) + "#";
+                                String response = sentence.subSequence(0, typeEnd) + "#";
                                 channel.writeAndFlush(new NetworkMessage(response, remoteAddress));
                             }
-                            yield decodeHeartbeat(sentence, channel, remoteAddress);
+                            yield decodeHeartbeat(sentence.toString(), channel, remoteAddress);
                         }
-                        case "NBR" -> decodeLbs(sentence, channel, remoteAddress);
-                        case "LINK" -> decodeLink(sentence, channel, remoteAddress);
-                        case "V3" -> decodeV3(sentence, channel, remoteAddress);
-                        case "VP1" -> decodeVp1(sentence, channel, remoteAddress);
+                        case "NBR" -> decodeLbs(sentence.toString(), channel, remoteAddress);
+                        case "LINK" -> decodeLink(sentence.toString(), channel, remoteAddress);
+                        case "V3" -> decodeV3(sentence.toString(), channel, remoteAddress);
+                        case "VP1" -> decodeVp1(sentence.toString(), channel, remoteAddress);
                         default -> decodeText(sentence, channel, remoteAddress);
                     };
                 } else {
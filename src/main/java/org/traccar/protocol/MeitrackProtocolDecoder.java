@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.traccar.BaseProtocolDecoder;
 import org.traccar.session.DeviceSession;
 import org.traccar.NetworkMessage;
 import org.traccar.Protocol;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.Checksum;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
@@ -130,7 +131,7 @@ public class MeitrackProtocolDecoder extends BaseProtocolDecoder {
 
     private Position decodeRegular(Channel channel, SocketAddress remoteAddress, ByteBuf buf) {
 
-        Parser parser = new Parser(PATTERN, buf.toString(StandardCharsets.US_ASCII));
+        Parser parser = new Parser(PATTERN, new ByteBufCharSequence(buf));
         if (!parser.matches()) {
             return null;
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2013 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import io.netty.handler.codec.http.QueryStringDecoder;
 import org.traccar.BaseHttpProtocolDecoder;
 import org.traccar.session.DeviceSession;
 import org.traccar.Protocol;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.DateUtil;
 import org.traccar.model.CellTower;
 import org.traccar.model.Command;
@@ -34,9 +35,9 @@ import java.net.SocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 
 public class OsmAndProtocolDecoder extends BaseHttpProtocolDecoder {
 
@@ -44,15 +45,51 @@ public class OsmAndProtocolDecoder extends BaseHttpProtocolDecoder {
         super(protocol);
     }
 
+    private static String decodeComponent(CharSequence query, int start, int end) {
+        String value = query.subSequence(start, end).toString();
+        if (value.indexOf('%') >= 0 || value.indexOf('+') >= 0) {
+            return QueryStringDecoder.decodeComponent(value);
+        }
+        return value;
+    }
+
+    /**
+     * Splits query parameters the same way as {@link QueryStringDecoder}, but into a flat list of alternating names
+     * and values instead of a map of lists, and only decodes components that contain escapes.
+     */
+    private static List<String> decodeParameters(CharSequence query) {
+        List<String> params = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= query.length(); i++) {
+            char c = i < query.length() ? query.charAt(i) : '#';
+            if (c == '&' || c == ';' || c == '#') {
+                int separator = start;
+                while (separator < i && query.charAt(separator) != '=') {
+                    separator += 1;
+                }
+                if (separator > start) {
+                    params.add(decodeComponent(query, start, separator));
+                    params.add(separator < i ? decodeComponent(query, separator + 1, i) : "");
+                }
+                if (c == '#') {
+                    break;
+                }
+                start = i + 1;
+            }
+        }
+        return params;
+    }
+
     @Override
     protected Object decode(Channel channel, SocketAddress remoteAddress, Object msg) throws Exception {
 
         FullHttpRequest request = (FullHttpRequest) msg;
-        QueryStringDecoder decoder = new QueryStringDecoder(request.uri());
-        Map<String, List<String>> params = decoder.parameters();
+        String uri = request.uri();
+        int queryIndex = uri.indexOf('?');
+        List<String> params = queryIndex >= 0
+                ? decodeParameters(uri.subSequence(queryIndex + 1, uri.length())) : new ArrayList<>();
         if (params.isEmpty()) {
-            decoder = new QueryStringDecoder(request.content().toString(StandardCharsets.US_ASCII), false);
-            params = decoder.parameters();
+            params = decodeParameters(new ByteBufCharSequence(request.content()));
         }
 
         Position position = new Position(getProtocolName());
@@ -62,102 +99,102 @@ public class OsmAndProtocolDecoder extends BaseHttpProtocolDecoder {
         Double latitude = null;
         Double longitude = null;
 
-        for (Map.Entry<String, List<String>> entry : params.entrySet()) {
-            for (String value : entry.getValue()) {
-                switch (entry.getKey()) {
-                    case "id":
-                    case "deviceid":
-                        DeviceSession deviceSession = getDeviceSession(channel, remoteAddress, value);
-                        if (deviceSession == null) {
-                            sendResponse(channel, HttpResponseStatus.BAD_REQUEST);
-                            return null;
-                        }
-                        position.setDeviceId(deviceSession.getDeviceId());
-                        break;
-                    case "valid":
-                        position.setValid(Boolean.parseBoolean(value) || "1".equals(value));
-                        break;
-                    case "timestamp":
-                        try {
-                            long timestamp = Long.parseLong(value);
-                            if (timestamp < Integer.MAX_VALUE) {
-                                timestamp *= 1000;
-                            }
-                            position.setTime(new Date(timestamp));
-                        } catch (NumberFormatException error) {
-                            if (value.contains("T")) {
-                                position.setTime(DateUtil.parseDate(value));
-                            } else {
-                                DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                                position.setTime(dateFormat.parse(value));
-                            }
+        for (int i = 0; i < params.size(); i += 2) {
+            String key = params.get(i);
+            String value = params.get(i + 1);
+            switch (key) {
+                case "id":
+                case "deviceid":
+                    DeviceSession deviceSession = getDeviceSession(channel, remoteAddress, value);
+                    if (deviceSession == null) {
+                        sendResponse(channel, HttpResponseStatus.BAD_REQUEST);
+                        return null;
+                    }
+                    position.setDeviceId(deviceSession.getDeviceId());
+                    break;
+                case "valid":
+                    position.setValid(Boolean.parseBoolean(value) || "1".equals(value));
+                    break;
+                case "timestamp":
+                    try {
+                        long timestamp = Long.parseLong(value);
+                        if (timestamp < Integer.MAX_VALUE) {
+                            timestamp *= 1000;
                         }
-                        break;
-                    case "lat":
-                        latitude = Double.parseDouble(value);
-                        break;
-                    case "lon":
-                        longitude = Double.parseDouble(value);
-                        break;
-                    case "location":
-                        String[] location = value.split(",");
-                        latitude = Double.parseDouble(location[0]);
-                        longitude = Double.parseDouble(location[1]);
-                        break;
-                    case "cell":
-                        String[] cell = value.split(",");
-                        if (cell.length > 4) {
-                            network.addCellTower(CellTower.from(
-                                    Integer.parseInt(cell[0]), Integer.parseInt(cell[1]),
-                                    Integer.parseInt(cell[2]), Integer.parseInt(cell[3]), Integer.parseInt(cell[4])));
+                        position.setTime(new Date(timestamp));
+                    } catch (NumberFormatException error) {
+                        if (value.contains("T")) {
+                            position.setTime(DateUtil.parseDate(value));
                         } else {
-                            network.addCellTower(CellTower.from(
-                                    Integer.parseInt(cell[0]), Integer.parseInt(cell[1]),
-                                    Integer.parseInt(cell[2]), Integer.parseInt(cell[3])));
+                            DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                            position.setTime(dateFormat.parse(value));
                         }
-                        break;
-                    case "wifi":
-                        String[] wifi = value.split(",");
-                        network.addWifiAccessPoint(WifiAccessPoint.from(
-                                wifi[0].replace('-', ':'), Integer.parseInt(wifi[1])));
-                        break;
-                    case "speed":
-                        position.setSpeed(convertSpeed(Double.parseDouble(value), "kn"));
-                        break;
-                    case "bearing":
-                    case "heading":
-                        position.setCourse(Double.parseDouble(value));
-                        break;
-                    case "altitude":
-                        position.setAltitude(Double.parseDouble(value));
-                        break;
-                    case "accuracy":
-                        position.setAccuracy(Double.parseDouble(value));
-                        break;
-                    case "hdop":
-                        position.set(Position.KEY_HDOP, Double.parseDouble(value));
-                        break;
-                    case "batt":
-                        position.set(Position.KEY_BATTERY_LEVEL, Double.parseDouble(value));
-                        break;
-                    case "driverUniqueId":
-                        position.set(Position.KEY_DRIVER_UNIQUE_ID, value);
-                        break;
-                    case "charge":
-                        position.set(Position.KEY_CHARGE, Boolean.parseBoolean(value));
-                        break;
-                    default:
-                        try {
-                            position.set(entry.getKey(), Double.parseDouble(value));
-                        } catch (NumberFormatException e) {
-                            switch (value) {
-                                case "true" -> position.set(entry.getKey(), true);
-                                case "false" -> position.set(entry.getKey(), false);
-                                default -> position.set(entry.getKey(), value);
-                            }
+                    }
+                    break;
+                case "lat":
+                    latitude = Double.parseDouble(value);
+                    break;
+                case "lon":
+                    longitude = Double.parseDouble(value);
+                    break;
+                case "location":
+                    String[] location = value.split(",");
+                    latitude = Double.parseDouble(location[0]);
+                    longitude = Double.parseDouble(location[1]);
+                    break;
+                case "cell":
+                    String[] cell = value.split(",");
+                    if (cell.length > 4) {
+                        network.addCellTower(CellTower.from(
+                                Integer.parseInt(cell[0]), Integer.parseInt(cell[1]),
+                                Integer.parseInt(cell[2]), Integer.parseInt(cell[3]), Integer.parseInt(cell[4])));
+                    } else {
+                        network.addCellTower(CellTower.from(
+                                Integer.parseInt(cell[0]), Integer.parseInt(cell[1]),
+                                Integer.parseInt(cell[2]), Integer.parseInt(cell[3])));
+                    }
+                    break;
+                case "wifi":
+                    String[] wifi = value.split(",");
+                    network.addWifiAccessPoint(WifiAccessPoint.from(
+                            wifi[0].replace('-', ':'), Integer.parseInt(wifi[1])));
+                    break;
+                case "speed":
+                    position.setSpeed(convertSpeed(Double.parseDouble(value), "kn"));
+                    break;
+                case "bearing":
+                case "heading":
+                    position.setCourse(Double.parseDouble(value));
+                    break;
+                case "altitude":
+                    position.setAltitude(Double.parseDouble(value));
+                    break;
+                case "accuracy":
+                    position.setAccuracy(Double.parseDouble(value));
+                    break;
+                case "hdop":
+                    position.set(Position.KEY_HDOP, Double.parseDouble(value));
+                    break;
+                case "batt":
+                    position.set(Position.KEY_BATTERY_LEVEL, Double.parseDouble(value));
+                    break;
+                case "driverUniqueId":
+                    position.set(Position.KEY_DRIVER_UNIQUE_ID, value);
+                    break;
+                case "charge":
+                    position.set(Position.KEY_CHARGE, Boolean.parseBoolean(value));
+                    break;
+                default:
+                    try {
+                        position.set(key, Double.parseDouble(value));
+                    } catch (NumberFormatException e) {
+                        switch (value) {
+                            case "true" -> position.set(key, true);
+                            case "false" -> position.set(key, false);
+                            default -> position.set(key, value);
                         }
-                        break;
-                }
+                    }
+                    break;
             }
         }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2013 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.traccar.helper.model.AttributeUtil;
 import org.traccar.session.DeviceSession;
 import org.traccar.Protocol;
 import org.traccar.helper.BitUtil;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.DateBuilder;
 import org.traccar.helper.UnitsConverter;
 import org.traccar.model.CellTower;
@@ -942,7 +943,7 @@ public class SuntechProtocolDecoder extends BaseProtocolDecoder {
 
         } else {
 
-            String[] values = buf.toString(StandardCharsets.US_ASCII).split(";", -1);
+            String[] values = new ByteBufCharSequence(buf).split(';');
             prefix = values[0];
 
             if (prefix.equals("CRR")) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2013 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,10 +37,12 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 
 public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
@@ -48,6 +50,8 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
     private static final int IMAGE_PACKET_MAX = 2048;
 
     private static final Map<Integer, Map<Set<String>, BiConsumer<Position, ByteBuf>>> PARAMETERS = new HashMap<>();
+    private static final Set<String> PARAMETER_MODELS = new HashSet<>();
+    private static final Map<String, BiConsumer<Position, ByteBuf>[]> PARAMETER_TABLES = new ConcurrentHashMap<>();
 
     private final boolean connectionless;
     private boolean extended;
@@ -191,6 +195,33 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
 
     private static void register(int id, Set<String> models, BiConsumer<Position, ByteBuf> handler) {
         PARAMETERS.computeIfAbsent(id, key -> new HashMap<>()).put(models, handler);
+        if (models != null) {
+            PARAMETER_MODELS.addAll(models);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Position, ByteBuf>[] createParameterTable(String model) {
+        int size = PARAMETERS.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        BiConsumer<Position, ByteBuf>[] table = new BiConsumer[size];
+        PARAMETERS.forEach((id, handlers) -> {
+            for (var entry : handlers.entrySet()) {
+                if (entry.getKey() == null || model != null && entry.getKey().contains(model)) {
+                    table[id] = entry.getValue();
+                    break;
+                }
+            }
+        });
+        return table;
+    }
+
+    /**
+     * Returns handlers for the model indexed by IO element id. Models without specific handlers share the generic
+     * table, so the number of tables is bounded by the registered models.
+     */
+    private static BiConsumer<Position, ByteBuf>[] getParameterTable(String model) {
+        String key = model != null && PARAMETER_MODELS.contains(model) ? model : "";
+        return PARAMETER_TABLES.computeIfAbsent(key, k -> createParameterTable(k.isEmpty() ? null : k));
     }
 
     static {
@@ -318,20 +349,15 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         }
     }
 
-    private void decodeParameter(Position position, int id, ByteBuf buf, int length, int codec, String model) {
+    private void decodeParameter(
+            Position position, int id, ByteBuf buf, int length, int codec, BiConsumer<Position, ByteBuf>[] parameters) {
         if (codec == CODEC_GH3000) {
             decodeGh3000Parameter(position, id, buf, length);
         } else {
-            int index = buf.readerIndex();
-            boolean decoded = false;
-            for (var entry : PARAMETERS.getOrDefault(id, new HashMap<>()).entrySet()) {
-                if (entry.getKey() == null || model != null && entry.getKey().contains(model)) {
-                    entry.getValue().accept(position, buf);
-                    decoded = true;
-                    break;
-                }
-            }
-            if (decoded) {
+            BiConsumer<Position, ByteBuf> handler = id < parameters.length ? parameters[id] : null;
+            if (handler != null) {
+                int index = buf.readerIndex();
+                handler.accept(position, buf);
                 buf.readerIndex(index + length);
             } else {
                 position.set(Position.PREFIX_IO + id, readValue(buf, length));
@@ -402,6 +428,8 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
 
     private void decodeLocation(Position position, ByteBuf buf, int codec, String model) {
 
+        BiConsumer<Position, ByteBuf>[] parameters = getParameterTable(model);
+
         int globalMask = 0x0f;
 
         if (codec == CODEC_GH3000) {
@@ -497,7 +525,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         if (BitUtil.check(globalMask, 1)) {
             int cnt = readExtByte(buf, codec, CODEC_8_EXT);
             for (int j = 0; j < cnt; j++) {
-                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 1, codec, model);
+                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 1, codec, parameters);
             }
         }
 
@@ -505,7 +533,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         if (BitUtil.check(globalMask, 2)) {
             int cnt = readExtByte(buf, codec, CODEC_8_EXT);
             for (int j = 0; j < cnt; j++) {
-                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 2, codec, model);
+                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 2, codec, parameters);
             }
         }
 
@@ -513,7 +541,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         if (BitUtil.check(globalMask, 3)) {
             int cnt = readExtByte(buf, codec, CODEC_8_EXT);
             for (int j = 0; j < cnt; j++) {
-                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 4, codec, model);
+                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 4, codec, parameters);
             }
         }
 
@@ -521,7 +549,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         if (codec == CODEC_8 || codec == CODEC_8_EXT || codec == CODEC_16) {
             int cnt = readExtByte(buf, codec, CODEC_8_EXT);
             for (int j = 0; j < cnt; j++) {
-                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 8, codec, model);
+                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 8, codec, parameters);
             }
         }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import org.traccar.NetworkMessage;
 import org.traccar.Protocol;
 import org.traccar.config.Keys;
 import org.traccar.helper.BitUtil;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.DateBuilder;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
@@ -482,11 +483,11 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
     protected Object decode(
             Channel channel, SocketAddress remoteAddress, Object msg) throws Exception {
 
-        String sentence = (String) msg;
+        ByteBufCharSequence sentence = new ByteBufCharSequence((ByteBuf) msg);
 
         if (channel != null) {
-            String id = sentence.substring(1, 13);
-            String type = sentence.substring(13, 17);
+            String id = sentence.subSequence(1, 13).toString();
+            String type = sentence.subSequence(13, 17).toString();
             if (type.equals("BP00")) {
                 channel.writeAndFlush(new NetworkMessage("(" + id + "AP01HSO)", remoteAddress));
                 return null;
@@ -495,20 +496,20 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
             }
         }
 
-        if (sentence.indexOf('{') > 0 && sentence.indexOf('}') > 0) {
-            return decodeCell(channel, remoteAddress, sentence);
+        if (sentence.indexOf('{', 0) > 0 && sentence.indexOf('}', 0) > 0) {
+            return decodeCell(channel, remoteAddress, sentence.toString());
         } else if (sentence.contains("ZC20")) {
-            return decodeBattery(channel, remoteAddress, sentence);
+            return decodeBattery(channel, remoteAddress, sentence.toString());
         } else if (sentence.contains("BZ00")) {
-            return decodeNetwork(channel, remoteAddress, sentence);
+            return decodeNetwork(channel, remoteAddress, sentence.toString());
         } else if (sentence.contains("ZC03")) {
-            return decodeCommandResult(channel, remoteAddress, sentence);
+            return decodeCommandResult(channel, remoteAddress, sentence.toString());
         } else if (sentence.contains("DW5")) {
-            return decodeLbsWifi(channel, remoteAddress, sentence);
+            return decodeLbsWifi(channel, remoteAddress, sentence.toString());
         } else if (sentence.contains("BV00")) {
-            return decodeVin(channel, remoteAddress, sentence);
+            return decodeVin(channel, remoteAddress, sentence.toString());
         } else if (sentence.contains("BS50") || sentence.contains("BS51")) {
-            return decodeBms(channel, remoteAddress, sentence);
+            return decodeBms(channel, remoteAddress, sentence.toString());
         }
 
         Parser parser = new Parser(PATTERN, sentence);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2013 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,12 +15,14 @@
  */
 package org.traccar.protocol;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import org.traccar.BaseProtocolDecoder;
 import org.traccar.session.DeviceSession;
 import org.traccar.NetworkMessage;
 import org.traccar.Protocol;
 import org.traccar.helper.BitUtil;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.Checksum;
 import org.traccar.helper.DateBuilder;
 import org.traccar.helper.Parser;
@@ -249,7 +251,7 @@ public class TotemProtocolDecoder extends BaseProtocolDecoder {
         };
     }
 
-    private Position decode12(Channel channel, SocketAddress remoteAddress, String sentence, Pattern pattern) {
+    private Position decode12(Channel channel, SocketAddress remoteAddress, CharSequence sentence, Pattern pattern) {
 
         Parser parser = new Parser(pattern, sentence);
         if (!parser.matches()) {
@@ -339,7 +341,7 @@ public class TotemProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private Position decode3(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decode3(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
         Parser parser = new Parser(PATTERN3, sentence);
         if (!parser.matches()) {
@@ -384,9 +386,9 @@ public class TotemProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private Position decode4(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decode4(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
-        int type = Integer.parseInt(sentence.substring(6, 8), 16);
+        int type = Integer.parseInt(sentence, 6, 8, 16);
 
         switch (type) {
             case 0xE2:
@@ -474,7 +476,7 @@ public class TotemProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private Position decodeE2(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decodeE2(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
         Parser parser = new Parser(PATTERN_E2, sentence);
         if (!parser.matches()) {
@@ -499,7 +501,7 @@ public class TotemProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private Position decodeE5(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decodeE5(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
         Parser parser = new Parser(PATTERN_E5, sentence);
         if (!parser.matches()) {
@@ -540,7 +542,7 @@ public class TotemProtocolDecoder extends BaseProtocolDecoder {
     protected Object decode(
             Channel channel, SocketAddress remoteAddress, Object msg) throws Exception {
 
-        String sentence = (String) msg;
+        ByteBufCharSequence sentence = new ByteBufCharSequence((ByteBuf) msg);
 
         Position position;
         if (sentence.charAt(2) == '0') {
@@ -548,7 +550,7 @@ public class TotemProtocolDecoder extends BaseProtocolDecoder {
         } else if (sentence.contains("$GPRMC")) {
             position = decode12(channel, remoteAddress, sentence, PATTERN1);
         } else {
-            int index = sentence.indexOf('|');
+            int index = sentence.indexOf('|', 0);
             if (index != -1 && sentence.indexOf('|', index + 1) != -1) {
                 position = decode12(channel, remoteAddress, sentence, PATTERN2);
             } else {
@@ -558,7 +560,7 @@ public class TotemProtocolDecoder extends BaseProtocolDecoder {
 
         if (channel != null) {
             if (sentence.charAt(2) == '0') {
-                String response = "$$0014AA" + sentence.substring(sentence.length() - 6, sentence.length() - 2);
+                String response = "$$0014AA" + sentence.subSequence(sentence.length() - 6, sentence.length() - 2);
                 response += String.format("%02X", Checksum.xor(response)).toUpperCase(); // &line[Checksum]
                 channel.writeAndFlush(new NetworkMessage(response, remoteAddress));
             } else {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import org.traccar.NetworkMessage;
 import org.traccar.Protocol;
 import org.traccar.helper.BitUtil;
 import org.traccar.helper.BufferUtil;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
 import org.traccar.helper.UnitsConverter;
@@ -106,7 +107,7 @@ public class WatchProtocolDecoder extends BaseProtocolDecoder {
         return null;
     }
 
-    private Position decodePosition(DeviceSession deviceSession, String data) {
+    private Position decodePosition(DeviceSession deviceSession, CharSequence data) {
 
         Parser parser = new Parser(PATTERN_POSITION, data);
         if (!parser.matches()) {
@@ -265,7 +266,7 @@ public class WatchProtocolDecoder extends BaseProtocolDecoder {
 
         } else if (type.startsWith("UD") || type.startsWith("AL") || type.startsWith("WT")) {
 
-            Position position = decodePosition(deviceSession, buf.toString(StandardCharsets.US_ASCII));
+            Position position = decodePosition(deviceSession, new ByteBufCharSequence(buf));
 
             if (type.startsWith("AL")) {
                 if (position != null && !position.hasAttribute(Position.KEY_ALARM)) {
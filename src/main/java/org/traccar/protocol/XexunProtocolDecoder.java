@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2018 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,12 @@
  */
 package org.traccar.protocol;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import org.traccar.BaseProtocolDecoder;
 import org.traccar.session.DeviceSession;
 import org.traccar.Protocol;
+import org.traccar.helper.ByteBufCharSequence;
 import org.traccar.helper.DateBuilder;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
@@ -86,7 +88,7 @@ public class XexunProtocolDecoder extends BaseProtocolDecoder {
             pattern = PATTERN_FULL;
         }
 
-        Parser parser = new Parser(pattern, (String) msg);
+        Parser parser = new Parser(pattern, new ByteBufCharSequence((ByteBuf) msg));
         if (!parser.matches()) {
             return null;
         }
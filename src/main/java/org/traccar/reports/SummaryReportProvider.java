@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -26,6 +26,7 @@ import org.traccar.helper.model.PositionUtil;
 import org.traccar.helper.model.UserUtil;
 import org.traccar.model.Device;
 import org.traccar.model.Position;
+import org.traccar.model.Segment;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.SummaryReportItem;
 import org.traccar.storage.Storage;
@@ -82,21 +83,39 @@ public class SummaryReportProvider {
         result.setDeviceId(device.getId());
         result.setDeviceName(device.getName());
 
+        List<Segment> segments = null;
+        if (!fast && config.getBoolean(Keys.REPORT_SEGMENTS)) {
+            segments = reportUtils.getSegments(device, from, to);
+        }
+
         Position first = null;
         Position last = null;
-        if (fast) {
+        if (fast || segments != null) {
             first = getEdgePosition(device.getId(), from, to, false);
             last = getEdgePosition(device.getId(), from, to, true);
-        } else {
-            var positions = PositionUtil.getPositions(storage, device.getId(), from, to);
-            for (Position position : positions) {
-                if (first == null) {
-                    first = position;
+            if (segments != null) {
+                for (Segment segment : segments) {
+                    if (segment.getMotion()) {
+                        double maxSpeed = reportUtils.getMaxSpeed(device.getId(), segment, from, to);
+                        if (maxSpeed > result.getMaxSpeed()) {
+                            result.setMaxSpeed(maxSpeed);
+                        }
+                    }
                 }
-                if (position.getSpeed() > result.getMaxSpeed()) {
-                    result.setMaxSpeed(position.getSpeed());
+            }
+        } else {
+            try (var positions = PositionUtil.getPositionsStream(storage, device.getId(), from, to)) {
+                var iterator = positions.iterator();
+                while (iterator.hasNext()) {
+                    Position position = iterator.next();
+                    if (first == null) {
+                        first = position;
+                    }
+                    if (position.getSpeed() > result.getMaxSpeed()) {
+                        result.setMaxSpeed(position.getSpeed());
+                    }
+                    last = position;
                 }
-                last = position;
             }
         }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2026 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 - 2017 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -41,6 +41,7 @@ import org.traccar.model.Device;
 import org.traccar.model.Driver;
 import org.traccar.model.Event;
 import org.traccar.model.Position;
+import org.traccar.model.Segment;
 import org.traccar.model.User;
 import org.traccar.reports.model.BaseReportItem;
 import org.traccar.reports.model.StopReportItem;
@@ -60,6 +61,7 @@ import java.io.OutputStream;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -270,24 +272,16 @@ public class ReportUtils {
         }
     }
 
-    private boolean isMoving(List<Position> positions, int index, TripsConfig tripsConfig) {
-        if (tripsConfig.getMinimalNoDataDuration() > 0) {
-            boolean beforeGap = index < positions.size() - 1
-                    && positions.get(index + 1).getFixTime().getTime() - positions.get(index).getFixTime().getTime()
-                    >= tripsConfig.getMinimalNoDataDuration();
-            boolean afterGap = index > 0
-                    && positions.get(index).getFixTime().getTime() - positions.get(index - 1).getFixTime().getTime()
-                    >= tripsConfig.getMinimalNoDataDuration();
-            if (beforeGap || afterGap) {
-                return false;
-            }
-        }
-        return positions.get(index).getBoolean(Position.KEY_MOTION);
-    }
-
     public <T extends BaseReportItem> List<T> detectTripsAndStops(
             Device device, Date from, Date to, Class<T> reportClass) throws StorageException {
 
+        if (config.getBoolean(Keys.REPORT_SEGMENTS)) {
+            List<Segment> segments = getSegments(device, from, to);
+            if (segments != null) {
+                return segmentTripsAndStops(device, segments, from, to, reportClass);
+            }
+        }
+
         long threshold = config.getLong(Keys.REPORT_FAST_THRESHOLD);
         if (Duration.between(from.toInstant(), to.toInstant()).toSeconds() > threshold) {
             return fastTripsAndStops(device, from, to, reportClass);
@@ -304,55 +298,171 @@ public class ReportUtils {
                 new AttributeUtil.StorageProvider(config, storage, permissionsService, device));
         boolean ignoreOdometer = config.getBoolean(Keys.REPORT_IGNORE_ODOMETER);
 
-        var positions = PositionUtil.getPositions(storage, device.getId(), from, to);
-        if (!positions.isEmpty()) {
-            boolean trips = reportClass.equals(TripReportItem.class);
-
-            MotionState motionState = new MotionState();
-            boolean initialValue = isMoving(positions, 0, tripsConfig);
-            motionState.setMotionStreak(initialValue);
-            motionState.setMotionState(initialValue);
-
-            boolean detected = trips == motionState.getMotionState();
-            double maxSpeed = 0;
-            int startEventIndex = detected ? 0 : -1;
-            int startNoEventIndex = -1;
-            for (int i = 0; i < positions.size(); i++) {
-                boolean motion = isMoving(positions, i, tripsConfig);
-                if (motionState.getMotionState() != motion) {
-                    if (motion == trips) {
-                        if (!detected) {
-                            startEventIndex = i;
-                            maxSpeed = positions.get(i).getSpeed();
+        try (var positions = PositionUtil.getPositionsStream(storage, device.getId(), from, to)) {
+            Iterator<Position> iterator = positions.iterator();
+            if (iterator.hasNext()) {
+                boolean trips = reportClass.equals(TripReportItem.class);
+
+                Position previous = null;
+                Position current = iterator.next();
+                Position next = iterator.hasNext() ? iterator.next() : null;
+
+                MotionState motionState = new MotionState();
+                boolean initialValue = MotionProcessor.isMoving(previous, current, next, tripsConfig);
+                motionState.setMotionStreak(initialValue);
+                motionState.setMotionState(initialValue);
+
+                boolean detected = trips == motionState.getMotionState();
+                double maxSpeed = 0;
+                Position startEvent = detected ? current : null;
+                Position startNoEvent = null;
+                while (current != null) {
+                    boolean motion = MotionProcessor.isMoving(previous, current, next, tripsConfig);
+                    if (motionState.getMotionState() != motion) {
+                        if (motion == trips) {
+                            if (!detected) {
+                                startEvent = current;
+                                maxSpeed = current.getSpeed();
+                            }
+                            startNoEvent = null;
+                        } else {
+                            startNoEvent = current;
                         }
-                        startNoEventIndex = -1;
                     } else {
-                        startNoEventIndex = i;
+                        maxSpeed = Math.max(maxSpeed, current.getSpeed());
                     }
-                } else {
-                    maxSpeed = Math.max(maxSpeed, positions.get(i).getSpeed());
-                }
 
-                MotionProcessor.updateState(motionState, positions.get(i), motion, tripsConfig);
-                if (motionState.getEvent() != null) {
-                    if (motion == trips) {
-                        detected = true;
-                        startNoEventIndex = -1;
-                    } else if (startEventIndex >= 0 && startNoEventIndex >= 0) {
-                        result.add(calculateTripOrStop(
-                                device, positions.get(startEventIndex), positions.get(startNoEventIndex),
-                                maxSpeed, ignoreOdometer, reportClass));
-                        detected = false;
-                        startEventIndex = -1;
-                        startNoEventIndex = -1;
+                    MotionProcessor.updateState(motionState, current, motion, tripsConfig);
+                    if (motionState.getEvent() != null) {
+                        if (motion == trips) {
+                            detected = true;
+                            startNoEvent = null;
+                        } else if (startEvent != null && startNoEvent != null) {
+                            result.add(calculateTripOrStop(
+                                    device, startEvent, startNoEvent, maxSpeed, ignoreOdometer, reportClass));
+                            detected = false;
+                            startEvent = null;
+                            startNoEvent = null;
+                        }
                     }
+
+                    previous = current;
+                    current = next;
+                    next = iterator.hasNext() ? iterator.next() : null;
+                }
+                if (detected && startEvent != null && startEvent != previous) {
+                    Position end = startNoEvent != null ? startNoEvent : previous;
+                    result.add(calculateTripOrStop(
+                            device, startEvent, end, maxSpeed, ignoreOdometer, reportClass));
                 }
             }
-            if (detected & startEventIndex >= 0 && startEventIndex < positions.size() - 1) {
-                int endIndex = startNoEventIndex >= 0 ? startNoEventIndex : positions.size() - 1;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns recorded segments overlapping the period or null if segments do not cover the whole period. Each segment
+     * has to start where the previous one ends, so a gap anywhere in the period falls back to the position scan.
+     */
+    public List<Segment> getSegments(Device device, Date from, Date to) throws StorageException {
+        List<Segment> result = new ArrayList<>();
+        Segment previous = storage.getObject(Segment.class, new Request(
+                new Columns.All(),
+                new Condition.And(
+                        new Condition.Equals("deviceId", device.getId()),
+                        new Condition.Compare("startTime", "<=", "from", from)),
+                new Order("startTime", true, 1)));
+        if (previous == null) {
+            return null;
+        }
+        result.add(previous);
+        result.addAll(storage.getObjects(Segment.class, new Request(
+                new Columns.All(),
+                new Condition.And(
+                        new Condition.Equals("deviceId", device.getId()),
+                        new Condition.And(
+                                new Condition.Compare("startTime", ">", "from", from),
+                                new Condition.Compare("startTime", "<=", "to", to))),
+                new Order("startTime"))));
+
+        Date covered = from;
+        for (Segment segment : result) {
+            if (segment.getStartTime().after(covered)) {
+                return null;
+            }
+            if (segment.getEndPositionId() == 0) {
+                return result;
+            }
+            covered = segment.getEndTime();
+        }
+        return covered.before(to) ? null : result;
+    }
+
+    private Position getEdgePosition(long deviceId, Date from, Date to, boolean end) throws StorageException {
+        return storage.getObject(Position.class, new Request(
+                new Columns.All(),
+                new Condition.And(
+                        new Condition.Equals("deviceId", deviceId),
+                        new Condition.Between("fixTime", "from", from, "to", to)),
+                new Order("fixTime", end, 1)));
+    }
+
+    /**
+     * Segments crossing the period edges are clipped, so their maximum speed is computed from the positions inside the
+     * period. Open segments are treated as clipped, because they may continue after the period.
+     */
+    public double getMaxSpeed(long deviceId, Segment segment, Date from, Date to) throws StorageException {
+        boolean clippedStart = segment.getStartTime().before(from);
+        boolean clippedEnd = segment.getEndTime() == null || segment.getEndTime().after(to);
+        if (!clippedStart && !clippedEnd) {
+            return segment.getMaxSpeed();
+        }
+        Date start = clippedStart ? from : segment.getStartTime();
+        Date end = clippedEnd ? to : segment.getEndTime();
+        try (var positions = storage.getObjectsStream(Position.class, new Request(
+                new Columns.Include("speed"),
+                new Condition.And(
+                        new Condition.Equals("deviceId", deviceId),
+                        new Condition.Between("fixTime", "from", start, "to", end))))) {
+            return positions.mapToDouble(Position::getSpeed).max().orElse(0);
+        }
+    }
+
+    private <T extends BaseReportItem> List<T> segmentTripsAndStops(
+            Device device, List<Segment> segments, Date from, Date to, Class<T> reportClass) throws StorageException {
+
+        List<T> result = new ArrayList<>();
+        boolean ignoreOdometer = config.getBoolean(Keys.REPORT_IGNORE_ODOMETER);
+        boolean trips = reportClass.equals(TripReportItem.class);
+
+        for (Segment segment : segments) {
+            if (segment.getMotion() != trips) {
+                continue;
+            }
+            // segments on the edges are clipped to the period, same as the position scan would see them
+            // journaled positions are recorded without an id, so they are found by time
+            Date start = segment.getStartTime().before(from) ? from : segment.getStartTime();
+            Position startPosition;
+            if (segment.getStartTime().before(from) || segment.getStartPositionId() == 0) {
+                startPosition = getEdgePosition(device.getId(), start, to, false);
+            } else {
+                startPosition = storage.getObject(Position.class, new Request(
+                        new Columns.All(), new Condition.Equals("id", segment.getStartPositionId())));
+            }
+            Position endPosition;
+            if (segment.getEndTime() == null || segment.getEndTime().after(to)) {
+                endPosition = getEdgePosition(device.getId(), start, to, true);
+            } else if (segment.getEndPositionId() == 0) {
+                endPosition = getEdgePosition(device.getId(), start, segment.getEndTime(), true);
+            } else {
+                endPosition = storage.getObject(Position.class, new Request(
+                        new Columns.All(), new Condition.Equals("id", segment.getEndPositionId())));
+            }
+            if (startPosition != null && endPosition != null && startPosition.getId() != endPosition.getId()) {
+                double maxSpeed = getMaxSpeed(device.getId(), segment, from, to);
                 result.add(calculateTripOrStop(
-                        device, positions.get(startEventIndex), positions.get(endIndex),
-                        maxSpeed, ignoreOdometer, reportClass));
+                        device, startPosition, endPosition, maxSpeed, ignoreOdometer, reportClass));
             }
         }
 
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.schedule;
+
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.database.CommandsManager;
+import org.traccar.storage.StorageException;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class TaskCommandsResync implements ScheduleTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskCommandsResync.class);
+
+    private static final long PERIOD_MINUTES = 5;
+
+    private final CommandsManager commandsManager;
+
+    @Inject
+    public TaskCommandsResync(CommandsManager commandsManager) {
+        this.commandsManager = commandsManager;
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor) {
+        executor.scheduleAtFixedRate(this, PERIOD_MINUTES, PERIOD_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void run() {
+        try {
+            commandsManager.resyncPendingDevices();
+        } catch (StorageException e) {
+            LOGGER.warn("Failed to resync queued commands", e);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.schedule;
+
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.api.security.PermissionsService;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.SegmentManager;
+import org.traccar.helper.model.AttributeUtil;
+import org.traccar.model.Device;
+import org.traccar.reports.common.TripsConfig;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Request;
+
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class TaskSegmentBackfill extends SingleScheduleTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskSegmentBackfill.class);
+
+    private final Config config;
+    private final Storage storage;
+    private final PermissionsService permissionsService;
+    private final SegmentManager segmentManager;
+    private final ExecutorService executorService;
+
+    @Inject
+    public TaskSegmentBackfill(
+            Config config, Storage storage, PermissionsService permissionsService, SegmentManager segmentManager,
+            ExecutorService executorService) {
+        this.config = config;
+        this.storage = storage;
+        this.permissionsService = permissionsService;
+        this.segmentManager = segmentManager;
+        this.executorService = executorService;
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor) {
+        if (config.getBoolean(Keys.REPORT_SEGMENTS) && config.getLong(Keys.REPORT_SEGMENTS_BACKFILL) > 0) {
+            // runs once and can take a long time, so it should not hold the shared schedule thread
+            executorService.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        Date from = new Date(System.currentTimeMillis() - config.getLong(Keys.REPORT_SEGMENTS_BACKFILL) * 1000);
+        try {
+            for (Device device : storage.getObjects(Device.class, new Request(new Columns.All()))) {
+                TripsConfig tripsConfig = new TripsConfig(
+                        new AttributeUtil.StorageProvider(config, storage, permissionsService, device));
+                segmentManager.backfill(device, from, tripsConfig);
+            }
+        } catch (StorageException e) {
+            LOGGER.warn("Segment backfill error", e);
+        }
+    }
+
+}
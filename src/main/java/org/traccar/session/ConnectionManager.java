@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import org.traccar.broadcast.BroadcastService;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.database.DeviceLookupService;
+import org.traccar.database.DeviceStateWriter;
 import org.traccar.database.NotificationManager;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
@@ -45,17 +46,13 @@ import jakarta.inject.Singleton;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Singleton
 public class ConnectionManager implements BroadcastInterface {
@@ -63,6 +60,7 @@ public class ConnectionManager implements BroadcastInterface {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionManager.class);
 
     private final long deviceTimeout;
+    private final long updateInterval;
     private final boolean showUnknownDevices;
 
     private final Map<Long, DeviceSession> sessionsByDeviceId = new ConcurrentHashMap<>();
@@ -76,18 +74,21 @@ public class ConnectionManager implements BroadcastInterface {
     private final Timer timer;
     private final BroadcastService broadcastService;
     private final DeviceLookupService deviceLookupService;
+    private final DeviceStateWriter deviceStateWriter;
 
-    private final Map<Long, Set<UpdateListener>> listeners = new HashMap<>();
-    private final Map<Long, Set<Long>> userDevices = new HashMap<>();
-    private final Map<Long, Set<Long>> deviceUsers = new HashMap<>();
+    private final Map<Long, Set<UpdateListener>> listeners = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> userDevices = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> deviceUsers = new ConcurrentHashMap<>();
 
     private final Map<Long, Timeout> timeouts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastActivity = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastUpdate = new ConcurrentHashMap<>();
 
     @Inject
     public ConnectionManager(
             Config config, CacheManager cacheManager, Storage storage,
             NotificationManager notificationManager, Timer timer, BroadcastService broadcastService,
-            DeviceLookupService deviceLookupService) {
+            DeviceLookupService deviceLookupService, DeviceStateWriter deviceStateWriter) {
         this.config = config;
         this.cacheManager = cacheManager;
         this.storage = storage;
@@ -95,7 +96,9 @@ public class ConnectionManager implements BroadcastInterface {
         this.timer = timer;
         this.broadcastService = broadcastService;
         this.deviceLookupService = deviceLookupService;
-        deviceTimeout = config.getLong(Keys.STATUS_TIMEOUT);
+        this.deviceStateWriter = deviceStateWriter;
+        deviceTimeout = TimeUnit.SECONDS.toMillis(config.getLong(Keys.STATUS_TIMEOUT));
+        updateInterval = TimeUnit.SECONDS.toMillis(config.getLong(Keys.STATUS_UPDATE_INTERVAL));
         showUnknownDevices = config.getBoolean(Keys.WEB_SHOW_UNKNOWN_DEVICES);
         broadcastService.registerListener(this);
     }
@@ -238,8 +241,9 @@ public class ConnectionManager implements BroadcastInterface {
 
         String oldStatus = device.getStatus();
         device.setStatus(status);
+        boolean changed = !status.equals(oldStatus);
 
-        if (!status.equals(oldStatus)) {
+        if (changed) {
             String eventType;
             Map<Event, Position> events = new HashMap<>();
             eventType = switch (status) {
@@ -255,31 +259,61 @@ public class ConnectionManager implements BroadcastInterface {
             device.setLastUpdate(time);
         }
 
-        Timeout timeout = timeouts.remove(deviceId);
-        if (timeout != null) {
-            timeout.cancel();
+        long now = System.currentTimeMillis();
+        if (status.equals(Device.STATUS_ONLINE)) {
+            lastActivity.put(deviceId, now);
+            if (changed || !timeouts.containsKey(deviceId)) {
+                cancelTimeout(deviceId);
+                scheduleTimeout(deviceId, deviceTimeout);
+            }
+        } else {
+            lastActivity.remove(deviceId);
+            cancelTimeout(deviceId);
         }
 
-        if (status.equals(Device.STATUS_ONLINE)) {
-            timeouts.put(deviceId, timer.newTimeout(timeout1 -> {
-                if (!timeout1.isCancelled()) {
-                    deviceUnknown(deviceId);
-                }
-            }, deviceTimeout, TimeUnit.SECONDS));
+        if (changed) {
+            deviceStateWriter.writeDevice(device, "status", "lastUpdate");
+        } else {
+            deviceStateWriter.updateDevice(device, "lastUpdate");
         }
 
-        try {
-            storage.updateObject(device, new Request(
-                    new Columns.Include("status", "lastUpdate"),
-                    new Condition.Equals("id", deviceId)));
-        } catch (StorageException e) {
-            LOGGER.warn("Update device status error", e);
+        Long updated = lastUpdate.get(deviceId);
+        if (changed || updated == null || now - updated >= updateInterval) {
+            if (status.equals(Device.STATUS_ONLINE)) {
+                lastUpdate.put(deviceId, now);
+            } else {
+                lastUpdate.remove(deviceId);
+            }
+            updateDevice(true, device);
         }
+    }
 
-        updateDevice(true, device);
+    private void cancelTimeout(long deviceId) {
+        Timeout timeout = timeouts.remove(deviceId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
     }
 
-    public synchronized void sendKeepalive() {
+    /**
+     * Timeout is not moved on every message. When it expires, it is rescheduled for the remaining time if the device
+     * reported anything in the meantime.
+     */
+    private void scheduleTimeout(long deviceId, long delay) {
+        timeouts.put(deviceId, timer.newTimeout(timeout -> {
+            if (timeout.isCancelled() || timeouts.get(deviceId) != timeout) {
+                return;
+            }
+            long remaining = lastActivity.getOrDefault(deviceId, 0L) + deviceTimeout - System.currentTimeMillis();
+            if (remaining > 0) {
+                scheduleTimeout(deviceId, remaining);
+            } else {
+                deviceUnknown(deviceId);
+            }
+        }, delay, TimeUnit.MILLISECONDS));
+    }
+
+    public void sendKeepalive() {
         for (Set<UpdateListener> userListeners : listeners.values()) {
             for (UpdateListener listener : userListeners) {
                 listener.onKeepalive();
@@ -288,44 +322,44 @@ public class ConnectionManager implements BroadcastInterface {
     }
 
     @Override
-    public synchronized void updateDevice(boolean local, Device device) {
+    public void updateDevice(boolean local, Device device) {
         if (local) {
             broadcastService.updateDevice(true, device);
         } else if (Device.STATUS_ONLINE.equals(device.getStatus())) {
-            timeouts.remove(device.getId());
+            cancelTimeout(device.getId());
+            lastActivity.remove(device.getId());
+            lastUpdate.remove(device.getId());
             removeDeviceSession(device.getId());
         }
-        for (long userId : deviceUsers.getOrDefault(device.getId(), Collections.emptySet())) {
-            if (listeners.containsKey(userId)) {
-                for (UpdateListener listener : listeners.get(userId)) {
-                    listener.onUpdateDevice(device);
-                }
-            }
-        }
+        dispatch(device.getId(), LiveUpdate.device(device));
     }
 
     @Override
-    public synchronized void updatePosition(boolean local, Position position) {
+    public void updatePosition(boolean local, Position position) {
         if (local) {
             broadcastService.updatePosition(true, position);
         }
-        for (long userId : deviceUsers.getOrDefault(position.getDeviceId(), Collections.emptySet())) {
-            if (listeners.containsKey(userId)) {
-                for (UpdateListener listener : listeners.get(userId)) {
-                    listener.onUpdatePosition(position);
-                }
+        dispatch(position.getDeviceId(), LiveUpdate.position(position));
+    }
+
+    private void dispatch(long deviceId, LiveUpdate update) {
+        for (long userId : deviceUsers.getOrDefault(deviceId, Set.of())) {
+            for (UpdateListener listener : listeners.getOrDefault(userId, Set.of())) {
+                listener.onUpdate(update);
             }
         }
     }
 
     @Override
-    public synchronized void updateEvent(boolean local, long userId, Event event) {
+    public void updateEvent(boolean local, long userId, Event event) {
         if (local) {
             broadcastService.updateEvent(true, userId, event);
         }
-        if (listeners.containsKey(userId)) {
-            for (UpdateListener listener : listeners.get(userId)) {
-                listener.onUpdateEvent(event);
+        var userListeners = listeners.get(userId);
+        if (userListeners != null) {
+            LiveUpdate update = LiveUpdate.event(event);
+            for (UpdateListener listener : userListeners) {
+                listener.onUpdate(update);
             }
         }
     }
@@ -336,55 +370,65 @@ public class ConnectionManager implements BroadcastInterface {
         if (link && clazz1.equals(User.class) && clazz2.equals(Device.class)) {
             if (listeners.containsKey(id1)) {
                 userDevices.get(id1).add(id2);
-                deviceUsers.put(id2, new HashSet<>(List.of(id1)));
+                addDeviceUser(id2, id1);
             }
         }
     }
 
-    public synchronized void updateLog(LogRecord record) {
+    public void updateLog(LogRecord record) {
         var sessions = sessionsByEndpoint.getOrDefault(record.getConnectionKey(), Map.of());
         if (sessions.isEmpty()) {
             String unknownUniqueId = unknownByEndpoint.get(record.getConnectionKey());
             if (unknownUniqueId != null && showUnknownDevices) {
                 record.setUniqueId(unknownUniqueId);
+                LiveUpdate update = LiveUpdate.log(record);
                 listeners.values().stream()
                         .flatMap(Set::stream)
-                        .forEach((listener) -> listener.onUpdateLog(record));
+                        .forEach((listener) -> listener.onUpdate(update));
             }
         } else {
             var firstEntry = sessions.entrySet().iterator().next();
             record.setUniqueId(firstEntry.getKey());
             record.setDeviceId(firstEntry.getValue().getDeviceId());
-            for (long userId : deviceUsers.getOrDefault(record.getDeviceId(), Set.of())) {
-                for (UpdateListener listener : listeners.getOrDefault(userId, Set.of())) {
-                    listener.onUpdateLog(record);
-                }
-            }
+            dispatch(record.getDeviceId(), LiveUpdate.log(record));
         }
     }
 
+    /**
+     * Listeners are called on the ingest path and must not block. Heavy work, like writing to the network, has to be
+     * queued and performed on a different thread.
+     */
     public interface UpdateListener {
         void onKeepalive();
 
-        void onUpdateDevice(Device device);
-
-        void onUpdatePosition(Position position);
-
-        void onUpdateEvent(Event event);
+        void onUpdate(LiveUpdate update);
+    }
 
-        void onUpdateLog(LogRecord record);
+    /**
+     * Other nodes only send live updates of a device while this node has users listening to it.
+     */
+    private void addDeviceUser(long deviceId, long userId) {
+        var userIds = deviceUsers.get(deviceId);
+        if (userIds == null) {
+            userIds = ConcurrentHashMap.newKeySet();
+            deviceUsers.put(deviceId, userIds);
+            broadcastService.subscribeDevice(deviceId, true);
+        }
+        userIds.add(userId);
     }
 
     public synchronized void addListener(long userId, UpdateListener listener) throws StorageException {
         var set = listeners.get(userId);
         if (set == null) {
-            set = new HashSet<>();
+            set = ConcurrentHashMap.newKeySet();
             listeners.put(userId, set);
 
             var devices = storage.getObjects(Device.class, new Request(
                     new Columns.Include("id"), new Condition.Permission(User.class, userId, Device.class)));
-            userDevices.put(userId, devices.stream().map(BaseModel::getId).collect(Collectors.toSet()));
-            devices.forEach(device -> deviceUsers.computeIfAbsent(device.getId(), id -> new HashSet<>()).add(userId));
+            Set<Long> deviceIds = ConcurrentHashMap.newKeySet();
+            devices.forEach(device -> deviceIds.add(device.getId()));
+            userDevices.put(userId, deviceIds);
+            devices.forEach(device -> addDeviceUser(device.getId(), userId));
         }
         set.add(listener);
     }
@@ -395,10 +439,13 @@ public class ConnectionManager implements BroadcastInterface {
         if (set.isEmpty()) {
             listeners.remove(userId);
 
-            userDevices.remove(userId).forEach(deviceId -> deviceUsers.computeIfPresent(deviceId, (x, userIds) -> {
-                userIds.remove(userId);
-                return userIds.isEmpty() ? null : userIds;
-            }));
+            userDevices.remove(userId).forEach(deviceId -> {
+                var userIds = deviceUsers.get(deviceId);
+                if (userIds != null && userIds.remove(userId) && userIds.isEmpty()) {
+                    deviceUsers.remove(deviceId);
+                    broadcastService.subscribeDevice(deviceId, false);
+                }
+            });
         }
     }
 
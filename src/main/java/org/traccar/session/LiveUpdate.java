@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.session;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.LogRecord;
+import org.traccar.model.Position;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single update delivered to all interested listeners. The JSON representation is produced once and shared between
+ * all connections that receive the update.
+ */
+public final class LiveUpdate {
+
+    public enum Type {
+        DEVICES("devices"),
+        POSITIONS("positions"),
+        EVENTS("events"),
+        LOGS("logs");
+
+        private final String key;
+
+        Type(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Identifies updates that supersede each other, so only the latest one has to be delivered.
+     */
+    public record CoalesceKey(Type type, long deviceId) {
+    }
+
+    private final Type type;
+    private final Collection<?> data;
+    private final CoalesceKey coalesceKey;
+
+    private volatile String json;
+
+    private LiveUpdate(Type type, Collection<?> data, CoalesceKey coalesceKey) {
+        this.type = type;
+        this.data = data;
+        this.coalesceKey = coalesceKey;
+    }
+
+    public static LiveUpdate device(Device device) {
+        return new LiveUpdate(Type.DEVICES, List.of(device), new CoalesceKey(Type.DEVICES, device.getId()));
+    }
+
+    public static LiveUpdate position(Position position) {
+        return new LiveUpdate(
+                Type.POSITIONS, List.of(position), new CoalesceKey(Type.POSITIONS, position.getDeviceId()));
+    }
+
+    public static LiveUpdate positions(Collection<Position> positions) {
+        return new LiveUpdate(Type.POSITIONS, positions, null);
+    }
+
+    public static LiveUpdate event(Event event) {
+        return new LiveUpdate(Type.EVENTS, List.of(event), null);
+    }
+
+    public static LiveUpdate log(LogRecord record) {
+        return new LiveUpdate(Type.LOGS, List.of(record), null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Key for coalescing or {@code null} if every instance has to be delivered.
+     */
+    public CoalesceKey getCoalesceKey() {
+        return coalesceKey;
+    }
+
+    public String toJson(ObjectMapper objectMapper) throws JsonProcessingException {
+        String result = json;
+        if (result == null) {
+            synchronized (this) {
+                result = json;
+                if (result == null) {
+                    result = objectMapper.writeValueAsString(Map.of(type.getKey(), data));
+                    json = result;
+                }
+            }
+        }
+        return result;
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,24 +17,24 @@ package org.traccar.session.cache;
 
 import org.traccar.model.BaseModel;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 public class CacheGraph {
 
-    private final Map<CacheKey, CacheNode> roots = new HashMap<>();
+    private final Map<CacheKey, CacheNode> roots = new ConcurrentHashMap<>();
     private final WeakValueMap<CacheKey, CacheNode> nodes = new WeakValueMap<>();
 
-    void addObject(BaseModel value) {
+    synchronized void addObject(BaseModel value) {
         CacheKey key = new CacheKey(value);
         CacheNode node = new CacheNode(value);
         roots.put(key, node);
         nodes.put(key, node);
     }
 
-    void removeObject(Class<? extends BaseModel> clazz, long id) {
+    synchronized void removeObject(Class<? extends BaseModel> clazz, long id) {
         CacheKey key = new CacheKey(clazz, id);
         CacheNode node = nodes.remove(key);
         if (node != null) {
@@ -79,33 +79,59 @@ public class CacheGraph {
         return Stream.concat(directSteam, proxyStream);
     }
 
-    void updateObject(BaseModel value) {
+    synchronized void updateObject(BaseModel value) {
         CacheNode node = nodes.get(new CacheKey(value));
         if (node != null) {
             node.setValue(value);
         }
     }
 
+    /**
+     * Returns {@code false} if the linked node is new, in which case the caller has to load its links and then call
+     * {@link #completeObject}. If another thread is still loading the node, waits for it to finish first.
+     */
     boolean addLink(
             Class<? extends BaseModel> fromClazz, long fromId,
-            BaseModel toValue) {
-        boolean stop = true;
-        CacheNode fromNode = nodes.get(new CacheKey(fromClazz, fromId));
-        if (fromNode != null) {
+            BaseModel toValue) throws Exception {
+        CacheNode toNode;
+        synchronized (this) {
+            CacheNode fromNode = nodes.get(new CacheKey(fromClazz, fromId));
+            if (fromNode == null) {
+                return true;
+            }
             CacheKey toKey = new CacheKey(toValue);
-            CacheNode toNode = nodes.get(toKey);
-            if (toNode == null) {
-                stop = false;
-                toNode = new CacheNode(toValue);
+            toNode = nodes.get(toKey);
+            boolean created = toNode == null;
+            if (created) {
+                toNode = new CacheNode(toValue, Thread.currentThread());
                 nodes.put(toKey, toNode);
             }
             fromNode.getLinks(toValue.getClass(), true).add(toNode);
             toNode.getLinks(fromClazz, false).add(fromNode);
+            if (created) {
+                return false;
+            }
+        }
+        toNode.awaitInitialization();
+        return true;
+    }
+
+    /**
+     * Marks a node created by {@link #addLink} as loaded. A node that failed to load is removed, so it's loaded again
+     * next time it's linked.
+     */
+    synchronized void completeObject(BaseModel value, Throwable error) {
+        CacheKey key = new CacheKey(value);
+        CacheNode node = nodes.get(key);
+        if (node != null) {
+            if (error != null) {
+                removeObject(key.clazz(), key.id());
+            }
+            node.completeInitialization(error);
         }
-        return stop;
     }
 
-    void removeLink(
+    synchronized void removeLink(
             Class<? extends BaseModel> fromClazz, long fromId,
             Class<? extends BaseModel> toClazz, long toId) {
         CacheNode fromNode = nodes.get(new CacheKey(fromClazz, fromId));
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,8 @@ import org.slf4j.LoggerFactory;
 import org.traccar.broadcast.BroadcastInterface;
 import org.traccar.broadcast.BroadcastService;
 import org.traccar.config.Config;
+import org.traccar.database.DeviceStateWriter;
+import org.traccar.geofence.GeofenceIndex;
 import org.traccar.model.Attribute;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Calendar;
@@ -38,18 +40,20 @@ import org.traccar.model.Position;
 import org.traccar.model.Schedulable;
 import org.traccar.model.Server;
 import org.traccar.model.User;
+import org.traccar.notification.NotificationIndex;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Request;
 
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -60,23 +64,41 @@ public class CacheManager implements BroadcastInterface {
     private static final Set<Class<? extends BaseModel>> GROUPED_CLASSES =
             Set.of(Attribute.class, Driver.class, Geofence.class, Maintenance.class, Notification.class);
 
+    private static final int LOAD_ATTEMPTS = 3;
+
     private final Config config;
     private final Storage storage;
     private final BroadcastService broadcastService;
+    private final DeviceStateWriter deviceStateWriter;
+
+    private static final class DeviceState {
 
-    private final ReadWriteLock lock = new ReentrantReadWriteLock(); // &line[Read_Write_Lock]
+        private final Set<Object> references = new HashSet<>();
+        private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        private volatile GeofenceIndex geofenceIndex;
+        private volatile NotificationIndex notificationIndex;
+
+    }
 
     private final CacheGraph graph = new CacheGraph();
 
-    private Server server;
-    private final Map<Long, Position> devicePositions = new HashMap<>();
-    private final Map<Long, HashSet<Object>> deviceReferences = new HashMap<>();
+    private volatile Server server;
+    private final Map<Long, Position> devicePositions = new ConcurrentHashMap<>();
+    private final Map<Long, DeviceState> deviceStates = new ConcurrentHashMap<>();
+    private final AtomicLong geofenceVersion = new AtomicLong();
+    private final AtomicLong notificationVersion = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Set<BroadcastInterface> listeners = ConcurrentHashMap.newKeySet();
 
     @Inject
-    public CacheManager(Config config, Storage storage, BroadcastService broadcastService) throws StorageException {
+    public CacheManager(
+            Config config, Storage storage, BroadcastService broadcastService,
+            DeviceStateWriter deviceStateWriter) throws StorageException {
         this.config = config;
         this.storage = storage;
         this.broadcastService = broadcastService;
+        this.deviceStateWriter = deviceStateWriter;
         server = storage.getObject(Server.class, new Request(new Columns.All()));
         broadcastService.registerListener(this);
     }
@@ -90,114 +112,254 @@ public class CacheManager implements BroadcastInterface {
         return config;
     }
 
+    public void registerListener(BroadcastInterface listener) {
+        listeners.add(listener);
+    }
+
     public <T extends BaseModel> T getObject(Class<T> clazz, long id) {
-        try {
-            lock.readLock().lock(); // &line[Read_Write_Lock]
-            return graph.getObject(clazz, id);
-        } finally {
-            lock.readLock().unlock(); // &line[Read_Write_Lock]
-        }
+        return graph.getObject(clazz, id);
     }
 
     public <T extends BaseModel> Set<T> getDeviceObjects(long deviceId, Class<T> clazz) {
-        try {
-            lock.readLock().lock(); // &line[Read_Write_Lock]
-            return graph.getObjects(Device.class, deviceId, clazz, Set.of(Group.class), true)
-                    .collect(Collectors.toUnmodifiableSet());
-        } finally {
-            lock.readLock().unlock(); // &line[Read_Write_Lock]
+        return graph.getObjects(Device.class, deviceId, clazz, Set.of(Group.class), true)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public GeofenceIndex getDeviceGeofences(long deviceId) {
+        DeviceState state = deviceStates.get(deviceId);
+        if (state != null && state.geofenceIndex != null) {
+            return state.geofenceIndex;
         }
+        long version = geofenceVersion.get();
+        GeofenceIndex index = new GeofenceIndex(config, getDeviceObjects(deviceId, Geofence.class));
+        if (state != null) {
+            synchronized (state) {
+                if (geofenceVersion.get() == version) {
+                    state.geofenceIndex = index;
+                }
+            }
+        }
+        return index;
     }
 
-    public Position getPosition(long deviceId) {
-        try {
-            lock.readLock().lock(); // &line[Read_Write_Lock]
-            return devicePositions.get(deviceId);
-        } finally {
-            lock.readLock().unlock(); // &line[Read_Write_Lock]
+    private void clearDeviceGeofences(DeviceState state) {
+        synchronized (state) {
+            state.geofenceIndex = null;
         }
     }
 
-    public Server getServer() {
-        try {
-            lock.readLock().lock(); // &line[Read_Write_Lock]
-            return server;
-        } finally {
-            lock.readLock().unlock(); // &line[Read_Write_Lock]
+    private void invalidateGeofences(Class<?> clazz, long id, ObjectOperation operation) {
+        if (clazz.equals(Geofence.class) && operation != ObjectOperation.ADD) {
+            geofenceVersion.incrementAndGet();
+            Geofence geofence = operation == ObjectOperation.UPDATE ? graph.getObject(Geofence.class, id) : null;
+            for (DeviceState state : deviceStates.values()) {
+                GeofenceIndex index = state.geofenceIndex;
+                if (index != null && index.contains(id)) {
+                    if (geofence != null) {
+                        index.add(geofence);
+                    } else {
+                        index.remove(id);
+                    }
+                }
+            }
+        } else if (clazz.equals(Device.class)) {
+            geofenceVersion.incrementAndGet();
+            DeviceState state = deviceStates.get(id);
+            if (state != null) {
+                clearDeviceGeofences(state);
+            }
+        } else if (clazz.equals(Group.class)) {
+            geofenceVersion.incrementAndGet();
+            deviceStates.values().forEach(this::clearDeviceGeofences);
         }
     }
 
-    public Set<User> getNotificationUsers(long notificationId, long deviceId) {
-        try {
-            lock.readLock().lock(); // &line[Read_Write_Lock]
-            Set<User> deviceUsers = getDeviceObjects(deviceId, User.class);
-            return graph.getObjects(Notification.class, notificationId, User.class, Set.of(), false)
-                    .filter(deviceUsers::contains)
-                    .collect(Collectors.toUnmodifiableSet());
-        } finally {
-            lock.readLock().unlock(); // &line[Read_Write_Lock]
+    private void invalidateGeofences(Class<?> clazz1, long id1, Class<?> clazz2, long id2) {
+        boolean geofences = clazz1.equals(Geofence.class) || clazz2.equals(Geofence.class);
+        boolean groups = clazz1.equals(Group.class) || clazz2.equals(Group.class);
+        if (clazz1.equals(User.class) || clazz2.equals(User.class) || !geofences && !groups) {
+            return;
         }
+        if (clazz1.equals(Device.class)) {
+            invalidateGeofences(Device.class, id1, ObjectOperation.UPDATE);
+        } else if (clazz2.equals(Device.class)) {
+            invalidateGeofences(Device.class, id2, ObjectOperation.UPDATE);
+        } else {
+            invalidateGeofences(Group.class, 0, ObjectOperation.UPDATE);
+        }
+    }
+
+    public Position getPosition(long deviceId) {
+        return devicePositions.get(deviceId);
+    }
+
+    public Server getServer() {
+        return server;
+    }
+
+    public Set<User> getNotificationUsers(long notificationId, long deviceId) {
+        return getNotificationUsers(notificationId, getDeviceObjects(deviceId, User.class));
+    }
+
+    private Set<User> getNotificationUsers(long notificationId, Set<User> deviceUsers) {
+        return graph.getObjects(Notification.class, notificationId, User.class, Set.of(), false)
+                .filter(deviceUsers::contains)
+                .collect(Collectors.toUnmodifiableSet());
     }
 
     public Set<Notification> getDeviceNotifications(long deviceId) {
-        try {
-            lock.readLock().lock(); // &line[Read_Write_Lock]
-            var direct = graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class), true)
-                    .map(BaseModel::getId)
-                    .collect(Collectors.toUnmodifiableSet());
-            return graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class, User.class), true)
-                    .filter(notification -> notification.getAlways() || direct.contains(notification.getId()))
-                    .collect(Collectors.toUnmodifiableSet());
-        } finally {
-            lock.readLock().unlock(); // &line[Read_Write_Lock]
+        var direct = graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class), true)
+                .map(BaseModel::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        return graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class, User.class), true)
+                .filter(notification -> notification.getAlways() || direct.contains(notification.getId()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public NotificationIndex getDeviceNotificationIndex(long deviceId) {
+        DeviceState state = deviceStates.get(deviceId);
+        if (state != null && state.notificationIndex != null) {
+            return state.notificationIndex;
         }
+        long version = notificationVersion.get();
+        Set<User> deviceUsers = getDeviceObjects(deviceId, User.class);
+        NotificationIndex index = new NotificationIndex(
+                getDeviceNotifications(deviceId),
+                notification -> getNotificationUsers(notification.getId(), deviceUsers));
+        if (state != null) {
+            synchronized (state) {
+                if (notificationVersion.get() == version) {
+                    state.notificationIndex = index;
+                }
+            }
+        }
+        return index;
     }
 
-    public void addDevice(long deviceId, Object key) throws Exception {
-        try {
-            lock.writeLock().lock(); // &line[Read_Write_Lock]
-            var references = deviceReferences.computeIfAbsent(deviceId, k -> new HashSet<>());
-            if (references.isEmpty()) {
-                Device device = storage.getObject(Device.class, new Request(
-                        new Columns.All(), new Condition.Equals("id", deviceId)));
-                graph.addObject(device);
-                initializeCache(device);
-                if (device.getPositionId() > 0) {
-                    devicePositions.put(deviceId, storage.getObject(Position.class, new Request(
-                            new Columns.All(), new Condition.Equals("id", device.getPositionId()))));
+    private void clearDeviceNotifications(DeviceState state) {
+        synchronized (state) {
+            state.notificationIndex = null;
+        }
+    }
+
+    private void invalidateNotifications(Class<?> clazz, long id, ObjectOperation operation) {
+        if (operation == ObjectOperation.ADD) {
+            return;
+        }
+        if (clazz.equals(Device.class)) {
+            notificationVersion.incrementAndGet();
+            DeviceState state = deviceStates.get(id);
+            if (state != null) {
+                clearDeviceNotifications(state);
+            }
+        } else if (clazz.equals(Notification.class) || clazz.equals(User.class)) {
+            notificationVersion.incrementAndGet();
+            for (DeviceState state : deviceStates.values()) {
+                NotificationIndex index = state.notificationIndex;
+                if (index != null && (clazz.equals(Notification.class)
+                        ? index.containsNotification(id) : index.containsUser(id))) {
+                    clearDeviceNotifications(state);
                 }
             }
-            references.add(key);
-            LOGGER.debug("Cache add device {} references {} key {}", deviceId, references.size(), key);
-        } finally {
-            lock.writeLock().unlock(); // &line[Read_Write_Lock]
+        } else if (clazz.equals(Group.class)) {
+            notificationVersion.incrementAndGet();
+            deviceStates.values().forEach(this::clearDeviceNotifications);
+        }
+    }
+
+    private void invalidateNotifications(Class<?> clazz1, long id1, Class<?> clazz2, long id2) {
+        if (clazz1.equals(Device.class)) {
+            invalidateNotifications(Device.class, id1, ObjectOperation.UPDATE);
+        } else if (clazz2.equals(Device.class)) {
+            invalidateNotifications(Device.class, id2, ObjectOperation.UPDATE);
+        } else if (affectsNotifications(clazz1) || affectsNotifications(clazz2)) {
+            invalidateNotifications(Group.class, 0, ObjectOperation.UPDATE);
+        }
+    }
+
+    private static boolean affectsNotifications(Class<?> clazz) {
+        return clazz.equals(Notification.class) || clazz.equals(User.class) || clazz.equals(Group.class);
+    }
+
+    public void addDevice(long deviceId, Object key) throws Exception {
+        DeviceState created = new DeviceState();
+        DeviceState state = deviceStates.compute(deviceId, (id, existing) -> {
+            DeviceState result = existing != null ? existing : created;
+            result.references.add(key);
+            LOGGER.debug("Cache add device {} references {} key {}", deviceId, result.references.size(), key);
+            return result;
+        });
+
+        if (state == created) {
+            try {
+                loadDevice(deviceId);
+                // indexes built while the device was loading may be missing parts of its graph
+                geofenceVersion.incrementAndGet();
+                notificationVersion.incrementAndGet();
+                clearDeviceGeofences(state);
+                clearDeviceNotifications(state);
+                state.loaded.complete(null);
+            } catch (Exception e) {
+                state.loaded.completeExceptionally(e);
+                removeDevice(deviceId, key);
+                throw e;
+            }
+        } else {
+            try {
+                state.loaded.get();
+            } catch (ExecutionException e) {
+                removeDevice(deviceId, key);
+                throw (Exception) e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Loads device and its links. If anything is invalidated in the meantime, the device is loaded again, because the
+     * invalidation might have been applied before the device was in the graph.
+     */
+    private void loadDevice(long deviceId) throws Exception {
+        Device device;
+        for (int attempt = 1;; attempt++) {
+            long invalidationCount = invalidations.get();
+            device = storage.getObject(Device.class, new Request(
+                    new Columns.All(), new Condition.Equals("id", deviceId)));
+            if (device != null) {
+                deviceStateWriter.restoreDevice(device);
+            }
+            graph.addObject(device);
+            initializeCache(device);
+            if (invalidations.get() == invalidationCount || attempt >= LOAD_ATTEMPTS) {
+                break;
+            }
+            LOGGER.debug("Cache reload device {} after invalidation", deviceId);
+            graph.removeObject(Device.class, deviceId);
+        }
+        if (device.getPositionId() > 0) {
+            Position position = storage.getObject(Position.class, new Request(
+                    new Columns.All(), new Condition.Equals("id", device.getPositionId())));
+            if (position != null) {
+                devicePositions.putIfAbsent(deviceId, position);
+            }
         }
     }
 
     public void removeDevice(long deviceId, Object key) {
-        try {
-            lock.writeLock().lock(); // &line[Read_Write_Lock]
-            var references = deviceReferences.computeIfAbsent(deviceId, k -> new HashSet<>());
-            references.remove(key);
-            if (references.isEmpty()) {
+        deviceStates.computeIfPresent(deviceId, (id, state) -> {
+            state.references.remove(key);
+            LOGGER.debug("Cache remove device {} references {} key {}", deviceId, state.references.size(), key);
+            if (state.references.isEmpty()) {
                 graph.removeObject(Device.class, deviceId);
                 devicePositions.remove(deviceId);
-                deviceReferences.remove(deviceId);
+                return null;
             }
-            LOGGER.debug("Cache remove device {} references {} key {}", deviceId, references.size(), key);
-        } finally {
-            lock.writeLock().unlock(); // &line[Read_Write_Lock]
-        }
+            return state;
+        });
     }
 
     public void updatePosition(Position position) {
-        try {
-            lock.writeLock().lock(); // &line[Read_Write_Lock]
-            if (deviceReferences.containsKey(position.getDeviceId())) {
-                devicePositions.put(position.getDeviceId(), position);
-            }
-        } finally {
-            lock.writeLock().unlock(); // &line[Read_Write_Lock]
+        if (deviceStates.containsKey(position.getDeviceId())) {
+            devicePositions.put(position.getDeviceId(), position);
         }
     }
 
@@ -205,10 +367,22 @@ public class CacheManager implements BroadcastInterface {
     @Override
     public <T extends BaseModel> void invalidateObject(
             boolean local, Class<T> clazz, long id, ObjectOperation operation) throws Exception {
+        invalidations.incrementAndGet();
         if (local) {
             broadcastService.invalidateObject(true, clazz, id, operation);
         }
 
+        updateObject(clazz, id, operation);
+        invalidateGeofences(clazz, id, operation);
+        invalidateNotifications(clazz, id, operation);
+
+        for (BroadcastInterface listener : listeners) {
+            listener.invalidateObject(local, clazz, id, operation);
+        }
+    }
+
+    private <T extends BaseModel> void updateObject(
+            Class<T> clazz, long id, ObjectOperation operation) throws Exception {
         if (operation == ObjectOperation.DELETE) {
             graph.removeObject(clazz, id);
         }
@@ -257,6 +431,9 @@ public class CacheManager implements BroadcastInterface {
             // TODO handle notification always change
         }
 
+        if (after instanceof Device device) {
+            deviceStateWriter.restoreDevice(device);
+        }
         graph.updateObject(after);
     }
     // &end[Invalidate_Object]
@@ -265,6 +442,7 @@ public class CacheManager implements BroadcastInterface {
     @Override
     public <T1 extends BaseModel, T2 extends BaseModel> void invalidatePermission(
             boolean local, Class<T1> clazz1, long id1, Class<T2> clazz2, long id2, boolean link) throws Exception {
+        invalidations.incrementAndGet();
         if (local) {
             broadcastService.invalidatePermission(true, clazz1, id1, clazz2, id2, link);
         }
@@ -274,6 +452,12 @@ public class CacheManager implements BroadcastInterface {
         } else {
             invalidatePermission(clazz1, id1, clazz2, id2, link);
         }
+        invalidateGeofences(clazz1, id1, clazz2, id2);
+        invalidateNotifications(clazz1, id1, clazz2, id2);
+
+        for (BroadcastInterface listener : listeners) {
+            listener.invalidatePermission(local, clazz1, id1, clazz2, id2, link);
+        }
     }
 
     private <T1 extends BaseModel, T2 extends BaseModel> void invalidatePermission(
@@ -294,7 +478,13 @@ public class CacheManager implements BroadcastInterface {
             BaseModel object = storage.getObject(toClass, new Request(
                     new Columns.All(), new Condition.Equals("id", toId)));
             if (!graph.addLink(fromClass, fromId, object)) {
-                initializeCache(object);
+                try {
+                    initializeCache(object);
+                    graph.completeObject(object, null);
+                } catch (Exception e) {
+                    graph.completeObject(object, e);
+                    throw e;
+                }
             }
         } else {
             graph.removeLink(fromClass, fromId, toClass, toId);
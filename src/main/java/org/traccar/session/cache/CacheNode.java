@@ -2,21 +2,51 @@ package org.traccar.session.cache;
 
 import org.traccar.model.BaseModel;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Stream;
 
 public class CacheNode {
 
-    private BaseModel value;
+    private volatile BaseModel value;
 
     private final Map<Class<? extends BaseModel>, Set<CacheNode>> links = new ConcurrentHashMap<>();
     private final Map<Class<? extends BaseModel>, Set<CacheNode>> backlinks = new ConcurrentHashMap<>();
 
+    private final CompletableFuture<Void> initialized = new CompletableFuture<>();
+    private final Thread initializer;
+
     public CacheNode(BaseModel value) {
+        this(value, null);
+    }
+
+    CacheNode(BaseModel value, Thread initializer) {
         this.value = value;
+        this.initializer = initializer;
+        if (initializer == null) {
+            initialized.complete(null);
+        }
+    }
+
+    void completeInitialization(Throwable error) {
+        if (error != null) {
+            initialized.completeExceptionally(error);
+        } else {
+            initialized.complete(null);
+        }
+    }
+
+    void awaitInitialization() throws Exception {
+        if (initializer != Thread.currentThread()) {
+            try {
+                initialized.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception exception ? exception : e;
+            }
+        }
     }
 
     public BaseModel getValue() {
@@ -29,7 +59,7 @@ public class CacheNode {
 
     public Set<CacheNode> getLinks(Class<? extends BaseModel> clazz, boolean forward) {
         var map = forward ? links : backlinks;
-        return map.computeIfAbsent(clazz, k -> new HashSet<>());
+        return map.computeIfAbsent(clazz, k -> ConcurrentHashMap.newKeySet());
     }
 
     public Stream<CacheNode> getAllLinks(boolean forward) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,12 @@
 package org.traccar.session.cache;
 
 import java.lang.ref.WeakReference;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class WeakValueMap<K, V> {
 
-    private final Map<K, WeakReference<V>> map = new HashMap<>();
+    private final Map<K, WeakReference<V>> map = new ConcurrentHashMap<>();
 
     public void put(K key, V value) {
         map.put(key, new WeakReference<>(value));
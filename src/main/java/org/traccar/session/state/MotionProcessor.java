@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,24 @@ public final class MotionProcessor {
     private MotionProcessor() {
     }
 
+    /**
+     * Motion of a position as used by the trips and stops report. Positions next to a gap in data are never moving.
+     */
+    public static boolean isMoving(Position previous, Position current, Position next, TripsConfig tripsConfig) {
+        if (tripsConfig.getMinimalNoDataDuration() > 0) {
+            boolean beforeGap = next != null
+                    && next.getFixTime().getTime() - current.getFixTime().getTime()
+                    >= tripsConfig.getMinimalNoDataDuration();
+            boolean afterGap = previous != null
+                    && current.getFixTime().getTime() - previous.getFixTime().getTime()
+                    >= tripsConfig.getMinimalNoDataDuration();
+            if (beforeGap || afterGap) {
+                return false;
+            }
+        }
+        return current.getBoolean(Position.KEY_MOTION);
+    }
+
     public static void updateState(
             MotionState state, Position position, boolean newState, TripsConfig tripsConfig) {
 
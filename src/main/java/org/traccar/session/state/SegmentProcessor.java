@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.session.state;
+
+import org.traccar.model.Event;
+import org.traccar.model.Position;
+import org.traccar.model.Segment;
+import org.traccar.reports.common.TripsConfig;
+
+public final class SegmentProcessor {
+
+    private SegmentProcessor() {
+    }
+
+    public static Segment createSegment(Position position, boolean motion) {
+        Segment segment = new Segment();
+        segment.setDeviceId(position.getDeviceId());
+        segment.setMotion(motion);
+        segment.setStartPositionId(position.getId());
+        segment.setStartTime(position.getFixTime());
+        segment.setMaxSpeed(position.getSpeed());
+        return segment;
+    }
+
+    /**
+     * Positions are processed one behind, because the motion of a position depends on the gap to the next one, same as
+     * in the full trips and stops report. Segment boundary is the first position of the streak that produced the
+     * motion event.
+     */
+    public static void updateState(SegmentState state, Position position, TripsConfig tripsConfig) {
+
+        state.setCompletedSegment(null);
+
+        Position current = state.getPending();
+        state.setPending(position);
+        if (current != null) {
+            boolean motion = MotionProcessor.isMoving(state.getPrevious(), current, position, tripsConfig);
+            state.setPrevious(current);
+            processPosition(state, current, motion, tripsConfig);
+        }
+    }
+
+    private static void processPosition(
+            SegmentState state, Position position, boolean motion, TripsConfig tripsConfig) {
+
+        MotionState motionState = state.getMotionState();
+        if (state.getSegment() == null) {
+            motionState.setMotionStreak(motion);
+            motionState.setMotionState(motion);
+            state.setSegment(createSegment(position, motion));
+            return;
+        }
+
+        boolean oldMotionState = motionState.getMotionState();
+        MotionProcessor.updateState(motionState, position, motion, tripsConfig);
+
+        double speed = position.getSpeed();
+        Segment segment = state.getSegment();
+        Position boundary = state.getBoundary();
+
+        Event event = motionState.getEvent();
+        if (event != null) {
+            Position start = boundary != null ? boundary : position;
+            segment.setEndPositionId(start.getId());
+            segment.setEndTime(start.getFixTime());
+            state.setCompletedSegment(segment);
+            Segment next = createSegment(start, event.getType().equals(Event.TYPE_DEVICE_MOVING));
+            next.setMaxSpeed(boundary != null ? Math.max(state.getBoundarySpeed(), speed) : speed);
+            state.setSegment(next);
+            state.setBoundary(null);
+        } else if (motionState.getMotionState() != oldMotionState) {
+            if (motionState.getMotionState() != motionState.getMotionStreak()) {
+                state.setBoundary(position);
+                state.setBoundarySpeed(speed);
+            } else {
+                double maxSpeed = Math.max(segment.getMaxSpeed(), speed);
+                if (boundary != null) {
+                    maxSpeed = Math.max(maxSpeed, state.getBoundarySpeed());
+                }
+                segment.setMaxSpeed(maxSpeed);
+                state.setBoundary(null);
+            }
+        } else if (boundary != null) {
+            state.setBoundarySpeed(Math.max(state.getBoundarySpeed(), speed));
+        } else {
+            segment.setMaxSpeed(Math.max(segment.getMaxSpeed(), speed));
+        }
+    }
+
+}
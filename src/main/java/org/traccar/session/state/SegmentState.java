@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.session.state;
+
+import org.traccar.model.Position;
+import org.traccar.model.Segment;
+
+public class SegmentState {
+
+    private final MotionState motionState = new MotionState();
+
+    public MotionState getMotionState() {
+        return motionState;
+    }
+
+    private Position previous;
+
+    public Position getPrevious() {
+        return previous;
+    }
+
+    public void setPrevious(Position previous) {
+        this.previous = previous;
+    }
+
+    private Position pending;
+
+    public Position getPending() {
+        return pending;
+    }
+
+    public void setPending(Position pending) {
+        this.pending = pending;
+    }
+
+    private Segment segment;
+
+    public Segment getSegment() {
+        return segment;
+    }
+
+    public void setSegment(Segment segment) {
+        this.segment = segment;
+    }
+
+    private Position boundary;
+
+    public Position getBoundary() {
+        return boundary;
+    }
+
+    public void setBoundary(Position boundary) {
+        this.boundary = boundary;
+    }
+
+    private double boundarySpeed;
+
+    public double getBoundarySpeed() {
+        return boundarySpeed;
+    }
+
+    public void setBoundarySpeed(double boundarySpeed) {
+        this.boundarySpeed = boundarySpeed;
+    }
+
+    private Segment completedSegment;
+
+    public Segment getCompletedSegment() {
+        return completedSegment;
+    }
+
+    public void setCompletedSegment(Segment completedSegment) {
+        this.completedSegment = completedSegment;
+    }
+
+    private boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void setLoaded(boolean loaded) {
+        this.loaded = loaded;
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,10 @@
 package org.traccar.storage;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
+import org.traccar.config.Keys;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
 import org.traccar.model.Group;
@@ -36,15 +39,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // &begin[Database_Storage]
 public class DatabaseStorage extends Storage {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseStorage.class);
+
     private final Config config;
     private final DataSource dataSource;
     private final ObjectMapper objectMapper;
     private final String databaseType;
 
+    private volatile boolean batchKeys;
+
     @Inject
     public DatabaseStorage(Config config, DataSource dataSource, ObjectMapper objectMapper) {
         this.config = config;
@@ -56,10 +64,30 @@ public class DatabaseStorage extends Storage {
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+        batchKeys = !databaseType.equals("Microsoft SQL Server"); // batch generated keys are not supported
     }
 
     @Override
     public <T> List<T> getObjects(Class<T> clazz, Request request) throws StorageException {
+        try {
+            return prepareSelect(clazz, request).executeQuery(clazz);
+        } catch (SQLException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    @Override
+    public <T> Stream<T> getObjectsStream(Class<T> clazz, Request request) throws StorageException {
+        int fetchSize = databaseType.equals("MySQL")
+                ? Integer.MIN_VALUE : config.getInteger(Keys.DATABASE_FETCH_SIZE);
+        try {
+            return prepareSelect(clazz, request).executeQueryStream(clazz, fetchSize);
+        } catch (SQLException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    private QueryBuilder prepareSelect(Class<?> clazz, Request request) throws StorageException, SQLException {
         StringBuilder query = new StringBuilder("SELECT ");
         if (request.getColumns() instanceof Columns.All) {
             query.append('*');
@@ -69,15 +97,11 @@ public class DatabaseStorage extends Storage {
         query.append(" FROM ").append(getStorageName(clazz));
         query.append(formatCondition(request.getCondition()));
         query.append(formatOrder(request.getOrder()));
-        try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
-            for (Map.Entry<String, Object> variable : getConditionVariables(request.getCondition()).entrySet()) {
-                builder.setValue(variable.getKey(), variable.getValue());
-            }
-            return builder.executeQuery(clazz);
-        } catch (SQLException e) {
-            throw new StorageException(e);
+        QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
+        for (Map.Entry<String, Object> variable : getConditionVariables(request.getCondition()).entrySet()) {
+            builder.setValue(variable.getKey(), variable.getValue());
         }
+        return builder;
     }
 
     @Override
@@ -99,6 +123,40 @@ public class DatabaseStorage extends Storage {
         }
     }
 
+    @Override
+    public <T> long[] addObjects(List<T> entities, Request request) throws StorageException {
+        if (entities.isEmpty()) {
+            return new long[0];
+        }
+        if (!batchKeys) {
+            return super.addObjects(entities, request);
+        }
+        List<String> columns = request.getColumns().getColumns(entities.get(0).getClass(), "get");
+        StringBuilder query = new StringBuilder("INSERT INTO ");
+        query.append(getStorageName(entities.get(0).getClass()));
+        query.append("(");
+        query.append(formatColumns(columns, c -> c));
+        query.append(") VALUES (");
+        query.append(formatColumns(columns, c -> ':' + c));
+        query.append(")");
+        try {
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString(), true);
+            for (T entity : entities) {
+                builder.setObject(entity, columns);
+                builder.addBatch();
+            }
+            long[] result = builder.executeBatch();
+            if (result == null) {
+                LOGGER.warn("Database did not return generated keys for a batch, inserting rows one by one");
+                batchKeys = false;
+                return super.addObjects(entities, request);
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new StorageException(e);
+        }
+    }
+
     @Override
     public <T> void updateObject(T entity, Request request) throws StorageException {
         List<String> columns = request.getColumns().getColumns(entity.getClass(), "get");
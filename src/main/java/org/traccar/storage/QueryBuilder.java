@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2026 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.traccar.storage;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,8 +23,9 @@ import org.traccar.config.Keys;
 import org.traccar.model.Permission;
 
 import javax.sql.DataSource;
-import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -35,18 +35,37 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @SuppressWarnings("UnusedReturnValue")
 public final class QueryBuilder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryBuilder.class);
 
+    private record Property(Class<?> type, MethodHandle handle) {
+    }
+
+    private record ClassMapping(MethodHandle constructor, Map<String, Property> setters) {
+    }
+
+    private static final Map<Class<?>, ClassMapping> CLASS_MAPPINGS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, Property>> GETTERS = new ConcurrentHashMap<>();
+
     private final Config config;
     private final ObjectMapper objectMapper;
 
@@ -121,7 +140,7 @@ public final class QueryBuilder {
                     String name = query.substring(i + 1, j);
                     c = '?';
                     i += name.length();
-                    name = name.toLowerCase();
+                    name = name.toLowerCase(Locale.ROOT);
 
                     // Add to list
                     List<Integer> indexList = paramMap.computeIfAbsent(name, k -> new LinkedList<>());
@@ -149,7 +168,7 @@ public final class QueryBuilder {
     }
 
     private List<Integer> indexes(String name) {
-        name = name.toLowerCase();
+        name = name.toLowerCase(Locale.ROOT);
         List<Integer> result = indexMap.get(name);
         if (result == null) {
             result = new LinkedList<>();
@@ -285,32 +304,79 @@ public final class QueryBuilder {
         return this;
     }
 
+    private static Class<?> handleType(Class<?> type) {
+        return type.isPrimitive() ? type : Object.class;
+    }
+
+    private static ClassMapping getClassMapping(Class<?> clazz) {
+        return CLASS_MAPPINGS.computeIfAbsent(clazz, key -> {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try {
+                MethodHandle constructor = lookup.findConstructor(key, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+                Map<String, Property> setters = new HashMap<>();
+                for (Method method : key.getMethods()) {
+                    if (method.getName().startsWith("set") && method.getParameterTypes().length == 1) {
+                        Class<?> type = method.getParameterTypes()[0];
+                        MethodHandle handle = lookup.unreflect(method)
+                                .asType(MethodType.methodType(void.class, Object.class, handleType(type)));
+                        setters.put(
+                                method.getName().substring(3).toLowerCase(Locale.ROOT), new Property(type, handle));
+                    }
+                }
+                return new ClassMapping(constructor, setters);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException(e);
+            }
+        });
+    }
+
+    private static Property getGetter(Class<?> clazz, String column) {
+        return GETTERS.computeIfAbsent(clazz, key -> new ConcurrentHashMap<>()).computeIfAbsent(column, key -> {
+            try {
+                Method method = clazz.getMethod("get" + Character.toUpperCase(key.charAt(0)) + key.substring(1));
+                MethodHandle handle = MethodHandles.lookup().unreflect(method)
+                        .asType(MethodType.methodType(handleType(method.getReturnType()), Object.class));
+                return new Property(method.getReturnType(), handle);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Get property error", e);
+                return null;
+            }
+        });
+    }
+
     public QueryBuilder setObject(Object object, List<String> columns) throws SQLException {
 
         try {
             for (String column : columns) {
-                Method method = object.getClass().getMethod(
-                        "get" + Character.toUpperCase(column.charAt(0)) + column.substring(1));
-                if (method.getReturnType().equals(boolean.class)) {
-                    setBoolean(column, (Boolean) method.invoke(object));
-                } else if (method.getReturnType().equals(int.class)) {
-                    setInteger(column, (Integer) method.invoke(object));
-                } else if (method.getReturnType().equals(long.class)) {
-                    setLong(column, (Long) method.invoke(object), column.endsWith("Id"));
-                } else if (method.getReturnType().equals(double.class)) {
-                    setDouble(column, (Double) method.invoke(object));
-                } else if (method.getReturnType().equals(String.class)) {
-                    setString(column, (String) method.invoke(object));
-                } else if (method.getReturnType().equals(Date.class)) {
-                    setDate(column, (Date) method.invoke(object));
-                } else if (method.getReturnType().equals(byte[].class)) {
-                    setBlob(column, (byte[]) method.invoke(object));
+                Property getter = getGetter(object.getClass(), column);
+                if (getter == null) {
+                    throw new NoSuchMethodException(column);
+                }
+                Class<?> type = getter.type();
+                MethodHandle handle = getter.handle();
+                if (type.equals(boolean.class)) {
+                    setBoolean(column, (boolean) handle.invokeExact(object));
+                } else if (type.equals(int.class)) {
+                    setInteger(column, (int) handle.invokeExact(object));
+                } else if (type.equals(long.class)) {
+                    setLong(column, (long) handle.invokeExact(object), column.endsWith("Id"));
+                } else if (type.equals(double.class)) {
+                    setDouble(column, (double) handle.invokeExact(object));
+                } else if (type.equals(String.class)) {
+                    setString(column, (String) (Object) handle.invokeExact(object));
+                } else if (type.equals(Date.class)) {
+                    setDate(column, (Date) (Object) handle.invokeExact(object));
+                } else if (type.equals(byte[].class)) {
+                    setBlob(column, (byte[]) (Object) handle.invokeExact(object));
                 } else {
-                    setString(column, objectMapper.writeValueAsString(method.invoke(object)));
+                    setString(column, objectMapper.writeValueAsString((Object) handle.invokeExact(object)));
                 }
             }
-        } catch (ReflectiveOperationException | JsonProcessingException e) {
-            LOGGER.warn("Set object error", e);
+        } catch (SQLException error) {
+            throw error;
+        } catch (Throwable error) {
+            LOGGER.warn("Set object error", error);
         }
 
         return this;
@@ -320,76 +386,83 @@ public final class QueryBuilder {
         void process(T object, ResultSet resultSet) throws SQLException;
     }
 
-    private <T> void addProcessors(
-            List<ResultSetProcessor<T>> processors,
-            final Class<?> parameterType, final Method method, final String name) {
+    private <T> void addProcessors(List<ResultSetProcessor<T>> processors, Property setter, final int index) {
+
+        final Class<?> parameterType = setter.type();
+        final MethodHandle handle = setter.handle();
 
         if (parameterType.equals(boolean.class)) {
             processors.add((object, resultSet) -> {
+                boolean value = resultSet.getBoolean(index);
                 try {
-                    method.invoke(object, resultSet.getBoolean(name));
-                } catch (IllegalAccessException | InvocationTargetException error) {
+                    handle.invokeExact((Object) object, value);
+                } catch (Throwable error) {
                     LOGGER.warn("Set property error", error);
                 }
             });
         } else if (parameterType.equals(int.class)) {
             processors.add((object, resultSet) -> {
+                int value = resultSet.getInt(index);
                 try {
-                    method.invoke(object, resultSet.getInt(name));
-                } catch (IllegalAccessException | InvocationTargetException error) {
+                    handle.invokeExact((Object) object, value);
+                } catch (Throwable error) {
                     LOGGER.warn("Set property error", error);
                 }
             });
         } else if (parameterType.equals(long.class)) {
             processors.add((object, resultSet) -> {
+                long value = resultSet.getLong(index);
                 try {
-                    method.invoke(object, resultSet.getLong(name));
-                } catch (IllegalAccessException | InvocationTargetException error) {
+                    handle.invokeExact((Object) object, value);
+                } catch (Throwable error) {
                     LOGGER.warn("Set property error", error);
                 }
             });
         } else if (parameterType.equals(double.class)) {
             processors.add((object, resultSet) -> {
+                double value = resultSet.getDouble(index);
                 try {
-                    method.invoke(object, resultSet.getDouble(name));
-                } catch (IllegalAccessException | InvocationTargetException error) {
+                    handle.invokeExact((Object) object, value);
+                } catch (Throwable error) {
                     LOGGER.warn("Set property error", error);
                 }
             });
         } else if (parameterType.equals(String.class)) {
             processors.add((object, resultSet) -> {
+                String value = resultSet.getString(index);
                 try {
-                    method.invoke(object, resultSet.getString(name));
-                } catch (IllegalAccessException | InvocationTargetException error) {
+                    handle.invokeExact((Object) object, (Object) value);
+                } catch (Throwable error) {
                     LOGGER.warn("Set property error", error);
                 }
             });
         } else if (parameterType.equals(Date.class)) {
             processors.add((object, resultSet) -> {
-                try {
-                    Timestamp timestamp = resultSet.getTimestamp(name);
-                    if (timestamp != null) {
-                        method.invoke(object, new Date(timestamp.getTime()));
+                Timestamp timestamp = resultSet.getTimestamp(index);
+                if (timestamp != null) {
+                    try {
+                        handle.invokeExact((Object) object, (Object) new Date(timestamp.getTime()));
+                    } catch (Throwable error) {
+                        LOGGER.warn("Set property error", error);
                     }
-                } catch (IllegalAccessException | InvocationTargetException error) {
-                    LOGGER.warn("Set property error", error);
                 }
             });
         } else if (parameterType.equals(byte[].class)) {
             processors.add((object, resultSet) -> {
+                byte[] value = resultSet.getBytes(index);
                 try {
-                    method.invoke(object, resultSet.getBytes(name));
-                } catch (IllegalAccessException | InvocationTargetException error) {
+                    handle.invokeExact((Object) object, (Object) value);
+                } catch (Throwable error) {
                     LOGGER.warn("Set property error", error);
                 }
             });
         } else {
             processors.add((object, resultSet) -> {
-                String value = resultSet.getString(name);
+                String value = resultSet.getString(index);
                 if (value != null && !value.isEmpty()) {
                     try {
-                        method.invoke(object, objectMapper.readValue(value, parameterType));
-                    } catch (InvocationTargetException | IllegalAccessException | IOException error) {
+                        handle.invokeExact((Object) object, (Object) objectMapper.readValue(value, parameterType));
+                    } catch (Throwable error) {
                         LOGGER.warn("Set property error", error);
                     }
                 }
@@ -403,6 +476,35 @@ public final class QueryBuilder {
         }
     }
 
+    private <T> List<ResultSetProcessor<T>> createProcessors(
+            ClassMapping mapping, ResultSetMetaData resultMetaData) throws SQLException {
+        List<ResultSetProcessor<T>> processors = new ArrayList<>();
+        Set<String> mapped = new HashSet<>();
+        for (int i = 1; i <= resultMetaData.getColumnCount(); i++) {
+            String name = resultMetaData.getColumnLabel(i).toLowerCase(Locale.ROOT);
+            Property setter = mapping.setters().get(name);
+            if (setter != null && mapped.add(name)) {
+                addProcessors(processors, setter, i);
+            }
+        }
+        return processors;
+    }
+
+    private <T> T createObject(
+            Class<T> clazz, ClassMapping mapping, List<ResultSetProcessor<T>> processors,
+            ResultSet resultSet) throws SQLException {
+        T object;
+        try {
+            object = clazz.cast((Object) mapping.constructor().invokeExact());
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(e);
+        }
+        for (ResultSetProcessor<T> processor : processors) {
+            processor.process(object, resultSet);
+        }
+        return object;
+    }
+
     public <T> List<T> executeQuery(Class<T> clazz) throws SQLException {
         List<T> result = new LinkedList<>();
 
@@ -414,53 +516,79 @@ public final class QueryBuilder {
 
                 try (ResultSet resultSet = statement.executeQuery()) {
 
-                    ResultSetMetaData resultMetaData = resultSet.getMetaData();
+                    ClassMapping mapping = getClassMapping(clazz);
+                    List<ResultSetProcessor<T>> processors = createProcessors(mapping, resultSet.getMetaData());
 
-                    List<ResultSetProcessor<T>> processors = new LinkedList<>();
+                    while (resultSet.next()) {
+                        result.add(createObject(clazz, mapping, processors, resultSet));
+                    }
+                }
 
-                    Method[] methods = clazz.getMethods();
+            } finally {
+                statement.close();
+                connection.close();
+            }
+        }
 
-                    for (final Method method : methods) {
-                        if (method.getName().startsWith("set") && method.getParameterTypes().length == 1) {
+        return result;
+    }
 
-                            final String name = method.getName().substring(3);
+    /**
+     * Returns a lazily populated stream. The statement and the connection stay open until the stream is closed, so
+     * callers must close it, preferably with try-with-resources.
+     */
+    public <T> Stream<T> executeQueryStream(Class<T> clazz, int fetchSize) throws SQLException {
 
-                            // Check if column exists
-                            boolean column = false;
-                            for (int i = 1; i <= resultMetaData.getColumnCount(); i++) {
-                                if (name.equalsIgnoreCase(resultMetaData.getColumnLabel(i))) {
-                                    column = true;
-                                    break;
-                                }
-                            }
-                            if (!column) {
-                                continue;
-                            }
+        if (query == null) {
+            return Stream.empty();
+        }
 
-                            addProcessors(processors, method.getParameterTypes()[0], method, name);
-                        }
-                    }
+        ResultSet resultSet;
+        List<ResultSetProcessor<T>> processors;
+        ClassMapping mapping = getClassMapping(clazz);
+        try {
+            logQuery();
+            connection.setAutoCommit(false); // required for cursor based fetching by some drivers
+            statement.setFetchSize(fetchSize);
+            resultSet = statement.executeQuery();
+            processors = createProcessors(mapping, resultSet.getMetaData());
+        } catch (SQLException error) {
+            closeStream();
+            throw error;
+        }
 
-                    while (resultSet.next()) {
-                        try {
-                            T object = clazz.getDeclaredConstructor().newInstance();
-                            for (ResultSetProcessor<T> processor : processors) {
-                                processor.process(object, resultSet);
-                            }
-                            result.add(object);
-                        } catch (ReflectiveOperationException e) {
-                            throw new IllegalArgumentException();
-                        }
+        var spliterator = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (resultSet.next()) {
+                        action.accept(createObject(clazz, mapping, processors, resultSet));
+                        return true;
                     }
+                    return false;
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
                 }
+            }
+        };
 
-            } finally {
-                statement.close();
+        return StreamSupport.stream(spliterator, false).onClose(this::closeStream);
+    }
+
+    private void closeStream() {
+        try {
+            statement.close();
+            connection.setAutoCommit(true);
+        } catch (SQLException error) {
+            LOGGER.warn("Close stream error", error);
+        } finally {
+            try {
                 connection.close();
+            } catch (SQLException error) {
+                LOGGER.warn("Close connection error", error);
             }
         }
-
-        return result;
     }
 
     public long executeUpdate() throws SQLException {
@@ -483,6 +611,57 @@ public final class QueryBuilder {
         return 0;
     }
 
+    public QueryBuilder addBatch() throws SQLException {
+        try {
+            statement.addBatch();
+        } catch (SQLException error) {
+            statement.close();
+            connection.close();
+            throw error;
+        }
+        return this;
+    }
+
+    /**
+     * Executes the batch in a single transaction. If generated keys are requested and the driver does not return one
+     * for every row, the transaction is rolled back and {@code null} is returned.
+     */
+    public long[] executeBatch() throws SQLException {
+
+        if (query != null) {
+            boolean autoCommit = true;
+            try {
+                logQuery();
+                autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                int[] counts = statement.executeBatch();
+                long[] result = new long[counts.length];
+                if (returnGeneratedKeys) {
+                    int count = 0;
+                    try (ResultSet resultSet = statement.getGeneratedKeys()) {
+                        while (count < result.length && resultSet.next()) {
+                            result[count++] = resultSet.getLong(1);
+                        }
+                    }
+                    if (count < result.length) {
+                        connection.rollback();
+                        return null;
+                    }
+                }
+                connection.commit();
+                return result;
+            } catch (SQLException error) {
+                connection.rollback();
+                throw error;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+                statement.close();
+                connection.close();
+            }
+        }
+        return new long[0];
+    }
+
 // &begin[Permission_Assignment]
     public List<Permission> executePermissionsQuery() throws SQLException {
         List<Permission> result = new LinkedList<>();
@@ -0,0 +1,150 @@
+package org.traccar.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Event;
+import org.traccar.model.Position;
+import org.traccar.session.ConnectionManager;
+import org.traccar.session.LiveUpdate;
+import org.traccar.storage.Storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AsyncSocketTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> sent = new ArrayList<>();
+    private final List<WriteCallback> callbacks = new ArrayList<>();
+
+    private AsyncSocket createSocket(int queueSize) {
+        ExecutorService executorService = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executorService).execute(any());
+
+        RemoteEndpoint remote = mock(RemoteEndpoint.class);
+        doAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            callbacks.add(invocation.getArgument(1));
+            return null;
+        }).when(remote).sendString(anyString(), any(WriteCallback.class));
+        Session session = mock(Session.class);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getRemote()).thenReturn(remote);
+
+        AsyncSocket socket = new AsyncSocket(
+                objectMapper, mock(ConnectionManager.class), mock(Storage.class), executorService, 1, queueSize);
+        socket.onWebSocketConnect(session);
+        assertEquals(List.of("{\"positions\":[]}"), sent);
+        return socket;
+    }
+
+    private void completeWrite(boolean success) {
+        assertEquals(sent.size(), callbacks.size());
+        WriteCallback callback = callbacks.get(callbacks.size() - 1);
+        if (success) {
+            callback.writeSuccess();
+        } else {
+            callback.writeFailed(new Exception());
+        }
+    }
+
+    private static LiveUpdate position(long deviceId, double speed) {
+        Position position = new Position("test");
+        position.setDeviceId(deviceId);
+        position.setSpeed(speed);
+        return LiveUpdate.position(position);
+    }
+
+    private static LiveUpdate event(String type) {
+        return LiveUpdate.event(new Event(type, 1));
+    }
+
+    @Test
+    public void testCoalesce() {
+        AsyncSocket socket = createSocket(10);
+
+        socket.onUpdate(position(1, 10));
+        socket.onUpdate(position(2, 20));
+        socket.onUpdate(position(1, 30));
+        assertEquals(1, sent.size());
+
+        completeWrite(true);
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(1).contains("\"deviceId\":1") && sent.get(1).contains("\"speed\":30.0"));
+
+        completeWrite(true);
+        assertEquals(3, sent.size());
+        assertTrue(sent.get(2).contains("\"deviceId\":2") && sent.get(2).contains("\"speed\":20.0"));
+
+        completeWrite(true);
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void testQueueFull() {
+        AsyncSocket socket = createSocket(2);
+
+        socket.onUpdate(event("first"));
+        socket.onUpdate(event("second"));
+        socket.onUpdate(event("third"));
+        socket.onUpdate(position(1, 10));
+        socket.onKeepalive();
+
+        completeWrite(true);
+        completeWrite(true);
+        completeWrite(true);
+        assertEquals(3, sent.size());
+        assertTrue(sent.get(1).contains("first"));
+        assertTrue(sent.get(2).contains("second"));
+
+        socket.onUpdate(event("fourth"));
+        assertEquals(4, sent.size());
+        assertTrue(sent.get(3).contains("fourth"));
+    }
+
+    @Test
+    public void testOrderAfterWrite() {
+        AsyncSocket socket = createSocket(10);
+
+        socket.onUpdate(event("first"));
+        completeWrite(true);
+        assertEquals(2, sent.size());
+
+        socket.onUpdate(event("second"));
+        socket.onUpdate(position(1, 10));
+        socket.onUpdate(event("third"));
+        assertEquals(2, sent.size());
+
+        completeWrite(false);
+        completeWrite(true);
+        socket.onUpdate(event("fourth"));
+        completeWrite(true);
+        completeWrite(true);
+        completeWrite(true);
+        assertEquals(6, sent.size());
+        assertTrue(sent.get(1).contains("first"));
+        assertTrue(sent.get(2).contains("second"));
+        assertTrue(sent.get(3).contains("\"positions\""));
+        assertTrue(sent.get(4).contains("third"));
+        assertTrue(sent.get(5).contains("fourth"));
+
+        socket.onKeepalive();
+        assertEquals("{}", sent.get(6));
+    }
+
+}
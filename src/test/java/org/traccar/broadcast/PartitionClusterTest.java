@@ -0,0 +1,240 @@
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.StatisticsManager;
+import org.traccar.model.Position;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs a cluster of separate processes against the Redis server from the {@code REDIS_URL} environment variable,
+ * for example {@code redis://localhost:6379}. Skipped when the variable is not set.
+ */
+public class PartitionClusterTest {
+
+    private static final int DEVICES = 20;
+    private static final int ROUNDS = 30;
+    private static final int KILL_ROUND = 10;
+    private static final long HEARTBEAT = 200;
+    private static final long TIMEOUT = 60000;
+
+    private record Line(String kind, String node, long deviceId, int index) {
+    }
+
+    public static final class Node {
+
+        private Node() {
+        }
+
+        private static void print(String kind, String node, Position position) {
+            System.out.println(
+                    "@" + kind + " " + node + " " + position.getDeviceId() + " " + position.getInteger("index"));
+        }
+
+        public static void main(String[] args) throws Exception {
+            Config config = new Config();
+            config.setString(Keys.BROADCAST_ADDRESS, args[0]);
+            config.setString(Keys.BROADCAST_PARTITION, "true");
+            config.setString(Keys.BROADCAST_HEARTBEAT_INTERVAL, String.valueOf(HEARTBEAT));
+
+            RedisBroadcastService service = new RedisBroadcastService(
+                    config, Executors.newCachedThreadPool(), new ObjectMapper(), mock(StatisticsManager.class));
+            String node = service.getNodeId();
+            PartitionManager manager = new PartitionManager(config, service);
+            service.registerListener(new BroadcastInterface() {
+                @Override
+                public void updatePosition(boolean local, Position position) {
+                    print("UPDATE", node, position);
+                }
+
+                @Override
+                public void routePosition(boolean local, String target, String origin, long id, Position position) {
+                    print("PROCESSED", node, position);
+                    service.updatePosition(true, position);
+                    service.confirmPosition(true, origin, id);
+                }
+            });
+            service.start();
+            manager.start();
+
+            if (args[1].equals("origin")) {
+                for (long deviceId = 1; deviceId <= DEVICES; deviceId++) {
+                    service.subscribeDevice(deviceId, true);
+                }
+                Thread.sleep(HEARTBEAT * 5);
+                for (int index = 1; index <= ROUNDS; index++) {
+                    for (long deviceId = 1; deviceId <= DEVICES; deviceId++) {
+                        Position position = new Position("test");
+                        position.setDeviceId(deviceId);
+                        position.set("index", index);
+                        if (manager.isLocal(deviceId)) {
+                            print("LOCAL", node, position);
+                        } else {
+                            manager.routePosition(
+                                    position,
+                                    () -> print("CONFIRMED", node, position),
+                                    () -> print("FALLBACK", node, position));
+                        }
+                    }
+                    System.out.println("@ROUND " + index);
+                    Thread.sleep(HEARTBEAT / 4);
+                }
+                Thread.sleep(HEARTBEAT * 10);
+                System.out.println("@DONE");
+                System.exit(0);
+            } else {
+                System.out.println("@READY " + node);
+                Thread.sleep(TIMEOUT);
+                System.exit(0);
+            }
+        }
+
+    }
+
+    private Process startNode(String url, String role, List<Line> lines, List<String> events) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(
+                java, "-cp", System.getProperty("java.class.path"), Node.class.getName(), url, role)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader input = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String value;
+                while ((value = input.readLine()) != null) {
+                    if (value.startsWith("@")) {
+                        String[] parts = value.substring(1).split(" ");
+                        if (parts.length == 4) {
+                            lines.add(new Line(
+                                    parts[0], parts[1], Long.parseLong(parts[2]), Integer.parseInt(parts[3])));
+                        } else {
+                            events.add(value.substring(1));
+                        }
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        return process;
+    }
+
+    private static void waitFor(List<String> events, String event) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!events.contains(event)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timeout waiting for " + event);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void assertOrdered(List<Line> lines) {
+        Map<Long, Integer> last = new HashMap<>();
+        for (Line line : lines) {
+            Integer previous = last.put(line.deviceId(), line.index());
+            if (previous != null) {
+                assertTrue(line.index() > previous, "Device " + line.deviceId() + " reordered: " + line);
+            }
+        }
+    }
+
+    @Test
+    public void testCluster() throws Exception {
+        String url = System.getenv("REDIS_URL");
+        assumeTrue(url != null && !url.isEmpty(), "REDIS_URL is not set");
+
+        List<Line> lines = new CopyOnWriteArrayList<>();
+        List<String> events = new CopyOnWriteArrayList<>();
+        List<Process> owners = new ArrayList<>();
+        List<String> ownerIds = new ArrayList<>();
+        Process origin = null;
+        try {
+            for (int i = 0; i < 2; i++) {
+                owners.add(startNode(url, "owner", lines, events));
+            }
+            long deadline = System.currentTimeMillis() + TIMEOUT;
+            while (events.stream().filter(event -> event.startsWith("READY ")).count() < owners.size()) {
+                assertTrue(System.currentTimeMillis() < deadline, "Timeout waiting for nodes");
+                Thread.sleep(10);
+            }
+            events.stream()
+                    .filter(event -> event.startsWith("READY "))
+                    .forEach(event -> ownerIds.add(event.substring(6)));
+
+            origin = startNode(url, "origin", lines, events);
+            waitFor(events, "ROUND " + KILL_ROUND);
+            Process killed = owners.get(0);
+            killed.destroyForcibly().waitFor(TIMEOUT, TimeUnit.MILLISECONDS);
+            waitFor(events, "DONE");
+        } finally {
+            owners.forEach(Process::destroyForcibly);
+            if (origin != null) {
+                origin.destroyForcibly();
+            }
+        }
+
+        Set<String> owned = new HashSet<>(ownerIds);
+        String originId = null;
+        Map<Long, Map<Integer, Integer>> callbacks = new HashMap<>();
+        List<Line> local = new ArrayList<>();
+        Map<String, List<Line>> processed = new HashMap<>();
+        for (Line line : lines) {
+            switch (line.kind()) {
+                case "LOCAL", "FALLBACK", "CONFIRMED" -> {
+                    originId = line.node();
+                    callbacks.computeIfAbsent(line.deviceId(), key -> new HashMap<>())
+                            .merge(line.index(), 1, Integer::sum);
+                    if (!line.kind().equals("CONFIRMED")) {
+                        local.add(line);
+                    }
+                }
+                case "PROCESSED" -> processed.computeIfAbsent(line.node(), key -> new ArrayList<>()).add(line);
+                case "UPDATE" -> assertFalse(owned.contains(line.node()), "Update sent to owner " + line);
+                default -> fail("Unexpected " + line);
+            }
+        }
+
+        // every position is reported to the origin exactly once
+        assertEquals(DEVICES, callbacks.size());
+        for (Map<Integer, Integer> indexes : callbacks.values()) {
+            assertEquals(ROUNDS, indexes.size());
+            indexes.values().forEach(count -> assertEquals(1, count));
+        }
+
+        // both owners processed positions and the killed one was replaced by local fallback
+        assertEquals(2, processed.size());
+        assertTrue(lines.stream().anyMatch(line -> line.kind().equals("FALLBACK")));
+        assertTrue(lines.stream().anyMatch(line -> line.kind().equals("UPDATE") && !owned.contains(line.node())));
+        assertTrue(originId != null && !owned.contains(originId));
+
+        // no node processes positions of a device out of order
+        assertOrdered(local);
+        processed.values().forEach(PartitionClusterTest::assertOrdered);
+    }
+
+}
@@ -0,0 +1,223 @@
+package org.traccar.broadcast;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PartitionManagerTest {
+
+    private static final int DEVICES = 10000;
+
+    private static class LocalBroadcastService extends BaseBroadcastService {
+
+        private final List<LocalBroadcastService> cluster;
+
+        LocalBroadcastService(List<LocalBroadcastService> cluster) {
+            this.cluster = cluster;
+            cluster.add(this);
+        }
+
+        @Override
+        public boolean singleInstance() {
+            return false;
+        }
+
+        @Override
+        protected void sendMessage(BroadcastMessage message) {
+            for (LocalBroadcastService node : cluster) {
+                if (node != this) {
+                    try {
+                        node.handleMessage(message);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+    }
+
+    private final List<LocalBroadcastService> cluster = new ArrayList<>();
+    private final List<PartitionManager> managers = new ArrayList<>();
+
+    private PartitionManager addNode() {
+        return addNode(5000);
+    }
+
+    private PartitionManager addNode(long heartbeatInterval) {
+        Config config = new Config();
+        config.setString(Keys.BROADCAST_PARTITION, "true");
+        config.setString(Keys.BROADCAST_HEARTBEAT_INTERVAL, String.valueOf(heartbeatInterval));
+        PartitionManager manager = new PartitionManager(config, new LocalBroadcastService(cluster));
+        managers.add(manager);
+        managers.forEach(PartitionManager::heartbeat);
+        return manager;
+    }
+
+    private Map<Long, String> owners() {
+        Map<Long, String> result = new HashMap<>();
+        for (long deviceId = 1; deviceId <= DEVICES; deviceId++) {
+            String owner = managers.get(0).getOwner(deviceId);
+            for (PartitionManager manager : managers) {
+                assertEquals(owner, manager.getOwner(deviceId));
+            }
+            result.put(deviceId, owner);
+        }
+        return result;
+    }
+
+    @Test
+    public void testOwnership() {
+        for (int i = 0; i < 3; i++) {
+            addNode();
+        }
+
+        Map<Long, String> owners = owners();
+        for (PartitionManager manager : managers) {
+            long owned = owners.values().stream().filter(manager.getNodeId()::equals).count();
+            assertTrue(owned > DEVICES / 5 && owned < DEVICES / 2);
+        }
+
+        PartitionManager added = addNode();
+        Map<Long, String> updated = owners();
+        int moved = 0;
+        for (long deviceId = 1; deviceId <= DEVICES; deviceId++) {
+            if (!owners.get(deviceId).equals(updated.get(deviceId))) {
+                assertEquals(added.getNodeId(), updated.get(deviceId));
+                moved += 1;
+            }
+        }
+        assertTrue(moved > DEVICES / 8 && moved < DEVICES * 3 / 8);
+    }
+
+    @Test
+    public void testRouting() {
+        for (int i = 0; i < 3; i++) {
+            addNode();
+        }
+
+        Map<String, List<Position>> received = new HashMap<>();
+        for (LocalBroadcastService node : cluster) {
+            node.registerListener(new BroadcastInterface() {
+                @Override
+                public void routePosition(
+                        boolean local, String target, String origin, long id, Position position) {
+                    received.computeIfAbsent(node.getNodeId(), key -> new ArrayList<>()).add(position);
+                }
+            });
+        }
+
+        PartitionManager source = managers.get(0);
+        long deviceId = 1;
+        while (source.isLocal(deviceId)) {
+            deviceId += 1;
+        }
+        assertFalse(source.isLocal(deviceId));
+
+        Position position = new Position("test");
+        position.setDeviceId(deviceId);
+        String owner = source.getOwner(deviceId);
+        cluster.get(0).routePosition(true, owner, source.getNodeId(), 1, position);
+
+        assertEquals(Map.of(owner, List.of(position)), received);
+    }
+
+    private Position createRemotePosition(PartitionManager source) {
+        long deviceId = 1;
+        while (source.isLocal(deviceId)) {
+            deviceId += 1;
+        }
+        Position position = new Position("test");
+        position.setDeviceId(deviceId);
+        return position;
+    }
+
+    @Test
+    public void testRoutingConfirmed() {
+        for (int i = 0; i < 2; i++) {
+            addNode();
+        }
+        LocalBroadcastService owner = cluster.get(1);
+        owner.registerListener(new BroadcastInterface() {
+            @Override
+            public void routePosition(boolean local, String target, String origin, long id, Position position) {
+                owner.confirmPosition(true, origin, id);
+            }
+        });
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger fallback = new AtomicInteger();
+        PartitionManager source = managers.get(0);
+        source.routePosition(
+                createRemotePosition(source), confirmed::incrementAndGet, fallback::incrementAndGet);
+        source.heartbeat();
+
+        assertEquals(1, confirmed.get());
+        assertEquals(0, fallback.get());
+    }
+
+    @Test
+    public void testRoutingFallback() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            addNode(1);
+        }
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger fallback = new AtomicInteger();
+        PartitionManager source = managers.get(0);
+        source.routePosition(
+                createRemotePosition(source), confirmed::incrementAndGet, fallback::incrementAndGet);
+        assertEquals(0, fallback.get());
+
+        Thread.sleep(10);
+        source.heartbeat();
+        source.heartbeat();
+
+        assertEquals(0, confirmed.get());
+        assertEquals(1, fallback.get());
+    }
+
+    @Test
+    public void testFallbackOrder() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            addNode(1);
+        }
+
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        PartitionManager source = managers.get(0);
+        Position position = createRemotePosition(source);
+        for (int i = 1; i <= 3; i++) {
+            int index = i;
+            source.routePosition(position, () -> processed.add(-index), () -> processed.add(index));
+        }
+
+        Thread.sleep(10);
+        source.heartbeat();
+        assertEquals(List.of(1, 2, 3), processed);
+        assertTrue(source.isLocal(position.getDeviceId()));
+
+        source.routePosition(position, () -> processed.add(-4), () -> processed.add(4));
+        assertEquals(List.of(1, 2, 3, 4), processed);
+    }
+
+}
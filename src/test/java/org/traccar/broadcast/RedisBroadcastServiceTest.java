@@ -0,0 +1,119 @@
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.Position;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RedisBroadcastServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static RedisBroadcastService.QueuedMessage position(long deviceId, long time) {
+        Position position = new Position();
+        position.setDeviceId(deviceId);
+        BroadcastMessage message = new BroadcastMessage();
+        message.setPosition(position);
+        return new RedisBroadcastService.QueuedMessage(message, time);
+    }
+
+    private static RedisBroadcastService.QueuedMessage device(long deviceId, long time) {
+        Device device = new Device();
+        device.setId(deviceId);
+        device.setUniqueId(String.valueOf(deviceId));
+        BroadcastMessage message = new BroadcastMessage();
+        message.setDevice(device);
+        return new RedisBroadcastService.QueuedMessage(message, time);
+    }
+
+    private static String channel(RedisBroadcastService.QueuedMessage message) {
+        return new String(RedisBroadcastService.targetChannel(message.message()), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testCoalesceOrder() {
+        var first = position(1, 1);
+        var other = device(2, 2);
+        var last = position(1, 3);
+        var unrelated = new RedisBroadcastService.QueuedMessage(new BroadcastMessage(), 4);
+
+        var result = RedisBroadcastService.coalesce(List.of(first, other, last, unrelated));
+        assertEquals(3, result.size());
+        assertSame(other, result.get(0));
+        assertSame(last, result.get(1));
+        assertSame(unrelated, result.get(2));
+    }
+
+    @Test
+    public void testTrim() {
+        var first = device(1, 1);
+        var position = position(1, 2);
+        var second = device(2, 3);
+        var third = device(3, 4);
+        var last = position(2, 5);
+
+        List<RedisBroadcastService.QueuedMessage> messages = new ArrayList<>(
+                List.of(first, position, second, third, last));
+        assertEquals(0, RedisBroadcastService.trim(messages, 5));
+        assertEquals(5, messages.size());
+
+        assertEquals(2, RedisBroadcastService.trim(messages, 3));
+        assertEquals(List.of(first, second, third), messages);
+
+        assertEquals(1, RedisBroadcastService.trim(messages, 2));
+        assertEquals(List.of(second, third), messages);
+    }
+
+    @Test
+    public void testEnvelope() throws Exception {
+        UUID source = UUID.randomUUID();
+        byte[] envelope = RedisBroadcastService.encode(objectMapper, source, List.of(position(1, 100), device(2, 200)));
+
+        var result = RedisBroadcastService.decode(objectMapper, UUID.randomUUID(), envelope);
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).message().getPosition().getDeviceId());
+        assertEquals(100, result.get(0).time());
+        assertEquals(2, result.get(1).message().getDevice().getId());
+        assertEquals(200, result.get(1).time());
+
+        assertTrue(RedisBroadcastService.decode(objectMapper, source, envelope).isEmpty());
+    }
+
+    @Test
+    public void testLegacyMessage() throws Exception {
+        String json = objectMapper.writeValueAsString(position(1, 0).message());
+        byte[] data = (UUID.randomUUID() + ":" + json).getBytes(StandardCharsets.UTF_8);
+
+        var result = RedisBroadcastService.decode(objectMapper, UUID.randomUUID(), data);
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).message().getPosition().getDeviceId());
+        assertEquals(0, result.get(0).time());
+    }
+
+    @Test
+    public void testChannels() {
+        assertEquals("traccar.device.1", channel(position(1, 0)));
+        assertEquals("traccar", channel(device(1, 0)));
+
+        BroadcastMessage event = new BroadcastMessage();
+        event.setUserId(2L);
+        event.setEvent(new Event(Event.TYPE_ALARM, 1));
+        assertEquals("traccar.device.1", channel(new RedisBroadcastService.QueuedMessage(event, 0)));
+
+        BroadcastMessage routed = new BroadcastMessage();
+        routed.setRoutePosition(new BroadcastMessage.RoutePosition());
+        routed.getRoutePosition().setNode("node");
+        assertEquals("traccar.node", channel(new RedisBroadcastService.QueuedMessage(routed, 0)));
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.ServerManager;
+import org.traccar.broadcast.BroadcastService;
+import org.traccar.model.QueuedCommand;
+import org.traccar.session.ConnectionManager;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Request;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CommandsManagerTest {
+
+    private QueuedCommand createCommand(long id, long deviceId) {
+        QueuedCommand command = new QueuedCommand();
+        command.setId(id);
+        command.setDeviceId(deviceId);
+        command.setType("custom");
+        return command;
+    }
+
+    @Test
+    public void testPendingDevices() throws Exception {
+        Storage storage = mock(Storage.class);
+        when(storage.getObjects(eq(QueuedCommand.class), any(Request.class)))
+                .thenReturn(List.of(createCommand(0, 1)))
+                .thenReturn(List.of(createCommand(1, 1)));
+
+        CommandsManager commandsManager = new CommandsManager(
+                storage, mock(ServerManager.class), null, mock(ConnectionManager.class),
+                mock(BroadcastService.class), mock(NotificationManager.class));
+
+        assertTrue(commandsManager.readQueuedCommands(2).isEmpty());
+        verify(storage, times(1)).getObjects(eq(QueuedCommand.class), any(Request.class));
+
+        assertEquals(1, commandsManager.readQueuedCommands(1).size());
+        verify(storage, times(2)).getObjects(eq(QueuedCommand.class), any(Request.class));
+
+        assertTrue(commandsManager.readQueuedCommands(1).isEmpty());
+        verify(storage, times(2)).getObjects(eq(QueuedCommand.class), any(Request.class));
+
+        commandsManager.updateCommand(false, 1);
+        commandsManager.readQueuedCommands(1);
+        verify(storage, times(3)).getObjects(eq(QueuedCommand.class), any(Request.class));
+    }
+
+    @Test
+    public void testResync() throws Exception {
+        Storage storage = mock(Storage.class);
+        when(storage.getObjects(eq(QueuedCommand.class), any(Request.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(createCommand(0, 1)))
+                .thenReturn(List.of(createCommand(1, 1)));
+
+        CommandsManager commandsManager = new CommandsManager(
+                storage, mock(ServerManager.class), null, mock(ConnectionManager.class),
+                mock(BroadcastService.class), mock(NotificationManager.class));
+
+        assertTrue(commandsManager.readQueuedCommands(1).isEmpty());
+        verify(storage, times(1)).getObjects(eq(QueuedCommand.class), any(Request.class));
+
+        commandsManager.resyncPendingDevices();
+        assertEquals(1, commandsManager.readQueuedCommands(1).size());
+        verify(storage, times(3)).getObjects(eq(QueuedCommand.class), any(Request.class));
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Request;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class DeviceStateWriterTest {
+
+    private DeviceStateWriter createWriter(Storage storage) {
+        Config config = new Config();
+        config.setString(Keys.DATABASE_DEVICE_UPDATE_INTERVAL, "3600000");
+        DeviceStateWriter deviceStateWriter = new DeviceStateWriter(config, storage);
+        deviceStateWriter.start();
+        return deviceStateWriter;
+    }
+
+    @Test
+    public void testCoalescedUpdate() throws Exception {
+        Storage storage = mock(Storage.class);
+        DeviceStateWriter deviceStateWriter = createWriter(storage);
+
+        Device device = new Device();
+        device.setId(1);
+        deviceStateWriter.updateDevice(device, "positionId");
+        deviceStateWriter.updateDevice(device, "positionId", "motionState");
+        verify(storage, never()).updateObject(any(), any());
+
+        deviceStateWriter.stop();
+        ArgumentCaptor<Request> request = ArgumentCaptor.forClass(Request.class);
+        verify(storage).updateObject(any(), request.capture());
+        assertEquals(2, request.getValue().getColumns().getColumns(Device.class, "set").size());
+    }
+
+    @Test
+    public void testRestoreDevice() throws Exception {
+        Storage storage = mock(Storage.class);
+        DeviceStateWriter deviceStateWriter = createWriter(storage);
+
+        Device device = new Device();
+        device.setId(1);
+        device.setPositionId(10);
+        device.setMotionState(true);
+        device.setMotionTime(new Date(1000));
+        deviceStateWriter.updateDevice(device, "positionId", "motionState", "motionTime");
+
+        Device reloaded = new Device();
+        reloaded.setId(1);
+        reloaded.setName("renamed");
+        deviceStateWriter.restoreDevice(reloaded);
+        assertEquals(10, reloaded.getPositionId());
+        assertTrue(reloaded.getMotionState());
+        assertEquals(new Date(1000), reloaded.getMotionTime());
+
+        reloaded.setPositionId(11);
+        deviceStateWriter.stop();
+        ArgumentCaptor<Device> written = ArgumentCaptor.forClass(Device.class);
+        verify(storage).updateObject(written.capture(), any());
+        assertSame(reloaded, written.getValue());
+        assertEquals(11, written.getValue().getPositionId());
+    }
+
+}
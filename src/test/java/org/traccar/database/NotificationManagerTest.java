@@ -0,0 +1,181 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.geocoder.Geocoder;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.notification.NotificationDispatcher;
+import org.traccar.notification.NotificationIndex;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.Storage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NotificationManagerTest {
+
+    private final Storage storage = mock(Storage.class);
+    private final CacheManager cacheManager = mock(CacheManager.class);
+    private final List<Integer> batches = new ArrayList<>();
+
+    private NotificationManager createNotificationManager(int batchSize, ThreadPoolExecutor executor)
+            throws Exception {
+        Device device = new Device();
+        device.setId(1);
+        device.setUniqueId("123");
+        when(cacheManager.getObject(Device.class, 1)).thenReturn(device);
+        when(cacheManager.getDeviceNotificationIndex(1)).thenReturn(
+                new NotificationIndex(List.of(), notification -> Set.of()));
+        when(storage.addObjects(anyList(), any())).thenAnswer(invocation -> {
+            List<?> events = invocation.getArgument(0);
+            synchronized (batches) {
+                batches.add(events.size());
+            }
+            return LongStream.rangeClosed(1, events.size()).toArray();
+        });
+        Config config = new Config();
+        config.setString(Keys.EVENT_BATCH_SIZE, String.valueOf(batchSize));
+        config.setString(Keys.EVENT_BATCH_LINGER, "10000");
+        return new NotificationManager(
+                config, storage, cacheManager, null, mock(NotificationDispatcher.class), null, executor);
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        return new ThreadPoolExecutor(4, 4, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    }
+
+    private static Map<Event, Position> createEvents(int count) {
+        Map<Event, Position> events = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            events.put(new Event(Event.TYPE_ALARM, 1), new Position());
+        }
+        return events;
+    }
+
+    @Test
+    public void testUnbatched() throws Exception {
+        ThreadPoolExecutor executor = createExecutor();
+        try {
+            NotificationManager notificationManager = createNotificationManager(1, executor);
+            Map<Event, Position> events = createEvents(3);
+            notificationManager.updateEvents(events);
+
+            assertEquals(List.of(3), batches);
+            events.keySet().forEach(event -> assertTrue(event.getId() > 0));
+            verify(cacheManager, times(3)).removeDevice(eq(1L), any());
+            assertEquals(0, executor.getTaskCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBatched() throws Exception {
+        ThreadPoolExecutor executor = createExecutor();
+        try {
+            NotificationManager notificationManager = createNotificationManager(5, executor);
+            Map<Event, Position> events = createEvents(10);
+            notificationManager.updateEvents(events);
+
+            verify(cacheManager, timeout(10000).times(10)).removeDevice(eq(1L), any());
+            synchronized (batches) {
+                assertEquals(List.of(5, 5), batches);
+            }
+            events.keySet().forEach(event -> assertTrue(event.getId() > 0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWriterReleasesThread() throws Exception {
+        ThreadPoolExecutor executor = createExecutor();
+        try {
+            NotificationManager notificationManager = createNotificationManager(2, executor);
+            verify(storage, never()).addObjects(anyList(), any());
+            assertEquals(0, executor.getTaskCount());
+
+            notificationManager.updateEvents(createEvents(2));
+            verify(cacheManager, timeout(10000).times(2)).removeDevice(eq(1L), any());
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (executor.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, executor.getActiveCount());
+
+            notificationManager.updateEvents(createEvents(2));
+            verify(cacheManager, timeout(10000).times(4)).removeDevice(eq(1L), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGeocodeCopy() throws Exception {
+        Device device = new Device();
+        device.setId(1);
+        device.setUniqueId("123");
+        when(cacheManager.getObject(Device.class, 1)).thenReturn(device);
+        Notification notification = new Notification();
+        notification.setType(Event.TYPE_DEVICE_ONLINE);
+        notification.setNotificators("web");
+        User user = new User();
+        user.setId(2);
+        when(cacheManager.getDeviceNotificationIndex(1)).thenReturn(
+                new NotificationIndex(List.of(notification), ignored -> Set.of(user)));
+        Geocoder geocoder = mock(Geocoder.class);
+        when(geocoder.getAddress(anyDouble(), anyDouble(), any())).thenReturn("address");
+        NotificationDispatcher notificationDispatcher = mock(NotificationDispatcher.class);
+        when(storage.addObjects(anyList(), any())).thenReturn(new long[] {1});
+
+        Config config = new Config();
+        config.setString(Keys.GEOCODER_ON_REQUEST, "true");
+        ThreadPoolExecutor executor = createExecutor();
+        try {
+            NotificationManager notificationManager = new NotificationManager(
+                    config, storage, cacheManager, null, notificationDispatcher, geocoder, executor);
+            Position position = new Position();
+            position.setDeviceId(1);
+            notificationManager.updateEvents(Map.of(new Event(Event.TYPE_DEVICE_ONLINE, 1), position));
+
+            ArgumentCaptor<Position> captor = ArgumentCaptor.forClass(Position.class);
+            verify(notificationDispatcher, timeout(10000)).dispatch(
+                    eq("web"), eq(notification), eq(user), any(), captor.capture(), any());
+            assertEquals("address", captor.getValue().getAddress());
+            assertNotSame(position, captor.getValue());
+            assertNull(position.getAddress());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
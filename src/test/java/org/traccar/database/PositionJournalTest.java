@@ -0,0 +1,226 @@
+package org.traccar.database;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.helper.SegmentedLog;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.model.Server;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PositionJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    private final CacheManager cacheManager = mock(CacheManager.class);
+    private final DeviceStateWriter deviceStateWriter = mock(DeviceStateWriter.class);
+
+    private Position createPosition(long deviceId) {
+        Position position = new Position("test");
+        position.setDeviceId(deviceId);
+        position.setTime(new Date(1700000000000L + deviceId * 1000));
+        position.set(Position.KEY_ODOMETER, deviceId * 1000);
+        return position;
+    }
+
+    private PositionJournal createJournal(Storage storage) throws Exception {
+        Config config = new Config();
+        config.setString(Keys.DATABASE_JOURNAL_PATH, directory.toString());
+        config.setString(Keys.DATABASE_JOURNAL_SEGMENT_SIZE, "256");
+        config.setString(Keys.DATABASE_JOURNAL_REPLAY_INTERVAL, "3600000");
+        PositionJournal journal = new PositionJournal(
+                config, storage, cacheManager, deviceStateWriter, new ObjectMapper());
+        journal.start();
+        return journal;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReplayAfterFailure() throws Exception {
+        Storage storage = mock(Storage.class);
+        List<Position> stored = new ArrayList<>();
+
+        PositionJournal journal = createJournal(storage);
+        List<Position> positions = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            positions.add(createPosition(i));
+        }
+        assertTrue(journal.append(positions));
+
+        doThrow(new StorageException("unavailable")).when(storage).addObjects(any(List.class), any());
+        doThrow(new StorageException("unavailable")).when(storage).getObject(eq(Server.class), any());
+        journal.replay();
+        journal.stop();
+
+        reset(storage);
+        doAnswer(invocation -> {
+            stored.addAll(invocation.getArgument(0));
+            return new long[0];
+        }).when(storage).addObjects(any(List.class), any());
+
+        journal = createJournal(storage);
+        journal.replay();
+        assertEquals(10, stored.size());
+        assertEquals(7, stored.get(6).getDeviceId());
+        assertEquals(7000L, stored.get(6).getLong(Position.KEY_ODOMETER));
+
+        journal.replay();
+        assertEquals(10, stored.size());
+
+        assertTrue(journal.append(List.of(createPosition(11))));
+        journal.replay();
+        assertEquals(11, stored.size());
+        journal.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCircuit() throws Exception {
+        Storage storage = mock(Storage.class);
+        PositionJournal journal = createJournal(storage);
+        assertFalse(journal.isOpen());
+
+        assertTrue(journal.append(List.of(createPosition(1))));
+        assertFalse(journal.isOpen());
+
+        assertTrue(journal.appendFailed(List.of(createPosition(2))));
+        assertTrue(journal.isOpen());
+
+        doThrow(new StorageException("unavailable")).when(storage).addObjects(any(List.class), any());
+        doThrow(new StorageException("unavailable")).when(storage).getObject(eq(Server.class), any());
+        journal.replay();
+        assertTrue(journal.isOpen());
+
+        reset(storage);
+        when(storage.addObjects(any(List.class), any())).thenReturn(new long[] {10, 11});
+        journal.replay();
+        assertFalse(journal.isOpen());
+        journal.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReplayUpdatesLatest() throws Exception {
+        Storage storage = mock(Storage.class);
+        PositionJournal journal = createJournal(storage);
+
+        Position older = createPosition(1);
+        Position latest = createPosition(1);
+        latest.setTime(new Date(older.getFixTime().getTime() + 1000));
+        Position cached = createPosition(1);
+        cached.setTime(latest.getFixTime());
+        Device device = new Device();
+        device.setId(1);
+        when(cacheManager.getPosition(1)).thenReturn(cached);
+        when(cacheManager.getObject(Device.class, 1)).thenReturn(device);
+
+        Device offline = new Device();
+        offline.setId(2);
+        offline.setPositionId(5);
+        Position stored = new Position();
+        stored.setTime(new Date(0));
+        when(storage.getObject(eq(Device.class), any())).thenReturn(offline);
+        when(storage.getObject(eq(Position.class), any())).thenReturn(stored);
+
+        assertTrue(journal.appendFailed(List.of(older, latest, createPosition(2))));
+        when(storage.addObjects(any(List.class), any())).thenReturn(new long[] {10, 11, 12});
+        journal.replay();
+
+        assertEquals(11, cached.getId());
+        assertEquals(11, device.getPositionId());
+        verify(deviceStateWriter).updateDevice(device, "positionId");
+        assertEquals(12, offline.getPositionId());
+        verify(storage).updateObject(eq(offline), any());
+        journal.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReplayKeepsNewer() throws Exception {
+        Storage storage = mock(Storage.class);
+        PositionJournal journal = createJournal(storage);
+
+        Device offline = new Device();
+        offline.setId(2);
+        offline.setPositionId(5);
+        Position stored = new Position();
+        stored.setTime(new Date());
+        when(storage.getObject(eq(Device.class), any())).thenReturn(offline);
+        when(storage.getObject(eq(Position.class), any())).thenReturn(stored);
+
+        assertTrue(journal.appendFailed(List.of(createPosition(2))));
+        when(storage.addObjects(any(List.class), any())).thenReturn(new long[] {12});
+        journal.replay();
+
+        assertEquals(5, offline.getPositionId());
+        verify(storage, never()).updateObject(any(), any());
+        journal.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReplayRejectsInvalid() throws Exception {
+        SegmentedLog log = new SegmentedLog(directory, 256);
+        log.append(List.of("{invalid".getBytes(StandardCharsets.UTF_8)));
+        log.close();
+
+        Storage storage = mock(Storage.class);
+        PositionJournal journal = createJournal(storage);
+        List<Position> positions = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            positions.add(createPosition(i));
+        }
+        assertTrue(journal.appendFailed(positions));
+
+        doThrow(new StorageException("constraint")).when(storage).addObjects(any(List.class), any());
+        when(storage.addObject(any(Position.class), any())).thenAnswer(invocation -> {
+            Position position = invocation.getArgument(0);
+            if (position.getDeviceId() == 2) {
+                throw new StorageException("constraint");
+            }
+            return position.getDeviceId() + 10;
+        });
+        journal.replay();
+
+        assertFalse(journal.isOpen());
+        verify(storage, times(3)).addObject(any(Position.class), any());
+        List<String> rejected = Files.readAllLines(directory.resolve("rejected.json"));
+        assertEquals(2, rejected.size());
+        assertEquals("{invalid", rejected.get(0));
+        assertEquals(2, new ObjectMapper().readValue(rejected.get(1), Position.class).getDeviceId());
+
+        reset(storage);
+        journal.replay();
+        verify(storage, never()).addObjects(any(List.class), any());
+        verify(storage, never()).addObject(any(), any());
+        journal.stop();
+    }
+
+}
@@ -0,0 +1,373 @@
+package org.traccar.database;
+
+import org.apache.velocity.app.VelocityEngine;
+import org.junit.jupiter.api.Test;
+import org.traccar.api.security.PermissionsService;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.BaseModel;
+import org.traccar.model.Device;
+import org.traccar.model.Permission;
+import org.traccar.model.Position;
+import org.traccar.model.Segment;
+import org.traccar.reports.common.ReportUtils;
+import org.traccar.reports.common.TripsConfig;
+import org.traccar.reports.model.BaseReportItem;
+import org.traccar.reports.model.StopReportItem;
+import org.traccar.reports.model.TripReportItem;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class SegmentManagerTest {
+
+    private static final long START = 1700000000000L;
+    private static final long MINUTE = 60000;
+
+    private static class TestStorage extends Storage {
+
+        private final Map<Class<?>, Map<Long, Object>> objects = new HashMap<>();
+        private long increment;
+
+        private static Object getValue(Object object, String column) {
+            try {
+                Method getter = object.getClass().getMethod(
+                        "get" + Character.toUpperCase(column.charAt(0)) + column.substring(1));
+                return getter.invoke(object);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static int compare(Object first, Object second) {
+            if (first instanceof Number firstNumber && second instanceof Number secondNumber) {
+                return Double.compare(firstNumber.doubleValue(), secondNumber.doubleValue());
+            }
+            return ((Comparable) first).compareTo(second);
+        }
+
+        private static boolean matches(Condition genericCondition, Object object) {
+            if (genericCondition == null) {
+                return true;
+            } else if (genericCondition instanceof Condition.Compare condition) {
+                int result = compare(getValue(object, condition.getColumn()), condition.getValue());
+                return switch (condition.getOperator()) {
+                    case "<" -> result < 0;
+                    case "<=" -> result <= 0;
+                    case ">" -> result > 0;
+                    case ">=" -> result >= 0;
+                    default -> result == 0;
+                };
+            } else if (genericCondition instanceof Condition.Between condition) {
+                Object value = getValue(object, condition.getColumn());
+                return compare(value, condition.getFromValue()) >= 0 && compare(value, condition.getToValue()) <= 0;
+            } else if (genericCondition instanceof Condition.Binary condition) {
+                boolean first = matches(condition.getFirst(), object);
+                boolean second = matches(condition.getSecond(), object);
+                return condition.getOperator().equals("AND") ? first && second : first || second;
+            }
+            throw new UnsupportedOperationException();
+        }
+
+        // segments are copied, so that changes only reach the storage through explicit updates
+        private static Object copy(Object object) {
+            if (object instanceof Segment segment) {
+                Segment result = new Segment();
+                result.setId(segment.getId());
+                result.setDeviceId(segment.getDeviceId());
+                result.setMotion(segment.getMotion());
+                result.setStartPositionId(segment.getStartPositionId());
+                result.setStartTime(segment.getStartTime());
+                result.setEndPositionId(segment.getEndPositionId());
+                result.setEndTime(segment.getEndTime());
+                result.setMaxSpeed(segment.getMaxSpeed());
+                return result;
+            }
+            return object;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> getObjects(Class<T> clazz, Request request) {
+            Stream<Object> stream = objects.getOrDefault(clazz, Map.of()).values().stream()
+                    .filter(object -> matches(request.getCondition(), object));
+            Order order = request.getOrder();
+            if (order != null) {
+                Comparator<Object> comparator = (first, second) -> compare(
+                        getValue(first, order.getColumn()), getValue(second, order.getColumn()));
+                stream = stream.sorted(order.getDescending() ? comparator.reversed() : comparator);
+                if (order.getLimit() > 0) {
+                    stream = stream.limit(order.getLimit());
+                }
+            }
+            return stream.map(object -> (T) copy(object)).toList();
+        }
+
+        @Override
+        public <T> long addObject(T entity, Request request) {
+            long id = ++increment;
+            Object stored = copy(entity);
+            ((BaseModel) stored).setId(id);
+            objects.computeIfAbsent(entity.getClass(), key -> new HashMap<>()).put(id, stored);
+            return id;
+        }
+
+        @Override
+        public <T> void updateObject(T entity, Request request) {
+            long id = (Long) ((Condition.Equals) request.getCondition()).getValue();
+            Object stored = objects.get(entity.getClass()).get(id);
+            for (String column : request.getColumns().getColumns(entity.getClass(), "set")) {
+                for (Method setter : entity.getClass().getMethods()) {
+                    if (setter.getName().equalsIgnoreCase("set" + column) && setter.getParameterCount() == 1) {
+                        try {
+                            setter.invoke(stored, getValue(entity, column));
+                        } catch (ReflectiveOperationException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void removeObject(Class<?> clazz, Request request) {
+            objects.get(clazz).remove((Long) ((Condition.Equals) request.getCondition()).getValue());
+        }
+
+        @Override
+        public List<Permission> getPermissions(
+                Class<? extends BaseModel> ownerClass, long ownerId,
+                Class<? extends BaseModel> propertyClass, long propertyId) {
+            return List.of();
+        }
+
+        @Override
+        public void addPermission(Permission permission) {
+        }
+
+        @Override
+        public void removePermission(Permission permission) {
+        }
+
+    }
+
+    private final TestStorage storage = new TestStorage();
+    private final TripsConfig tripsConfig = new TripsConfig(500, 300000, 300000, 1800000, false);
+
+    private Device createDevice() {
+        Device device = new Device();
+        device.setId(1);
+        device.setAttributes(Map.of(
+                Keys.REPORT_TRIP_MINIMAL_TRIP_DISTANCE.getKey(), 500.0,
+                Keys.REPORT_TRIP_MINIMAL_TRIP_DURATION.getKey(), 300L,
+                Keys.REPORT_TRIP_MINIMAL_PARKING_DURATION.getKey(), 300L,
+                Keys.REPORT_TRIP_MINIMAL_NO_DATA_DURATION.getKey(), 1800L,
+                Keys.REPORT_TRIP_USE_IGNITION.getKey(), false));
+        return device;
+    }
+
+    private static Date time(int minute) {
+        return new Date(START + minute * MINUTE);
+    }
+
+    /**
+     * Trips with a short stop inside, a gap in data while moving and an isolated moving position after a gap. Speed
+     * peaks early in the second trip.
+     */
+    private List<Position> createPositions() {
+        List<Position> positions = new ArrayList<>();
+        double distance = 0;
+        for (int minute = 0; minute <= 300; minute++) {
+            boolean moving = minute >= 10 && minute < 30
+                    || minute >= 50 && minute < 71 && minute != 56
+                    || minute >= 161 && minute < 181
+                    || minute == 250;
+            if (minute > 100 && minute < 160 || minute > 200 && minute < 250) {
+                continue;
+            }
+            if (moving || minute == 160) {
+                distance += 500;
+            }
+            Position position = new Position();
+            position.setDeviceId(1);
+            position.setTime(time(minute));
+            position.setValid(true);
+            position.setSpeed(moving || minute == 160 ? minute == 52 ? 80 : 30 : 0);
+            position.set(Position.KEY_MOTION, moving || minute == 160);
+            position.set(Position.KEY_TOTAL_DISTANCE, distance);
+            positions.add(position);
+        }
+        return positions;
+    }
+
+    private SegmentManager createSegmentManager(Config config) {
+        ExecutorService executorService = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executorService).execute(any());
+        return new SegmentManager(config, storage, executorService);
+    }
+
+    private void store(Position position) {
+        position.setId(storage.addObject(position, null));
+    }
+
+    private ReportUtils createReportUtils() {
+        Config config = new Config();
+        config.setString(Keys.REPORT_SEGMENTS, "true");
+        return new ReportUtils(
+                config, storage, mock(PermissionsService.class), mock(VelocityEngine.class), null);
+    }
+
+    private <T extends BaseReportItem> void verifyReport(
+            ReportUtils reportUtils, Device device, Date from, Date to, Class<T> reportClass) throws Exception {
+        assertNotNull(reportUtils.getSegments(device, from, to));
+        List<T> expected = reportUtils.slowTripsAndStops(device, from, to, reportClass);
+        List<T> actual = reportUtils.detectTripsAndStops(device, from, to, reportClass);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getStartTime(), actual.get(i).getStartTime());
+            assertEquals(expected.get(i).getEndTime(), actual.get(i).getEndTime());
+        }
+    }
+
+    private void verifyReports(Device device) throws Exception {
+        ReportUtils reportUtils = createReportUtils();
+        for (Class<? extends BaseReportItem> reportClass : List.of(TripReportItem.class, StopReportItem.class)) {
+            verifyReport(reportUtils, device, time(0), time(301), reportClass);
+            verifyReport(reportUtils, device, time(15), time(190), reportClass);
+            verifyReport(reportUtils, device, time(60), time(260), reportClass);
+        }
+    }
+
+    @Test
+    public void testLiveSegments() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.REPORT_SEGMENTS, "true");
+        SegmentManager segmentManager = createSegmentManager(config);
+        Device device = createDevice();
+
+        for (Position position : createPositions()) {
+            store(position);
+            segmentManager.updateSegment(position, tripsConfig);
+        }
+
+        verifyReports(device);
+    }
+
+    @Test
+    public void testBackfill() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.REPORT_SEGMENTS, "true");
+        SegmentManager segmentManager = createSegmentManager(config);
+        Device device = createDevice();
+
+        List<Position> positions = createPositions();
+        for (Position position : positions) {
+            store(position);
+            if (!position.getFixTime().before(time(20))) {
+                segmentManager.updateSegment(position, tripsConfig);
+            }
+            if (position.getFixTime().equals(time(90))) {
+                segmentManager.backfill(device, time(0), tripsConfig);
+            }
+        }
+
+        verifyReports(device);
+    }
+
+    @Test
+    public void testCoverageGap() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.REPORT_SEGMENTS, "true");
+        SegmentManager segmentManager = createSegmentManager(config);
+        Device device = createDevice();
+
+        for (Position position : createPositions()) {
+            store(position);
+            segmentManager.updateSegment(position, tripsConfig);
+        }
+
+        ReportUtils reportUtils = createReportUtils();
+        List<Segment> segments = reportUtils.getSegments(device, time(0), time(301));
+        assertNotNull(segments);
+        storage.removeObject(Segment.class, new Request(null, new Condition.Equals("id", segments.get(2).getId())));
+        assertNull(reportUtils.getSegments(device, time(0), time(301)));
+        assertNotNull(reportUtils.getSegments(device, time(0), segments.get(1).getEndTime()));
+    }
+
+    @Test
+    public void testClippedMaxSpeed() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.REPORT_SEGMENTS, "true");
+        SegmentManager segmentManager = createSegmentManager(config);
+        Device device = createDevice();
+
+        for (Position position : createPositions()) {
+            store(position);
+            segmentManager.updateSegment(position, tripsConfig);
+        }
+
+        ReportUtils reportUtils = createReportUtils();
+        List<TripReportItem> trips = reportUtils.detectTripsAndStops(
+                device, time(0), time(301), TripReportItem.class);
+        assertEquals(80, trips.get(1).getMaxSpeed(), 0.01);
+        trips = reportUtils.detectTripsAndStops(device, time(60), time(301), TripReportItem.class);
+        assertEquals(30, trips.get(0).getMaxSpeed(), 0.01);
+    }
+
+    @Test
+    public void testJournaledPositions() throws Exception {
+        Config config = new Config();
+        config.setString(Keys.REPORT_SEGMENTS, "true");
+        SegmentManager segmentManager = createSegmentManager(config);
+        Device device = createDevice();
+
+        List<Position> journaled = new ArrayList<>();
+        for (Position position : createPositions()) {
+            long minute = (position.getFixTime().getTime() - START) / MINUTE;
+            if (minute >= 40 && minute < 80) {
+                // processed while the database is failing, stored later by the journal replay
+                Position copy = new Position();
+                copy.setDeviceId(position.getDeviceId());
+                copy.setTime(position.getFixTime());
+                copy.setValid(position.getValid());
+                copy.setSpeed(position.getSpeed());
+                copy.setAttributes(position.getAttributes());
+                journaled.add(copy);
+            } else {
+                if (minute == 80) {
+                    journaled.forEach(this::store);
+                    segmentManager = createSegmentManager(config);
+                }
+                store(position);
+            }
+            segmentManager.updateSegment(position, tripsConfig);
+        }
+
+        verifyReports(device);
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.traccar.forward;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmCallback;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AmqpClientTest {
+
+    private final Channel channel = mock(Channel.class);
+    private final List<Boolean> results = new ArrayList<>();
+
+    private AmqpClient client;
+    private ConfirmCallback ack;
+    private ConfirmCallback nack;
+    private ShutdownListener shutdown;
+
+    @BeforeEach
+    public void init() {
+        when(channel.getNextPublishSeqNo()).thenReturn(1L, 2L, 3L);
+        client = new AmqpClient(channel, "exchange", "topic");
+
+        ArgumentCaptor<ConfirmCallback> ackCaptor = ArgumentCaptor.forClass(ConfirmCallback.class);
+        ArgumentCaptor<ConfirmCallback> nackCaptor = ArgumentCaptor.forClass(ConfirmCallback.class);
+        verify(channel).addConfirmListener(ackCaptor.capture(), nackCaptor.capture());
+        ack = ackCaptor.getValue();
+        nack = nackCaptor.getValue();
+
+        ArgumentCaptor<ShutdownListener> shutdownCaptor = ArgumentCaptor.forClass(ShutdownListener.class);
+        verify(channel).addShutdownListener(shutdownCaptor.capture());
+        shutdown = shutdownCaptor.getValue();
+    }
+
+    private void publish() throws IOException {
+        client.publishMessage(new byte[0], (success, throwable) -> results.add(success));
+    }
+
+    @Test
+    public void testAcknowledged() throws Exception {
+        publish();
+        publish();
+        publish();
+        assertEquals(List.of(), results);
+
+        ack.handle(2, true);
+        assertEquals(List.of(true, true), results);
+
+        nack.handle(3, false);
+        assertEquals(List.of(true, true, false), results);
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        publish();
+        publish();
+        ack.handle(1, false);
+
+        shutdown.shutdownCompleted(new ShutdownSignalException(false, false, null, channel));
+        assertEquals(List.of(true, false), results);
+
+        ack.handle(2, false);
+        assertEquals(List.of(true, false), results);
+    }
+
+    @Test
+    public void testPublishError() throws Exception {
+        doThrow(new IOException()).when(channel).basicPublish(anyString(), anyString(), any(), any());
+        assertThrows(IOException.class, this::publish);
+
+        shutdown.shutdownCompleted(new ShutdownSignalException(false, false, null, channel));
+        assertEquals(List.of(), results);
+    }
+
+}
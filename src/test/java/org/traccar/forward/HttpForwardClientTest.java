@@ -0,0 +1,123 @@
+package org.traccar.forward;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpForwardClientTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final AtomicReference<List<String>> contentType = new AtomicReference<>();
+
+    private HttpServer server;
+    private String url;
+
+    @BeforeEach
+    public void init() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            received.incrementAndGet();
+            contentType.set(exchange.getRequestHeaders().get("Content-Type"));
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterEach
+    public void close() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    private static CompletableFuture<Throwable> result(List<CompletableFuture<Throwable>> results) {
+        CompletableFuture<Throwable> result = new CompletableFuture<>();
+        results.add(result);
+        return result;
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        HttpForwardClient client = new HttpForwardClient("content-type: text/plain", 2, 10);
+        List<CompletableFuture<Throwable>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            var result = result(results);
+            client.post(url, new byte[] {1}, (success, throwable) -> result.complete(success ? null : throwable));
+        }
+
+        Thread.sleep(500);
+        assertEquals(2, received.get());
+
+        release.countDown();
+        for (var result : results) {
+            assertNull(result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(5, received.get());
+        assertTrue(maxActive.get() <= 2);
+        assertEquals(List.of("text/plain"), contentType.get());
+    }
+
+    @Test
+    public void testQueueLimit() throws Exception {
+        HttpForwardClient client = new HttpForwardClient(null, 1, 1);
+        List<CompletableFuture<Throwable>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            var result = result(results);
+            client.get(url, (success, throwable) -> result.complete(success ? null : throwable));
+        }
+
+        assertInstanceOf(RejectedExecutionException.class, results.get(2).get(10, TimeUnit.SECONDS));
+        assertFalse(results.get(0).isDone());
+
+        release.countDown();
+        assertNull(results.get(0).get(10, TimeUnit.SECONDS));
+        assertNull(results.get(1).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testInvalidRequest() throws Exception {
+        HttpForwardClient client = new HttpForwardClient("Connection: close", 1, 1);
+        CompletableFuture<Throwable> invalidHeader = new CompletableFuture<>();
+        client.get(url, (success, throwable) -> invalidHeader.complete(throwable));
+        assertInstanceOf(IllegalArgumentException.class, invalidHeader.get(10, TimeUnit.SECONDS));
+
+        client = new HttpForwardClient(null, 1, 1);
+        CompletableFuture<Throwable> invalidUrl = new CompletableFuture<>();
+        client.get("http://host name/", (success, throwable) -> invalidUrl.complete(throwable));
+        assertInstanceOf(IllegalArgumentException.class, invalidUrl.get(10, TimeUnit.SECONDS));
+        assertEquals(0, received.get());
+    }
+
+}
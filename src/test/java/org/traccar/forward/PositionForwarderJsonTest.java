@@ -0,0 +1,91 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.traccar.ProtocolTest;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.session.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PositionForwarderJsonTest extends ProtocolTest {
+
+    private final HttpForwardClient client = mock(HttpForwardClient.class);
+    private final Timer timer = mock(Timer.class);
+    private final List<Boolean> results = new ArrayList<>();
+
+    private PositionForwarderJson createForwarder() {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_JSON_BATCH_SIZE, "2");
+        config.setString(Keys.FORWARD_LINGER, "100");
+        CacheManager cacheManager = mock(CacheManager.class);
+        Device device = new Device();
+        device.setId(1);
+        device.setAttributes(Map.of(Keys.FORWARD_URL.getKey(), "http://localhost/"));
+        when(cacheManager.getObject(Device.class, 1)).thenReturn(device);
+        when(cacheManager.getConfig()).thenReturn(config);
+        return new PositionForwarderJson(config, client, new ObjectMapper(), cacheManager, timer);
+    }
+
+    private void forward(PositionForwarderJson forwarder) throws Exception {
+        Device device = new Device();
+        device.setId(1);
+        PositionData positionData = new PositionData();
+        positionData.setDevice(device);
+        positionData.setPosition(position("2016-01-01 01:02:03.000", true, 20, 30));
+        forwarder.forward(positionData, (success, throwable) -> results.add(success));
+    }
+
+    private ResultHandler captureHandler(int count) {
+        ArgumentCaptor<ResultHandler> handler = ArgumentCaptor.forClass(ResultHandler.class);
+        verify(client, times(count)).post(eq("http://localhost/"), any(), handler.capture());
+        return handler.getValue();
+    }
+
+    @Test
+    public void testFullBatch() throws Exception {
+        PositionForwarderJson forwarder = createForwarder();
+
+        forward(forwarder);
+        verify(client, never()).post(any(), any(), any());
+        forward(forwarder);
+
+        captureHandler(1).onResult(true, null);
+        assertEquals(List.of(true, true), results);
+    }
+
+    @Test
+    public void testLingerFlush() throws Exception {
+        PositionForwarderJson forwarder = createForwarder();
+
+        forward(forwarder);
+        ArgumentCaptor<TimerTask> task = ArgumentCaptor.forClass(TimerTask.class);
+        verify(timer).newTimeout(task.capture(), anyLong(), any());
+        task.getValue().run(mock(Timeout.class));
+
+        captureHandler(1).onResult(false, new RuntimeException());
+        assertEquals(List.of(false), results);
+
+        task.getValue().run(mock(Timeout.class));
+        captureHandler(1);
+    }
+
+}
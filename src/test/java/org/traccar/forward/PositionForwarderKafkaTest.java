@@ -0,0 +1,43 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.traccar.ProtocolTest;
+import org.traccar.config.Config;
+import org.traccar.model.Device;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PositionForwarderKafkaTest extends ProtocolTest {
+
+    @Test
+    public void testAcknowledgement() throws Exception {
+        MockProducer<String, byte[]> producer = new MockProducer<>(
+                false, new StringSerializer(), new ByteArraySerializer());
+        PositionForwarderKafka forwarder = new PositionForwarderKafka(new Config(), new ObjectMapper(), producer);
+
+        Device device = new Device();
+        device.setId(1);
+        PositionData positionData = new PositionData();
+        positionData.setDevice(device);
+        positionData.setPosition(position("2016-01-01 01:02:03.000", true, 20, 30));
+
+        List<Boolean> results = new ArrayList<>();
+        forwarder.forward(positionData, (success, throwable) -> results.add(success));
+        forwarder.forward(positionData, (success, throwable) -> results.add(success));
+        assertEquals(List.of(), results);
+
+        producer.completeNext();
+        assertEquals(List.of(true), results);
+
+        producer.errorNext(new RuntimeException());
+        assertEquals(List.of(true, false), results);
+    }
+
+}
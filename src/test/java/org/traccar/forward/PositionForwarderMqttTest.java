@@ -0,0 +1,46 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.traccar.ProtocolTest;
+import org.traccar.config.Config;
+import org.traccar.model.Device;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PositionForwarderMqttTest extends ProtocolTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAcknowledgement() throws Exception {
+        MqttClient mqttClient = mock(MqttClient.class);
+        PositionForwarderMqtt forwarder = new PositionForwarderMqtt(new Config(), new ObjectMapper(), mqttClient);
+
+        PositionData positionData = new PositionData();
+        positionData.setDevice(new Device());
+        positionData.setPosition(position("2016-01-01 01:02:03.000", true, 20, 30));
+
+        List<Boolean> results = new ArrayList<>();
+        forwarder.forward(positionData, (success, throwable) -> results.add(success));
+        forwarder.forward(positionData, (success, throwable) -> results.add(success));
+        assertEquals(List.of(), results);
+
+        ArgumentCaptor<BiConsumer<Mqtt5PublishResult, Throwable>> callbacks = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(mqttClient, times(2)).publish(any(), any(byte[].class), callbacks.capture());
+
+        callbacks.getAllValues().get(0).accept(mock(Mqtt5PublishResult.class), null);
+        callbacks.getAllValues().get(1).accept(null, new RuntimeException());
+        assertEquals(List.of(true, false), results);
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.traccar.forward;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.traccar.ProtocolTest;
 import org.traccar.config.Config;
@@ -7,6 +8,9 @@ import org.traccar.config.Keys;
 import org.traccar.model.Device;
 import org.traccar.model.Position;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -39,4 +43,34 @@ public class PositionForwarderUrlTest extends ProtocolTest {
 
     }
 
+    @Test
+    public void testFormatEncoded() throws Exception {
+
+        Config config = new Config();
+        config.setString(
+                Keys.FORWARD_URL, "http://localhost/{unknown}?name={name}&address={address}&attributes={attributes}");
+
+        Position position = position("2016-01-01 01:02:03.000", true, 20, 30);
+        position.setAddress("Main St 1, Z\u00FCrich");
+        position.set("text", "a&b=c \uD83D\uDE00");
+
+        var device = mock(Device.class);
+        when(device.getName()).thenReturn("test device/1");
+
+        PositionData positionData = new PositionData();
+        positionData.setPosition(position);
+        positionData.setDevice(device);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        PositionForwarderUrl forwarder = new PositionForwarderUrl(config, null, objectMapper);
+
+        assertEquals(
+                "http://localhost/{unknown}?name=" + URLEncoder.encode("test device/1", StandardCharsets.UTF_8)
+                        + "&address=" + URLEncoder.encode(position.getAddress(), StandardCharsets.UTF_8)
+                        + "&attributes=" + URLEncoder.encode(
+                                objectMapper.writeValueAsString(position.getAttributes()), StandardCharsets.UTF_8),
+                forwarder.formatRequest(positionData));
+
+    }
+
 }
@@ -0,0 +1,164 @@
+package org.traccar.forward;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.StatisticsManager;
+import org.traccar.helper.SegmentedLog;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class PositionOutboxTest {
+
+    @TempDir
+    private Path directory;
+
+    private static class TestForwarder implements PositionForwarder {
+
+        private final List<PositionData> delivered = new ArrayList<>();
+        private boolean available;
+
+        @Override
+        public void forward(PositionData positionData, ResultHandler resultHandler) {
+            if (available) {
+                delivered.add(positionData);
+                resultHandler.onResult(true, null);
+            } else {
+                resultHandler.onResult(false, new RuntimeException("unavailable"));
+            }
+        }
+
+    }
+
+    private PositionData createPositionData(long deviceId, int index) {
+        Device device = new Device();
+        device.setId(deviceId);
+        device.setUniqueId(String.valueOf(deviceId));
+        Position position = new Position("test");
+        position.setDeviceId(deviceId);
+        position.set(Position.KEY_INDEX, index);
+        PositionData positionData = new PositionData();
+        positionData.setDevice(device);
+        positionData.setPosition(position);
+        return positionData;
+    }
+
+    private Config createConfig() {
+        Config config = new Config();
+        config.setString(Keys.FORWARD_OUTBOX_PATH, directory.toString());
+        config.setString(Keys.FORWARD_OUTBOX_INTERVAL, "3600000");
+        return config;
+    }
+
+    private PositionOutbox createOutbox(Config config, PositionForwarder forwarder) throws Exception {
+        PositionOutbox outbox = new PositionOutbox(
+                config, new ObjectMapper(), forwarder, mock(StatisticsManager.class));
+        outbox.start();
+        return outbox;
+    }
+
+    @Test
+    public void testOrderedDrain() throws Exception {
+        TestForwarder forwarder = new TestForwarder();
+        PositionOutbox outbox = createOutbox(createConfig(), forwarder);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(outbox.add(createPositionData(1, i)));
+            assertTrue(outbox.add(createPositionData(2, i)));
+        }
+        assertTrue(outbox.hasBacklog());
+
+        outbox.drain();
+        assertTrue(outbox.hasBacklog());
+
+        forwarder.available = true;
+        outbox.drain();
+        assertFalse(outbox.hasBacklog());
+        assertEquals(10, forwarder.delivered.size());
+
+        for (long deviceId = 1; deviceId <= 2; deviceId++) {
+            final long id = deviceId;
+            List<Integer> indexes = forwarder.delivered.stream()
+                    .filter(data -> data.getDevice().getId() == id)
+                    .map(data -> data.getPosition().getInteger(Position.KEY_INDEX))
+                    .toList();
+            assertEquals(List.of(0, 1, 2, 3, 4), indexes);
+        }
+
+        outbox.stop();
+    }
+
+    @Test
+    public void testExpiredDropped() throws Exception {
+        Config config = createConfig();
+        config.setString(Keys.FORWARD_OUTBOX_MAX_AGE, "1");
+        TestForwarder forwarder = new TestForwarder();
+        PositionOutbox outbox = createOutbox(config, forwarder);
+
+        assertTrue(outbox.add(createPositionData(1, 0)));
+        Thread.sleep(10);
+        outbox.drain();
+        assertFalse(outbox.hasBacklog());
+        assertTrue(forwarder.delivered.isEmpty());
+
+        outbox.stop();
+    }
+
+    @Test
+    public void testInvalidSkipped() throws Exception {
+        SegmentedLog log = new SegmentedLog(directory, 1024 * 1024);
+        byte[] data = "invalid".getBytes(StandardCharsets.US_ASCII);
+        log.append(List.of(ByteBuffer.allocate(Long.BYTES + data.length)
+                .putLong(System.currentTimeMillis()).put(data).array()));
+        log.close();
+
+        TestForwarder forwarder = new TestForwarder();
+        forwarder.available = true;
+        PositionOutbox outbox = createOutbox(createConfig(), forwarder);
+        assertTrue(outbox.add(createPositionData(1, 0)));
+
+        outbox.drain();
+        assertFalse(outbox.hasBacklog());
+        assertEquals(1, forwarder.delivered.size());
+
+        outbox.stop();
+    }
+
+    @Test
+    public void testBacklogAfterRestart() throws Exception {
+        PositionOutbox outbox = createOutbox(createConfig(), new TestForwarder());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(outbox.add(createPositionData(1, i)));
+        }
+        outbox.stop();
+
+        TestForwarder forwarder = new TestForwarder();
+        forwarder.available = true;
+        outbox = createOutbox(createConfig(), forwarder);
+        assertTrue(outbox.hasBacklog());
+        assertTrue(outbox.add(createPositionData(1, 3)));
+
+        for (int i = 0; i < 100 && outbox.hasBacklog(); i++) {
+            outbox.drain();
+            Thread.sleep(10);
+        }
+        assertFalse(outbox.hasBacklog());
+        assertEquals(4, forwarder.delivered.size());
+
+        outbox.stop();
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.traccar.geocoder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.traccar.database.StatisticsManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingGeocoderTest {
+
+    private static class PendingGeocoder implements Geocoder {
+
+        private final List<ReverseGeocoderCallback> requests = new ArrayList<>();
+
+        @Override
+        public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+            requests.add(callback);
+            return null;
+        }
+
+        @Override
+        public void setStatisticsManager(StatisticsManager statisticsManager) {
+        }
+
+    }
+
+    private Geocoder.ReverseGeocoderCallback collect(List<String> results) {
+        return new Geocoder.ReverseGeocoderCallback() {
+            @Override
+            public void onSuccess(String address) {
+                results.add(address);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+            }
+        };
+    }
+
+    @Test
+    public void testQuantizedCoalescing() {
+        PendingGeocoder pending = new PendingGeocoder();
+        Geocoder geocoder = new CachingGeocoder(pending, 100, 3, null);
+
+        List<String> results = new ArrayList<>();
+        Geocoder.ReverseGeocoderCallback callback = collect(results);
+
+        assertNull(geocoder.getAddress(10.0001, 20.0001, callback));
+        assertNull(geocoder.getAddress(10.0002, 20.0002, callback));
+        assertEquals(1, pending.requests.size());
+
+        pending.requests.get(0).onSuccess("address");
+        assertEquals(List.of("address", "address"), results);
+
+        assertEquals("address", geocoder.getAddress(10.0003, 19.9998, null));
+        assertEquals(1, pending.requests.size());
+
+        geocoder.getAddress(10.01, 20.0, callback);
+        assertEquals(2, pending.requests.size());
+    }
+
+    @Test
+    public void testExactMatch() {
+        PendingGeocoder pending = new PendingGeocoder();
+        Geocoder geocoder = new CachingGeocoder(pending, 100, null, null);
+
+        List<String> results = new ArrayList<>();
+        geocoder.getAddress(10.0001, 20.0001, collect(results));
+        geocoder.getAddress(10.0002, 20.0002, collect(results));
+        assertEquals(2, pending.requests.size());
+
+        pending.requests.get(0).onSuccess("address");
+        assertEquals("address", geocoder.getAddress(10.0001, 20.0001, null));
+        assertEquals(2, pending.requests.size());
+    }
+
+    @Test
+    public void testFileCompaction(@TempDir Path directory) throws Exception {
+        String file = directory.resolve("cache.txt").toString();
+
+        PendingGeocoder pending = new PendingGeocoder();
+        Geocoder geocoder = new CachingGeocoder(pending, 2, null, file, Runnable::run);
+        for (int i = 0; i < 10; i++) {
+            geocoder.getAddress(i, i, collect(new ArrayList<>()));
+            pending.requests.get(i).onSuccess("address " + i);
+            assertTrue(Files.readAllLines(Path.of(file)).size() <= 4);
+        }
+
+        PendingGeocoder reloaded = new PendingGeocoder();
+        Geocoder reloadedGeocoder = new CachingGeocoder(reloaded, 2, null, file, Runnable::run);
+        List<String> lines = Files.readAllLines(Path.of(file));
+        assertFalse(lines.isEmpty());
+        List<String> results = new ArrayList<>();
+        for (String line : lines) {
+            String[] values = line.split("\t");
+            reloadedGeocoder.getAddress(
+                    Double.parseDouble(values[0]), Double.parseDouble(values[1]), collect(results));
+        }
+        assertTrue(reloaded.requests.isEmpty());
+        assertEquals(lines.stream().map(line -> line.split("\t")[2]).toList(), results);
+    }
+
+    @Test
+    public void testSynchronousGeocoder(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("cache.txt");
+
+        List<Runnable> tasks = new ArrayList<>();
+        Geocoder immediate = new Geocoder() {
+            @Override
+            public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+                callback.onSuccess("address " + latitude);
+                return null;
+            }
+
+            @Override
+            public void setStatisticsManager(StatisticsManager statisticsManager) {
+            }
+        };
+        Geocoder geocoder = new CachingGeocoder(immediate, 1, null, file.toString(), tasks::add);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("address " + (double) i, geocoder.getAddress(i, i, null));
+            assertEquals(1, tasks.size());
+            tasks.remove(0).run();
+            assertTrue(Files.readAllLines(file).size() <= 2);
+        }
+        assertFalse(Files.readAllLines(file).isEmpty());
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.traccar.geofence;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Geofence;
+
+import java.text.ParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeofenceIndexTest {
+
+    private Geofence geofence(long id, String area) throws ParseException {
+        Geofence geofence = new Geofence();
+        geofence.setId(id);
+        geofence.setArea(area);
+        return geofence;
+    }
+
+    @Test
+    public void testIndex() throws ParseException {
+        GeofenceIndex index = new GeofenceIndex(null, List.of(
+                geofence(1, "CIRCLE (55.75414 37.6204, 100)"),
+                geofence(2, "POLYGON ((55.7 37.5, 55.8 37.5, 55.8 37.7, 55.7 37.7))"),
+                geofence(3, "POLYGON ((-60 -80, 60 -80, 60 80, -60 80))")));
+
+        assertEquals(List.of(1L, 2L, 3L), index.getGeofences(55.75477, 37.62025).stream().sorted().toList());
+        assertEquals(List.of(2L, 3L), index.getGeofences(55.75545, 37.61921).stream().sorted().toList());
+        assertTrue(index.getGeofences(10, 37.6).contains(3L));
+        assertTrue(index.getGeofences(-70, 37.6).isEmpty());
+
+        index.remove(2);
+        assertEquals(List.of(3L), index.getGeofences(55.75545, 37.61921));
+
+        index.add(geofence(1, "CIRCLE (55.75545 37.61921, 100)"));
+        assertEquals(List.of(1L, 3L), index.getGeofences(55.75545, 37.61921).stream().sorted().toList());
+    }
+
+    @Test
+    public void testAntimeridian() throws ParseException {
+        GeofenceIndex index = new GeofenceIndex(null, List.of(
+                geofence(1, "POLYGON ((60 170, 70 170, 70 -170, 60 -170))"),
+                geofence(2, "CIRCLE (65 179.99, 5000)"),
+                geofence(3, "POLYGON ((60 160, 70 160, 70 165, 60 165))")));
+
+        assertEquals(List.of(1L, 2L), index.getGeofences(65, 179.995).stream().sorted().toList());
+        assertEquals(List.of(1L, 2L), index.getGeofences(65, -179.995).stream().sorted().toList());
+        assertEquals(List.of(1L, 2L), index.getGeofences(65, 180.005).stream().sorted().toList());
+        assertEquals(List.of(1L), index.getGeofences(65, -175).stream().sorted().toList());
+        assertEquals(List.of(3L), index.getGeofences(65, 162));
+        assertTrue(index.getGeofences(65, -160).isEmpty());
+        assertTrue(index.getGeofences(65, 0).isEmpty());
+
+        index.remove(1);
+        assertEquals(List.of(2L), index.getGeofences(65, -179.995));
+        assertTrue(index.getGeofences(65, -175).isEmpty());
+    }
+
+    @Test
+    public void testHoles() throws ParseException {
+        GeofenceIndex index = new GeofenceIndex(null, List.of(
+                geofence(1, "POLYGON ((50 30, 50 40, 60 40, 60 30), (54 34, 54 36, 56 36, 56 34))"),
+                geofence(2, "CIRCLE (55 35, 1000)")));
+
+        assertEquals(List.of(2L), index.getGeofences(55, 35));
+        assertEquals(List.of(1L), index.getGeofences(52, 32));
+        assertTrue(index.getGeofences(57, 42).isEmpty());
+
+        index.add(geofence(1, "POLYGON ((50 30, 50 40, 60 40, 60 30))"));
+        assertEquals(List.of(1L, 2L), index.getGeofences(55, 35).stream().sorted().toList());
+        assertFalse(index.getGeofences(55, 35.5).contains(2L));
+        assertTrue(index.getGeofences(55, 35.5).contains(1L));
+    }
+
+}
@@ -49,4 +49,35 @@ public class GeofencePolygonTest {
         assertFalse(geofenceGeometry.containsPoint(null, null, 50.9477, 0.5836));
     }
 
+    @Test
+    public void testBoundingBoxWide() throws ParseException {
+        GeofenceGeometry geofenceGeometry = new GeofencePolygon(
+                "POLYGON ((10 -100, 10 0, 10 100, -10 100, -10 0, -10 -100))");
+        assertEquals(-100, geofenceGeometry.getBoundingBox(null, null).minLon(), 0.001);
+        assertEquals(100, geofenceGeometry.getBoundingBox(null, null).maxLon(), 0.001);
+        assertTrue(geofenceGeometry.containsPoint(null, null, 0, 0));
+        assertFalse(geofenceGeometry.containsPoint(null, null, 0, 180));
+    }
+
+    @Test
+    public void testBoundingBox180() throws ParseException {
+        GeofenceGeometry geofenceGeometry = new GeofencePolygon(
+                "POLYGON ((66.9494 179.838, 66.9508 -179.8496, 66.8406 -180.0014))");
+        assertEquals(-180, geofenceGeometry.getBoundingBox(null, null).minLon(), 0.001);
+        assertEquals(180, geofenceGeometry.getBoundingBox(null, null).maxLon(), 0.001);
+    }
+
+    @Test
+    public void testPolygonHole() throws ParseException {
+        String test = "POLYGON ((50.0 30.0, 50.0 40.0, 60.0 40.0, 60.0 30.0, 50.0 30.0),"
+                + " (54.0 34.0, 54.0 36.0, 56.0 36.0, 56.0 34.0, 54.0 34.0))";
+        GeofenceGeometry geofenceGeometry = new GeofencePolygon(test);
+        assertEquals(test, geofenceGeometry.toWkt());
+        assertTrue(geofenceGeometry.containsPoint(null, null, 52, 32));
+        assertFalse(geofenceGeometry.containsPoint(null, null, 55, 35));
+        assertFalse(geofenceGeometry.containsPoint(null, null, 61, 35));
+        assertTrue(geofenceGeometry.calculateArea() < new GeofencePolygon(
+                "POLYGON ((50 30, 50 40, 60 40, 60 30, 50 30))").calculateArea());
+    }
+
 }
@@ -1,13 +1,23 @@
 package org.traccar.handler;
 
+import org.apache.commons.jexl3.JexlScript;
 import org.junit.jupiter.api.Test;
+import org.traccar.broadcast.BroadcastService;
 import org.traccar.config.Config;
+import org.traccar.database.DeviceStateWriter;
 import org.traccar.model.Attribute;
+import org.traccar.model.Device;
+import org.traccar.model.ObjectOperation;
 import org.traccar.model.Position;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.Storage;
 
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
 
 public class ComputedAttributesTest {
 
@@ -68,4 +78,49 @@ public class ComputedAttributesTest {
 
     }
 
+    @Test
+    public void testScriptCache() throws Exception {
+
+        CacheManager cacheManager = new CacheManager(
+                new Config(), mock(Storage.class), mock(BroadcastService.class), mock(DeviceStateWriter.class));
+        ComputedAttributesHandler handler = new ComputedAttributesHandler(new Config(), cacheManager, false);
+
+        Attribute attribute = new Attribute();
+        attribute.setId(1);
+        attribute.setExpression("adc1 * 2");
+        Attribute other = new Attribute();
+        other.setId(2);
+        other.setExpression("adc1 * 2");
+
+        JexlScript script = handler.getScript(attribute);
+        assertSame(script, handler.getScript(attribute));
+        JexlScript otherScript = handler.getScript(other);
+        assertNotSame(script, otherScript);
+
+        // unrelated changes keep the cached scripts
+        cacheManager.invalidateObject(false, Device.class, 1, ObjectOperation.UPDATE);
+        cacheManager.invalidateObject(false, Attribute.class, 3, ObjectOperation.DELETE);
+        assertSame(script, handler.getScript(attribute));
+
+        // updated expression is compiled again even before invalidation arrives
+        attribute.setExpression("adc1 * 3");
+        JexlScript updated = handler.getScript(attribute);
+        assertNotSame(script, updated);
+        Position position = new Position();
+        position.set("adc1", 10);
+        assertEquals(30, handler.computeAttribute(attribute, position));
+
+        // attribute update drops only its own script
+        cacheManager.invalidateObject(false, Attribute.class, 1, ObjectOperation.UPDATE);
+        JexlScript reloaded = handler.getScript(attribute);
+        assertNotSame(updated, reloaded);
+        assertSame(otherScript, handler.getScript(other));
+
+        // attribute removal drops its script as well
+        cacheManager.invalidateObject(false, Attribute.class, 1, ObjectOperation.DELETE);
+        assertNotSame(reloaded, handler.getScript(attribute));
+        assertSame(otherScript, handler.getScript(other));
+
+    }
+
 }
@@ -0,0 +1,188 @@
+package org.traccar.handler;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.PositionJournal;
+import org.traccar.database.StatisticsManager;
+import org.traccar.model.Position;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DatabaseHandlerTest {
+
+    private final Storage storage = mock(Storage.class);
+    private final PositionJournal positionJournal = mock(PositionJournal.class);
+
+    private DatabaseHandler createHandler() {
+        return new DatabaseHandler(
+                new Config(), storage, mock(StatisticsManager.class), mock(ExecutorService.class), positionJournal);
+    }
+
+    private DatabaseHandler createBatchHandler(int size, int capacity) {
+        Config config = new Config();
+        config.setString(Keys.DATABASE_BATCH_SIZE, String.valueOf(size));
+        config.setString(Keys.DATABASE_BATCH_LINGER, "60000");
+        config.setString(Keys.DATABASE_BATCH_CAPACITY, String.valueOf(capacity));
+        ExecutorService executorService = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executorService).execute(any());
+        return new DatabaseHandler(
+                config, storage, mock(StatisticsManager.class), executorService, positionJournal);
+    }
+
+    private static Position createPosition(long deviceId) {
+        Position position = new Position();
+        position.setDeviceId(deviceId);
+        return position;
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        DatabaseHandler handler = createHandler();
+        Position position = new Position();
+        when(storage.addObject(any(), any())).thenThrow(new StorageException("unavailable"));
+        BasePositionHandler.Callback callback = mock(BasePositionHandler.Callback.class);
+
+        handler.onPosition(position, callback);
+
+        verify(positionJournal).appendFailed(List.of(position));
+        verify(callback).processed(false);
+    }
+
+    @Test
+    public void testCircuitOpen() throws Exception {
+        DatabaseHandler handler = createHandler();
+        Position position = new Position();
+        when(positionJournal.isOpen()).thenReturn(true);
+        when(positionJournal.append(List.of(position))).thenReturn(true);
+        BasePositionHandler.Callback callback = mock(BasePositionHandler.Callback.class);
+
+        handler.onPosition(position, callback);
+
+        verify(storage, never()).addObject(any(), any());
+        verify(callback).processed(false);
+    }
+
+    @Test
+    public void testCircuitOpenWithoutJournal() throws Exception {
+        DatabaseHandler handler = createHandler();
+        Position position = new Position();
+        when(positionJournal.isOpen()).thenReturn(true);
+        when(storage.addObject(any(), any())).thenReturn(1L);
+        BasePositionHandler.Callback callback = mock(BasePositionHandler.Callback.class);
+
+        handler.onPosition(position, callback);
+
+        verify(storage).addObject(any(), any());
+        verify(callback).processed(false);
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        DatabaseHandler handler = createBatchHandler(3, 10);
+        when(storage.addObjects(any(), any())).thenReturn(new long[] {11, 12, 13});
+        List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(3);
+
+        handler.start();
+        try {
+            for (int i = 1; i <= 3; i++) {
+                Position position = createPosition(i);
+                handler.onPosition(position, filtered -> {
+                    processed.add(position.getDeviceId() * 100 + position.getId());
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            handler.stop();
+        }
+
+        assertEquals(List.of(111L, 212L, 313L), processed);
+        verify(storage, times(1)).addObjects(any(), any());
+        verify(storage, never()).addObject(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStopFlushes() throws Exception {
+        DatabaseHandler handler = createBatchHandler(10, 10);
+        when(storage.addObjects(any(), any())).thenReturn(new long[] {1, 2});
+        BasePositionHandler.Callback callback = mock(BasePositionHandler.Callback.class);
+
+        handler.start();
+        handler.onPosition(createPosition(1), callback);
+        handler.onPosition(createPosition(2), callback);
+        handler.stop();
+
+        ArgumentCaptor<List<Position>> captor = ArgumentCaptor.forClass(List.class);
+        verify(storage).addObjects(captor.capture(), any());
+        assertEquals(2, captor.getValue().size());
+        verify(callback, times(2)).processed(false);
+
+        Position late = createPosition(3);
+        handler.onPosition(late, callback);
+        verify(storage).addObject(eq(late), any());
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        DatabaseHandler handler = createBatchHandler(2, 2);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(storage.addObjects(any(), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return new long[invocation.<List<?>>getArgument(0).size()];
+        });
+        when(storage.addObject(any(), any())).thenReturn(5L);
+        BasePositionHandler.Callback queued = mock(BasePositionHandler.Callback.class);
+        BasePositionHandler.Callback direct = mock(BasePositionHandler.Callback.class);
+
+        handler.start();
+        try {
+            handler.onPosition(createPosition(1), queued);
+            handler.onPosition(createPosition(2), queued);
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            handler.onPosition(createPosition(3), queued);
+            handler.onPosition(createPosition(4), queued);
+            Position overflow = createPosition(5);
+            handler.onPosition(overflow, direct);
+
+            assertEquals(5L, overflow.getId());
+            verify(direct).processed(false);
+            verify(queued, never()).processed(anyBoolean());
+        } finally {
+            release.countDown();
+            handler.stop();
+        }
+
+        verify(storage, times(2)).addObjects(any(), any());
+        verify(queued, times(4)).processed(false);
+    }
+
+}
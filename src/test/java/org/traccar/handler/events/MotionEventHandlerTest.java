@@ -7,6 +7,8 @@ import org.traccar.model.Position;
 import org.traccar.reports.common.TripsConfig;
 import org.traccar.session.state.MotionProcessor;
 import org.traccar.session.state.MotionState;
+import org.traccar.session.state.SegmentProcessor;
+import org.traccar.session.state.SegmentState;
 
 import java.text.DateFormat;
 import java.text.ParseException;
@@ -14,7 +16,9 @@ import java.text.SimpleDateFormat;
 import java.util.TimeZone;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class MotionEventHandlerTest extends BaseTest {
 
@@ -109,4 +113,58 @@ public class MotionEventHandlerTest extends BaseTest {
         verifyState(state, false, 0);
     }
 
+    private Position segmentPosition(long id, String time, boolean motion, double distance, double speed)
+            throws ParseException {
+        Position position = position(time, motion, distance, null);
+        position.setId(id);
+        position.setSpeed(speed);
+        return position;
+    }
+
+    @Test
+    public void testSegmentBoundaries() throws ParseException {
+        TripsConfig tripsConfig = new TripsConfig(500, 300000, 300000, 0, false);
+
+        SegmentState state = new SegmentState();
+
+        SegmentProcessor.updateState(state, segmentPosition(1, "2017-01-01 00:00:00", false, 0, 0), tripsConfig);
+        assertNull(state.getSegment());
+
+        SegmentProcessor.updateState(state, segmentPosition(2, "2017-01-01 00:01:00", true, 100, 20), tripsConfig);
+        assertFalse(state.getSegment().getMotion());
+        assertEquals(1, state.getSegment().getStartPositionId());
+
+        SegmentProcessor.updateState(state, segmentPosition(3, "2017-01-01 00:02:00", true, 700, 30), tripsConfig);
+        assertNull(state.getCompletedSegment());
+
+        SegmentProcessor.updateState(state, segmentPosition(4, "2017-01-01 00:03:00", false, 700, 0), tripsConfig);
+        assertEquals(1, state.getCompletedSegment().getStartPositionId());
+        assertEquals(2, state.getCompletedSegment().getEndPositionId());
+        assertTrue(state.getSegment().getMotion());
+        assertEquals(2, state.getSegment().getStartPositionId());
+
+        SegmentProcessor.updateState(state, segmentPosition(5, "2017-01-01 00:10:00", false, 700, 0), tripsConfig);
+        assertNull(state.getCompletedSegment());
+
+        SegmentProcessor.updateState(state, segmentPosition(6, "2017-01-01 00:11:00", false, 700, 0), tripsConfig);
+        assertEquals(2, state.getCompletedSegment().getStartPositionId());
+        assertEquals(4, state.getCompletedSegment().getEndPositionId());
+        assertEquals(30, state.getCompletedSegment().getMaxSpeed(), 0.1);
+        assertFalse(state.getSegment().getMotion());
+        assertEquals(4, state.getSegment().getStartPositionId());
+    }
+
+    @Test
+    public void testSegmentGap() throws ParseException {
+        TripsConfig tripsConfig = new TripsConfig(500, 300000, 300000, 1800000, false);
+
+        SegmentState state = new SegmentState();
+
+        SegmentProcessor.updateState(state, segmentPosition(1, "2017-01-01 00:00:00", true, 0, 10), tripsConfig);
+        SegmentProcessor.updateState(state, segmentPosition(2, "2017-01-01 01:00:00", true, 1000, 10), tripsConfig);
+        SegmentProcessor.updateState(state, segmentPosition(3, "2017-01-01 02:00:00", true, 2000, 10), tripsConfig);
+        assertFalse(state.getSegment().getMotion());
+        assertFalse(state.getMotionState().getMotionState());
+    }
+
 }
@@ -0,0 +1,59 @@
+package org.traccar.helper;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ByteBufCharSequenceTest {
+
+    private static ByteBufCharSequence create(String value) {
+        ByteBuf buf = Unpooled.copiedBuffer("xx" + value, StandardCharsets.ISO_8859_1);
+        buf.skipBytes(2);
+        return new ByteBufCharSequence(buf);
+    }
+
+    @Test
+    public void testSearch() {
+        ByteBufCharSequence sequence = create("+RESP:GTFRI,060228,135790246811220");
+
+        assertEquals(11, sequence.indexOf(',', 0));
+        assertEquals(18, sequence.indexOf(',', 12));
+        assertEquals(-1, sequence.indexOf('#', 0));
+        assertEquals(-1, sequence.indexOf(',', 100));
+
+        assertEquals(5, sequence.indexOf(":GT"));
+        assertEquals(-1, sequence.indexOf(":GTX"));
+        assertTrue(sequence.contains("FRI"));
+        assertFalse(sequence.contains("220,"));
+
+        assertTrue(sequence.startsWith("+RESP"));
+        assertFalse(sequence.startsWith("+ACK"));
+        assertTrue(sequence.startsWith("GTFRI", 6));
+        assertFalse(sequence.startsWith("GTFRI", 7));
+        assertFalse(sequence.startsWith("+", -1));
+        assertTrue(sequence.endsWith("220"));
+        assertFalse(sequence.endsWith("+RESP:GTFRI,060228,135790246811220,"));
+    }
+
+    @Test
+    public void testSplit() {
+        assertArrayEquals(new String[] {"ST300STT", "", "1", ""}, create("ST300STT;;1;").split(';'));
+        assertArrayEquals(new String[] {"value"}, create("value").split(';'));
+        assertArrayEquals(new String[] {""}, create("").split(';'));
+    }
+
+    @Test
+    public void testTrim() {
+        assertEquals("*HQ,V1#", create(" *HQ,V1#\r\n").trim().toString());
+        assertEquals("", create(" \r\n").trim().toString());
+        assertEquals("GTFRI", create("+RESP:GTFRI").subSequence(6, 11).toString());
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.traccar.helper.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.model.Position;
+import org.traccar.storage.DatabaseStorage;
+import org.traccar.storage.Storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class PositionUtilTest {
+
+    private static final long START = 1700000000000L;
+
+    @Test
+    public void testPagedStream() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + getClass().getSimpleName() + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        List<Long> expected = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute(
+                    "CREATE TABLE tc_positions (id BIGINT AUTO_INCREMENT PRIMARY KEY, deviceId BIGINT,"
+                            + " fixTime TIMESTAMP)");
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO tc_positions (id, deviceId, fixTime) VALUES (?, ?, ?)");
+            // ties at a page boundary and a tie longer than a page
+            int[] seconds = {6, 0, 1, 1, 2, 3, 3, 3, 3, 3, 4, 5, 6, 100};
+            for (int i = 0; i < seconds.length; i++) {
+                for (long deviceId = 1; deviceId <= 2; deviceId++) {
+                    long id = deviceId * 100 + i;
+                    statement.setLong(1, id);
+                    statement.setLong(2, deviceId);
+                    statement.setTimestamp(3, new Timestamp(START + seconds[i] * 1000L));
+                    statement.executeUpdate();
+                    if (deviceId == 1 && seconds[i] <= 50) {
+                        expected.add(id);
+                    }
+                }
+            }
+        }
+
+        Storage storage = new DatabaseStorage(new Config(), dataSource, new ObjectMapper());
+        for (int pageSize : new int[] {2, 3, 1000}) {
+            try (var positions = PositionUtil.getPositionsStream(
+                    storage, 1, new Date(START), new Date(START + 50000), pageSize)) {
+                List<Position> result = positions.toList();
+                for (int i = 1; i < result.size(); i++) {
+                    assertFalse(result.get(i).getFixTime().before(result.get(i - 1).getFixTime()));
+                }
+                assertEquals(expected, result.stream().map(Position::getId).sorted().toList());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.traccar.notification;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.StatisticsManager;
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.notificators.Notificator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NotificationDispatcherTest {
+
+    private final NotificatorManager notificatorManager = mock(NotificatorManager.class);
+    private final StatisticsManager statisticsManager = mock(StatisticsManager.class);
+    private final Notificator notificator = mock(Notificator.class);
+
+    private NotificationDispatcher createDispatcher(int threads, int queueSize) {
+        when(notificatorManager.getNotificator("mail")).thenReturn(notificator);
+        Config config = new Config();
+        config.setString(Keys.NOTIFICATOR_THREADS, String.valueOf(threads));
+        config.setString(Keys.NOTIFICATOR_QUEUE_SIZE, String.valueOf(queueSize));
+        return new NotificationDispatcher(config, notificatorManager, statisticsManager);
+    }
+
+    private static void dispatch(NotificationDispatcher dispatcher, String type, Runnable done) {
+        dispatcher.dispatch(type, new Notification(), new User(), new Event("alarm", 1), new Position(), done);
+    }
+
+    @Test
+    public void testDelivery() throws Exception {
+        NotificationDispatcher dispatcher = createDispatcher(2, 10);
+
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            dispatch(dispatcher, "mail", done::countDown);
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        verify(notificator, times(3)).send(any(Notification.class), any(), any(), any());
+        verify(statisticsManager, times(3)).registerNotificationDelivered(anyLong());
+        verify(statisticsManager, never()).registerNotificationDropped();
+    }
+
+    @Test
+    public void testFailedDelivery() throws Exception {
+        NotificationDispatcher dispatcher = createDispatcher(1, 10);
+        doThrow(new MessageException("failed"))
+                .when(notificator).send(any(Notification.class), any(), any(), any());
+
+        CountDownLatch done = new CountDownLatch(1);
+        dispatch(dispatcher, "mail", done::countDown);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        verify(statisticsManager, never()).registerNotificationDelivered(anyLong());
+    }
+
+    @Test
+    public void testUnknownNotificator() {
+        NotificationDispatcher dispatcher = createDispatcher(1, 10);
+        when(notificatorManager.getNotificator("unknown")).thenThrow(new RuntimeException("unknown"));
+
+        AtomicInteger done = new AtomicInteger();
+        dispatch(dispatcher, "unknown", done::incrementAndGet);
+
+        assertEquals(1, done.get());
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        NotificationDispatcher dispatcher = createDispatcher(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return null;
+        }).when(notificator).send(any(Notification.class), any(), any(), any());
+
+        CountDownLatch done = new CountDownLatch(3);
+        dispatch(dispatcher, "mail", done::countDown);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        dispatch(dispatcher, "mail", done::countDown);
+        dispatch(dispatcher, "mail", done::countDown);
+
+        assertEquals(2, done.getCount());
+        verify(statisticsManager).registerNotificationDropped();
+
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        verify(statisticsManager, times(2)).registerNotificationDelivered(anyLong());
+    }
+
+}
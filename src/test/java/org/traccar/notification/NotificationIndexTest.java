@@ -0,0 +1,63 @@
+package org.traccar.notification;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NotificationIndexTest {
+
+    private Notification createNotification(long id, String type, String alarms) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setType(type);
+        if (alarms != null) {
+            notification.set("alarms", alarms);
+        }
+        return notification;
+    }
+
+    private Event createAlarm(String alarm) {
+        Event event = new Event(Event.TYPE_ALARM, 1);
+        event.set(Position.KEY_ALARM, alarm);
+        return event;
+    }
+
+    @Test
+    public void testFind() {
+        User user = new User();
+        user.setId(10);
+
+        Notification online = createNotification(1, Event.TYPE_DEVICE_ONLINE, null);
+        Notification sos = createNotification(2, Event.TYPE_ALARM, "sos,powerCut,sos");
+        Notification noAlarms = createNotification(3, Event.TYPE_ALARM, null);
+
+        NotificationIndex index = new NotificationIndex(
+                List.of(online, sos, noAlarms),
+                notification -> notification.getId() == 1 ? Set.of(user) : Set.of());
+
+        var matches = index.find(new Event(Event.TYPE_DEVICE_ONLINE, 1));
+        assertEquals(1, matches.size());
+        assertEquals(online, matches.get(0).notification());
+        assertEquals(Set.of(user), matches.get(0).users());
+
+        assertEquals(1, index.find(createAlarm(Position.ALARM_SOS)).size());
+        assertEquals(1, index.find(createAlarm(Position.ALARM_POWER_CUT)).size());
+        assertTrue(index.find(createAlarm(Position.ALARM_GEOFENCE)).isEmpty());
+        assertTrue(index.find(new Event(Event.TYPE_ALARM, 1)).isEmpty());
+        assertTrue(index.find(new Event(Event.TYPE_DEVICE_OFFLINE, 1)).isEmpty());
+
+        assertTrue(index.containsNotification(3));
+        assertTrue(index.containsUser(10));
+        assertFalse(index.containsUser(11));
+    }
+
+}
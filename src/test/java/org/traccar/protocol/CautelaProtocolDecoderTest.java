@@ -10,7 +10,7 @@ public class CautelaProtocolDecoderTest extends ProtocolTest {
 
         var decoder = inject(new CautelaProtocolDecoder(null));
 
-        verifyPosition(decoder, text(
+        verifyPosition(decoder, buffer(
                 "20,010907000000,14,02,18,16.816667,96.166667,1325,S,*2E"));
 
     }
@@ -10,10 +10,10 @@ public class NetProtocolDecoderTest extends ProtocolTest {
 
         var decoder = inject(new NetProtocolDecoder(null));
 
-        verifyPosition(decoder, text(
+        verifyPosition(decoder, buffer(
                 "@L03686090604017761712271020161807037078881037233751000000010F850036980A4000"));
 
-        verifyPosition(decoder, text(
+        verifyPosition(decoder, buffer(
                 "@L0368609060401776171223102005072803703296103721462100008009000000300B12B000"));
 
     }
@@ -113,7 +113,7 @@ public class ReportUtilsTest extends BaseTest {
                 position("2016-01-01 00:05:00.000", 0, 3000),
                 position("2016-01-01 00:15:00.000", 0, 3000),
                 position("2016-01-01 00:25:00.000", 0, 3000));
-        when(storage.getObjects(eq(Position.class), any())).thenReturn(data);
+        when(storage.getObjectsStream(eq(Position.class), any())).thenAnswer(invocation -> data.stream());
 
         Device device = mockDevice(500, 300, 180, 900, false);
         ReportUtils reportUtils = new ReportUtils(
@@ -166,7 +166,7 @@ public class ReportUtilsTest extends BaseTest {
                 position("2016-01-01 00:05:00.000", 0, 3000),
                 position("2016-01-01 00:15:00.000", 0, 3000),
                 position("2016-01-01 00:25:00.000", 0, 3000));
-        when(storage.getObjects(eq(Position.class), any())).thenReturn(data);
+        when(storage.getObjectsStream(eq(Position.class), any())).thenAnswer(invocation -> data.stream());
 
         data.get(5).set(Position.KEY_IGNITION, false);
 
@@ -239,7 +239,7 @@ public class ReportUtilsTest extends BaseTest {
                 position("2016-01-01 00:09:00.000", 0, 7000),
                 position("2016-01-01 00:19:00.000", 0, 7000),
                 position("2016-01-01 00:29:00.000", 0, 7000));
-        when(storage.getObjects(eq(Position.class), any())).thenReturn(data);
+        when(storage.getObjectsStream(eq(Position.class), any())).thenAnswer(invocation -> data.stream());
 
         Device device = mockDevice(500, 300, 180, 900, false);
         ReportUtils reportUtils = new ReportUtils(
@@ -290,7 +290,7 @@ public class ReportUtilsTest extends BaseTest {
                 position("2016-01-01 00:03:00.000", 0, 0),
                 position("2016-01-01 00:04:00.000", 1, 0),
                 position("2016-01-01 00:05:00.000", 0, 0));
-        when(storage.getObjects(eq(Position.class), any())).thenReturn(data);
+        when(storage.getObjectsStream(eq(Position.class), any())).thenAnswer(invocation -> data.stream());
 
         Device device = mockDevice(500, 300, 200, 900, false);
         ReportUtils reportUtils = new ReportUtils(
@@ -319,7 +319,7 @@ public class ReportUtilsTest extends BaseTest {
                 position("2016-01-01 00:03:00.000", 0, 0),
                 position("2016-01-01 00:04:00.000", 1, 0),
                 position("2016-01-01 00:05:00.000", 2, 0));
-        when(storage.getObjects(eq(Position.class), any())).thenReturn(data);
+        when(storage.getObjectsStream(eq(Position.class), any())).thenAnswer(invocation -> data.stream());
 
         Device device = mockDevice(500, 300, 200, 900, false);
         ReportUtils reportUtils = new ReportUtils(
@@ -348,7 +348,7 @@ public class ReportUtilsTest extends BaseTest {
                 position("2016-01-01 00:12:00.000", 0, 0),
                 position("2016-01-01 00:22:00.000", 0, 0),
                 position("2016-01-01 00:32:00.000", 0, 0));
-        when(storage.getObjects(eq(Position.class), any())).thenReturn(data);
+        when(storage.getObjectsStream(eq(Position.class), any())).thenAnswer(invocation -> data.stream());
 
         Device device = mockDevice(500, 300, 200, 900, false);
         ReportUtils reportUtils = new ReportUtils(
@@ -377,7 +377,7 @@ public class ReportUtilsTest extends BaseTest {
                 position("2016-01-01 00:03:00.000", 5, 0),
                 position("2016-01-01 00:04:00.000", 5, 0),
                 position("2016-01-01 00:05:00.000", 5, 0));
-        when(storage.getObjects(eq(Position.class), any())).thenReturn(data);
+        when(storage.getObjectsStream(eq(Position.class), any())).thenAnswer(invocation -> data.stream());
 
         Device device = mockDevice(500, 300, 200, 900, false);
         ReportUtils reportUtils = new ReportUtils(
@@ -402,7 +402,7 @@ public class ReportUtilsTest extends BaseTest {
                 position("2016-01-01 00:23:00.000", 2, 700),
                 position("2016-01-01 00:24:00.000", 5, 800),
                 position("2016-01-01 00:25:00.000", 5, 900));
-        when(storage.getObjects(eq(Position.class), any())).thenReturn(data);
+        when(storage.getObjectsStream(eq(Position.class), any())).thenAnswer(invocation -> data.stream());
 
         Device device = mockDevice(500, 200, 200, 900, false);
         ReportUtils reportUtils = new ReportUtils(
@@ -0,0 +1,140 @@
+package org.traccar.session;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.traccar.broadcast.BroadcastService;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.database.DeviceLookupService;
+import org.traccar.database.DeviceStateWriter;
+import org.traccar.database.NotificationManager;
+import org.traccar.model.Device;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.Storage;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionManagerTest {
+
+    private final Device device = new Device();
+    private final CacheManager cacheManager = mock(CacheManager.class);
+    private final Timer timer = mock(Timer.class);
+    private final BroadcastService broadcastService = mock(BroadcastService.class);
+    private final DeviceStateWriter deviceStateWriter = mock(DeviceStateWriter.class);
+    private final Storage storage = mock(Storage.class);
+
+    private ConnectionManager createConnectionManager(long timeout, long updateInterval) {
+        device.setId(1);
+        when(cacheManager.getObject(Device.class, 1)).thenReturn(device);
+        when(timer.newTimeout(any(), anyLong(), any())).thenAnswer(invocation -> mock(Timeout.class));
+        Config config = new Config();
+        config.setString(Keys.STATUS_TIMEOUT, String.valueOf(timeout));
+        config.setString(Keys.STATUS_UPDATE_INTERVAL, String.valueOf(updateInterval));
+        return new ConnectionManager(
+                config, cacheManager, storage, mock(NotificationManager.class), timer,
+                broadcastService, mock(DeviceLookupService.class), deviceStateWriter);
+    }
+
+    @Test
+    public void testThrottledUpdates() {
+        ConnectionManager connectionManager = createConnectionManager(600, 60);
+
+        connectionManager.updateDevice(1, Device.STATUS_ONLINE, new Date());
+        verify(deviceStateWriter).writeDevice(device, "status", "lastUpdate");
+        verify(broadcastService, times(1)).updateDevice(true, device);
+
+        connectionManager.updateDevice(1, Device.STATUS_ONLINE, new Date());
+        connectionManager.updateDevice(1, Device.STATUS_ONLINE, new Date());
+        verify(deviceStateWriter, times(2)).updateDevice(device, "lastUpdate");
+        verify(broadcastService, times(1)).updateDevice(true, device);
+        verify(timer, times(1)).newTimeout(any(), anyLong(), any());
+
+        connectionManager.updateDevice(1, Device.STATUS_OFFLINE, new Date());
+        verify(deviceStateWriter, times(2)).writeDevice(device, "status", "lastUpdate");
+        verify(broadcastService, times(2)).updateDevice(true, device);
+    }
+
+    @Test
+    public void testUpdatesAfterInterval() {
+        ConnectionManager connectionManager = createConnectionManager(600, 0);
+
+        connectionManager.updateDevice(1, Device.STATUS_ONLINE, new Date());
+        connectionManager.updateDevice(1, Device.STATUS_ONLINE, new Date());
+        verify(broadcastService, times(2)).updateDevice(true, device);
+    }
+
+    private TimerTask captureTask(int count, long maxDelay) {
+        ArgumentCaptor<TimerTask> task = ArgumentCaptor.forClass(TimerTask.class);
+        ArgumentCaptor<Long> delay = ArgumentCaptor.forClass(Long.class);
+        verify(timer, times(count)).newTimeout(task.capture(), delay.capture(), eq(TimeUnit.MILLISECONDS));
+        assertTrue(delay.getValue() <= maxDelay);
+        return task.getValue();
+    }
+
+    @Test
+    public void testTimeoutRescheduled() throws Exception {
+        ConnectionManager connectionManager = createConnectionManager(600, 60);
+        Timeout timeout = mock(Timeout.class);
+        when(timer.newTimeout(any(), anyLong(), any())).thenReturn(timeout);
+
+        connectionManager.updateDevice(1, Device.STATUS_ONLINE, new Date());
+        captureTask(1, TimeUnit.SECONDS.toMillis(600)).run(timeout);
+
+        TimerTask rescheduled = captureTask(2, TimeUnit.SECONDS.toMillis(600));
+        assertEquals(Device.STATUS_ONLINE, device.getStatus());
+
+        when(timeout.isCancelled()).thenReturn(true);
+        rescheduled.run(timeout);
+        verify(timer, times(2)).newTimeout(any(), anyLong(), any());
+        assertEquals(Device.STATUS_ONLINE, device.getStatus());
+    }
+
+    @Test
+    public void testTimeoutExpired() throws Exception {
+        ConnectionManager connectionManager = createConnectionManager(0, 60);
+        Timeout timeout = mock(Timeout.class);
+        when(timer.newTimeout(any(), anyLong(), any())).thenReturn(timeout);
+
+        connectionManager.updateDevice(1, Device.STATUS_ONLINE, new Date());
+        Thread.sleep(1);
+        captureTask(1, 0).run(timeout);
+
+        verify(timer, times(1)).newTimeout(any(), anyLong(), any());
+        verify(deviceStateWriter, times(2)).writeDevice(device, "status", "lastUpdate");
+        assertEquals(Device.STATUS_UNKNOWN, device.getStatus());
+    }
+
+    @Test
+    public void testDeviceSubscriptions() throws Exception {
+        ConnectionManager connectionManager = createConnectionManager(600, 60);
+        when(storage.getObjects(eq(Device.class), any())).thenReturn(List.of(device));
+        ConnectionManager.UpdateListener first = mock(ConnectionManager.UpdateListener.class);
+        ConnectionManager.UpdateListener second = mock(ConnectionManager.UpdateListener.class);
+
+        connectionManager.addListener(1, first);
+        connectionManager.addListener(2, second);
+        verify(broadcastService, times(1)).subscribeDevice(1, true);
+
+        connectionManager.removeListener(1, first);
+        verify(broadcastService, never()).subscribeDevice(1, false);
+        connectionManager.removeListener(2, second);
+        verify(broadcastService, times(1)).subscribeDevice(1, false);
+    }
+
+}
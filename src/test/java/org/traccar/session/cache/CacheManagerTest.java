@@ -0,0 +1,204 @@
+package org.traccar.session.cache;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.broadcast.BroadcastService;
+import org.traccar.config.Config;
+import org.traccar.database.DeviceStateWriter;
+import org.traccar.geofence.GeofenceIndex;
+import org.traccar.model.BaseModel;
+import org.traccar.model.Device;
+import org.traccar.model.Geofence;
+import org.traccar.model.Group;
+import org.traccar.model.ObjectOperation;
+import org.traccar.model.Permission;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Request;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CacheManagerTest {
+
+    private static long getId(Request request) {
+        return (Long) ((Condition.Equals) request.getCondition()).getValue();
+    }
+
+    private static Device createDevice(long id, String name) {
+        Device device = new Device();
+        device.setId(id);
+        device.setName(name);
+        device.setGroupId(10);
+        return device;
+    }
+
+    private Storage createStorage() throws Exception {
+        Storage storage = mock(Storage.class);
+        when(storage.getObject(eq(Device.class), any())).thenAnswer(
+                invocation -> createDevice(getId(invocation.getArgument(1)), "device"));
+        when(storage.getObject(eq(Group.class), any())).thenAnswer(invocation -> {
+            Group group = new Group();
+            group.setId(getId(invocation.getArgument(1)));
+            return group;
+        });
+        when(storage.getObject(eq(Geofence.class), any())).thenAnswer(invocation -> {
+            Geofence geofence = new Geofence();
+            geofence.setId(getId(invocation.getArgument(1)));
+            return geofence;
+        });
+        return storage;
+    }
+
+    private static Set<Long> getGeofenceIds(CacheManager cacheManager, long deviceId) {
+        return cacheManager.getDeviceObjects(deviceId, Geofence.class).stream()
+                .map(BaseModel::getId)
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testConcurrentLoad() throws Exception {
+        Storage storage = createStorage();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(storage.getPermissions(Group.class, Geofence.class)).thenAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                entered.countDown();
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            }
+            return List.of(new Permission(Group.class, 10, Geofence.class, 100));
+        });
+        CacheManager cacheManager = new CacheManager(
+                new Config(), storage, mock(BroadcastService.class), mock(DeviceStateWriter.class));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> loader = executor.submit(() -> {
+                cacheManager.addDevice(1, "first");
+                return null;
+            });
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+            Future<?> waiter = executor.submit(() -> {
+                cacheManager.addDevice(2, "second");
+                return null;
+            });
+            Thread.sleep(100);
+            assertFalse(waiter.isDone());
+
+            release.countDown();
+            loader.get(10, TimeUnit.SECONDS);
+            waiter.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Set.of(100L), getGeofenceIds(cacheManager, 1));
+        assertEquals(Set.of(100L), getGeofenceIds(cacheManager, 2));
+    }
+
+    @Test
+    public void testInvalidationDuringLoad() throws Exception {
+        Storage storage = createStorage();
+        AtomicReference<String> name = new AtomicReference<>("old");
+        AtomicReference<CacheManager> reference = new AtomicReference<>();
+        when(storage.getObject(eq(Device.class), any())).thenAnswer(invocation -> {
+            Device device = createDevice(1, name.get());
+            if (name.compareAndSet("old", "new")) {
+                reference.get().invalidateObject(false, Device.class, 1, ObjectOperation.UPDATE);
+            }
+            return device;
+        });
+        CacheManager cacheManager = new CacheManager(
+                new Config(), storage, mock(BroadcastService.class), mock(DeviceStateWriter.class));
+        reference.set(cacheManager);
+
+        cacheManager.addDevice(1, "key");
+        assertEquals("new", cacheManager.getObject(Device.class, 1).getName());
+    }
+
+    @Test
+    public void testReloadRestoresState() throws Exception {
+        Storage storage = createStorage();
+        DeviceStateWriter deviceStateWriter = mock(DeviceStateWriter.class);
+        CacheManager cacheManager = new CacheManager(
+                new Config(), storage, mock(BroadcastService.class), deviceStateWriter);
+
+        cacheManager.addDevice(1, "key");
+        cacheManager.invalidateObject(false, Device.class, 1, ObjectOperation.UPDATE);
+
+        verify(deviceStateWriter, times(2)).restoreDevice(any());
+        verify(deviceStateWriter).restoreDevice(cacheManager.getObject(Device.class, 1));
+    }
+
+    @Test
+    public void testDeviceGeofences() throws Exception {
+        Storage storage = createStorage();
+        Map<Long, String> areas = new ConcurrentHashMap<>(Map.of(
+                100L, "CIRCLE (10 10, 1000)",
+                101L, "POLYGON ((19 19, 21 19, 21 21, 19 21))"));
+        when(storage.getObject(eq(Geofence.class), any())).thenAnswer(invocation -> {
+            Geofence geofence = new Geofence();
+            geofence.setId(getId(invocation.getArgument(1)));
+            geofence.setArea(areas.get(geofence.getId()));
+            return geofence;
+        });
+        when(storage.getPermissions(Group.class, Geofence.class)).thenReturn(
+                List.of(new Permission(Group.class, 10, Geofence.class, 100)));
+        CacheManager cacheManager = new CacheManager(
+                new Config(), storage, mock(BroadcastService.class), mock(DeviceStateWriter.class));
+        cacheManager.addDevice(1, "key");
+
+        GeofenceIndex index = cacheManager.getDeviceGeofences(1);
+        assertSame(index, cacheManager.getDeviceGeofences(1));
+        assertEquals(List.of(100L), index.getGeofences(10, 10));
+        assertTrue(index.getGeofences(20, 20).isEmpty());
+
+        // linking a geofence to the device rebuilds the index
+        cacheManager.invalidatePermission(false, Device.class, 1, Geofence.class, 101, true);
+        index = cacheManager.getDeviceGeofences(1);
+        assertEquals(List.of(101L), index.getGeofences(20, 20));
+        assertEquals(List.of(100L), index.getGeofences(10, 10));
+
+        // updating a geofence moves it within the existing index
+        areas.put(100L, "CIRCLE (30 30, 1000)");
+        cacheManager.invalidateObject(false, Geofence.class, 100, ObjectOperation.UPDATE);
+        assertSame(index, cacheManager.getDeviceGeofences(1));
+        assertTrue(index.getGeofences(10, 10).isEmpty());
+        assertEquals(List.of(100L), index.getGeofences(30, 30));
+
+        // deleting a geofence removes it from the existing index
+        cacheManager.invalidateObject(false, Geofence.class, 100, ObjectOperation.DELETE);
+        assertSame(index, cacheManager.getDeviceGeofences(1));
+        assertTrue(index.getGeofences(30, 30).isEmpty());
+        assertFalse(index.contains(100));
+
+        // unlinking the remaining geofence leaves the device without any
+        cacheManager.invalidatePermission(false, Device.class, 1, Geofence.class, 101, false);
+        index = cacheManager.getDeviceGeofences(1);
+        assertTrue(index.getGeofences(20, 20).isEmpty());
+        assertFalse(index.contains(101));
+    }
+
+}
@@ -0,0 +1,225 @@
+package org.traccar.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.model.Device;
+import org.traccar.model.Group;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Request;
+
+import javax.sql.DataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+public class QueryBuilderTest {
+
+    private final Config config = new Config();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JdbcDataSource dataSource = new JdbcDataSource();
+
+    @BeforeEach
+    public void setup() throws Exception {
+        dataSource.setURL("jdbc:h2:mem:" + getClass().getSimpleName() + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute(
+                    "CREATE TABLE devices (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(128),"
+                            + " uniqueId VARCHAR(128), groupId BIGINT, disabled BOOLEAN, lastUpdate TIMESTAMP,"
+                            + " attributes VARCHAR(4000))");
+        }
+    }
+
+    private static final List<String> COLUMNS =
+            List.of("name", "uniqueId", "groupId", "disabled", "lastUpdate", "attributes");
+    private static final String INSERT = "INSERT INTO devices (name, uniqueId, groupId, disabled, lastUpdate, attributes)"
+            + " VALUES (:name, :uniqueId, :groupId, :disabled, :lastUpdate, :attributes)";
+
+    private long insert(Device device) throws Exception {
+        return QueryBuilder.create(config, dataSource, objectMapper, INSERT, true)
+                .setObject(device, COLUMNS)
+                .executeUpdate();
+    }
+
+    private long count(String table) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet resultSet = connection.createStatement().executeQuery("SELECT COUNT(*) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Simulates a driver that does not return generated keys for batched statements.
+     */
+    private DataSource createDataSourceWithoutBatchKeys() throws Exception {
+        DataSource result = mock(DataSource.class);
+        when(result.getConnection()).thenAnswer(connectionInvocation -> {
+            Connection connection = spy(dataSource.getConnection());
+            doAnswer(statementInvocation -> {
+                PreparedStatement statement = spy((PreparedStatement) statementInvocation.callRealMethod());
+                AtomicBoolean batch = new AtomicBoolean();
+                doAnswer(invocation -> {
+                    batch.set(true);
+                    return invocation.callRealMethod();
+                }).when(statement).executeBatch();
+                doAnswer(invocation -> batch.get()
+                        ? connection.createStatement().executeQuery("SELECT 1 WHERE FALSE")
+                        : invocation.callRealMethod()).when(statement).getGeneratedKeys();
+                return statement;
+            }).when(connection).prepareStatement(anyString(), anyInt());
+            return connection;
+        });
+        return result;
+    }
+
+    private static Device createDevice(String name, boolean disabled) {
+        Device device = new Device();
+        device.setName(name);
+        device.setUniqueId(name + "-id");
+        device.setDisabled(disabled);
+        device.setLastUpdate(new Date(1700000000000L));
+        device.setAttributes(Map.of("speedLimit", 50.0));
+        return device;
+    }
+
+    @Test
+    public void testMapping() throws Exception {
+        long id = insert(createDevice("first", true));
+        insert(createDevice("second", false));
+
+        for (int i = 0; i < 2; i++) {
+            List<Device> devices = QueryBuilder.create(config, dataSource, objectMapper,
+                    "SELECT * FROM devices ORDER BY id").executeQuery(Device.class);
+            assertEquals(2, devices.size());
+            Device device = devices.get(0);
+            assertEquals(id, device.getId());
+            assertEquals("first", device.getName());
+            assertEquals("first-id", device.getUniqueId());
+            assertEquals(0, device.getGroupId());
+            assertTrue(device.getDisabled());
+            assertEquals(new Date(1700000000000L), device.getLastUpdate());
+            assertEquals(50.0, device.getDouble("speedLimit"));
+            assertEquals("second", devices.get(1).getName());
+        }
+
+        List<Group> groups = QueryBuilder.create(config, dataSource, objectMapper,
+                "SELECT id, name FROM devices ORDER BY id").executeQuery(Group.class);
+        assertEquals("first", groups.get(0).getName());
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, INSERT, true);
+        for (int i = 0; i < 3; i++) {
+            builder.setObject(createDevice("device" + i, false), COLUMNS).addBatch();
+        }
+        long[] ids = builder.executeBatch();
+
+        List<Device> devices = QueryBuilder.create(config, dataSource, objectMapper,
+                "SELECT * FROM devices ORDER BY id").executeQuery(Device.class);
+        assertEquals(3, ids.length);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(devices.get(i).getId(), ids[i]);
+            assertEquals("device" + i, devices.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testBatchWithoutKeys() throws Exception {
+        QueryBuilder builder = QueryBuilder.create(
+                config, createDataSourceWithoutBatchKeys(), objectMapper, INSERT, true);
+        for (int i = 0; i < 3; i++) {
+            builder.setObject(createDevice("device" + i, false), COLUMNS).addBatch();
+        }
+        assertNull(builder.executeBatch());
+        assertEquals(0, count("devices"));
+    }
+
+    @Test
+    public void testStorageBatchFallback() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute(
+                    "CREATE TABLE tc_devices (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(128),"
+                            + " uniqueId VARCHAR(128))");
+        }
+        Storage storage = new DatabaseStorage(config, createDataSourceWithoutBatchKeys(), objectMapper);
+        List<Device> devices = List.of(createDevice("first", false), createDevice("second", false));
+
+        for (int i = 0; i < 2; i++) {
+            long[] ids = storage.addObjects(devices, new Request(new Columns.Include("name", "uniqueId")));
+            assertEquals(2, ids.length);
+            assertTrue(ids[0] > 0);
+            assertEquals(ids[0] + 1, ids[1]);
+        }
+        assertEquals(4, count("tc_devices"));
+    }
+
+    @Test
+    public void testMappingLocale() throws Exception {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            insert(createDevice("first", true));
+            List<Device> devices = QueryBuilder.create(config, dataSource, objectMapper,
+                    "SELECT ID, NAME, DISABLED FROM devices WHERE uniqueId = :UNIQUEID")
+                    .setString("uniqueId", "first-id")
+                    .executeQuery(Device.class);
+            assertEquals(1, devices.size());
+            assertEquals("first", devices.get(0).getName());
+            assertTrue(devices.get(0).getDisabled());
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void testConcurrentMapping() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            insert(createDevice("device" + i, i % 2 == 0));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Device>>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(() -> QueryBuilder.create(config, dataSource, objectMapper,
+                        "SELECT * FROM devices ORDER BY id").executeQuery(Device.class)));
+            }
+            for (Future<List<Device>> result : results) {
+                List<Device> devices = result.get(10, TimeUnit.SECONDS);
+                assertEquals(10, devices.size());
+                for (int i = 0; i < 10; i++) {
+                    assertEquals("device" + i, devices.get(i).getName());
+                    assertEquals(i % 2 == 0, devices.get(i).getDisabled());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}